@@ -0,0 +1,211 @@
+package org.example.testapp;
+
+import org.example.testapp.attendance.AttendanceReport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs attendance analyses in the background, one at a time.
+ *
+ * The configuration is captured on the calling thread; scoring happens on the background
+ * executor. Finished reports are handed to the listener on the UI executor in chunks, so
+ * a results view can fill progressively. Chunks are sent at most every 50 ms and only
+ * once the previous one was delivered, so a busy UI thread gets fewer, larger chunks
+ * instead of a backlog.
+ * Starting while an analysis is running joins it instead of starting another one.
+ */
+public class AnalysisRunner {
+  private static final long CHUNK_INTERVAL_NANOS = 50_000_000L;
+
+  private final AttendanceService service;
+  private final Executor executor;
+  private final Executor uiExecutor;
+  private final Listener listener;
+  private Job current; // Confined to the UI thread
+
+  /**
+   * Receives an analysis' progress, always on the UI executor. Nothing is delivered for a
+   * job after it was cancelled.
+   */
+  public interface Listener {
+    default void started(int total) {
+    }
+
+    /**
+     * @param reports the reports finished since the last chunk, in student order
+     * @param done    how many students have been scored so far
+     */
+    default void chunk(List<AttendanceReport> reports, int done, int total) {
+    }
+
+    default void finished(AttendanceService.AttendanceAnalysisResult result) {
+    }
+
+    default void cancelled() {
+    }
+
+    default void failed(Throwable error) {
+    }
+  }
+
+  /**
+   * @param executor   runs the scoring
+   * @param uiExecutor runs listener callbacks, e.g. {@code Platform::runLater}
+   */
+  public AnalysisRunner(AttendanceService service, Executor executor, Executor uiExecutor, Listener listener) {
+    this.service = service;
+    this.executor = executor;
+    this.uiExecutor = uiExecutor;
+    this.listener = listener;
+  }
+
+  /**
+   * Start analyzing the service's current configuration, or return the running job if
+   * there is one. Call on the UI thread.
+   */
+  public Job start() {
+    if (current != null) {
+      return current;
+    }
+    AttendanceService.Analysis analysis = service.prepareAnalysis();
+    Job job = new Job(analysis);
+    current = job;
+    listener.started(analysis.size());
+    executor.execute(job::run);
+    return job;
+  }
+
+  /**
+   * The running job, or null. Call on the UI thread.
+   */
+  public Job getCurrent() {
+    return current;
+  }
+
+  public boolean isRunning() {
+    return current != null;
+  }
+
+  /**
+   * Cancel the running job, if any. Call on the UI thread.
+   */
+  public void cancel() {
+    if (current != null) {
+      current.cancel();
+    }
+  }
+
+  public class Job {
+    private final AttendanceService.Analysis analysis;
+    private final CompletableFuture<AttendanceService.AttendanceAnalysisResult> result = new CompletableFuture<>();
+    private final List<AttendanceReport> pending = new ArrayList<>(); // Scored, not yet sent; guarded by this
+    private volatile boolean cancelled;
+    private boolean chunkInFlight; // Guarded by this
+    private long lastChunkNanos; // When the last chunk was sent; guarded by this
+    private int delivered; // Reports handed to the listener; UI executor only
+
+    private Job(AttendanceService.Analysis analysis) {
+      this.analysis = analysis;
+    }
+
+    /**
+     * Completes with the result after the listener was told, exceptionally on failure, or
+     * is cancelled.
+     */
+    public CompletableFuture<AttendanceService.AttendanceAnalysisResult> getResult() {
+      return result;
+    }
+
+    /**
+     * Stop scoring. Reports not yet delivered are dropped and the last result is kept.
+     * Call on the UI thread.
+     */
+    public void cancel() {
+      if (cancelled || result.isDone()) {
+        return;
+      }
+      cancelled = true;
+      if (current == this) {
+        current = null;
+      }
+      result.cancel(false);
+      listener.cancelled();
+    }
+
+    public boolean isCancelled() {
+      return cancelled;
+    }
+
+    private void run() {
+      int total = analysis.size();
+      List<AttendanceReport> reports = new ArrayList<>(total);
+      try {
+        for (int i = 0; i < total; i++) {
+          if (cancelled) {
+            return;
+          }
+          AttendanceReport report = analysis.score(i);
+          reports.add(report);
+          offer(report, total);
+        }
+        AttendanceService.AttendanceAnalysisResult done = analysis.complete(reports);
+        uiExecutor.execute(() -> {
+          if (cancelled) {
+            return;
+          }
+          flush(total);
+          current = null;
+          analysis.publish(done);
+          listener.finished(done);
+          result.complete(done);
+        });
+      } catch (RuntimeException e) {
+        uiExecutor.execute(() -> {
+          if (cancelled) {
+            return;
+          }
+          current = null;
+          listener.failed(e);
+          result.completeExceptionally(e);
+        });
+      }
+    }
+
+    /**
+     * Queue a finished report, sending a chunk unless one was sent very recently or is
+     * still on its way. Whatever is left is sent when the analysis finishes.
+     */
+    private void offer(AttendanceReport report, int total) {
+      synchronized (this) {
+        pending.add(report);
+        long now = System.nanoTime();
+        if (chunkInFlight || now - lastChunkNanos < CHUNK_INTERVAL_NANOS) {
+          return;
+        }
+        chunkInFlight = true;
+        lastChunkNanos = now;
+      }
+      uiExecutor.execute(() -> flush(total));
+    }
+
+    /**
+     * Deliver the reports queued so far. Runs on the UI executor.
+     */
+    private void flush(int total) {
+      List<AttendanceReport> chunk;
+      synchronized (this) {
+        chunk = new ArrayList<>(pending);
+        pending.clear();
+        chunkInFlight = false;
+      }
+      if (cancelled || chunk.isEmpty()) {
+        return;
+      }
+      delivered += chunk.size();
+      listener.chunk(chunk, delivered, total);
+    }
+  }
+}
@@ -0,0 +1,134 @@
+package org.example.testapp;
+
+import javafx.animation.Animation;
+import javafx.animation.AnimationTimer;
+import javafx.beans.property.ReadOnlyProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.Node;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Plays the application's animations, keeping them from costing frames.
+ *
+ * Animations of a node are pooled on the node by kind, so replaying one restarts the
+ * same transition instead of creating and stacking another. At most eight animations
+ * run at once; beyond that they jump straight to their end state. Work on many items,
+ * such as every seat a bulk action touched, should be one {@link AnimationUtils#group}
+ * animation rather than one per item.
+ * While animations run, the frame time is measured; if it averages over budget, running
+ * animations are finished at once and new ones skip to their end for a few seconds.
+ * Use on the FX application thread.
+ */
+public final class AnimationScheduler {
+  private static final AnimationScheduler INSTANCE = new AnimationScheduler();
+
+  private static final int MAX_RUNNING = 8;
+  private static final long FRAME_BUDGET_NANOS = 25_000_000L; // 40 fps, with room below 60
+  private static final long COOL_DOWN_NANOS = 5_000_000_000L; // Animations stay off this long
+  private static final int MIN_FRAMES = 3; // Frames measured before judging
+  private static final double SMOOTHING = 0.3;
+  private static final String POOL_KEY = "animation-scheduler:";
+
+  private final Set<Animation> running = Collections.newSetFromMap(new IdentityHashMap<>());
+  private final ChangeListener<Animation.Status> statusListener = this::statusChanged;
+  private final AnimationTimer monitor;
+  private long lastFrame;
+  private double averageFrame;
+  private int frames;
+  private boolean disabled;
+  private long enableAt; // When animations come back on, if disabled
+
+  private AnimationScheduler() {
+    monitor = new AnimationTimer() {
+      @Override
+      public void handle(long now) {
+        measure(now);
+      }
+    };
+  }
+
+  public static AnimationScheduler getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Whether animations currently play, rather than jump to their end.
+   */
+  public boolean isEnabled() {
+    if (disabled && System.nanoTime() - enableAt >= 0) {
+      disabled = false;
+    }
+    return !disabled;
+  }
+
+  /**
+   * Play the node's animation of this kind, created by {@code factory} the first time and
+   * reused after that. Playing it while it runs restarts it.
+   */
+  public void play(Node node, String kind, Function<Node, ? extends Animation> factory) {
+    String key = POOL_KEY + kind;
+    Animation animation = (Animation) node.getProperties().get(key);
+    if (animation == null) {
+      animation = factory.apply(node);
+      node.getProperties().put(key, animation);
+    }
+    play(animation);
+  }
+
+  /**
+   * Play an animation from the start, or finish it at once if animations are off or too
+   * many are running.
+   */
+  public void play(Animation animation) {
+    animation.stop(); // Restart rather than run twice
+    if (!isEnabled() || running.size() >= MAX_RUNNING) {
+      animation.playFrom(animation.getTotalDuration());
+      return;
+    }
+    running.add(animation);
+    animation.statusProperty().addListener(statusListener);
+    animation.playFromStart();
+    if (running.size() == 1) {
+      lastFrame = 0;
+      frames = 0;
+      monitor.start();
+    }
+  }
+
+  private void statusChanged(ObservableValue<? extends Animation.Status> status, Animation.Status oldStatus,
+      Animation.Status newStatus) {
+    if (newStatus != Animation.Status.STOPPED) {
+      return;
+    }
+    status.removeListener(statusListener);
+    running.remove((Animation) ((ReadOnlyProperty<?>) status).getBean());
+    if (running.isEmpty()) {
+      monitor.stop();
+    }
+  }
+
+  /**
+   * Track the frame time while animations run and switch them off when it is over budget.
+   */
+  private void measure(long now) {
+    if (lastFrame != 0) {
+      long frame = now - lastFrame;
+      averageFrame = frames == 0 ? frame : averageFrame + SMOOTHING * (frame - averageFrame);
+      frames++;
+      if (frames >= MIN_FRAMES && averageFrame > FRAME_BUDGET_NANOS) {
+        disabled = true;
+        enableAt = System.nanoTime() + COOL_DOWN_NANOS;
+        for (Animation animation : new ArrayList<>(running)) {
+          animation.jumpTo(animation.getTotalDuration());
+        }
+      }
+    }
+    lastFrame = now;
+  }
+}
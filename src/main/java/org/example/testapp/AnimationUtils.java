@@ -4,8 +4,12 @@ import javafx.animation.*;
 import javafx.scene.Node;
 import javafx.util.Duration;
 
+import java.util.function.DoubleConsumer;
+
 /**
  * Utility class for creating smooth animations throughout the application.
+ * Play them through {@link AnimationScheduler}, which pools them and keeps them within
+ * the frame budget.
  */
 public class AnimationUtils {
 
@@ -133,4 +137,21 @@ public class AnimationUtils {
     spin.setToAngle(360);
     return spin;
   }
+
+  /**
+   * Create one animation driving many items, e.g. every seat a bulk action touched:
+   * {@code frame} is called with the progress, from 0 to 1, once per frame.
+   */
+  public static Transition group(Duration duration, DoubleConsumer frame) {
+    return new Transition() {
+      {
+        setCycleDuration(duration);
+      }
+
+      @Override
+      protected void interpolate(double progress) {
+        frame.accept(progress);
+      }
+    };
+  }
 }
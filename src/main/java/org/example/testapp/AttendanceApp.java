@@ -17,9 +17,14 @@ import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import org.example.testapp.audit.AuditEntry;
 import org.example.testapp.entities.Classroom;
 
 import java.io.File;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Main JavaFX application for the Smart Attendance System.
@@ -27,6 +32,7 @@ import java.io.File;
  * analyzing attendance.
  */
 public class AttendanceApp extends Application {
+  private static final int AUDIT_PAGE_SIZE = 200;
   private ClassroomController classroomController;
   private Stage primaryStage;
   private Scene scene;
@@ -61,6 +67,9 @@ public class AttendanceApp extends Application {
   private Label auditTitleLabel;
   private Button auditRefreshButton;
   private Button auditClearButton;
+  private Button auditLoadOlderButton;
+  private DatePicker auditFromPicker;
+  private DatePicker auditToPicker;
 
 
 
@@ -94,6 +103,7 @@ public class AttendanceApp extends Application {
 
     // Results tab - pass classroom controller for analysis results
     ResultsController resultsController = new ResultsController(classroomController);
+    classroomController.setResultsController(resultsController);
     resultsTab = new Tab("Attendance Results", resultsController.getView());
     resultsTab.setClosable(false);
     contentTabs.getTabs().add(resultsTab);
@@ -136,6 +146,8 @@ public class AttendanceApp extends Application {
     System.out.println("[DEBUG] Setting up stats callback...");
     classroomController.setOnAnalysisComplete(() -> {
       System.out.println("[DEBUG] Analysis complete callback triggered!");
+      statsController.recordAnalysis(classroomController.getAttendanceService().getLastResult(),
+          classroomController.getSessionId());
       statsController.updateStats(classroomController.getClassroom(), classroomController.getAttendanceService());
     });
 
@@ -149,11 +161,6 @@ public class AttendanceApp extends Application {
     auditTab.setClosable(false);
     contentTabs.getTabs().add(auditTab);
 
-    // Set up analysis callback to refresh results
-    classroomController.setOnAnalysisComplete(() -> {
-      // Results tab will be updated when clicked
-    });
-
     mainLayout.setCenter(contentTabs);
 
     // Add tab switching animations
@@ -311,6 +318,12 @@ public class AttendanceApp extends Application {
       auditRefreshButton.setText(lm.get("refresh"));
     if (auditClearButton != null)
       auditClearButton.setText(lm.get("clear_log"));
+    if (auditLoadOlderButton != null)
+      auditLoadOlderButton.setText(lm.get(isAuditRangeSelected() ? "load_more" : "load_older"));
+    if (auditFromPicker != null)
+      auditFromPicker.setPromptText(lm.get("audit_from"));
+    if (auditToPicker != null)
+      auditToPicker.setPromptText(lm.get("audit_to"));
   }
 
   private void saveSession() {
@@ -395,32 +408,32 @@ public class AttendanceApp extends Application {
     
     Label entryCountLabel = new Label("0 entries");
     entryCountLabel.getStyleClass().add("label-secondary");
-    
+
     headerBox.getChildren().addAll(iconCircle, iconLabel, auditTitleLabel, spacer, entryCountLabel);
 
     // Audit Log Table
-    TableView<AuditLogEntry> auditTable = new TableView<>();
+    TableView<AuditEntry> auditTable = new TableView<>();
     auditTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
 
-    TableColumn<AuditLogEntry, String> timestampCol = new TableColumn<>("Date & Time");
+    TableColumn<AuditEntry, String> timestampCol = new TableColumn<>("Date & Time");
     timestampCol.setCellValueFactory(cellData ->
         new javafx.beans.property.SimpleStringProperty(cellData.getValue().getTimestamp()));
     timestampCol.setMinWidth(160);
     timestampCol.setPrefWidth(180);
 
-    TableColumn<AuditLogEntry, String> actionCol = new TableColumn<>("Action");
+    TableColumn<AuditEntry, String> actionCol = new TableColumn<>("Action");
     actionCol.setCellValueFactory(cellData ->
         new javafx.beans.property.SimpleStringProperty(cellData.getValue().getAction()));
     actionCol.setMinWidth(150);
 
-    TableColumn<AuditLogEntry, String> detailsCol = new TableColumn<>("Details");
+    TableColumn<AuditEntry, String> detailsCol = new TableColumn<>("Details");
     detailsCol.setCellValueFactory(cellData ->
         new javafx.beans.property.SimpleStringProperty(cellData.getValue().getDetails()));
     detailsCol.setMinWidth(350);
-    
+
     // Enable text wrapping in details column
     detailsCol.setCellFactory(tc -> {
-      TableCell<AuditLogEntry, String> cell = new TableCell<>();
+      TableCell<AuditEntry, String> cell = new TableCell<>();
       Label label = new Label();
       label.setWrapText(true);
       label.setMaxWidth(Double.MAX_VALUE);
@@ -433,11 +446,34 @@ public class AttendanceApp extends Application {
     auditTable.getColumns().addAll(timestampCol, actionCol, detailsCol);
     auditTable.setPlaceholder(new Label(LanguageManager.getInstance().get("no_data")));
 
-    // Load audit log data
-    ObservableList<AuditLogEntry> auditData = FXCollections.observableArrayList();
-    loadAuditLogData(auditData);
+    // Action filter, answered from the audit index
+    ComboBox<String> actionFilter = new ComboBox<>();
+    actionFilter.setPrefWidth(200);
+
+    // Optional date range, read oldest first from the audit index
+    auditFromPicker = new DatePicker();
+    auditFromPicker.setPromptText(LanguageManager.getInstance().get("audit_from"));
+    auditFromPicker.setPrefWidth(140);
+    auditToPicker = new DatePicker();
+    auditToPicker.setPromptText(LanguageManager.getInstance().get("audit_to"));
+    auditToPicker.setPrefWidth(140);
+
+    // Load the first page of audit log data; further pages are fetched on demand
+    ObservableList<AuditEntry> auditData = FXCollections.observableArrayList();
     auditTable.setItems(auditData);
-    entryCountLabel.setText(auditData.size() + " entries");
+    Runnable reloadPage = () -> {
+      auditData.setAll(readAuditPage(actionFilter, null));
+      auditLoadOlderButton.setText(LanguageManager.getInstance().get(
+          isAuditRangeSelected() ? "load_more" : "load_older"));
+    };
+    Runnable reload = () -> {
+      refreshActionFilter(actionFilter);
+      reloadPage.run();
+      entryCountLabel.setText(AuditLogger.entryCount() + " entries");
+    };
+    actionFilter.setOnAction(e -> reloadPage.run());
+    auditFromPicker.setOnAction(e -> reloadPage.run());
+    auditToPicker.setOnAction(e -> reloadPage.run());
 
     VBox.setVgrow(auditTable, javafx.scene.layout.Priority.ALWAYS);
 
@@ -447,12 +483,18 @@ public class AttendanceApp extends Application {
 
     auditRefreshButton = new Button(LanguageManager.getInstance().get("refresh"));
     auditRefreshButton.getStyleClass().add("button-success");
-    auditRefreshButton.setOnAction(e -> {
-      auditData.clear();
-      loadAuditLogData(auditData);
-      auditTable.setItems(auditData);
-      entryCountLabel.setText(auditData.size() + " entries");
+    auditRefreshButton.setOnAction(e -> reload.run());
+
+    auditLoadOlderButton = new Button(LanguageManager.getInstance().get("load_older"));
+    auditLoadOlderButton.getStyleClass().add("button-secondary");
+    auditLoadOlderButton.setOnAction(e -> {
+      // The last row is the cursor either way: the oldest one shown, or the newest in a range
+      AuditEntry last = auditData.isEmpty() ? null : auditData.get(auditData.size() - 1);
+      if (last != null) {
+        auditData.addAll(readAuditPage(actionFilter, last));
+      }
     });
+    reload.run();
 
     auditClearButton = new Button(LanguageManager.getInstance().get("clear_log"));
     auditClearButton.getStyleClass().add("button-danger");
@@ -464,68 +506,53 @@ public class AttendanceApp extends Application {
       if (confirm.showAndWait().get() == ButtonType.OK) {
         AuditLogger.clearAuditLog();
         auditData.clear();
-        auditTable.setItems(auditData);
+        refreshActionFilter(actionFilter);
         entryCountLabel.setText("0 entries");
       }
     });
 
-    buttonBox.getChildren().addAll(auditRefreshButton, auditClearButton);
+    buttonBox.getChildren().addAll(actionFilter, auditFromPicker, auditToPicker, auditRefreshButton,
+        auditLoadOlderButton, auditClearButton);
 
     mainLayout.getChildren().addAll(headerBox, auditTable, buttonBox);
-    
+
     ScrollPane scrollPane = new ScrollPane(mainLayout);
     scrollPane.setFitToWidth(true);
     return scrollPane;
   }
 
-  private void loadAuditLogData(ObservableList<AuditLogEntry> data) {
-    String logContent = AuditLogger.readAuditLog();
-    if (logContent == null || logContent.isEmpty() || logContent.contains("No audit log")) {
-      return;
-    }
-    
-    String[] lines = logContent.split("\n");
-    for (String line : lines) {
-      if (line.trim().isEmpty()) continue;
-      // Parse format: [yyyy-MM-dd HH:mm:ss] ACTION: details
-      if (line.startsWith("[") && line.contains("] ")) {
-        int closeIdx = line.indexOf("]");
-        String timestamp = line.substring(1, closeIdx);
-        
-        String rest = line.substring(closeIdx + 2); // Skip "] "
-        int colonIdx = rest.indexOf(":");
-        if (colonIdx > 0) {
-          String action = rest.substring(0, colonIdx);
-          String details = rest.substring(colonIdx + 1).trim();
-          data.add(new AuditLogEntry(timestamp, action, details));
-        }
-      }
-    }
+  private void refreshActionFilter(ComboBox<String> actionFilter) {
+    String all = LanguageManager.getInstance().get("all");
+    String selected = actionFilter.getValue();
+    List<String> items = new ArrayList<>();
+    items.add(all);
+    items.addAll(AuditLogger.knownActions());
+    actionFilter.getItems().setAll(items);
+    actionFilter.setValue(selected != null && items.contains(selected) ? selected : all);
   }
 
-  // Helper class for audit log entries
-  public static class AuditLogEntry {
-    private final String timestamp;
-    private final String action;
-    private final String details;
-
-    public AuditLogEntry(String timestamp, String action, String details) {
-      this.timestamp = timestamp;
-      this.action = action;
-      this.details = details;
-    }
-
-    public String getTimestamp() {
-      return timestamp;
-    }
+  private boolean isAuditRangeSelected() {
+    return auditFromPicker != null && (auditFromPicker.getValue() != null || auditToPicker.getValue() != null);
+  }
 
-    public String getAction() {
-      return action;
+  /**
+   * One page of the audit log: the newest entries before {@code cursor}, or, with a date
+   * range picked, the entries of the range after {@code cursor}.
+   */
+  private List<AuditEntry> readAuditPage(ComboBox<String> actionFilter, AuditEntry cursor) {
+    String action = selectedAction(actionFilter);
+    if (!isAuditRangeSelected()) {
+      return AuditLogger.readLatest(action, cursor, AUDIT_PAGE_SIZE);
     }
+    LocalDateTime from = auditFromPicker.getValue() != null ? auditFromPicker.getValue().atStartOfDay() : null;
+    LocalDateTime to = auditToPicker.getValue() != null ? auditToPicker.getValue().atTime(LocalTime.MAX) : null;
+    return AuditLogger.readRange(action, from, to, cursor, AUDIT_PAGE_SIZE);
+  }
 
-    public String getDetails() {
-      return details;
-    }
+  private String selectedAction(ComboBox<String> actionFilter) {
+    // The first item is always the localized "All" entry
+    String value = actionFilter.getValue();
+    return value == null || actionFilter.getItems().indexOf(value) == 0 ? null : value;
   }
 
   private void showAboutDialog() {
@@ -624,7 +651,8 @@ public class AttendanceApp extends Application {
     tabPane.getSelectionModel().selectedItemProperty().addListener((obs, oldTab, newTab) -> {
       if (newTab != null && newTab.getContent() != null) {
         // Fade in animation when tab is selected
-        AnimationUtils.fadeIn(newTab.getContent(), javafx.util.Duration.millis(300)).play();
+        AnimationScheduler.getInstance().play(newTab.getContent(), "fadeIn",
+            node -> AnimationUtils.fadeIn(node, javafx.util.Duration.millis(300)));
       }
     });
   }
@@ -641,7 +669,8 @@ public class AttendanceApp extends Application {
     // Animate dialog appearance
     alert.setOnShown(e -> {
       if (alert.getDialogPane() != null) {
-        AnimationUtils.fadeScaleIn(alert.getDialogPane(), javafx.util.Duration.millis(300)).play();
+        AnimationScheduler.getInstance().play(
+            AnimationUtils.fadeScaleIn(alert.getDialogPane(), javafx.util.Duration.millis(300)));
       }
     });
     
@@ -660,7 +689,8 @@ public class AttendanceApp extends Application {
     // Animate dialog appearance
     alert.setOnShown(e -> {
       if (alert.getDialogPane() != null) {
-        AnimationUtils.fadeScaleIn(alert.getDialogPane(), javafx.util.Duration.millis(300)).play();
+        AnimationScheduler.getInstance().play(
+            AnimationUtils.fadeScaleIn(alert.getDialogPane(), javafx.util.Duration.millis(300)));
       }
     });
     
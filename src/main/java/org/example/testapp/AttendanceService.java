@@ -5,12 +5,14 @@ import org.example.testapp.attendance.AttendanceReport;
 import org.example.testapp.entities.Claim;
 import org.example.testapp.entities.Classroom;
 import org.example.testapp.entities.LocatedStudent;
+import org.example.testapp.entities.Position;
 import org.example.testapp.strategies.ConsensusScoreStrategy;
 import org.example.testapp.strategies.NeighborVerificationStrategy;
 import org.example.testapp.strategies.SeatOccupancyStrategy;
 import org.example.testapp.strategies.VerificationStrategy;
 import org.example.testapp.verification.AttendanceConflict;
 import org.example.testapp.verification.ConflictDetector;
+import org.example.testapp.verification.SeatCollisionTable;
 
 import java.util.*;
 
@@ -19,50 +21,53 @@ import java.util.*;
  * Orchestrates the attendance verification workflow.
  */
 public class AttendanceService {
-  private AttendanceAggregator aggregator;
-  private ConflictDetector conflictDetector;
   private Classroom classroom;
+  private SeatCollisionTable seatCollisions;
   private Collection<LocatedStudent> locatedStudents;
-  private List<Claim> claims;
   private AttendanceAnalysisResult lastResult; // Store last analysis result
   private Map<String, AttendanceReport.AttendanceStatus> manualOverrides = new HashMap<>();
+  private final Map<String, Double> weights = new HashMap<>(); // Normalized, by strategy name
 
   public AttendanceService() {
-    // Initialize with default strategies and weights
-    List<VerificationStrategy> strategies = new ArrayList<>();
-    strategies.add(new NeighborVerificationStrategy());
-    strategies.add(new SeatOccupancyStrategy());
-    strategies.add(new ConsensusScoreStrategy());
-
-    Map<String, Double> weights = new HashMap<>();
+    // Initialize with default weights
     weights.put("NeighborVerification", 0.4);
     weights.put("SeatOccupancy", 0.35);
     weights.put("ConsensusScore", 0.25);
+  }
 
-    this.aggregator = new AttendanceAggregator(strategies, weights);
+  /**
+   * Create an aggregator with the current strategy weights, for callers scoring students
+   * on their own classroom. Each {@link Analysis} scores with one of its own.
+   */
+  public final AttendanceAggregator createAggregator() {
+    List<VerificationStrategy> strategies = new ArrayList<>();
+    strategies.add(new NeighborVerificationStrategy());
+    strategies.add(new SeatOccupancyStrategy());
+    strategies.add(new ConsensusScoreStrategy());
+    return new AttendanceAggregator(strategies, new HashMap<>(weights));
   }
 
   /**
    * Set the classroom for analysis.
    */
   public void setClassroom(Classroom classroom) {
-    this.classroom = classroom;
-    this.aggregator.setClassroom(classroom);
-    this.conflictDetector = new ConflictDetector(classroom);
+    setClassroom(classroom, null);
   }
 
   /**
-   * Set students participating in the analysis.
+   * Set the classroom for analysis along with the seat collisions recorded while it was
+   * filled, which are reported as conflicts.
    */
-  public void setLocatedStudents(Collection<LocatedStudent> locatedStudents) {
-    this.locatedStudents = locatedStudents;
+  public void setClassroom(Classroom classroom, SeatCollisionTable seatCollisions) {
+    this.classroom = classroom;
+    this.seatCollisions = seatCollisions;
   }
 
   /**
-   * Set claims about student locations.
+   * Set students participating in the analysis.
    */
-  public void setClaims(List<Claim> claims) {
-    this.claims = claims;
+  public void setLocatedStudents(Collection<LocatedStudent> locatedStudents) {
+    this.locatedStudents = locatedStudents;
   }
 
   /**
@@ -78,57 +83,33 @@ public class AttendanceService {
   public void setStrategyWeights(double neighborWeight, double occupancyWeight, double consensusWeight) {
     // Normalize weights
     double total = neighborWeight + occupancyWeight + consensusWeight;
-    Map<String, Double> weights = new HashMap<>();
     weights.put("NeighborVerification", neighborWeight / total);
     weights.put("SeatOccupancy", occupancyWeight / total);
     weights.put("ConsensusScore", consensusWeight / total);
-
-    // Recreate aggregator with new weights
-    List<VerificationStrategy> strategies = new ArrayList<>();
-    strategies.add(new NeighborVerificationStrategy());
-    strategies.add(new SeatOccupancyStrategy());
-    strategies.add(new ConsensusScoreStrategy());
-
-    this.aggregator = new AttendanceAggregator(strategies, weights);
-    if (classroom != null) {
-      aggregator.setClassroom(classroom);
-    }
   }
 
   /**
-   * Analyze attendance based on current configuration.
+   * Capture the current configuration so it can be analyzed on another thread while the
+   * classroom keeps changing. Call on the thread that edits the classroom; copying the
+   * students and their claims is linear and much cheaper than scoring them.
    */
-  public AttendanceAnalysisResult analyzeAttendance() {
+  public Analysis prepareAnalysis() {
     if (classroom == null || locatedStudents == null) {
       throw new IllegalStateException("Classroom and students must be set before analysis");
     }
+    return new Analysis();
+  }
 
-    // Score all students
-    List<AttendanceReport> reports = new ArrayList<>();
-    for (LocatedStudent student : locatedStudents) {
-      reports.add(aggregator.scoreStudent(student));
-    }
-
-    // Apply manual overrides if provided
-    if (!manualOverrides.isEmpty()) {
-      for (int i = 0; i < reports.size(); i++) {
-        AttendanceReport report = reports.get(i);
-        String name = report.getStudent().getName();
-        if (manualOverrides.containsKey(name)) {
-          AttendanceReport.AttendanceStatus override = manualOverrides.get(name);
-          reports.set(i, new AttendanceReport(report.getLocatedStudent(), override, 1.0,
-              "Manual override: " + override));
-        }
-      }
+  /**
+   * Apply a manual override, keyed by student name, to a computed report.
+   */
+  private static AttendanceReport override(AttendanceReport report,
+      Map<String, AttendanceReport.AttendanceStatus> overrides) {
+    AttendanceReport.AttendanceStatus override = overrides.get(report.getStudent().getName());
+    if (override == null) {
+      return report;
     }
-
-    // Detect conflicts
-    List<AttendanceConflict> conflicts = conflictDetector != null ? conflictDetector.detectAllConflicts()
-        : new ArrayList<>();
-
-    // Store result for later retrieval
-    lastResult = new AttendanceAnalysisResult(reports, conflicts);
-    return lastResult;
+    return new AttendanceReport(report.getLocatedStudent(), override, 1.0, "Manual override: " + override);
   }
 
   /**
@@ -138,6 +119,73 @@ public class AttendanceService {
     return lastResult;
   }
 
+  /**
+   * A snapshot of the classroom, students and overrides, scored one student at a time.
+   * Only reads its own copies, so it may run on any thread; not for concurrent use itself.
+   */
+  public class Analysis {
+    private final List<LocatedStudent> students = new ArrayList<>();
+    private final Map<String, AttendanceReport.AttendanceStatus> overrides = new HashMap<>(manualOverrides);
+    private final AttendanceAggregator snapshotAggregator = createAggregator();
+    private final ConflictDetector snapshotDetector;
+
+    private Analysis() {
+      Classroom snapshot = new Classroom(classroom.getRows(), classroom.getCols());
+      Map<LocatedStudent, LocatedStudent> copies = new IdentityHashMap<>();
+      for (LocatedStudent placed : classroom.allPlacements().values()) {
+        LocatedStudent copy = copy(placed);
+        snapshot.place(copy);
+        copies.put(placed, copy);
+      }
+      for (LocatedStudent student : locatedStudents) {
+        LocatedStudent copy = copies.get(student);
+        students.add(copy != null ? copy : copy(student));
+      }
+      snapshotAggregator.setClassroom(snapshot);
+      snapshotDetector = new ConflictDetector(snapshot, seatCollisions);
+    }
+
+    public int size() {
+      return students.size();
+    }
+
+    /**
+     * Score the student at this index, with manual overrides applied.
+     */
+    public AttendanceReport score(int index) {
+      return override(snapshotAggregator.scoreStudent(students.get(index)), overrides);
+    }
+
+    /**
+     * Detect conflicts and combine them with the reports into a result.
+     *
+     * @param reports the scores of every student, in index order
+     */
+    public AttendanceAnalysisResult complete(List<AttendanceReport> reports) {
+      return new AttendanceAnalysisResult(reports, snapshotDetector.detectAllConflicts());
+    }
+
+    /**
+     * Record a completed result as the service's last result. Call on the thread that
+     * prepared the analysis.
+     */
+    public void publish(AttendanceAnalysisResult result) {
+      lastResult = result;
+    }
+
+    private LocatedStudent copy(LocatedStudent student) {
+      LocatedStudent copy = new LocatedStudent(student.getStudent());
+      Position pos = student.getPosition();
+      if (pos != null) {
+        copy.setPosition(pos);
+      }
+      for (Claim claim : student.getClaims()) {
+        copy.addClaim(claim);
+      }
+      return copy;
+    }
+  }
+
   /**
    * Container for attendance analysis results.
    */
@@ -1,17 +1,26 @@
 package org.example.testapp;
 
+import org.example.testapp.audit.AuditEntry;
+import org.example.testapp.audit.AuditStore;
+import org.example.testapp.persistence.AttendanceRepository;
+import org.example.testapp.persistence.Persistence;
+
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 
 public class AuditLogger {
   private static final String LOG_DIR = System.getProperty("user.home") + "/.whoami";
   private static final String LOG_FILE = LOG_DIR + "/audit.log";
+  private static final String STORE_DIR = LOG_DIR + "/audit";
   private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+  private static AuditStore store;
 
   static {
     try {
@@ -19,38 +28,83 @@ public class AuditLogger {
       if (!Files.exists(logDir)) {
         Files.createDirectories(logDir);
       }
+      store = AuditStore.open(Paths.get(STORE_DIR), Paths.get(LOG_FILE));
     } catch (IOException e) {
-      System.err.println("Failed to create audit log directory: " + e.getMessage());
+      System.err.println("Failed to open audit log: " + e.getMessage());
     }
   }
 
   public static void log(String action, String details) {
+    if (store == null) {
+      return;
+    }
     try {
       String timestamp = LocalDateTime.now().format(FORMATTER);
-      String logEntry = String.format("[%s] %s: %s", timestamp, action, details);
-      Files.write(Paths.get(LOG_FILE), (logEntry + "\n").getBytes(),
-          StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+      // Entries are line-delimited; keep multi-line details on one line
+      String line = details.replace('\n', ' ').replace('\r', ' ');
+      store.append(timestamp, action, line);
+      AttendanceRepository repository = Persistence.getRepository();
+      if (repository != null) {
+        repository.appendAudit(timestamp, action, line);
+      }
     } catch (IOException e) {
       System.err.println("Failed to write audit log: " + e.getMessage());
     }
   }
 
-  public static String readAuditLog() {
+  /**
+   * Read one page of the newest entries, newest first.
+   *
+   * @param action optional action filter (null for all actions)
+   * @param before the oldest entry of the previous page, or null for the first page
+   */
+  public static List<AuditEntry> readLatest(String action, AuditEntry before, int limit) {
+    if (store == null) {
+      return Collections.emptyList();
+    }
+    try {
+      return store.readLatest(action, before, limit);
+    } catch (IOException e) {
+      System.err.println("Error reading audit log: " + e.getMessage());
+      return Collections.emptyList();
+    }
+  }
+
+  /**
+   * Read one page of entries within a time range, oldest first.
+   *
+   * @param action optional action filter (null for all actions)
+   * @param from   inclusive lower bound (null for unbounded)
+   * @param to     inclusive upper bound (null for unbounded)
+   * @param after  the newest entry of the previous page, or null for the first page
+   */
+  public static List<AuditEntry> readRange(String action, LocalDateTime from, LocalDateTime to, AuditEntry after,
+      int limit) {
+    if (store == null) {
+      return Collections.emptyList();
+    }
     try {
-      return Files.exists(Paths.get(LOG_FILE))
-          ? Files.readString(Paths.get(LOG_FILE))
-          : "No audit log entries yet.";
+      return store.readRange(action, from, to, after, limit);
     } catch (IOException e) {
-      return "Error reading audit log: " + e.getMessage();
+      System.err.println("Error reading audit log: " + e.getMessage());
+      return Collections.emptyList();
     }
   }
 
+  public static Set<String> knownActions() {
+    return store != null ? store.knownActions() : Collections.emptySet();
+  }
+
+  public static long entryCount() {
+    return store != null ? store.entryCount() : 0;
+  }
+
   public static void clearAuditLog() {
+    if (store == null) {
+      return;
+    }
     try {
-      Path logPath = Paths.get(LOG_FILE);
-      if (Files.exists(logPath)) {
-        Files.delete(logPath);
-      }
+      store.clear();
     } catch (IOException e) {
       System.err.println("Failed to clear audit log: " + e.getMessage());
     }
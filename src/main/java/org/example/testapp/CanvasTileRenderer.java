@@ -0,0 +1,57 @@
+package org.example.testapp;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+/**
+ * Renders image tiles by painting them on a scratch canvas, for {@link TiledImageWriter}.
+ *
+ * The canvas and the snapshot image are reused from tile to tile, and each snapshot is
+ * copied into the writer's raster with one {@code getPixels} call rather than pixel by
+ * pixel. Must be used on the FX application thread.
+ */
+public class CanvasTileRenderer implements TiledImageWriter.TileRenderer {
+  private final Canvas canvas = new Canvas();
+  private final SnapshotParameters parameters = new SnapshotParameters();
+  private final Painter painter;
+  private WritableImage image;
+
+  /**
+   * Paints part of the image.
+   */
+  public interface Painter {
+    /**
+     * Paint the area at ({@code x}, {@code y}) in image pixels. The context is already
+     * translated, so image coordinates can be used as they are.
+     */
+    void paint(GraphicsContext gc, double x, double y, double width, double height);
+  }
+
+  public CanvasTileRenderer(Painter painter) {
+    this.painter = painter;
+    parameters.setFill(Color.WHITE);
+  }
+
+  @Override
+  public void render(int x, int y, int width, int height, int[] argb, int offset, int scanlineStride) {
+    canvas.setWidth(width);
+    canvas.setHeight(height);
+    GraphicsContext gc = canvas.getGraphicsContext2D();
+    gc.clearRect(0, 0, width, height);
+    gc.save();
+    gc.translate(-x, -y);
+    painter.paint(gc, x, y, width, height);
+    gc.restore();
+
+    if (image == null || image.getWidth() != width || image.getHeight() != height) {
+      image = new WritableImage(width, height);
+    }
+    canvas.snapshot(parameters, image);
+    image.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), argb, offset,
+        scanlineStride);
+  }
+}
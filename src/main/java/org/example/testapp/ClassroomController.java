@@ -1,18 +1,22 @@
 package org.example.testapp;
 
-import com.google.api.core.ApiFuture;
-import com.google.cloud.firestore.CollectionReference;
-import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.QueryDocumentSnapshot;
-import com.google.cloud.firestore.QuerySnapshot;
-import com.google.cloud.firestore.WriteBatch;
 import org.example.testapp.attendance.AttendanceReport;
 import org.example.testapp.entities.*;
+import org.example.testapp.registration.CachingRegistrationSource;
+import org.example.testapp.registration.FirestoreRegistrationSource;
+import org.example.testapp.registration.ImportResult;
+import org.example.testapp.registration.IngestPipeline;
+import org.example.testapp.registration.LanRegistrationServer;
+import org.example.testapp.registration.LiveRegistrationIngest;
+import org.example.testapp.registration.RegistrationCache;
+import org.example.testapp.registration.RegistrationImporter;
+import org.example.testapp.registration.RegistrationSource;
+import org.example.testapp.verification.ClaimValidator;
+import org.example.testapp.verification.SeatCollisionTable;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
-import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.*;
-import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
@@ -24,23 +28,42 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Controller for the classroom view.
  * Manages classroom layout, student placement, and claim recording.
  */
 public class ClassroomController {
+  // Firestore round trips and registration parsing run here, never on the FX thread
+  private static final ExecutorService BACKGROUND = Executors.newFixedThreadPool(
+      Math.max(2, Runtime.getRuntime().availableProcessors()), r -> {
+        Thread thread = new Thread(r, "registration-io");
+        thread.setDaemon(true);
+        return thread;
+      });
+
   private Classroom classroom;
   private Map<Student, Button> studentButtons;
   private ComboBox<Integer> rowsCombo;
   private ComboBox<Integer> colsCombo;
-  private ComboBox<String> claimerCombo;
-  private ComboBox<String> targetCombo;
+  private final RosterIndex roster = new RosterIndex(); // Behind the claim pickers
+  private RosterPicker claimerPicker;
+  private RosterPicker targetPicker;
   private ComboBox<Direction> directionCombo;
   private ListView<String> claimsListView;
   private ListView<String> studentsListView;
   private Label statusLabel;
+  private ProgressBar analysisProgress; // Shown while an analysis runs
+  private Button cancelAnalysisButton;
   // Translatable UI elements
   private Label setupLabel;
   private Label rowLabel;
@@ -52,6 +75,7 @@ public class ClassroomController {
   private Button importCsvButton;
   private Button setupFirestoreButton; // NEW: Button to setup/initialize Firestore
   private Button importFirestoreButton; // Button to import from Firestore
+  private Button liveImportButton; // Toggles live registration ingest
   private Button selectAllButton;
   private Button deselectAllButton;
   private Button batchPresentButton;
@@ -65,8 +89,16 @@ public class ClassroomController {
   private Map<String, LocatedStudent> studentRegistry;
   private List<Claim> claims;
   private AttendanceService attendanceService;
+  private AnalysisRunner analysisRunner;
+  private ResultsController resultsController; // Fed reports while an analysis runs
   private Runnable onAnalysisComplete;
-  private GridPane classroomGrid;
+  private SeatViewModel seatModel; // What each seat shows, and which seats changed
+  private SeatMapCanvas seatMap;
+  private MenuItem exportSeatMapItem;
+  private RadioMenuItem heatmapOffItem;
+  private RadioMenuItem heatmapConfidenceItem;
+  private RadioMenuItem heatmapConflictsItem;
+  private SeatHeatmap.Mode heatmapMode = SeatHeatmap.Mode.OFF;
   private StudentDetailController studentDetailController;
   private Tab detailsTab;
   private HistoryController historyController;
@@ -75,122 +107,200 @@ public class ClassroomController {
   private UndoRedoManager undoRedoManager;
   private boolean redactionEnabled;
   private boolean firestoreSetupComplete = false; // Track if setup is done
+  private volatile RegistrationSource registrationSource; // Created on first use unless set explicitly
+  private volatile String lanAddress; // Where students post registrations when the LAN server is used
+  private RegistrationImporter.ImportTask importTask; // Running Firestore import, if any
+  private IngestPipeline livePipeline; // Non-null while live ingest is running
+  private final Map<String, AttendanceReport> provisionalReports = new HashMap<>(); // Live scores by student id
+  private RegistrationSource.Subscription liveSubscription;
+  private SeatCollisionTable seatCollisions; // Seat arbitration behind the current classroom, if it was imported
+  private long sessionId; // Identifies the current classroom session in history records
 
   public ClassroomController() {
     this.studentButtons = new HashMap<>();
     this.studentRegistry = new HashMap<>();
     this.claims = new ArrayList<>();
     this.attendanceService = new AttendanceService();
+    this.analysisRunner = new AnalysisRunner(attendanceService, BACKGROUND, Platform::runLater,
+        new AnalysisRunner.Listener() {
+          @Override
+          public void started(int total) {
+            analysisStarted(total);
+          }
+
+          @Override
+          public void chunk(List<AttendanceReport> reports, int done, int total) {
+            analysisProgressed(reports, done, total);
+          }
+
+          @Override
+          public void finished(AttendanceService.AttendanceAnalysisResult result) {
+            analysisFinished(result);
+          }
+
+          @Override
+          public void cancelled() {
+            setAnalysisControlsVisible(false);
+            statusLabel.setText("Analysis cancelled");
+            if (resultsController != null)
+              resultsController.loadLatestResults();
+          }
+
+          @Override
+          public void failed(Throwable error) {
+            setAnalysisControlsVisible(false);
+            showError("Error during analysis: " + error.getMessage());
+            statusLabel.setText("Analysis failed");
+            if (resultsController != null)
+              resultsController.loadLatestResults();
+          }
+        });
     this.selectedStudents = new HashSet<>();
     this.manualOverrides = new HashMap<>();
     this.undoRedoManager = new UndoRedoManager(100);
     this.redactionEnabled = false;
     this.firestoreSetupComplete = false;
+    this.sessionId = System.currentTimeMillis();
   }
 
   /**
-   * Setup/Initialize Firestore for this classroom session
-   * This should be called by the teacher to allow students to register
+   * Start a new session id; called whenever a fresh classroom replaces the current one.
    */
-  private void setupFirestoreForClass() {
-    try {
-      // Clear any existing classroom data in Firestore (optional safety measure)
-      clearExistingFirestoreData();
-
-      // Initialize Firestore service
-      if (!FirestoreService.isInitialized()) {
-        FirestoreService.initialize();
-        System.out.println("Firestore service initialized.");
-      } else {
-        System.out.println("Firestore service already initialized.");
-      }
-
-      // Create a setup document to mark this session
-      Firestore firestore = FirestoreService.getFirestore();
-
-      // Create a classroom setup document with timestamp
-      Map<String, Object> setupData = new HashMap<>();
-      setupData.put("teacherId", "teacher_" + System.currentTimeMillis()); // You might want to use actual teacher ID
-      setupData.put("setupTime", new Date());
-      setupData.put("status", "active");
-      setupData.put("classroomSize", rowsCombo.getValue() + "x" + colsCombo.getValue());
-
-      // Create or update the setup document
-      firestore.collection("classroom_setup").document("current_session")
-          .set(setupData);
-
-      // Clear the students collection to start fresh
-      clearStudentsCollection();
-
-      firestoreSetupComplete = true;
-      statusLabel.setText("✓ Classroom setup complete! Students can now register.");
-
-      // Show confirmation
-      Alert alert = new Alert(Alert.AlertType.INFORMATION);
-      alert.setTitle("Classroom Setup Complete");
-      alert.setHeaderText("Firestore is ready for student registration");
-      alert.setContentText("Students can now register their positions and claims.\n" +
-          "When ready, click 'Import Data' to import all registered students.\n\n" +
-          "Classroom size: " + rowsCombo.getValue() + " rows × " + colsCombo.getValue() + " columns");
-      alert.showAndWait();
+  private void startSession() {
+    stopLiveImport();
+    analysisRunner.cancel();
+    seatCollisions = null;
+    sessionId = System.currentTimeMillis();
+  }
 
-      // Enable the import button now that setup is complete
-      importFirestoreButton.setDisable(false);
-      importFirestoreButton.setStyle("-fx-font-size: 11; -fx-padding: 8; -fx-text-fill: #FF6B35;");
+  public long getSessionId() {
+    return sessionId;
+  }
 
-    } catch (Exception e) {
-      showAlert("Firestore Setup Failed", "Error setting up Firestore: " + e.getMessage());
-      e.printStackTrace();
-    }
+  /**
+   * Seat collisions met while importing the current classroom, or null if it was not
+   * imported from registrations.
+   */
+  public SeatCollisionTable getSeatCollisions() {
+    return seatCollisions;
   }
 
   /**
-   * Clear existing students from Firestore (optional safety measure)
+   * How to settle two registrations for the same seat, from {@code -Dwhoami.seatPolicy}
+   * ({@code first}, {@code latest} or {@code quarantine}).
    */
-  private void clearExistingFirestoreData() {
-    try {
-      if (FirestoreService.isInitialized()) {
-        Firestore firestore = FirestoreService.getFirestore();
+  private static SeatCollisionTable.Policy seatPolicy() {
+    return SeatCollisionTable.Policy.parse(System.getProperty("whoami.seatPolicy"));
+  }
 
-        // Delete all documents in students collection
-        ApiFuture<QuerySnapshot> future = firestore.collection("students").get();
-        List<QueryDocumentSnapshot> documents = future.get().getDocuments();
+  /**
+   * Use a different registration source, e.g. an in-memory one when running without Firestore.
+   */
+  public void setRegistrationSource(RegistrationSource registrationSource) {
+    this.registrationSource = registrationSource;
+  }
 
-        if (!documents.isEmpty()) {
-          WriteBatch batch = firestore.batch();
-          for (QueryDocumentSnapshot doc : documents) {
-            batch.delete(doc.getReference());
+  /**
+   * The registration source, connecting to Firestore on first use behind a local cache
+   * so imports keep working offline. With {@code -Dwhoami.registration=lan} students
+   * register with a server on this machine instead (port from
+   * {@code -Dwhoami.registration.port}). Blocks while the credentials load, so call it
+   * off the FX thread.
+   */
+  private RegistrationSource registrationSource() {
+    if (registrationSource == null) {
+      synchronized (this) {
+        if (registrationSource == null && "lan".equalsIgnoreCase(System.getProperty("whoami.registration"))) {
+          registrationSource = startLanServer();
+        }
+        if (registrationSource == null) {
+          if (!FirestoreService.isInitialized()) {
+            FirestoreService.initialize();
           }
-          batch.commit().get();
-          System.out.println("Cleared " + documents.size() + " existing student records.");
+          CachingRegistrationSource cached = new CachingRegistrationSource(
+              new FirestoreRegistrationSource(FirestoreService.getFirestore(), BACKGROUND),
+              RegistrationCache.open(new File(System.getProperty("user.home"), ".whoami/registration_cache.dat").toPath()),
+              BACKGROUND);
+          cached.setOnConnectivityChange(online -> Platform.runLater(() -> statusLabel.setText(online
+              ? "Reconnected to Firestore; queued changes sent."
+              : "Firestore unreachable - working offline, changes will be sent on reconnect.")));
+          registrationSource = cached;
         }
       }
-    } catch (Exception e) {
-      System.err.println("Warning: Could not clear existing Firestore data: " + e.getMessage());
-      // Continue anyway - this is just a safety measure
+    }
+    return registrationSource;
+  }
+
+  private RegistrationSource startLanServer() {
+    int port = Integer.getInteger("whoami.registration.port", LanRegistrationServer.DEFAULT_PORT);
+    try {
+      LanRegistrationServer server = LanRegistrationServer.start(port);
+      String host;
+      try {
+        host = InetAddress.getLocalHost().getHostAddress();
+      } catch (UnknownHostException e) {
+        host = "localhost";
+      }
+      String address = "http://" + host + ":" + server.getPort() + "/register";
+      lanAddress = address;
+      Platform.runLater(() -> statusLabel.setText("Registration server listening at " + address));
+      return server;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not start registration server on port " + port, e);
     }
   }
 
   /**
-   * Clear the students collection (empty it)
+   * Setup/Initialize Firestore for this classroom session
+   * This should be called by the teacher to allow students to register
    */
-  private void clearStudentsCollection() throws Exception {
-    Firestore firestore = FirestoreService.getFirestore();
+  private void setupFirestoreForClass() {
+    // Create a classroom setup document with timestamp
+    Map<String, Object> setupData = new HashMap<>();
+    setupData.put("teacherId", "teacher_" + System.currentTimeMillis()); // You might want to use actual teacher ID
+    setupData.put("setupTime", new Date());
+    setupData.put("status", "active");
+    setupData.put("classroomSize", rowsCombo.getValue() + "x" + colsCombo.getValue());
+
+    setupFirestoreButton.setDisable(true);
+    statusLabel.setText("Setting up Firestore...");
+
+    // Clears earlier registrations, then publishes the setup document
+    CompletableFuture.supplyAsync(this::registrationSource, BACKGROUND)
+        .thenCompose(source -> source.openRegistration(setupData))
+        .whenComplete((done, error) -> Platform.runLater(() -> {
+          setupFirestoreButton.setDisable(false);
+          if (error != null) {
+            Throwable cause = unwrap(error);
+            statusLabel.setText("Firestore setup failed.");
+            showAlert("Firestore Setup Failed", "Error setting up Firestore: " + cause.getMessage());
+            cause.printStackTrace();
+            return;
+          }
 
-    // Get all documents in students collection
-    ApiFuture<QuerySnapshot> future = firestore.collection("students").get();
-    List<QueryDocumentSnapshot> documents = future.get().getDocuments();
+          firestoreSetupComplete = true;
+          statusLabel.setText(lanAddress != null
+              ? "✓ Classroom setup complete! Students register at " + lanAddress
+              : "✓ Classroom setup complete! Students can now register.");
+
+          // Show confirmation
+          Alert alert = new Alert(Alert.AlertType.INFORMATION);
+          alert.setTitle("Classroom Setup Complete");
+          alert.setHeaderText("Firestore is ready for student registration");
+          alert.setContentText("Students can now register their positions and claims.\n" +
+              "When ready, click 'Import Data' to import all registered students.\n\n" +
+              "Classroom size: " + rowsCombo.getValue() + " rows × " + colsCombo.getValue() + " columns");
+          alert.showAndWait();
+
+          // Enable the import button now that setup is complete
+          importFirestoreButton.setDisable(false);
+          importFirestoreButton.setStyle("-fx-font-size: 11; -fx-padding: 8; -fx-text-fill: #FF6B35;");
+          liveImportButton.setDisable(false);
+        }));
+  }
 
-    if (!documents.isEmpty()) {
-      WriteBatch batch = firestore.batch();
-      for (QueryDocumentSnapshot doc : documents) {
-        batch.delete(doc.getReference());
-      }
-      batch.commit().get();
-      System.out.println("Cleared " + documents.size() + " documents from students collection.");
-    } else {
-      System.out.println("Students collection is already empty.");
-    }
+  private static Throwable unwrap(Throwable error) {
+    return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
   }
 
   /**
@@ -200,17 +310,13 @@ public class ClassroomController {
     // Clear existing data
     studentRegistry.clear();
     claims.clear();
-    if (studentsListView != null)
-      studentsListView.getItems().clear();
+    setRoster(List.of());
     if (claimsListView != null)
       claimsListView.getItems().clear();
-    if (claimerCombo != null)
-      claimerCombo.getItems().clear();
-    if (targetCombo != null)
-      targetCombo.getItems().clear();
 
     // Create classroom
     classroom = new Classroom(3, 4);
+    startSession();
     attendanceService.setClassroom(classroom);
 
     // Add test students with positions
@@ -234,6 +340,7 @@ public class ClassroomController {
         { 1, 2 } // Yassine at row 1, col 2 - will have weak/conflicting claims
     };
 
+    List<LocatedStudent> loaded = new ArrayList<>();
     for (int i = 0; i < testStudents.length; i++) {
       String name = testStudents[i][0];
       String id = testStudents[i][1];
@@ -251,19 +358,9 @@ public class ClassroomController {
       // Youssef has no position - will be marked ABSENT
 
       studentRegistry.put(id, located);
-
-      // Add to UI lists
-      if (studentsListView != null) {
-        studentsListView.getItems().add(name + " (ID: " + id + ")");
-      }
-
-      if (claimerCombo != null) {
-        claimerCombo.getItems().add(name);
-      }
-      if (targetCombo != null) {
-        targetCombo.getItems().add(name);
-      }
+      loaded.add(located);
     }
+    setRoster(loaded);
 
     // Add test claims - INTENTIONALLY INCOMPLETE to demonstrate validation
     // Fatima (0,0): COMPLETE - has Bob RIGHT and Hanane BACK ✓
@@ -304,11 +401,11 @@ public class ClassroomController {
         "✓ Test data loaded: 7 students - Fatima/Bob/Mohamed/Hanane/Eve: PRESENT, Yassine: UNCERTAIN (liar claiming absent Youssef), Youssef: ABSENT");
   }
 
-  /**
-   * Import classroom data directly from Firestore
-   */
   /**
    * Import classroom data directly from Firestore and close registration.
+   *
+   * The import runs in the background behind a progress dialog; local data is only
+   * replaced once the whole classroom has been built.
    */
   private void importFromFirestore() {
     if (!firestoreSetupComplete) {
@@ -316,169 +413,258 @@ public class ClassroomController {
           "Please click 'Setup Firestore' first to initialize the classroom.");
       return;
     }
+    if (importTask != null) {
+      return;
+    }
 
-    try {
-      // --- NEW LOGIC: CLOSE REGISTRATION IMMEDIATELY ---
-      // This prevents students from submitting while the import is running.
-      if (FirestoreService.isInitialized()) {
-        Firestore firestore = FirestoreService.getFirestore();
-        Map<String, Object> closeData = new HashMap<>();
-        closeData.put("status", "closed");
-        closeData.put("closeTime", new Date());
-
-        // Update the setup document to 'closed'
-        firestore.collection("classroom_setup").document("current_session")
-            .set(closeData, com.google.cloud.firestore.SetOptions.merge());
-
-        System.out.println("Registration gate CLOSED in Firestore.");
+    // Closing registration first prevents students from submitting while the import is running
+    RegistrationImporter importer = new RegistrationImporter(registrationSource(), BACKGROUND,
+        Integer.getInteger("whoami.import.pageSize", RegistrationImporter.DEFAULT_PAGE_SIZE), seatPolicy());
+    ProgressDialog progressDialog = new ProgressDialog("Importing registered students...", () -> {
+      if (importTask != null) {
+        importTask.cancel();
       }
-      // --------------------------------------------------
-
-      // Clear existing local data
-      studentRegistry.clear();
-      claims.clear();
-      selectedStudents.clear();
-      manualOverrides.clear();
-      undoRedoManager.clear();
-
-      if (claimsListView != null)
-        claimsListView.getItems().clear();
-      if (studentsListView != null)
-        studentsListView.getItems().clear();
-      if (claimerCombo != null)
-        claimerCombo.getItems().clear();
-      if (targetCombo != null)
-        targetCombo.getItems().clear();
-
-      Firestore firestore = FirestoreService.getFirestore();
-      CollectionReference studentsRef = firestore.collection("students");
-      ApiFuture<QuerySnapshot> querySnapshot = studentsRef.get();
-
-      List<QueryDocumentSnapshot> documents = querySnapshot.get().getDocuments();
-
-      if (documents.isEmpty()) {
-        showAlert("No Data", "No students have registered yet in Firestore.");
-        // Re-enable setup if teacher wants to try again later
-        return;
+    });
+    importFirestoreButton.setDisable(true);
+    statusLabel.setText("Importing registered students...");
+    progressDialog.show();
+
+    RegistrationImporter.ImportTask task = importer.start(rowsCombo.getValue(), colsCombo.getValue(),
+        progress -> Platform.runLater(() -> progressDialog.setProgress(progress)));
+    importTask = task;
+    task.getResult().whenComplete((result, error) -> Platform.runLater(() -> {
+      importTask = null;
+      progressDialog.close();
+      importFirestoreButton.setDisable(false);
+      if (error instanceof CancellationException) {
+        statusLabel.setText("Import cancelled. Registration is closed; import again to retry.");
+      } else if (error != null) {
+        Throwable cause = unwrap(error);
+        statusLabel.setText("Firestore import failed.");
+        showAlert("Firestore Import Failed", "Error: " + cause.getMessage());
+        cause.printStackTrace();
+      } else {
+        applyImport(result);
       }
+    }));
+  }
 
-      int maxRow = -1;
-      int maxCol = -1;
-      int studentsImported = 0;
-      Set<String> seenIds = new HashSet<>();
-      List<LocatedStudent> importedStudents = new ArrayList<>();
+  /**
+   * Start following registrations live. The classroom is created empty with the
+   * configured size; afterwards each added, modified or removed registration is applied
+   * on its own and only the affected seats are re-rendered.
+   */
+  private void startLiveImport() {
+    if (!firestoreSetupComplete) {
+      showAlert("Setup Required",
+          "Please click 'Setup Firestore' first to initialize the classroom.");
+      return;
+    }
 
-      for (QueryDocumentSnapshot doc : documents) {
-        try {
-          String studentId = doc.getString("studentId");
-          String name = doc.getString("name");
+    studentRegistry.clear();
+    claims.clear();
+    selectedStudents.clear();
+    manualOverrides.clear();
+    undoRedoManager.clear();
+    if (claimsListView != null)
+      claimsListView.getItems().clear();
+    setRoster(List.of());
 
-          if (studentId == null || studentId.isEmpty() || seenIds.contains(studentId)) {
-            continue;
-          }
-          seenIds.add(studentId);
+    classroom = new Classroom(rowsCombo.getValue(), colsCombo.getValue());
+    startSession();
+    LiveRegistrationIngest ingest = new LiveRegistrationIngest(classroom, studentRegistry, seatPolicy());
+    seatCollisions = ingest.getSeatCollisions();
+    attendanceService.setClassroom(classroom, seatCollisions);
+    updateClassroomVisualization();
 
-          Student student = new Student(studentId, name);
-          LocatedStudent located = new LocatedStudent(student);
+    // Parsing and validation run in the background; placing, scoring and rendering run on
+    // the FX thread, which owns the classroom. A busy FX thread holds the earlier stages back.
+    // Cancelling on the FX thread stops delivery, so a stopped pipeline never applies late batches.
+    IngestPipeline pipeline = new IngestPipeline(ingest, attendanceService.createAggregator(), Platform::runLater,
+        Platform::runLater, this::applyLiveChanges);
+    livePipeline = pipeline;
+    provisionalReports.clear();
+    liveImportButton.setText(LanguageManager.getInstance().get("stop_live_import"));
+    statusLabel.setText("Live import: waiting for registrations...");
+
+    // Snapshot listeners cannot be paused; their changes wait at the pipeline entry
+    liveSubscription = registrationSource().listen(pipeline::submit);
+  }
 
-          // Extract position
-          Long rowLong = doc.getLong("row");
-          Long colLong = doc.getLong("col");
-          Integer row = rowLong != null ? rowLong.intValue() : null;
-          Integer col = colLong != null ? colLong.intValue() : null;
+  private void stopLiveImport() {
+    if (liveSubscription != null) {
+      liveSubscription.cancel();
+      liveSubscription = null;
+    }
+    if (livePipeline != null) {
+      livePipeline.cancel();
+      String summary = livePipeline.getSummary();
+      livePipeline = null;
+      liveImportButton.setText(LanguageManager.getInstance().get("live_import"));
+      statusLabel.setText("Live import stopped with " + studentRegistry.size() + " students (" + summary + ").");
+    }
+  }
 
-          if (row != null && col != null && row >= 0 && col >= 0) {
-            located.setPosition(new Position(row, col));
-            maxRow = Math.max(maxRow, row);
-            maxCol = Math.max(maxCol, col);
-          }
+  private void applyLiveChanges(List<IngestPipeline.ScoredUpdate> updates) {
+    Set<Position> touched = new HashSet<>();
+    for (IngestPipeline.ScoredUpdate scored : updates) {
+      applyLiveChange(scored.getUpdate());
+      logClaimFindings(scored.getUpdate().getFindings());
+      touched.addAll(scored.getUpdate().getTouched());
+      for (AttendanceReport report : scored.getReports()) {
+        provisionalReports.put(report.getLocatedStudent().getStudent().getId(), report);
+      }
+    }
+    refreshCells(touched);
+
+    long present = provisionalReports.values().stream()
+        .filter(report -> report.getStatus() == AttendanceReport.AttendanceStatus.PRESENT)
+        .count();
+    String status = "Live import: " + studentRegistry.size() + " students registered, " + present
+        + " provisionally present.";
+    int unseated = livePipeline != null ? livePipeline.getIngest().countUnseated() : 0;
+    if (unseated > 0)
+      status += " " + unseated + " registered outside the room or on a taken seat.";
+    long rejected = livePipeline != null ? livePipeline.getClaimValidator().getRejectedCount() : 0;
+    if (rejected > 0)
+      status += " " + rejected + " impossible claims dropped.";
+    statusLabel.setText(status);
+  }
 
-          // Extract Claims (neighbor data)
-          List<Map<String, Object>> claimsList = (List<Map<String, Object>>) doc.get("claims");
-          if (claimsList == null)
-            claimsList = (List<Map<String, Object>>) doc.get("neighborClaims");
-
-          if (claimsList != null) {
-            for (Map<String, Object> claimMap : claimsList) {
-              String dirStr = (String) claimMap.get("direction");
-              if (dirStr == null)
-                continue;
-              Direction direction = Direction.valueOf(dirStr.toUpperCase());
-
-              Object targetObj = claimMap.get("student");
-              if (targetObj == null) {
-                Claim claim = new Claim(direction, null);
-                located.addClaim(claim);
-                claims.add(claim);
-              } else {
-                // Simplified extraction for the claim target
-                String targetId = (targetObj instanceof Map) ? ((Map<String, String>) targetObj).get("studentId")
-                    : targetObj.toString();
-                String targetName = (targetObj instanceof Map) ? ((Map<String, String>) targetObj).get("name")
-                    : targetId;
-
-                Student targetStudent = new Student(targetId, targetName);
-                Claim claim = new Claim(direction, targetStudent);
-                located.addClaim(claim);
-                claims.add(claim);
-              }
-            }
-          }
+  private void applyLiveChange(LiveRegistrationIngest.Update update) {
+    for (LocatedStudent removed : update.getRemoved()) {
+      Student student = removed.getStudent();
+      selectedStudents.remove(student.getId());
+      provisionalReports.remove(student.getId());
+      for (Claim claim : removed.getClaims()) {
+        claims.remove(claim);
+        if (claimsListView != null)
+          claimsListView.getItems().remove(claimItem(removed, claim));
+      }
+      if (studentsListView != null)
+        studentsListView.getItems().remove(studentItem(student));
+      roster.remove(student.getId());
+    }
+    for (LocatedStudent added : update.getAdded()) {
+      Student student = added.getStudent();
+      for (Claim claim : added.getClaims()) {
+        claims.add(claim);
+        if (claimsListView != null)
+          claimsListView.getItems().add(claimItem(added, claim));
+      }
+      if (studentsListView != null)
+        studentsListView.getItems().add(studentItem(student));
+      roster.add(student);
+    }
+    if ((update.isRetargeted() || update.hasResolvedTags()) && claimsListView != null)
+      updateClaimsList(); // Claims of a renamed student show the old name, resolved claims the old tag
+  }
 
-          importedStudents.add(located);
-          studentRegistry.put(studentId, located);
-          studentsImported++;
+  /**
+   * Record each claim the validator dropped or tagged in the audit log.
+   */
+  private static void logClaimFindings(List<ClaimValidator.Finding> findings) {
+    for (ClaimValidator.Finding finding : findings) {
+      Student claimer = finding.getClaimer().getStudent();
+      Claim claim = finding.getClaim();
+      String target = claim.isAbsentClaim() ? "[ABSENT/EMPTY]" : claim.getTarget().getId();
+      AuditLogger.log(finding.isRejected() ? "CLAIM_REJECTED" : "CLAIM_TAGGED",
+          claimer.getName() + " (" + claimer.getId() + ") → " + target + " (" + claim.getDirection() + "): "
+              + finding.getReason());
+    }
+  }
 
-          if (studentsListView != null)
-            studentsListView.getItems().add(name + " (ID: " + studentId + ")");
-          if (claimerCombo != null)
-            claimerCombo.getItems().add(name);
-          if (targetCombo != null)
-            targetCombo.getItems().add(name);
+  /**
+   * Replace the local classroom with an imported one. Runs on the FX thread.
+   */
+  private void applyImport(ImportResult result) {
+    if (result.getStudents().isEmpty()) {
+      showAlert("No Data", "No students have registered yet in Firestore.");
+      return;
+    }
 
-        } catch (Exception e) {
-          System.err.println("Error processing doc: " + e.getMessage());
-        }
-      }
+    // Clear existing local data
+    studentRegistry.clear();
+    claims.clear();
+    selectedStudents.clear();
+    manualOverrides.clear();
+    undoRedoManager.clear();
 
-      // Classroom layout setup
-      int rowsCount = maxRow >= 0 ? maxRow + 1 : Math.max(3, rowsCombo.getValue());
-      int colsCount = maxCol >= 0 ? maxCol + 1 : Math.max(3, colsCombo.getValue());
-      classroom = new Classroom(rowsCount, colsCount);
-      rowsCombo.setValue(rowsCount);
-      colsCombo.setValue(colsCount);
-      attendanceService.setClassroom(classroom);
-
-      for (LocatedStudent ls : importedStudents) {
-        if (ls.getPosition() != null)
-          classroom.place(ls);
-      }
+    if (claimsListView != null)
+      claimsListView.getItems().clear();
 
-      updateClassroomVisualization();
-      updateClaimsList();
+    for (LocatedStudent located : result.getStudents()) {
+      Student student = located.getStudent();
+      studentRegistry.put(student.getId(), located);
+      claims.addAll(located.getClaims());
+    }
+    setRoster(result.getStudents());
 
-      statusLabel.setText("✓ Imported " + studentsImported + " students. Registration CLOSED.");
+    // Classroom layout setup
+    classroom = result.getClassroom();
+    startSession();
+    seatCollisions = result.getSeatCollisions();
+    rowsCombo.setValue(classroom.getRows());
+    colsCombo.setValue(classroom.getCols());
+    attendanceService.setClassroom(classroom, seatCollisions);
 
-      // Post-import cleanup
-      Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
-      confirmAlert.setTitle("Import Complete");
-      confirmAlert.setHeaderText("Registration is now closed.");
-      confirmAlert.setContentText("Do you want to clear student records from the cloud database now?");
+    updateClassroomVisualization();
+    updateClaimsList();
+    logClaimFindings(result.getClaimFindings());
+
+    String status = "✓ Imported " + result.getStudents().size() + " students. Registration CLOSED.";
+    if (result.getUnseated() > 0)
+      status += " " + result.getUnseated() + " registered outside the room or on a taken seat.";
+    if (result.getRejectedClaims() > 0)
+      status += " " + result.getRejectedClaims() + " impossible claims dropped.";
+    status += " (" + result.getPipelineSummary() + ")";
+    statusLabel.setText(status);
+
+    // Post-import cleanup
+    Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
+    confirmAlert.setTitle("Import Complete");
+    confirmAlert.setHeaderText("Registration is now closed.");
+    confirmAlert.setContentText("Do you want to clear student records from the cloud database now?");
+
+    Optional<ButtonType> answer = confirmAlert.showAndWait();
+    if (answer.isPresent() && answer.get() == ButtonType.OK) {
+      firestoreSetupComplete = false;
+      importFirestoreButton.setDisable(true);
+      importFirestoreButton.setStyle("-fx-font-size: 11; -fx-padding: 8; -fx-text-fill: #aaaaaa;");
+      liveImportButton.setDisable(true);
+
+      // Delete session doc so students see it's completely over
+      RegistrationSource source = registrationSource();
+      source.clearRegistrations()
+          .thenCompose(cleared -> source.endSession())
+          .whenComplete((done, error) -> {
+            if (error != null) {
+              Platform.runLater(() -> showAlert("Firestore Cleanup Failed", "Error: " + unwrap(error).getMessage()));
+            }
+          });
+    }
+  }
 
-      Optional<ButtonType> result = confirmAlert.showAndWait();
-      if (result.isPresent() && result.get() == ButtonType.OK) {
-        clearStudentsCollection();
-        // Delete session doc so students see it's completely over
-        firestore.collection("classroom_setup").document("current_session").delete();
+  private void exportSeatMap() {
+    if (classroom == null) {
+      return;
+    }
+    Window window = seatMap.getScene() != null ? seatMap.getScene().getWindow() : null;
 
-        firestoreSetupComplete = false;
-        importFirestoreButton.setDisable(true);
-        importFirestoreButton.setStyle("-fx-font-size: 11; -fx-padding: 8; -fx-text-fill: #aaaaaa;");
-      }
+    FileChooser chooser = new FileChooser();
+    chooser.setTitle("Export Seat Map");
+    chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("PNG Images", "*.png"));
+    chooser.setInitialFileName("seat_map.png");
+    File file = chooser.showSaveDialog(window);
+    if (file == null) {
+      return;
+    }
 
-    } catch (Exception e) {
-      showAlert("Firestore Import Failed", "Error: " + e.getMessage());
-      e.printStackTrace();
+    try {
+      seatMap.writeImage(file, 2); // Twice the seat size, for print
+      statusLabel.setText("Seat map exported to " + file.getName());
+    } catch (IOException e) {
+      showAlert("Export Failed", "Error: " + e.getMessage());
     }
   }
 
@@ -533,17 +719,13 @@ public class ClassroomController {
     claims.clear();
     if (claimsListView != null)
       claimsListView.getItems().clear();
-    if (studentsListView != null)
-      studentsListView.getItems().clear();
-    if (claimerCombo != null)
-      claimerCombo.getItems().clear();
-    if (targetCombo != null)
-      targetCombo.getItems().clear();
+    setRoster(List.of());
 
     int maxRow = -1;
     int maxCol = -1;
 
     List<LocatedStudent> imported = new ArrayList<>();
+    StudentPool pool = new StudentPool();
     Set<String> seenIds = new HashSet<>();
     Set<String> seenNames = new HashSet<>();
     List<String> duplicates = new ArrayList<>();
@@ -567,8 +749,7 @@ public class ClassroomController {
         Integer row = idx.containsKey("row") ? parseIntSafe(getColumnValue(cols, idx.get("row"))) : null;
         Integer col = idx.containsKey("col") ? parseIntSafe(getColumnValue(cols, idx.get("col"))) : null;
 
-        Student s = new Student(id, name);
-        LocatedStudent located = new LocatedStudent(s);
+        LocatedStudent located = new LocatedStudent(pool.intern(id, name));
         if (row != null && col != null && row >= 0 && col >= 0) {
           located.setPosition(new Position(row, col));
           maxRow = Math.max(maxRow, row);
@@ -596,6 +777,7 @@ public class ClassroomController {
     int colsCount = maxCol >= 0 ? maxCol + 1 : Math.max(3, colsCombo.getValue());
 
     classroom = new Classroom(rowsCount, colsCount);
+    startSession();
     rowsCombo.setValue(rowsCount);
     colsCombo.setValue(colsCount);
     attendanceService.setClassroom(classroom);
@@ -605,15 +787,8 @@ public class ClassroomController {
       if (ls.getPosition() != null) {
         classroom.place(ls);
       }
-
-      if (studentsListView != null) {
-        studentsListView.getItems().add(ls.getStudent().getName() + " (ID: " + ls.getStudent().getId() + ")");
-      }
-      if (claimerCombo != null)
-        claimerCombo.getItems().add(ls.getStudent().getName());
-      if (targetCombo != null)
-        targetCombo.getItems().add(ls.getStudent().getName());
     }
+    setRoster(imported);
 
     updateClassroomVisualization();
     updateClaimsList();
@@ -680,16 +855,16 @@ public class ClassroomController {
 
   public void setStudentDetailController(StudentDetailController controller) {
     this.studentDetailController = controller;
-    // Refresh visualization if it already exists
-    if (classroomGrid != null && !classroomGrid.getChildren().isEmpty()) {
-      updateClassroomVisualization();
-    }
   }
 
   public void setDetailsTab(Tab tab) {
     this.detailsTab = tab;
   }
 
+  public void setResultsController(ResultsController controller) {
+    this.resultsController = controller;
+  }
+
   public void setHistoryController(HistoryController controller) {
     this.historyController = controller;
   }
@@ -725,7 +900,15 @@ public class ClassroomController {
     statusLabel = new Label(LanguageManager.getInstance().get("status_ready"));
     statusLabel.getStyleClass().add("status-bar");
     statusLabel.setStyle("-fx-padding: 12px;");
-    mainLayout.getChildren().add(statusLabel);
+    analysisProgress = new ProgressBar(0);
+    analysisProgress.setPrefWidth(200);
+    cancelAnalysisButton = new Button(LanguageManager.getInstance().get("cancel"));
+    cancelAnalysisButton.getStyleClass().add("button-secondary");
+    cancelAnalysisButton.setOnAction(e -> analysisRunner.cancel());
+    setAnalysisControlsVisible(false);
+    HBox statusBar = new HBox(12, statusLabel, analysisProgress, cancelAnalysisButton);
+    statusBar.setAlignment(javafx.geometry.Pos.CENTER_LEFT);
+    mainLayout.getChildren().add(statusBar);
 
     ScrollPane sp = new ScrollPane(mainLayout);
     // Listen for language changes to update labels/buttons live
@@ -796,6 +979,20 @@ public class ClassroomController {
     importFirestoreButton.setTooltip(new Tooltip("Import registered students (requires setup first)"));
     importFirestoreButton.setOnAction(e -> importFromFirestore());
 
+    // Live import: apply registrations as they arrive instead of importing them at the end
+    liveImportButton = new Button(LanguageManager.getInstance().get("live_import"));
+    liveImportButton.setPrefWidth(120);
+    liveImportButton.getStyleClass().add("button-warning");
+    liveImportButton.setDisable(true);
+    liveImportButton.setTooltip(new Tooltip("Show registrations as students submit them (requires setup first)"));
+    liveImportButton.setOnAction(e -> {
+      if (livePipeline != null) {
+        stopLiveImport();
+      } else {
+        startLiveImport();
+      }
+    });
+
     selectAllButton = new Button(LanguageManager.getInstance().get("select_all"));
     selectAllButton.setPrefWidth(100);
     selectAllButton.getStyleClass().add("button-secondary");
@@ -831,6 +1028,7 @@ public class ClassroomController {
         importCsvButton,
         setupFirestoreButton,
         importFirestoreButton,
+        liveImportButton,
         new Separator(javafx.geometry.Orientation.VERTICAL),
         selectAllButton, deselectAllButton,
         batchPresentButton, batchAbsentButton);
@@ -846,143 +1044,135 @@ public class ClassroomController {
     classroomTitleLabel = new Label(LanguageManager.getInstance().get("classroom_layout"));
     classroomTitleLabel.getStyleClass().add("label-subtitle");
 
-    ScrollPane gridScroll = new ScrollPane();
-    classroomGrid = new GridPane();
-    classroomGrid.setHgap(8);
-    classroomGrid.setVgap(8);
-    classroomGrid.setPadding(new Insets(15));
-    classroomGrid.getStyleClass().add("classroom-grid");
-
-    gridScroll.setContent(classroomGrid);
-    gridScroll.setFitToWidth(true);
-    gridScroll.setFitToHeight(true);
-    gridScroll.getStyleClass().add("classroom-scroll");
-
-    panel.getChildren().addAll(classroomTitleLabel, gridScroll);
+    seatModel = new SeatViewModel(id -> selectedStudents.contains(id));
+    seatMap = new SeatMapCanvas(seatModel);
+    seatMap.setOnSelectionToggled(this::toggleSelection);
+    seatMap.setOnStudentClicked(this::showStudentDetails);
+    VBox.setVgrow(seatMap, Priority.ALWAYS);
+
+    // Export the whole room, not just the part in view
+    exportSeatMapItem = new MenuItem(LanguageManager.getInstance().get("export_image"));
+    exportSeatMapItem.setOnAction(e -> exportSeatMap());
+
+    // Tint the seats by the last analysis
+    ToggleGroup heatmapGroup = new ToggleGroup();
+    heatmapOffItem = new RadioMenuItem(LanguageManager.getInstance().get("heatmap_off"));
+    heatmapConfidenceItem = new RadioMenuItem(LanguageManager.getInstance().get("heatmap_confidence"));
+    heatmapConflictsItem = new RadioMenuItem(LanguageManager.getInstance().get("heatmap_conflicts"));
+    heatmapOffItem.setToggleGroup(heatmapGroup);
+    heatmapConfidenceItem.setToggleGroup(heatmapGroup);
+    heatmapConflictsItem.setToggleGroup(heatmapGroup);
+    heatmapOffItem.setSelected(true);
+    heatmapOffItem.setOnAction(e -> setHeatmapMode(SeatHeatmap.Mode.OFF));
+    heatmapConfidenceItem.setOnAction(e -> setHeatmapMode(SeatHeatmap.Mode.CONFIDENCE));
+    heatmapConflictsItem.setOnAction(e -> setHeatmapMode(SeatHeatmap.Mode.CONFLICTS));
+
+    ContextMenu seatMapMenu = new ContextMenu(exportSeatMapItem, new SeparatorMenuItem(),
+        heatmapOffItem, heatmapConfidenceItem, heatmapConflictsItem);
+    seatMap.setOnContextMenuRequested(e -> seatMapMenu.show(seatMap, e.getScreenX(), e.getScreenY()));
+
+    panel.getChildren().addAll(classroomTitleLabel, seatMap);
 
     return panel;
   }
 
   /**
-   * Update classroom grid visualization with students.
+   * Show a new classroom on the seat map, reading every seat.
    */
   private void updateClassroomVisualization() {
-    if (classroom == null || classroomGrid == null)
+    if (seatMap == null)
+      return;
+
+    seatModel.setClassroom(classroom);
+    updateHeatmap();
+    seatMap.refresh();
+  }
+
+  private void setHeatmapMode(SeatHeatmap.Mode mode) {
+    heatmapMode = mode;
+    updateHeatmap();
+  }
+
+  /**
+   * Recolour the heatmap from the last analysis; the seats themselves are left alone.
+   */
+  private void updateHeatmap() {
+    if (seatMap == null)
       return;
 
-    classroomGrid.getChildren().clear();
+    seatMap.setHeatmap(SeatHeatmap.build(seatModel, attendanceService.getLastResult(), heatmapMode));
+  }
 
-    int rows = classroom.getRows();
-    int cols = classroom.getCols();
+  /**
+   * Re-render only the given seats and their neighbours, and of those only the ones that
+   * show something different, leaving the rest of the grid untouched.
+   */
+  private void refreshCells(Collection<Position> positions) {
+    if (classroom == null || seatMap == null)
+      return;
 
-    // Create grid cells
-    for (int row = 0; row < rows; row++) {
-      for (int col = 0; col < cols; col++) {
-        VBox cell = createClassroomCell(row, col);
-        classroomGrid.add(cell, col, row);
-      }
-    }
+    for (Position pos : positions)
+      seatModel.updateAround(pos);
+    seatMap.refresh();
   }
 
   /**
-   * Create a single classroom cell with optional student.
+   * Re-read every seat after a change that may touch any of them; only the seats that
+   * differ are re-rendered.
    */
-  private VBox createClassroomCell(int row, int col) {
-    VBox cell = new VBox(6);
-    cell.getStyleClass().add("classroom-cell");
-    cell.setPrefWidth(100);
-    cell.setPrefHeight(100);
-    cell.setAlignment(Pos.CENTER);
-    cell.setPadding(new Insets(8));
-
-    Position pos = new Position(row, col);
-    Optional<LocatedStudent> student = classroom.getAt(pos);
-
-    if (student.isPresent()) {
-      LocatedStudent located = student.get();
-      String name = located.getStudent().getName();
-      String id = located.getStudent().getId();
-      String key = id; // Use ID as key for consistency
-      int claimCount = located.getClaims().size();
-
-      CheckBox selectCheckBox = new CheckBox();
-      selectCheckBox.setStyle("-fx-font-size: 12px;");
-      // Preserve selection state when rebuilding the grid
-      selectCheckBox.setSelected(selectedStudents.contains(key));
-      selectCheckBox.setOnAction(e -> {
-        if (selectCheckBox.isSelected()) {
-          selectedStudents.add(key);
-          cell.getStyleClass().remove("cell-verified");
-          cell.getStyleClass().remove("cell-unverified");
-          cell.getStyleClass().add("cell-selected");
-          // Animate selection
-          AnimationUtils.bounce(cell).play();
-        } else {
-          selectedStudents.remove(key);
-          boolean allNeighborsDeclared = classroom.hasAllNeighborsDeclared(located);
-          if (!allNeighborsDeclared) {
-            cell.getStyleClass().remove("cell-selected");
-            cell.getStyleClass().remove("cell-verified");
-            cell.getStyleClass().add("cell-unverified");
-          } else {
-            cell.getStyleClass().remove("cell-selected");
-            cell.getStyleClass().remove("cell-unverified");
-            cell.getStyleClass().add("cell-verified");
-          }
-          // Animate state change
-          AnimationUtils.scaleDown(cell, javafx.util.Duration.millis(200)).play();
-        }
-      });
+  private void refreshAllCells() {
+    if (classroom == null || seatMap == null)
+      return;
 
-      Label nameLabel = new Label(name);
-      nameLabel.getStyleClass().add("cell-name");
-      nameLabel.setWrapText(true);
-      nameLabel.setTextAlignment(javafx.scene.text.TextAlignment.CENTER);
-
-      Label posLabel = new Label("(" + row + "," + col + ")");
-      posLabel.getStyleClass().add("cell-position");
-
-      Label claimsLabel = new Label(claimCount + " claims");
-      claimsLabel.getStyleClass().add("cell-claims");
-
-      // Check if all neighbors are declared
-      boolean allNeighborsDeclared = classroom.hasAllNeighborsDeclared(located);
-      if (selectedStudents.contains(key)) {
-        cell.getStyleClass().add("cell-selected");
-        cell.getChildren().addAll(selectCheckBox, nameLabel, posLabel, claimsLabel);
-      } else if (!allNeighborsDeclared) {
-        cell.getStyleClass().add("cell-unverified");
-        Label warningLabel = new Label(LanguageManager.getInstance().get("incomplete"));
-        warningLabel.getStyleClass().add("cell-warning");
-        cell.getChildren().addAll(selectCheckBox, nameLabel, posLabel, claimsLabel, warningLabel);
-      } else {
-        cell.getStyleClass().add("cell-verified");
-        cell.getChildren().addAll(selectCheckBox, nameLabel, posLabel, claimsLabel);
-      }
+    seatModel.updateAll();
+    seatMap.refresh();
+  }
 
-      // Click to show details
-      final LocatedStudent finalLocated = located;
-      nameLabel.setOnMouseClicked(e -> {
-        System.out.println("[DEBUG] Student clicked: " + finalLocated.getStudent().getName());
-        if (studentDetailController != null) {
-          System.out.println("[DEBUG] Displaying student details for: " + finalLocated.getStudent().getName());
-          studentDetailController.displayStudent(finalLocated);
-          // Switch to Student Details tab
-          if (detailsTab != null) {
-            detailsTab.getTabPane().getSelectionModel().select(detailsTab);
-          }
-        } else {
-          System.out.println("[DEBUG] studentDetailController is null!");
-        }
-      });
-      nameLabel.setCursor(javafx.scene.Cursor.HAND);
-    } else {
-      Label emptyLabel = new Label(LanguageManager.getInstance().get("empty"));
-      emptyLabel.setStyle("-fx-text-fill: #999999;");
-      cell.getChildren().add(emptyLabel);
+  /**
+   * Re-render the seats of the given students.
+   */
+  private void refreshSeatsOf(Collection<String> studentIds) {
+    refreshCells(seatsOf(studentIds));
+  }
+
+  /**
+   * Flash the seats of the given students; however many there are, they share one
+   * animation.
+   */
+  private void pulseSeatsOf(Collection<String> studentIds) {
+    if (seatMap != null)
+      seatMap.pulse(seatsOf(studentIds));
+  }
+
+  private List<Position> seatsOf(Collection<String> studentIds) {
+    List<Position> positions = new ArrayList<>();
+    for (String id : studentIds) {
+      LocatedStudent student = studentRegistry.get(id);
+      if (student != null && student.getPosition() != null)
+        positions.add(student.getPosition());
+    }
+    return positions;
+  }
+
+  private void toggleSelection(LocatedStudent located) {
+    String key = located.getStudent().getId(); // Use ID as key for consistency
+    if (!selectedStudents.remove(key)) {
+      selectedStudents.add(key);
     }
+    refreshSeatsOf(List.of(key));
+    pulseSeatsOf(List.of(key));
+  }
 
-    return cell;
+  private void showStudentDetails(LocatedStudent located) {
+    if (studentDetailController != null) {
+      studentDetailController.displayStudent(located);
+      // Switch to Student Details tab
+      if (detailsTab != null) {
+        detailsTab.getTabPane().getSelectionModel().select(detailsTab);
+      }
+    } else {
+      System.err.println("No student detail view to show " + located.getStudent().getName());
+    }
   }
 
   private VBox createInfoPanel() {
@@ -1028,15 +1218,15 @@ public class ClassroomController {
     VBox addClaimBox = new VBox(8);
     
     HBox combo1 = new HBox(8);
-    claimerCombo = new ComboBox<>();
-    claimerCombo.setPromptText(LanguageManager.getInstance().get("claimer"));
-    claimerCombo.setPrefWidth(150);
+    claimerPicker = new RosterPicker(roster);
+    claimerPicker.setPromptText(LanguageManager.getInstance().get("claimer"));
+    claimerPicker.setPrefWidth(150);
     
-    targetCombo = new ComboBox<>();
-    targetCombo.setPromptText(LanguageManager.getInstance().get("target"));
-    targetCombo.setPrefWidth(150);
+    targetPicker = new RosterPicker(roster);
+    targetPicker.setPromptText(LanguageManager.getInstance().get("target"));
+    targetPicker.setPrefWidth(150);
     
-    combo1.getChildren().addAll(claimerCombo, targetCombo);
+    combo1.getChildren().addAll(claimerPicker, targetPicker);
     
     HBox combo2 = new HBox(8);
     directionCombo = new ComboBox<>();
@@ -1048,8 +1238,8 @@ public class ClassroomController {
     addClaimButton.getStyleClass().add("button-success");
     addClaimButton.setPrefWidth(150);
     addClaimButton.setOnAction(e -> {
-      if (claimerCombo.getValue() != null && targetCombo.getValue() != null && directionCombo.getValue() != null) {
-        addClaim(claimerCombo.getValue(), targetCombo.getValue(), directionCombo.getValue());
+      if (claimerPicker.getValue() != null && targetPicker.getValue() != null && directionCombo.getValue() != null) {
+        addClaim(claimerPicker.getValue(), targetPicker.getValue(), directionCombo.getValue());
         updateClaimsList();
       }
     });
@@ -1084,6 +1274,8 @@ public class ClassroomController {
       createButton.setText(lm.get("create"));
     if (analyzeButton != null)
       analyzeButton.setText(lm.get("analyze"));
+    if (cancelAnalysisButton != null)
+      cancelAnalysisButton.setText(lm.get("cancel"));
     if (testDataButton != null)
       testDataButton.setText(lm.get("test_data"));
     if (validateButton != null)
@@ -1094,6 +1286,8 @@ public class ClassroomController {
       setupFirestoreButton.setText(lm.get("setup_firestore"));
     if (importFirestoreButton != null)
       importFirestoreButton.setText(lm.get("import_firestore"));
+    if (liveImportButton != null)
+      liveImportButton.setText(lm.get(livePipeline != null ? "stop_live_import" : "live_import"));
     if (selectAllButton != null)
       selectAllButton.setText(lm.get("select_all"));
     if (deselectAllButton != null)
@@ -1104,6 +1298,8 @@ public class ClassroomController {
       batchAbsentButton.setText(lm.get("mark_absent"));
     if (classroomTitleLabel != null)
       classroomTitleLabel.setText(lm.get("classroom_layout"));
+    if (seatMap != null)
+      seatMap.invalidateAll(); // Seats are painted with the labels of the current language
     if (studentsLabel != null)
       studentsLabel.setText(lm.get("students"));
     if (studentNameField != null)
@@ -1112,14 +1308,24 @@ public class ClassroomController {
       addStudentButton.setText(lm.get("add_student"));
     if (claimsHeaderLabel != null)
       claimsHeaderLabel.setText(lm.get("claims"));
-    if (claimerCombo != null)
-      claimerCombo.setPromptText(lm.get("claimer"));
-    if (targetCombo != null)
-      targetCombo.setPromptText(lm.get("target"));
+    if (claimerPicker != null)
+      claimerPicker.setPromptText(lm.get("claimer"));
+    if (targetPicker != null)
+      targetPicker.setPromptText(lm.get("target"));
     if (directionCombo != null)
       directionCombo.setPromptText(lm.get("direction"));
     if (addClaimButton != null)
       addClaimButton.setText(lm.get("add_claim"));
+    if (claimsListView != null)
+      updateClaimsList(); // Tagged claims carry a translated label
+    if (exportSeatMapItem != null)
+      exportSeatMapItem.setText(lm.get("export_image"));
+    if (heatmapOffItem != null)
+      heatmapOffItem.setText(lm.get("heatmap_off"));
+    if (heatmapConfidenceItem != null)
+      heatmapConfidenceItem.setText(lm.get("heatmap_confidence"));
+    if (heatmapConflictsItem != null)
+      heatmapConflictsItem.setText(lm.get("heatmap_conflicts"));
     if (statusLabel != null && (statusLabel.getText() == null || statusLabel.getText().isEmpty()
         || statusLabel.getText().equals(LanguageManager.getInstance().get("status_ready")))) {
       statusLabel.setText(lm.get("status_ready"));
@@ -1132,6 +1338,7 @@ public class ClassroomController {
 
     try {
       classroom = new Classroom(rows, cols);
+      startSession();
       studentButtons.clear();
       studentRegistry.clear();
 
@@ -1152,6 +1359,29 @@ public class ClassroomController {
     statusLabel.setText("Classroom grid updated");
   }
 
+  /**
+   * Show a new roster in the students list and the claim pickers, one bulk update each.
+   */
+  private void setRoster(Collection<LocatedStudent> students) {
+    List<String> items = new ArrayList<>(students.size());
+    List<Student> rosterStudents = new ArrayList<>(students.size());
+    for (LocatedStudent located : students) {
+      items.add(studentItem(located.getStudent()));
+      rosterStudents.add(located.getStudent());
+    }
+    if (studentsListView != null)
+      studentsListView.getItems().setAll(items);
+    roster.setAll(rosterStudents);
+    if (claimerPicker != null)
+      claimerPicker.setValue(null);
+    if (targetPicker != null)
+      targetPicker.setValue(null);
+  }
+
+  private static String studentItem(Student student) {
+    return student.getName() + " (ID: " + student.getId() + ")";
+  }
+
   private void addStudent(String name, ListView<String> studentsList) {
     if (classroom == null) {
       showError("Please create a classroom first");
@@ -1164,38 +1394,33 @@ public class ClassroomController {
 
     // Use studentId as key for consistency
     studentRegistry.put(studentId, located);
-    studentsList.getItems().add(name + " (ID: " + studentId + ")");
-
-    // Update ComboBoxes with new student
-    if (claimerCombo != null) {
-      claimerCombo.getItems().add(name);
-    }
-    if (targetCombo != null) {
-      targetCombo.getItems().add(name);
-    }
+    studentsList.getItems().add(studentItem(student));
+    roster.add(student);
 
     statusLabel.setText("Student added: " + name);
   }
 
-  private void addClaim(String claimer, String target, Direction direction) {
-    // Find students by name in registry
-    LocatedStudent claimerLocated = studentRegistry.values().stream()
-        .filter(ls -> ls.getStudent().getName().equals(claimer))
-        .findFirst().orElse(null);
-
-    LocatedStudent targetLocated = studentRegistry.values().stream()
-        .filter(ls -> ls.getStudent().getName().equals(target))
-        .findFirst().orElse(null);
+  private void addClaim(Student claimer, Student target, Direction direction) {
+    LocatedStudent claimerLocated = studentRegistry.get(claimer.getId());
+    LocatedStudent targetLocated = studentRegistry.get(target.getId());
 
     if (claimerLocated != null && targetLocated != null) {
       Claim claim = new Claim(direction, targetLocated.getStudent());
+      ClaimValidator.Reason reason = new ClaimValidator(classroom, studentRegistry::containsKey, true)
+          .check(claimerLocated, claim);
+      if (reason != null) {
+        showError("Claim rejected: " + describe(reason));
+        return;
+      }
       claimerLocated.addClaim(claim);
       claims.add(claim); // Store in claims list for analysis
-      statusLabel.setText(claimer + " claims " + target + " to the " + direction.toString().toLowerCase());
+      refreshSeatsOf(List.of(claimerLocated.getStudent().getId()));
+      statusLabel.setText(claimer.getName() + " claims " + target.getName() + " to the "
+          + direction.toString().toLowerCase());
 
-      // Reset ComboBoxes after adding claim
-      claimerCombo.setValue(null);
-      targetCombo.setValue(null);
+      // Reset the pickers after adding claim
+      claimerPicker.setValue(null);
+      targetPicker.setValue(null);
       directionCombo.setValue(null);
     } else {
       showError("Invalid student selection");
@@ -1206,15 +1431,27 @@ public class ClassroomController {
     claimsListView.getItems().clear();
     for (LocatedStudent student : studentRegistry.values()) {
       for (Claim claim : student.getClaims()) {
-        String targetName = claim.isAbsentClaim() ? "[ABSENT/EMPTY]" : claim.getTarget().getName();
-        claimsListView.getItems().add(
-            student.getStudent().getName() + " → " +
-                targetName + " (" + claim.getDirection() + ")");
+        claimsListView.getItems().add(claimItem(student, claim));
       }
     }
   }
 
+  private static String claimItem(LocatedStudent student, Claim claim) {
+    String targetName = claim.isAbsentClaim() ? "[ABSENT/EMPTY]" : claim.getTarget().getName();
+    String item = student.getStudent().getName() + " → " + targetName + " (" + claim.getDirection() + ")";
+    if (claim.isTagged())
+      item += " ⚠ " + LanguageManager.getInstance().get("claim_tag_" + claim.getTag().toLowerCase());
+    return item;
+  }
+
+  /**
+   * Start analyzing attendance in the background. While an analysis runs, further
+   * requests join it instead of starting another one.
+   */
   public void analyzeAttendance() {
+    if (analysisRunner.isRunning()) {
+      return;
+    }
     if (classroom == null || studentRegistry.isEmpty()) {
       showError("Please setup classroom and add students first");
       return;
@@ -1225,54 +1462,75 @@ public class ClassroomController {
       //classroom.validateAllNeighborsDeclared();
 
       // Configure the service
-      attendanceService.setClassroom(classroom);
+      attendanceService.setClassroom(classroom, seatCollisions);
       attendanceService.setLocatedStudents(studentRegistry.values());
-      attendanceService.setClaims(claims);
       attendanceService.setManualOverrides(manualOverrides);
 
-      // Perform analysis
-      AttendanceService.AttendanceAnalysisResult result = attendanceService.analyzeAttendance();
+      // Scoring runs in the background; the listener callbacks report back here
+      analysisRunner.start();
+    } catch (Exception e) {
+      showError("Error during analysis: " + e.getMessage());
+      statusLabel.setText("Analysis failed");
+    }
+  }
 
-      // Report success and trigger callback
-      statusLabel.setText("Analysis complete: " + result.reports.size() + " students analyzed");
-      if (onAnalysisComplete != null) {
-        onAnalysisComplete.run();
-      }
+  private void analysisStarted(int total) {
+    setAnalysisControlsVisible(true);
+    analysisProgress.setProgress(total > 0 ? 0 : ProgressBar.INDETERMINATE_PROGRESS);
+    statusLabel.setText("Analyzing " + total + " students...");
+    if (resultsController != null)
+      resultsController.beginResults();
+  }
 
-      // Show results summary
-      int presentCount = (int) result.reports.stream()
-          .filter(r -> r.getStatus().equals(org.example.testapp.attendance.AttendanceReport.AttendanceStatus.PRESENT))
-          .count();
-      int absentCount = (int) result.reports.stream()
-          .filter(r -> r.getStatus().equals(org.example.testapp.attendance.AttendanceReport.AttendanceStatus.ABSENT))
-          .count();
-
-      // Record to history
-      if (historyController != null) {
-        String summary = String.format("Analyzed %d students (%d present, %d absent, %d conflicts)",
-            result.reports.size(), presentCount, absentCount, result.conflicts.size());
-        historyController.recordAnalysis(summary);
-      }
+  private void analysisProgressed(List<AttendanceReport> reports, int done, int total) {
+    analysisProgress.setProgress((double) done / total);
+    statusLabel.setText("Analyzing: " + done + " of " + total + " students scored...");
+    if (resultsController != null)
+      resultsController.appendResults(reports);
+  }
 
-      Alert alert = new Alert(Alert.AlertType.INFORMATION);
-      alert.setTitle("Analysis Results");
-      alert.setHeaderText(null);
-      alert.setContentText(String.format(
-          "Analysis Results:\n\n" +
-              "Total Students: %d\n" +
-              "Present: %d\n" +
-              "Absent: %d\n" +
-              "Conflicts Detected: %d\n\n" +
-              "See Results tab for details",
-          result.reports.size(), presentCount, absentCount, result.conflicts.size()));
-      alert.showAndWait();
+  private void analysisFinished(AttendanceService.AttendanceAnalysisResult result) {
+    setAnalysisControlsVisible(false);
+    long presentCount = result.reports.stream()
+        .filter(r -> r.getStatus() == AttendanceReport.AttendanceStatus.PRESENT)
+        .count();
+    long absentCount = result.reports.stream()
+        .filter(r -> r.getStatus() == AttendanceReport.AttendanceStatus.ABSENT)
+        .count();
+
+    // Report success and trigger callback
+    statusLabel.setText(String.format(
+        "Analysis complete: %d students analyzed, %d present, %d absent, %d conflicts. See Results tab for details.",
+        result.reports.size(), presentCount, absentCount, result.conflicts.size()));
+    if (resultsController != null)
+      resultsController.finishResults(result);
+    updateHeatmap();
+    if (onAnalysisComplete != null) {
+      onAnalysisComplete.run();
+    }
 
-    } catch (Exception e) {
-      showError("Error during analysis: " + e.getMessage());
-      statusLabel.setText("Analysis failed");
+    // Record to history
+    if (historyController != null) {
+      historyController.recordAnalysis(result, sessionId);
     }
   }
 
+  private void setAnalysisControlsVisible(boolean visible) {
+    analysisProgress.setVisible(visible);
+    analysisProgress.setManaged(visible);
+    cancelAnalysisButton.setVisible(visible);
+    cancelAnalysisButton.setManaged(visible);
+  }
+
+  private static String describe(ClaimValidator.Reason reason) {
+    return switch (reason) {
+      case OUT_OF_BOUNDS -> "that seat is outside the classroom";
+      case SELF_CLAIM -> "a student cannot be their own neighbor";
+      case UNKNOWN_TARGET -> "that student is not registered";
+      case DUPLICATE_DIRECTION -> "a neighbor was already declared in that direction";
+    };
+  }
+
   private void showError(String message) {
     Alert alert = new Alert(Alert.AlertType.ERROR);
     alert.setTitle("Error");
@@ -1323,7 +1581,7 @@ public class ClassroomController {
     }
 
     // Update visualization to show warnings
-    updateClassroomVisualization();
+    refreshAllCells();
 
     // Show results
     Alert alert;
@@ -1359,6 +1617,7 @@ public class ClassroomController {
 
   public void newSession() {
     classroom = null;
+    startSession();
     studentButtons.clear();
     studentRegistry.clear();
     claims.clear();
@@ -1371,6 +1630,7 @@ public class ClassroomController {
    */
   public void loadClassroom(Classroom loadedClassroom) {
     this.classroom = loadedClassroom;
+    startSession();
 
     // Recreate UI elements
     studentButtons.clear();
@@ -1388,14 +1648,17 @@ public class ClassroomController {
       selectedStudents.add(student.getStudent().getId());
     }
     // Selecting all does not change manual overrides
-    updateClassroomVisualization();
+    refreshAllCells();
+    pulseSeatsOf(selectedStudents);
     statusLabel.setText("Selected " + selectedStudents.size() + " students");
     AuditLogger.log("BATCH_SELECT", "Selected all " + selectedStudents.size() + " students");
   }
 
   private void deselectAllStudents() {
+    List<String> deselected = new ArrayList<>(selectedStudents);
     selectedStudents.clear();
-    updateClassroomVisualization();
+    refreshAllCells();
+    pulseSeatsOf(deselected);
     statusLabel.setText("Deselected all students");
     AuditLogger.log("BATCH_DESELECT", "Deselected all students");
   }
@@ -1440,7 +1703,8 @@ public class ClassroomController {
       }
     }
     updateClaimsList();
-    updateClassroomVisualization();
+    refreshSeatsOf(selectedStudents);
+    pulseSeatsOf(selectedStudents);
     statusLabel.setText("Marked " + selectedStudents.size() + " students as present");
     AuditLogger.log("BATCH_MARK_PRESENT", "Marked " + selectedStudents.size() + " students present");
   }
@@ -1485,7 +1749,8 @@ public class ClassroomController {
       }
     }
     updateClaimsList();
-    updateClassroomVisualization();
+    refreshSeatsOf(selectedStudents);
+    pulseSeatsOf(selectedStudents);
     statusLabel.setText("Marked " + selectedStudents.size() + " students as absent");
     AuditLogger.log("BATCH_MARK_ABSENT", "Marked " + selectedStudents.size() + " students absent");
   }
@@ -1495,7 +1760,7 @@ public class ClassroomController {
       System.out.println("[DEBUG] Undo executed");
       undoRedoManager.undo();
       updateClaimsList();
-      updateClassroomVisualization();
+      refreshAllCells();
       statusLabel.setText("Action undone");
       AuditLogger.log("UNDO", "Undo performed");
     } else {
@@ -1508,7 +1773,7 @@ public class ClassroomController {
       System.out.println("[DEBUG] Redo executed");
       undoRedoManager.redo();
       updateClaimsList();
-      updateClassroomVisualization();
+      refreshAllCells();
       statusLabel.setText("Action redone");
       AuditLogger.log("REDO", "Redo performed");
     } else {
@@ -1526,10 +1791,11 @@ public class ClassroomController {
 
   public void setRedactionEnabled(boolean enabled) {
     this.redactionEnabled = enabled;
-    updateClassroomVisualization();
+    if (seatMap != null)
+      seatMap.invalidateAll();
   }
 
   public boolean isRedactionEnabled() {
     return redactionEnabled;
   }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -129,7 +129,7 @@ public class ConflictAnalysisController {
         return;
       }
 
-      ConflictDetector detector = new ConflictDetector(classroom);
+      ConflictDetector detector = new ConflictDetector(classroom, classroomController.getSeatCollisions());
       var allConflicts = detector.detectAllConflicts();
       var suspiciousStudents = detector.findSuspiciousStudents(0.5); // 50% reciprocity threshold
 
@@ -1,5 +1,6 @@
 package org.example.testapp;
 
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -10,27 +11,68 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 
+import org.example.testapp.attendance.AttendanceReport;
+import org.example.testapp.history.AnalysisHistoryStore;
+import org.example.testapp.history.AnalysisRecord;
+import org.example.testapp.history.AttendanceLedger;
+import org.example.testapp.persistence.AttendanceRepository;
+import org.example.testapp.persistence.Persistence;
+
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Controller for viewing analysis history.
- * Stores and displays timestamped records of past analyses.
+ * Stores and displays timestamped records of past analyses, newest first.
+ *
+ * When the database repository is enabled, history pages and the frequent absence query
+ * are read from it; otherwise they come from the history store and the attendance ledger.
  */
 public class HistoryController {
+  private static final int PAGE_SIZE = 100;
+  private static final int FREQUENT_ABSENCE_WINDOW = 10;
+  private static final int FREQUENT_ABSENCE_THRESHOLD = 3;
+  // History writes run here in submission order, never on the FX thread
+  private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(r -> {
+    Thread thread = new Thread(r, "history-writer");
+    thread.setDaemon(true);
+    return thread;
+  });
+
   private TableView<AnalysisRecord> historyTable;
-  private final File historyFile = new File(System.getProperty("user.home"), ".whoami/analysis_history.txt");
+  private final File historyDir = new File(System.getProperty("user.home"), ".whoami");
   private final ObservableList<AnalysisRecord> records = FXCollections.observableArrayList();
+  private AnalysisHistoryStore store;
+  private AttendanceLedger ledger;
+  private long oldestLoadedIndex; // Store index of the oldest record shown in the table
+  private long oldestLoadedMillis = Long.MAX_VALUE; // Time of the oldest record shown, when paging the database
+  private long oldestLoadedId = Long.MAX_VALUE; // Its database id, which breaks ties between equal times
+  private boolean hasOlder;
   private Label titleLabel;
   private Button clearButton;
   private Button refreshButton;
+  private Button loadOlderButton;
+  private Button frequentAbsencesButton;
+
+  public HistoryController() {
+    try {
+      store = AnalysisHistoryStore.open(new File(historyDir, "analysis_history.dat").toPath(),
+          new File(historyDir, "analysis_history.txt").toPath());
+    } catch (IOException e) {
+      System.err.println("Failed to open analysis history: " + e.getMessage());
+    }
+    try {
+      ledger = AttendanceLedger.open(new File(historyDir, "attendance_ledger.dat").toPath());
+    } catch (IOException e) {
+      System.err.println("Failed to open attendance ledger: " + e.getMessage());
+    }
+  }
 
   public Node getView() {
     VBox mainLayout = new VBox(15);
@@ -50,7 +92,15 @@ public class HistoryController {
     clearButton.getStyleClass().add("button-danger");
     clearButton.setOnAction(e -> clearHistory());
 
-    controlBox.getChildren().addAll(refreshButton, clearButton);
+    loadOlderButton = new Button(LanguageManager.getInstance().get("load_older"));
+    loadOlderButton.getStyleClass().add("button-secondary");
+    loadOlderButton.setOnAction(e -> loadOlder());
+
+    frequentAbsencesButton = new Button(LanguageManager.getInstance().get("frequent_absences"));
+    frequentAbsencesButton.getStyleClass().add("button-warning");
+    frequentAbsencesButton.setOnAction(e -> showFrequentAbsences());
+
+    controlBox.getChildren().addAll(refreshButton, loadOlderButton, frequentAbsencesButton, clearButton);
 
     // History table
     historyTable = new TableView<>();
@@ -59,13 +109,13 @@ public class HistoryController {
 
     TableColumn<AnalysisRecord, String> timestampCol = new TableColumn<>("Date & Time");
     timestampCol.setCellValueFactory(cellData ->
-        new SimpleStringProperty(cellData.getValue().getTimestamp()));
+        new SimpleStringProperty(cellData.getValue().getTimestampText()));
     timestampCol.setMinWidth(150);
     timestampCol.setPrefWidth(180);
 
     TableColumn<AnalysisRecord, String> detailsCol = new TableColumn<>("Analysis Summary");
     detailsCol.setCellValueFactory(cellData ->
-        new SimpleStringProperty(cellData.getValue().getDetails()));
+        new SimpleStringProperty(cellData.getValue().getSummary()));
     detailsCol.setMinWidth(300);
     
     // Enable text wrapping in details column
@@ -96,23 +146,137 @@ public class HistoryController {
     return scrollPane;
   }
 
+  /**
+   * Show the newest records, served from the store's in-memory tail or read from the
+   * database.
+   */
   private void loadHistory() {
-    records.clear();
+    AttendanceRepository repository = Persistence.getRepository();
+    if (repository != null) {
+      records.clear();
+      oldestLoadedMillis = Long.MAX_VALUE;
+      oldestLoadedId = Long.MAX_VALUE;
+      hasOlder = false;
+      updateLoadOlderButton();
+      readOlder(repository);
+      return;
+    }
+    if (store == null) {
+      records.clear();
+      return;
+    }
+    List<AnalysisRecord> tail;
+    long size;
+    synchronized (store) { // The writer may append in between
+      tail = store.tail();
+      size = store.size();
+    }
+    Collections.reverse(tail);
+    records.setAll(tail);
+    oldestLoadedIndex = size - tail.size();
+    hasOlder = oldestLoadedIndex > 0;
+    updateLoadOlderButton();
+  }
 
+  /**
+   * Append the page of records just older than the ones currently shown.
+   */
+  private void loadOlder() {
+    AttendanceRepository repository = Persistence.getRepository();
+    if (repository != null) {
+      readOlder(repository);
+      return;
+    }
+    if (store == null || oldestLoadedIndex <= 0) {
+      return;
+    }
     try {
-      if (historyFile.exists()) {
-        List<String> lines = Files.readAllLines(historyFile.toPath());
-        for (String line : lines) {
-          if (line.startsWith("ANALYSIS|")) {
-            String[] parts = line.substring(9).split("\\|", 2);
-            if (parts.length >= 2) {
-              AnalysisRecord record = new AnalysisRecord(parts[0], parts[1]);
-              records.add(record);
-            }
+      long from = Math.max(0, oldestLoadedIndex - PAGE_SIZE);
+      List<AnalysisRecord> page = store.read(from, (int) (oldestLoadedIndex - from));
+      Collections.reverse(page);
+      records.addAll(page);
+      oldestLoadedIndex = from;
+    } catch (IOException e) {
+      System.err.println("Failed to read analysis history: " + e.getMessage());
+    }
+    hasOlder = oldestLoadedIndex > 0;
+    updateLoadOlderButton();
+  }
+
+  /**
+   * Append the database page just older than the records shown. The query runs on the
+   * history writer, behind any analysis still being saved.
+   */
+  private void readOlder(AttendanceRepository repository) {
+    long before = oldestLoadedMillis;
+    long beforeId = oldestLoadedId;
+    WRITER.execute(() -> {
+      try {
+        List<AnalysisRecord> page = repository.readHistory(before, beforeId, PAGE_SIZE);
+        Platform.runLater(() -> {
+          if (before != oldestLoadedMillis || beforeId != oldestLoadedId) {
+            return; // Reloaded or already paged meanwhile
           }
-        }
+          records.addAll(page);
+          if (!page.isEmpty()) {
+            AnalysisRecord oldest = page.get(page.size() - 1);
+            oldestLoadedMillis = oldest.getTimestamp();
+            oldestLoadedId = oldest.getAnalysisId();
+          }
+          hasOlder = page.size() == PAGE_SIZE;
+          updateLoadOlderButton();
+        });
+      } catch (IOException e) {
+        System.err.println(e.getMessage());
+      }
+    });
+  }
+
+  /**
+   * List students absent in more than FREQUENT_ABSENCE_THRESHOLD of the last
+   * FREQUENT_ABSENCE_WINDOW sessions, answered from the database when it is enabled and
+   * from the attendance ledger otherwise.
+   */
+  private void showFrequentAbsences() {
+    AttendanceRepository repository = Persistence.getRepository();
+    if (repository == null) {
+      showFrequentAbsences(ledger != null
+          ? ledger.studentsWithStatus(AttendanceReport.AttendanceStatus.ABSENT, FREQUENT_ABSENCE_THRESHOLD,
+              FREQUENT_ABSENCE_WINDOW)
+          : Map.of());
+      return;
+    }
+    WRITER.execute(() -> {
+      try {
+        Map<String, Integer> absentees = repository.studentsWithStatus(AttendanceReport.AttendanceStatus.ABSENT,
+            FREQUENT_ABSENCE_THRESHOLD, FREQUENT_ABSENCE_WINDOW);
+        Platform.runLater(() -> showFrequentAbsences(absentees));
+      } catch (IOException e) {
+        System.err.println(e.getMessage());
       }
-    } catch (IOException ignored) {
+    });
+  }
+
+  private void showFrequentAbsences(Map<String, Integer> absentees) {
+    LanguageManager lm = LanguageManager.getInstance();
+    StringBuilder content = new StringBuilder();
+    for (Map.Entry<String, Integer> entry : absentees.entrySet()) {
+      String name = ledger != null ? ledger.getStudentName(entry.getKey()) : entry.getKey();
+      content.append("• ").append(name)
+          .append(" (ID: ").append(entry.getKey()).append("): ")
+          .append(entry.getValue()).append("/").append(FREQUENT_ABSENCE_WINDOW).append("\n");
+    }
+
+    Alert alert = new Alert(Alert.AlertType.INFORMATION);
+    alert.setTitle(lm.get("frequent_absences"));
+    alert.setHeaderText(null);
+    alert.setContentText(content.length() > 0 ? content.toString() : lm.get("no_frequent_absences"));
+    alert.showAndWait();
+  }
+
+  private void updateLoadOlderButton() {
+    if (loadOlderButton != null) {
+      loadOlderButton.setDisable(!hasOlder);
     }
   }
 
@@ -123,48 +287,85 @@ public class HistoryController {
     confirm.setContentText(LanguageManager.getInstance().get("clear_history_confirm"));
     Optional<ButtonType> result = confirm.showAndWait();
     if (result.isPresent() && result.get() == ButtonType.OK) {
-      try {
-        historyFile.delete();
-        records.clear();
-      } catch (Exception e) {
-        Alert alert = new Alert(Alert.AlertType.ERROR);
-        alert.setTitle(LanguageManager.getInstance().get("error"));
-        alert.setContentText(LanguageManager.getInstance().get("failed_clear_history") + " " + e.getMessage());
-        alert.showAndWait();
-      }
+      records.clear();
+      oldestLoadedIndex = 0;
+      oldestLoadedMillis = Long.MAX_VALUE;
+      oldestLoadedId = Long.MAX_VALUE;
+      hasOlder = false;
+      updateLoadOlderButton();
+      // Queued behind any write still pending, so nothing recorded earlier survives
+      WRITER.execute(() -> {
+        try {
+          if (store != null) {
+            store.clear();
+          }
+          if (ledger != null) {
+            ledger.clear();
+          }
+          AttendanceRepository repository = Persistence.getRepository();
+          if (repository != null) {
+            repository.clearHistory();
+          }
+        } catch (Exception e) {
+          Platform.runLater(() -> {
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle(LanguageManager.getInstance().get("error"));
+            alert.setContentText(LanguageManager.getInstance().get("failed_clear_history") + " " + e.getMessage());
+            alert.showAndWait();
+          });
+        }
+      });
     }
   }
 
-  public void recordAnalysis(String summary) {
-    try {
-      historyFile.getParentFile().mkdirs();
-      DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-      String timestamp = LocalDateTime.now().format(fmt);
-      String details = String.format("Recorded at: %s\n%s", timestamp, summary);
-      try (FileWriter fw = new FileWriter(historyFile, true)) {
-        fw.write("ANALYSIS|" + timestamp + "|" + summary + "\n");
+  /**
+   * Record a finished analysis. The record is pushed to the top of the table at once and
+   * written to the store, the ledger and the database on the history writer thread;
+   * nothing already recorded is re-read.
+   */
+  public void recordAnalysis(AttendanceService.AttendanceAnalysisResult result, long sessionId) {
+    int present = 0;
+    int absent = 0;
+    int uncertain = 0;
+    double confidenceSum = 0;
+    for (AttendanceReport report : result.reports) {
+      switch (report.getStatus()) {
+        case PRESENT -> present++;
+        case ABSENT -> absent++;
+        default -> uncertain++;
       }
-      loadHistory();
-    } catch (IOException ignored) {
+      confidenceSum += report.getConfidenceScore();
     }
-  }
+    double averageConfidence = result.reports.isEmpty() ? 0.0 : confidenceSum / result.reports.size();
 
-  private static class AnalysisRecord {
-    private final String timestamp;
-    private final String details;
-
-    AnalysisRecord(String ts, String det) {
-      this.timestamp = ts;
-      this.details = det;
-    }
+    AnalysisRecord record = new AnalysisRecord(System.currentTimeMillis(), sessionId, result.reports.size(),
+        present, absent, uncertain, result.conflicts.size(), averageConfidence);
+    records.add(0, record);
 
-    public String getTimestamp() {
-      return timestamp;
-    }
-
-    public String getDetails() {
-      return details;
-    }
+    WRITER.execute(() -> {
+      if (store != null) {
+        try {
+          store.append(record);
+        } catch (IOException e) {
+          System.err.println("Failed to record analysis: " + e.getMessage());
+        }
+      }
+      if (ledger != null) {
+        try {
+          ledger.record(sessionId, record.getTimestamp(), result.reports);
+        } catch (IOException e) {
+          System.err.println("Failed to record attendance ledger: " + e.getMessage());
+        }
+      }
+      AttendanceRepository repository = Persistence.getRepository();
+      if (repository != null) {
+        try {
+          repository.saveAnalysis(sessionId, record, result.reports, result.conflicts);
+        } catch (IOException e) {
+          System.err.println(e.getMessage());
+        }
+      }
+    });
   }
 
   private void updateLanguageTexts() {
@@ -175,5 +376,9 @@ public class HistoryController {
       clearButton.setText(lm.get("clear_history"));
     if (refreshButton != null)
       refreshButton.setText(lm.get("refresh"));
+    if (loadOlderButton != null)
+      loadOlderButton.setText(lm.get("load_older"));
+    if (frequentAbsencesButton != null)
+      frequentAbsencesButton.setText(lm.get("frequent_absences"));
   }
 }
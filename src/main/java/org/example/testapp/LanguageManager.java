@@ -62,6 +62,8 @@ public class LanguageManager {
     english.put("import_csv", "Import CSV");
     english.put("setup_firestore", "Setup");
     english.put("import_firestore", "Import Data");
+    english.put("live_import", "Live Import");
+    english.put("stop_live_import", "Stop Live");
     english.put("select_all", "Select All");
     english.put("deselect_all", "Deselect All");
     english.put("mark_present", "Mark Selected Present");
@@ -146,6 +148,9 @@ public class LanguageManager {
     english.put("export_pdf", "Export as PDF");
     english.put("export_excel", "Export as Excel");
     english.put("export_image", "Export as Image");
+    english.put("heatmap_off", "No Heatmap");
+    english.put("heatmap_confidence", "Heatmap: Confidence");
+    english.put("heatmap_conflicts", "Heatmap: Conflicts");
     english.put("student_name_col", "Student Name");
     english.put("status_col", "Status");
     english.put("confidence_col", "Confidence");
@@ -179,6 +184,20 @@ public class LanguageManager {
         "All students have provided truthful claims about their neighbors.\nTotal students: %d");
     english.put("conflict_error", "Error analyzing conflicts: %s");
     english.put("audit_log_cleared", "Audit log cleared.");
+    english.put("load_older", "Load Older");
+    english.put("load_more", "Load More");
+    english.put("audit_from", "From date");
+    english.put("audit_to", "To date");
+    english.put("frequent_absences", "Frequent Absences");
+    english.put("semester_overview", "Semester Overview");
+    english.put("confidence_distribution", "Confidence Distribution");
+    english.put("conflict_types", "Conflicts by Type");
+    english.put("semester_summary",
+        "Sessions: %d | Reports: %d | Present: %d%% | Confidence p10/p50/p90: %.2f / %.2f / %.2f");
+    english.put("heatmap_row_rate", "Row %d: %s present");
+    english.put("heatmap_col_rate", "Column %d: %s present");
+    english.put("heatmap_seat_rate", "Row %d, column %d: %s present");
+    english.put("no_frequent_absences", "No student was absent in more than 3 of the last 10 sessions.");
 
     // History tab
     english.put("clear_history", "Clear History");
@@ -198,6 +217,7 @@ public class LanguageManager {
     english.put("configuration_issues", "Configuration Issues Detected:");
     english.put("continue", "Continue");
     english.put("cancel", "Cancel");
+    english.put("analysis_running", "Analysis in progress...");
     english.put("name", "Name");
     english.put("id", "ID");
     english.put("row", "Row");
@@ -209,6 +229,8 @@ public class LanguageManager {
     english.put("direction_right", "Right");
     english.put("direction_front", "Front");
     english.put("direction_back", "Back");
+    english.put("claim_tag_unknown_target", "not registered yet");
+    english.put("tagged_claims_tooltip", "%d claim(s) about students who have not registered");
 
     translations.put(Language.ENGLISH, english);
 
@@ -224,6 +246,8 @@ public class LanguageManager {
     french.put("import_csv", "Importer CSV");
     french.put("setup_firestore", "Configurer");
     french.put("import_firestore", "Importer les données");
+    french.put("live_import", "Import en direct");
+    french.put("stop_live_import", "Arrêter le direct");
     french.put("select_all", "Sélectionner tout");
     french.put("deselect_all", "Désélectionner tout");
     french.put("mark_present", "Marquer sélectionnés présents");
@@ -309,6 +333,9 @@ public class LanguageManager {
     french.put("export_pdf", "Exporter en PDF");
     french.put("export_excel", "Exporter en Excel");
     french.put("export_image", "Exporter en image");
+    french.put("heatmap_off", "Sans carte de chaleur");
+    french.put("heatmap_confidence", "Carte de chaleur : confiance");
+    french.put("heatmap_conflicts", "Carte de chaleur : conflits");
     french.put("student_name_col", "Nom de l'étudiant");
     french.put("status_col", "Statut");
     french.put("confidence_col", "Confiance");
@@ -342,6 +369,20 @@ public class LanguageManager {
         "Tous les étudiants ont fourni des déclarations véridiques sur leurs voisins.\nNombre total d'étudiants : %d");
     french.put("conflict_error", "Erreur lors de l'analyse des conflits : %s");
     french.put("audit_log_cleared", "Journal d'audit effacé.");
+    french.put("load_older", "Charger plus anciens");
+    french.put("load_more", "Charger la suite");
+    french.put("audit_from", "Du");
+    french.put("audit_to", "Au");
+    french.put("frequent_absences", "Absences fréquentes");
+    french.put("semester_overview", "Vue du semestre");
+    french.put("confidence_distribution", "Distribution de la confiance");
+    french.put("conflict_types", "Conflits par type");
+    french.put("semester_summary",
+        "Séances : %d | Rapports : %d | Présents : %d%% | Confiance p10/p50/p90 : %.2f / %.2f / %.2f");
+    french.put("heatmap_row_rate", "Ligne %d : %s présents");
+    french.put("heatmap_col_rate", "Colonne %d : %s présents");
+    french.put("heatmap_seat_rate", "Ligne %d, colonne %d : %s présents");
+    french.put("no_frequent_absences", "Aucun étudiant absent à plus de 3 des 10 dernières séances.");
 
     // History tab
     french.put("clear_history", "Effacer l'historique");
@@ -361,6 +402,7 @@ public class LanguageManager {
     french.put("configuration_issues", "Problèmes de configuration détectés :");
     french.put("continue", "Continuer");
     french.put("cancel", "Annuler");
+    french.put("analysis_running", "Analyse en cours...");
     french.put("name", "Nom");
     french.put("id", "ID");
     french.put("row", "Ligne");
@@ -372,6 +414,8 @@ public class LanguageManager {
     french.put("direction_right", "Droite");
     french.put("direction_front", "Devant");
     french.put("direction_back", "Arrière");
+    french.put("claim_tag_unknown_target", "pas encore inscrit");
+    french.put("tagged_claims_tooltip", "%d déclaration(s) sur des étudiants non inscrits");
 
     translations.put(Language.FRENCH, french);
   }
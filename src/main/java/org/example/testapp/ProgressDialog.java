@@ -1,33 +1,64 @@
 package org.example.testapp;
 
 import javafx.geometry.Insets;
+import javafx.geometry.Pos;
 import javafx.scene.Scene;
+import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 
 public class ProgressDialog extends Stage {
+    private final ProgressBar progressBar;
 
     public ProgressDialog() {
+        this("Uploading to Firestore...", null);
+    }
+
+    /**
+     * @param onCancel invoked when the user presses Cancel; no Cancel button if null
+     */
+    public ProgressDialog(String message, Runnable onCancel) {
         initStyle(StageStyle.UTILITY);
         initModality(Modality.APPLICATION_MODAL);
         setResizable(false);
 
-        ProgressBar progressBar = new ProgressBar();
+        progressBar = new ProgressBar();
         progressBar.setPrefWidth(300);
         progressBar.setProgress(-1); // Indeterminate progress
 
-        Label label = new Label("Uploading to Firestore...");
+        Label label = new Label(message);
         label.setStyle("-fx-font-size: 14px; -fx-padding: 10px;");
 
         VBox vbox = new VBox(10, label, progressBar);
         vbox.setPadding(new Insets(20));
         vbox.setStyle("-fx-background-color: white; -fx-border-color: #ccc;");
 
+        if (onCancel != null) {
+            Button cancelButton = new Button(LanguageManager.getInstance().get("cancel"));
+            cancelButton.getStyleClass().add("button-secondary");
+            cancelButton.setOnAction(e -> {
+                cancelButton.setDisable(true);
+                onCancel.run();
+            });
+            HBox buttonBox = new HBox(cancelButton);
+            buttonBox.setAlignment(Pos.CENTER_RIGHT);
+            vbox.getChildren().add(buttonBox);
+            setOnCloseRequest(e -> onCancel.run());
+        }
+
         Scene scene = new Scene(vbox);
         setScene(scene);
     }
-}
\ No newline at end of file
+
+    /**
+     * Set progress in [0, 1], or a negative value for indeterminate. Call on the FX thread.
+     */
+    public void setProgress(double progress) {
+        progressBar.setProgress(progress < 0 ? ProgressBar.INDETERMINATE_PROGRESS : progress);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,129 @@
+package org.example.testapp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Analysis results stored by column: one primitive array per field, indexed by row.
+ *
+ * A row costs a name id, two bytes and four doubles, about 40 bytes, instead of a
+ * row object with its own fields. Names repeat across classes and sessions, so each
+ * distinct name is stored once. Rows compare through the columns, without boxing. Rows
+ * are only ever appended.
+ */
+public class ResultsColumns {
+  public static final String[] STATUSES = {"PRESENT", "ABSENT", "UNCERTAIN"};
+
+  private final List<String> nameTable = new ArrayList<>();
+  private final Map<String, Integer> nameIds = new HashMap<>();
+  private int size;
+  private int[] names = new int[16];
+  private byte[] statuses = new byte[16];
+  private byte[] taggedClaims = new byte[16]; // A student makes at most one claim per direction
+  private double[] confidences = new double[16];
+  private double[] neighborScores = new double[16];
+  private double[] occupancyScores = new double[16];
+  private double[] consensusScores = new double[16];
+
+  public enum Column {
+    NAME, STATUS, CONFIDENCE, NEIGHBOR, OCCUPANCY, CONSENSUS
+  }
+
+  /**
+   * Append a row.
+   *
+   * @param status one of {@link #STATUSES}; anything else counts as UNCERTAIN
+   * @param taggedClaims the student's claims kept with a tag, see
+   *                     {@link org.example.testapp.entities.Claim#getTag}
+   * @return the row's number
+   */
+  public int add(String name, String status, int taggedClaims, double confidence, double neighborScore,
+      double occupancyScore, double consensusScore) {
+    if (size == names.length) {
+      int capacity = size * 2;
+      names = Arrays.copyOf(names, capacity);
+      statuses = Arrays.copyOf(statuses, capacity);
+      this.taggedClaims = Arrays.copyOf(this.taggedClaims, capacity);
+      confidences = Arrays.copyOf(confidences, capacity);
+      neighborScores = Arrays.copyOf(neighborScores, capacity);
+      occupancyScores = Arrays.copyOf(occupancyScores, capacity);
+      consensusScores = Arrays.copyOf(consensusScores, capacity);
+    }
+    int row = size++;
+    names[row] = nameIds.computeIfAbsent(name, key -> {
+      nameTable.add(key);
+      return nameTable.size() - 1;
+    });
+    statuses[row] = statusCode(status);
+    this.taggedClaims[row] = (byte) Math.min(taggedClaims, Byte.MAX_VALUE);
+    confidences[row] = confidence;
+    neighborScores[row] = neighborScore;
+    occupancyScores[row] = occupancyScore;
+    consensusScores[row] = consensusScore;
+    return row;
+  }
+
+  public void clear() {
+    size = 0;
+    nameTable.clear();
+    nameIds.clear();
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public String getName(int row) {
+    return nameTable.get(names[row]);
+  }
+
+  public String getStatus(int row) {
+    return STATUSES[statuses[row]];
+  }
+
+  public int getTaggedClaims(int row) {
+    return taggedClaims[row];
+  }
+
+  public double getConfidence(int row) {
+    return confidences[row];
+  }
+
+  public double getNeighborScore(int row) {
+    return neighborScores[row];
+  }
+
+  public double getOccupancyScore(int row) {
+    return occupancyScores[row];
+  }
+
+  public double getConsensusScore(int row) {
+    return consensusScores[row];
+  }
+
+  /**
+   * Compare two rows by one column, ascending.
+   */
+  public int compare(int a, int b, Column column) {
+    return switch (column) {
+      case NAME -> names[a] == names[b] ? 0 : getName(a).compareTo(getName(b));
+      case STATUS -> getStatus(a).compareTo(getStatus(b));
+      case CONFIDENCE -> Double.compare(confidences[a], confidences[b]);
+      case NEIGHBOR -> Double.compare(neighborScores[a], neighborScores[b]);
+      case OCCUPANCY -> Double.compare(occupancyScores[a], occupancyScores[b]);
+      case CONSENSUS -> Double.compare(consensusScores[a], consensusScores[b]);
+    };
+  }
+
+  private static byte statusCode(String status) {
+    for (byte i = 0; i < STATUSES.length; i++) {
+      if (STATUSES[i].equals(status)) {
+        return i;
+      }
+    }
+    return 2;
+  }
+}
@@ -1,22 +1,39 @@
 package org.example.testapp;
 
 import org.example.testapp.attendance.AttendanceReport;
+import javafx.animation.PauseTransition;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
 import javafx.geometry.Insets;
+import javafx.geometry.VPos;
 import javafx.scene.Node;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.*;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.function.Predicate;
 
 /**
  * Controller for displaying attendance analysis results.
  */
 public class ResultsController {
+  private static final double IMAGE_SCALE = 2; // Image pixels per layout pixel, for sharp exports
+  private static final double IMAGE_HEADER_HEIGHT = 28;
+  private static final double IMAGE_ROW_HEIGHT = 24;
+
   private TableView<AttendanceResultRow> resultsTable;
   private Label summaryLabel;
   private Label titleLabel;
@@ -32,7 +49,13 @@ public class ResultsController {
   private ClassroomController classroomController;
   private TextField searchField;
   private ComboBox<String> statusFilter;
-  private java.util.List<AttendanceResultRow> allResults;
+  private final ResultsColumns results = new ResultsColumns(); // Every result row, by column
+  private final ResultsIndex resultsIndex = new ResultsIndex(); // The same rows, for filtering
+  private final ObservableList<AttendanceResultRow> allResults = FXCollections.observableArrayList(); // Row views
+  private final FilteredList<AttendanceResultRow> filteredResults = new FilteredList<>(allResults);
+  private final SortedList<AttendanceResultRow> sortedResults = new SortedList<>(filteredResults);
+  private RowFilter rowFilter;
+  private final PauseTransition searchDebounce = new PauseTransition(javafx.util.Duration.millis(150));
   // Dynamic box elements for language updates
   private Label summaryTitleLabel;
   private Label filterStatusLabel;
@@ -45,7 +68,7 @@ public class ResultsController {
 
   public ResultsController(ClassroomController classroomController) {
     this.classroomController = classroomController;
-    this.allResults = new java.util.ArrayList<>();
+    searchDebounce.setOnFinished(e -> applyFilters());
   }
 
   public Node getView() {
@@ -70,7 +93,7 @@ public class ResultsController {
     refreshButton.getStyleClass().add("button-outline");
     refreshButton.setPrefWidth(150);
     refreshButton.setOnAction(e -> {
-      AnimationUtils.spin(refreshButton).play();
+      AnimationScheduler.getInstance().play(refreshButton, "spin", AnimationUtils::spin);
       loadLatestResults();
     });
 
@@ -107,7 +130,8 @@ public class ResultsController {
     searchField = new TextField();
     searchField.setPromptText(LanguageManager.getInstance().get("enter_student_name"));
     searchField.setPrefWidth(220);
-    searchField.textProperty().addListener((obs, oldVal, newVal) -> applyFilters());
+    // Filter once typing pauses rather than on every keystroke
+    searchField.textProperty().addListener((obs, oldVal, newVal) -> searchDebounce.playFromStart());
 
     filterStatusLabel = new Label(LanguageManager.getInstance().get("filter_status"));
     filterStatusLabel.getStyleClass().add("label-header");
@@ -129,25 +153,110 @@ public class ResultsController {
     return filterBox;
   }
 
+  /**
+   * Show the rows matching the search text and status, looked up in the index.
+   */
   private void applyFilters() {
-    String searchText = searchField.getText().toLowerCase().trim();
+    searchDebounce.stop();
     String statusText = statusFilter.getValue();
+    boolean anyStatus = statusText == null || statusText.equals(LanguageManager.getInstance().get("all"));
+    String status = anyStatus ? null : statusText;
+    rowFilter = new RowFilter(searchField.getText(), status, resultsIndex.match(searchField.getText(), status));
+    filteredResults.setPredicate(rowFilter);
+  }
+
+  /**
+   * The table's sort order as a comparator over the columns; null keeps result order.
+   */
+  private Comparator<AttendanceResultRow> rowComparator() {
+    Comparator<AttendanceResultRow> comparator = null;
+    for (TableColumn<AttendanceResultRow, ?> column : resultsTable.getSortOrder()) {
+      ResultsColumns.Column key;
+      if (column == nameCol) {
+        key = ResultsColumns.Column.NAME;
+      } else if (column == statusCol) {
+        key = ResultsColumns.Column.STATUS;
+      } else if (column == confidenceCol) {
+        key = ResultsColumns.Column.CONFIDENCE;
+      } else if (column == neighborCol) {
+        key = ResultsColumns.Column.NEIGHBOR;
+      } else if (column == occupancyCol) {
+        key = ResultsColumns.Column.OCCUPANCY;
+      } else {
+        key = ResultsColumns.Column.CONSENSUS;
+      }
+      Comparator<AttendanceResultRow> byColumn = (a, b) -> results.compare(a.row, b.row, key);
+      if (column.getSortType() == TableColumn.SortType.DESCENDING) {
+        byColumn = byColumn.reversed();
+      }
+      comparator = comparator == null ? byColumn : comparator.thenComparing(byColumn);
+    }
+    return comparator;
+  }
+
+  /**
+   * Remove every row.
+   */
+  private void clearRows() {
+    allResults.clear();
+    results.clear();
+    resultsIndex.clear();
+    applyFilters();
+  }
+
+  /**
+   * Show the rows added to the columns since {@code from}. Only those rows are matched
+   * against the current filter and placed in the current sort order.
+   */
+  private void showRowsFrom(int from) {
+    rowFilter.matches.or(resultsIndex.matchFrom(rowFilter.text, rowFilter.status, from));
+    java.util.List<AttendanceResultRow> added = new java.util.ArrayList<>(results.size() - from);
+    for (int row = from; row < results.size(); row++) {
+      added.add(new AttendanceResultRow(row));
+    }
+    allResults.addAll(added);
+  }
+
+  /**
+   * Append a row to the columns and the index; call {@link #showRowsFrom} afterwards to
+   * show it.
+   */
+  private void addRow(String name, String status, int taggedClaims, double confidence, double neighborScore,
+      double occupancyScore, double consensusScore) {
+    results.add(name, status, taggedClaims, confidence, neighborScore, occupancyScore, consensusScore);
+    resultsIndex.add(name, status);
+  }
+
+  /**
+   * Clear the table for an analysis that is about to stream its reports in.
+   */
+  public void beginResults() {
+    clearRows();
+    summaryLabel.setText(LanguageManager.getInstance().get("analysis_running"));
+  }
 
-    java.util.List<AttendanceResultRow> filteredResults = allResults.stream()
-        .filter(row -> {
-          boolean nameMatch = searchText.isEmpty() || row.studentName.toLowerCase().contains(searchText);
-          String allLabel = LanguageManager.getInstance().get("all");
-          boolean statusMatch = statusText.equals(allLabel) || row.status.equals(statusText);
-          return nameMatch && statusMatch;
-        })
-        .toList();
+  /**
+   * Add reports of a running analysis, keeping the current filters and sort.
+   */
+  public void appendResults(java.util.List<AttendanceReport> reports) {
+    int from = results.size();
+    for (AttendanceReport report : reports) {
+      addReport(report);
+    }
+    showRowsFrom(from);
+  }
 
-    // Fade animation for table update
-    AnimationUtils.fadeScaleIn(resultsTable, javafx.util.Duration.millis(300)).play();
-    resultsTable.getItems().setAll(filteredResults);
+  /**
+   * Show the summary once an analysis whose reports were streamed in has finished.
+   */
+  public void finishResults(AttendanceService.AttendanceAnalysisResult result) {
+    updateSummary(result.reports);
   }
 
-  private void loadLatestResults() {
+  /**
+   * Show the service's last analysis result, replacing whatever the table shows.
+   */
+  public void loadLatestResults() {
     try {
       if (classroomController != null && classroomController.getAttendanceService() != null) {
         AttendanceService service = classroomController.getAttendanceService();
@@ -155,38 +264,19 @@ public class ResultsController {
 
         if (result == null) {
           summaryLabel.setText(LanguageManager.getInstance().get("no_analysis_results"));
-          resultsTable.getItems().clear();
+          clearRows();
           return;
         }
 
-        // Convert reports to table data
-        java.util.List<AttendanceResultRow> rows = new java.util.ArrayList<>();
+        // Store all results and apply filters
+        clearRows();
         for (AttendanceReport report : result.reports) {
-          String status = report.getStatus().name();
-          // Map report status to UI status
-          String uiStatus = switch (report.getStatus()) {
-            case PRESENT -> "PRESENT";
-            case ABSENT -> "ABSENT";
-            default -> "UNCERTAIN";
-          };
-
-          // Parse individual strategy scores from reason string
-          double neighborScore = extractScore(report.getReason(), "NeighborVerification");
-          double occupancyScore = extractScore(report.getReason(), "SeatOccupancy");
-          double consensusScore = extractScore(report.getReason(), "ConsensusScore");
-
-          rows.add(new AttendanceResultRow(
-              report.getStudent().getName(),
-              uiStatus,
-              report.getConfidenceScore(),
-              neighborScore,
-              occupancyScore,
-              consensusScore));
+          addReport(report);
         }
-
-        // Store all results and apply filters
-        allResults = rows;
-        applyFilters();
+        showRowsFrom(0);
+        // Fade animation for new results
+        AnimationScheduler.getInstance().play(resultsTable, "fadeScaleIn",
+            node -> AnimationUtils.fadeScaleIn(node, javafx.util.Duration.millis(300)));
         updateSummary(result.reports);
       }
     } catch (Exception e) {
@@ -194,6 +284,33 @@ public class ResultsController {
     }
   }
 
+  private void addReport(AttendanceReport report) {
+    // Map report status to UI status
+    String uiStatus = switch (report.getStatus()) {
+      case PRESENT -> "PRESENT";
+      case ABSENT -> "ABSENT";
+      default -> "UNCERTAIN";
+    };
+
+    // Parse individual strategy scores from reason string
+    double neighborScore = extractScore(report.getReason(), "NeighborVerification");
+    double occupancyScore = extractScore(report.getReason(), "SeatOccupancy");
+    double consensusScore = extractScore(report.getReason(), "ConsensusScore");
+
+    addRow(report.getStudent().getName(), uiStatus, countTaggedClaims(report), report.getConfidenceScore(),
+        neighborScore, occupancyScore, consensusScore);
+  }
+
+  private static int countTaggedClaims(AttendanceReport report) {
+    int tagged = 0;
+    for (org.example.testapp.entities.Claim claim : report.getLocatedStudent().getClaims()) {
+      if (claim.isTagged()) {
+        tagged++;
+      }
+    }
+    return tagged;
+  }
+
   private TableView<AttendanceResultRow> createResultsTable() {
     resultsTable = new TableView<>();
     resultsTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
@@ -203,41 +320,50 @@ public class ResultsController {
 
     // Name column
     nameCol = new TableColumn<>(LanguageManager.getInstance().get("student_name_col"));
-    nameCol.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().studentName));
+    nameCol.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().getName()));
     nameCol.setPrefWidth(120);
+    nameCol.setCellFactory(column -> new NameCell());
 
     // Status column
     statusCol = new TableColumn<>(LanguageManager.getInstance().get("status_col"));
-    statusCol.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().status));
+    statusCol.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().getStatus()));
     statusCol.setPrefWidth(100);
     statusCol.setCellFactory(column -> new StatusCell());
 
     // Confidence column
     confidenceCol = new TableColumn<>(LanguageManager.getInstance().get("confidence_col"));
     confidenceCol.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(
-        String.format("%.2f%%", cellData.getValue().confidence * 100)));
+        String.format("%.2f%%", cellData.getValue().getConfidence() * 100)));
     confidenceCol.setPrefWidth(100);
 
     // Neighbor Verification column
     neighborCol = new TableColumn<>(LanguageManager.getInstance().get("neighbor_col"));
     neighborCol.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(
-        String.format("%.2f", cellData.getValue().neighborScore)));
+        String.format("%.2f", cellData.getValue().getNeighborScore())));
     neighborCol.setPrefWidth(80);
 
     // Seat Occupancy column
     occupancyCol = new TableColumn<>(LanguageManager.getInstance().get("occupancy_col"));
     occupancyCol.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(
-        String.format("%.2f", cellData.getValue().occupancyScore)));
+        String.format("%.2f", cellData.getValue().getOccupancyScore())));
     occupancyCol.setPrefWidth(80);
 
     // Consensus column
     consensusCol = new TableColumn<>(LanguageManager.getInstance().get("consensus_col"));
     consensusCol.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(
-        String.format("%.2f", cellData.getValue().consensusScore)));
+        String.format("%.2f", cellData.getValue().getConsensusScore())));
     consensusCol.setPrefWidth(80);
 
     resultsTable.getColumns().addAll(nameCol, statusCol, confidenceCol, neighborCol, occupancyCol, consensusCol);
 
+    // Filtering and sorting are views over the row views; header clicks compare the
+    // columns' primitives rather than the formatted cell text
+    resultsTable.setItems(sortedResults);
+    resultsTable.setSortPolicy(table -> {
+      sortedResults.setComparator(rowComparator());
+      return true;
+    });
+
     return resultsTable;
   }
 
@@ -511,6 +637,27 @@ public class ResultsController {
     summaryLabel.setText(summary);
   }
 
+  /**
+   * The student's name, marked when some of their claims were kept with a tag.
+   */
+  private static class NameCell extends TableCell<AttendanceResultRow, String> {
+    @Override
+    protected void updateItem(String item, boolean empty) {
+      super.updateItem(item, empty);
+
+      if (empty || getTableRow().getItem() == null) {
+        setText(null);
+        setTooltip(null);
+      } else {
+        int tagged = getTableRow().getItem().getTaggedClaims();
+        setText(tagged > 0 ? item + " ⚠" : item);
+        setTooltip(tagged > 0
+            ? new Tooltip(LanguageManager.getInstance().get("tagged_claims_tooltip", tagged))
+            : null);
+      }
+    }
+  }
+
   private static class StatusCell extends TableCell<AttendanceResultRow, String> {
     @Override
     protected void updateItem(String item, boolean empty) {
@@ -521,9 +668,9 @@ public class ResultsController {
         setStyle("");
       } else {
         AttendanceResultRow row = getTableRow().getItem();
-        setText(row.status);
+        setText(row.getStatus());
 
-        switch (row.status) {
+        switch (row.getStatus()) {
           case "PRESENT" -> setStyle("-fx-text-fill: #00aa00; -fx-font-weight: bold;");
           case "ABSENT" -> setStyle("-fx-text-fill: #cc0000; -fx-font-weight: bold;");
           case "UNCERTAIN" -> setStyle("-fx-text-fill: #ff8800; -fx-font-weight: bold;");
@@ -534,7 +681,7 @@ public class ResultsController {
   }
 
   public void updateResults(java.util.List<AttendanceReport> reports) {
-    resultsTable.getItems().clear();
+    clearRows();
 
     long present = 0;
     long absent = 0;
@@ -542,15 +689,14 @@ public class ResultsController {
     double totalConfidence = 0;
 
     for (AttendanceReport report : reports) {
-      AttendanceResultRow row = new AttendanceResultRow(
+      addRow(
           report.getStudent().getName(),
           report.getStatus().toString(),
+          countTaggedClaims(report),
           report.getConfidenceScore(),
           0.0, 0.0, 0.0 // These would be extracted from report
       );
 
-      resultsTable.getItems().add(row);
-
       totalConfidence += report.getConfidenceScore();
       switch (report.getStatus()) {
         case PRESENT -> present++;
@@ -559,6 +705,8 @@ public class ResultsController {
       }
     }
 
+    showRowsFrom(0);
+
     // Update summary
     int total = (int) (present + absent + uncertain);
     double avgConfidence = total > 0 ? totalConfidence / total : 0;
@@ -573,22 +721,73 @@ public class ResultsController {
     summaryLabel.setText(summary);
   }
 
-  static class AttendanceResultRow {
-    String studentName;
-    String status;
-    double confidence;
-    double neighborScore;
-    double occupancyScore;
-    double consensusScore;
+  /**
+   * Keeps the rows in the index's match bitmap. Rows appended later are matched against
+   * the same text and status and their bits added, so a new row is tested on its own.
+   */
+  private static final class RowFilter implements Predicate<AttendanceResultRow> {
+    private final String text;
+    private final String status;
+    private final BitSet matches;
 
-    AttendanceResultRow(String studentName, String status, double confidence,
-        double neighborScore, double occupancyScore, double consensusScore) {
-      this.studentName = studentName;
+    RowFilter(String text, String status, BitSet matches) {
+      this.text = text;
       this.status = status;
-      this.confidence = confidence;
-      this.neighborScore = neighborScore;
-      this.occupancyScore = occupancyScore;
-      this.consensusScore = consensusScore;
+      this.matches = matches;
+    }
+
+    @Override
+    public boolean test(AttendanceResultRow row) {
+      return matches.get(row.row);
+    }
+  }
+
+  /**
+   * A view of one row of the results columns: only the row number.
+   */
+  final class AttendanceResultRow {
+    private final int row;
+
+    AttendanceResultRow(int row) {
+      this.row = row;
+    }
+
+    String getName() {
+      return results.getName(row);
+    }
+
+    String getStatus() {
+      return results.getStatus(row);
+    }
+
+    int getTaggedClaims() {
+      return results.getTaggedClaims(row);
+    }
+
+    double getConfidence() {
+      return results.getConfidence(row);
+    }
+
+    double getNeighborScore() {
+      return results.getNeighborScore(row);
+    }
+
+    double getOccupancyScore() {
+      return results.getOccupancyScore(row);
+    }
+
+    double getConsensusScore() {
+      return results.getConsensusScore(row);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof AttendanceResultRow other && other.row == row;
+    }
+
+    @Override
+    public int hashCode() {
+      return row;
     }
   }
 
@@ -669,27 +868,98 @@ public class ResultsController {
     ExcelExporter.exportReport(outputFile.getAbsolutePath(), "ATTENDANCE ANALYSIS REPORT", data);
   }
 
+  /**
+   * Export every row the table shows, in its column and sort order, not just the rows in
+   * view. The image is painted and written in tiles, so its length is not limited by
+   * memory.
+   */
   private void exportToImage(File outputFile, AttendanceService.AttendanceAnalysisResult result) throws Exception {
-    if (resultsTable == null || resultsTable.getScene() == null) {
+    if (resultsTable == null) {
       throw new Exception("Results table not visible");
     }
 
-    javafx.scene.image.WritableImage image = resultsTable.snapshot(new javafx.scene.SnapshotParameters(), null);
+    java.util.List<TableColumn<AttendanceResultRow, ?>> columns = new java.util.ArrayList<>(
+        resultsTable.getVisibleLeafColumns());
+    double[] widths = new double[columns.size()];
+    for (int i = 0; i < widths.length; i++) {
+      TableColumn<AttendanceResultRow, ?> column = columns.get(i);
+      widths[i] = column.getWidth() > 0 ? column.getWidth() : column.getPrefWidth();
+    }
+    double tableWidth = java.util.Arrays.stream(widths).sum();
+    int rowCount = sortedResults.size();
+    int width = (int) Math.ceil(tableWidth * IMAGE_SCALE);
+    int height = (int) Math.ceil((IMAGE_HEADER_HEIGHT + rowCount * IMAGE_ROW_HEIGHT) * IMAGE_SCALE);
+
+    new TiledImageWriter(width, height).writePng(new CanvasTileRenderer((gc, x, y, w, h) -> {
+      gc.scale(IMAGE_SCALE, IMAGE_SCALE);
+      paintTableImage(gc, columns, widths, tableWidth, y / IMAGE_SCALE, (y + h) / IMAGE_SCALE);
+    }), outputFile);
+  }
 
-    // Convert WritableImage to BufferedImage properly
-    int width = (int) image.getWidth();
-    int height = (int) image.getHeight();
-    java.awt.image.BufferedImage bufferedImage = new java.awt.image.BufferedImage(
-        width, height, java.awt.image.BufferedImage.TYPE_INT_RGB);
+  /**
+   * Paint the header and the rows of the table between {@code top} and {@code bottom},
+   * in layout pixels.
+   */
+  private void paintTableImage(GraphicsContext gc, java.util.List<TableColumn<AttendanceResultRow, ?>> columns,
+      double[] widths, double tableWidth, double top, double bottom) {
+    gc.setTextBaseline(VPos.CENTER);
+    gc.setLineWidth(1);
+    if (top < IMAGE_HEADER_HEIGHT) {
+      gc.setFill(Color.web("#ECF0F1"));
+      gc.fillRect(0, 0, tableWidth, IMAGE_HEADER_HEIGHT);
+      gc.setFill(Color.web("#2C3E50"));
+      gc.setFont(Font.font(null, FontWeight.BOLD, 12));
+      double x = 0;
+      for (int i = 0; i < columns.size(); i++) {
+        gc.fillText(columns.get(i).getText(), x + 6, IMAGE_HEADER_HEIGHT / 2, widths[i] - 12);
+        x += widths[i];
+      }
+    }
 
-    javafx.scene.image.PixelReader pixelReader = image.getPixelReader();
-    for (int y = 0; y < height; y++) {
-      for (int x = 0; x < width; x++) {
-        bufferedImage.setRGB(x, y, pixelReader.getArgb(x, y));
+    int first = Math.max(0, (int) Math.floor((top - IMAGE_HEADER_HEIGHT) / IMAGE_ROW_HEIGHT));
+    int last = Math.min(sortedResults.size() - 1, (int) Math.floor((bottom - IMAGE_HEADER_HEIGHT) / IMAGE_ROW_HEIGHT));
+    Font cellFont = Font.font(12);
+    Font statusFont = Font.font(null, FontWeight.BOLD, 12);
+    for (int index = first; index <= last; index++) {
+      AttendanceResultRow row = sortedResults.get(index);
+      double y = IMAGE_HEADER_HEIGHT + index * IMAGE_ROW_HEIGHT;
+      gc.setFill(index % 2 == 0 ? Color.WHITE : Color.web("#F8F9FA"));
+      gc.fillRect(0, y, tableWidth, IMAGE_ROW_HEIGHT);
+      double x = 0;
+      for (int i = 0; i < columns.size(); i++) {
+        TableColumn<AttendanceResultRow, ?> column = columns.get(i);
+        Object value = column.getCellData(row);
+        if (column == statusCol) {
+          // Same colours as the status cells
+          gc.setFill(switch (row.getStatus()) {
+            case "PRESENT" -> Color.web("#00aa00");
+            case "ABSENT" -> Color.web("#cc0000");
+            default -> Color.web("#ff8800");
+          });
+          gc.setFont(statusFont);
+        } else {
+          gc.setFill(Color.web("#2C3E50"));
+          gc.setFont(cellFont);
+        }
+        if (value != null) {
+          gc.fillText(value.toString(), x + 6, y + IMAGE_ROW_HEIGHT / 2, widths[i] - 12);
+        }
+        x += widths[i];
       }
     }
 
-    javax.imageio.ImageIO.write(bufferedImage, "png", outputFile);
+    // Grid lines, on whole pixels
+    double gridBottom = IMAGE_HEADER_HEIGHT + sortedResults.size() * IMAGE_ROW_HEIGHT;
+    gc.setStroke(Color.web("#DDDDDD"));
+    for (int index = Math.max(0, first - 1); index <= last + 1; index++) {
+      double y = IMAGE_HEADER_HEIGHT + index * IMAGE_ROW_HEIGHT;
+      gc.strokeLine(0, y - 0.5, tableWidth, y - 0.5);
+    }
+    double x = 0;
+    for (double columnWidth : widths) {
+      x += columnWidth;
+      gc.strokeLine(x - 0.5, Math.max(0, top), x - 0.5, Math.min(gridBottom, bottom));
+    }
   }
 
   private void updateLanguageTexts() {
@@ -0,0 +1,158 @@
+package org.example.testapp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Search index over result rows, by position: a lower-cased name per row, a trigram
+ * index over the names and a bitmap of rows per status.
+ *
+ * A name query intersects the posting lists of its trigrams and checks only the
+ * surviving candidates; queries shorter than a trigram scan the lower-cased names. The
+ * status filter is a bitmap intersection, so filtering tens of thousands of rows takes
+ * well under a frame. Rows are only ever appended.
+ */
+public class ResultsIndex {
+  private final List<String> names = new ArrayList<>(); // Lower-cased, by row
+  private final Map<String, BitSet> statuses = new HashMap<>();
+  private final Map<String, IntList> trigrams = new HashMap<>();
+
+  /**
+   * Index a row; rows are numbered in the order they are added, from 0.
+   *
+   * @return the row's number
+   */
+  public int add(String name, String status) {
+    int row = names.size();
+    String lower = name != null ? name.toLowerCase(Locale.ROOT) : "";
+    names.add(lower);
+    statuses.computeIfAbsent(status, key -> new BitSet()).set(row);
+    for (int i = 0; i + 3 <= lower.length(); i++) {
+      IntList postings = trigrams.computeIfAbsent(lower.substring(i, i + 3), key -> new IntList());
+      if (postings.last() != row) { // A name can repeat a trigram
+        postings.add(row);
+      }
+    }
+    return row;
+  }
+
+  public void clear() {
+    names.clear();
+    statuses.clear();
+    trigrams.clear();
+  }
+
+  public int size() {
+    return names.size();
+  }
+
+  /**
+   * The rows whose name contains {@code text}, ignoring case, and whose status is
+   * {@code status}.
+   *
+   * @param text   the name fragment, or empty for any name
+   * @param status the status, or null for any status
+   */
+  public BitSet match(String text, String status) {
+    BitSet result;
+    if (status != null) {
+      BitSet rows = statuses.get(status);
+      result = rows != null ? (BitSet) rows.clone() : new BitSet();
+    } else {
+      result = new BitSet(names.size());
+      result.set(0, names.size());
+    }
+    String query = text != null ? text.trim().toLowerCase(Locale.ROOT) : "";
+    if (query.isEmpty() || result.isEmpty()) {
+      return result;
+    }
+    if (query.length() >= 3) {
+      result.and(candidates(query));
+    }
+    // Trigrams can match in the wrong order, and short queries have no trigrams
+    for (int row = result.nextSetBit(0); row >= 0; row = result.nextSetBit(row + 1)) {
+      if (!names.get(row).contains(query)) {
+        result.clear(row);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Like {@link #match}, for the rows numbered {@code from} and up only. Those rows are
+   * checked one by one, so the cost follows their number rather than the index size.
+   */
+  public BitSet matchFrom(String text, String status, int from) {
+    BitSet result = new BitSet(names.size());
+    BitSet withStatus = status != null ? statuses.get(status) : null;
+    if (status != null && withStatus == null) {
+      return result;
+    }
+    String query = text != null ? text.trim().toLowerCase(Locale.ROOT) : "";
+    for (int row = from; row < names.size(); row++) {
+      if ((withStatus == null || withStatus.get(row)) && names.get(row).contains(query)) {
+        result.set(row);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Rows containing every trigram of the query, from the shortest posting list up.
+   */
+  private BitSet candidates(String query) {
+    List<IntList> lists = new ArrayList<>();
+    for (int i = 0; i + 3 <= query.length(); i++) {
+      IntList postings = trigrams.get(query.substring(i, i + 3));
+      if (postings == null) {
+        return new BitSet();
+      }
+      lists.add(postings);
+    }
+    lists.sort((a, b) -> Integer.compare(a.size, b.size));
+    BitSet rows = lists.get(0).toBitSet();
+    for (int i = 1; i < lists.size() && !rows.isEmpty(); i++) {
+      IntList postings = lists.get(i);
+      BitSet next = new BitSet();
+      for (int j = 0; j < postings.size; j++) {
+        if (rows.get(postings.values[j])) {
+          next.set(postings.values[j]);
+        }
+      }
+      rows = next;
+    }
+    return rows;
+  }
+
+  /**
+   * Ascending row numbers, without boxing.
+   */
+  private static final class IntList {
+    int[] values = new int[4];
+    int size;
+
+    void add(int value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+
+    int last() {
+      return size > 0 ? values[size - 1] : -1;
+    }
+
+    BitSet toBitSet() {
+      BitSet bits = new BitSet();
+      for (int i = 0; i < size; i++) {
+        bits.set(values[i]);
+      }
+      return bits;
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package org.example.testapp;
+
+import org.example.testapp.entities.Student;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Prefix index over the roster, for type-ahead pickers: each word of a student's name
+ * and their id, lower-cased, in one sorted map.
+ *
+ * A query is a range scan from its first word, stopping once enough students were found,
+ * so looking up a prefix costs the same on two thousand students as on twenty. Further
+ * query words must each start some word of the name or the id.
+ */
+public class RosterIndex {
+  private final NavigableMap<String, Student> keys = new TreeMap<>(); // "word\0id" -> student
+  private final Map<String, Student> students = new HashMap<>(); // By id
+
+  /**
+   * Replace the whole roster in one go.
+   */
+  public void setAll(Collection<Student> roster) {
+    keys.clear();
+    students.clear();
+    for (Student student : roster) {
+      add(student);
+    }
+  }
+
+  public void add(Student student) {
+    remove(student.getId());
+    students.put(student.getId(), student);
+    for (String word : words(student)) {
+      keys.put(word + '\0' + student.getId(), student);
+    }
+  }
+
+  public void remove(String id) {
+    Student student = students.remove(id);
+    if (student != null) {
+      for (String word : words(student)) {
+        keys.remove(word + '\0' + id);
+      }
+    }
+  }
+
+  public Student get(String id) {
+    return students.get(id);
+  }
+
+  public int size() {
+    return students.size();
+  }
+
+  /**
+   * Up to {@code limit} students matching {@code query}, by the alphabetical order of the
+   * word that matched; an empty query matches everyone.
+   */
+  public List<Student> search(String query, int limit) {
+    String[] terms = query == null ? new String[0] : query.trim().toLowerCase(Locale.ROOT).split("\\s+");
+    String first = terms.length > 0 ? terms[0] : "";
+    Map<String, Student> found = new LinkedHashMap<>();
+    for (Student student : keys.subMap(first, true, first + Character.MAX_VALUE, false).values()) {
+      if (found.size() >= limit) {
+        break;
+      }
+      if (!found.containsKey(student.getId()) && matchesRest(student, terms)) {
+        found.put(student.getId(), student);
+      }
+    }
+    return new ArrayList<>(found.values());
+  }
+
+  private static boolean matchesRest(Student student, String[] terms) {
+    if (terms.length < 2) {
+      return true;
+    }
+    List<String> words = words(student);
+    for (int i = 1; i < terms.length; i++) {
+      boolean matched = false;
+      for (String word : words) {
+        if (word.startsWith(terms[i])) {
+          matched = true;
+          break;
+        }
+      }
+      if (!matched) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static List<String> words(Student student) {
+    List<String> words = new ArrayList<>();
+    if (student.getName() != null) {
+      for (String word : student.getName().toLowerCase(Locale.ROOT).split("\\s+")) {
+        if (!word.isEmpty()) {
+          words.add(word);
+        }
+      }
+    }
+    words.add(student.getId().toLowerCase(Locale.ROOT));
+    return words;
+  }
+}
@@ -0,0 +1,142 @@
+package org.example.testapp;
+
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.geometry.Bounds;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextField;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.StackPane;
+import javafx.stage.Popup;
+import org.example.testapp.entities.Student;
+
+/**
+ * Type-ahead student picker: a text field whose popup lists the students matching what
+ * was typed, looked up in a {@link RosterIndex}.
+ *
+ * Only the first eight matches are listed, so the popup costs the same on any roster.
+ * Up and Down move through them, Enter or a click picks one, Escape closes the list.
+ */
+public class RosterPicker extends StackPane {
+  private static final int MAX_SHOWN = 8;
+  private static final double ROW_HEIGHT = 26;
+
+  private final RosterIndex roster;
+  private final TextField field = new TextField();
+  private final ListView<Student> matches = new ListView<>();
+  private final Popup popup = new Popup();
+  private final ObjectProperty<Student> value = new SimpleObjectProperty<>(this, "value");
+  private boolean picking; // Set while the field shows a picked name, to skip the search
+
+  public RosterPicker(RosterIndex roster) {
+    this.roster = roster;
+    getChildren().add(field);
+
+    matches.setFixedCellSize(ROW_HEIGHT);
+    matches.setCellFactory(list -> new ListCell<>() {
+      @Override
+      protected void updateItem(Student student, boolean empty) {
+        super.updateItem(student, empty);
+        setText(empty || student == null ? null : student.getName() + " (ID: " + student.getId() + ")");
+      }
+    });
+    matches.setOnMouseClicked(e -> pick(matches.getSelectionModel().getSelectedItem()));
+    popup.getContent().add(matches);
+    popup.setAutoHide(true);
+
+    field.textProperty().addListener((obs, old, text) -> {
+      if (!picking) {
+        value.set(null);
+        search(text);
+      }
+    });
+    field.focusedProperty().addListener((obs, old, focused) -> {
+      if (focused && value.get() == null) {
+        search(field.getText());
+      }
+    });
+    field.addEventFilter(KeyEvent.KEY_PRESSED, this::handleKey);
+  }
+
+  public ObjectProperty<Student> valueProperty() {
+    return value;
+  }
+
+  /**
+   * The picked student, or null.
+   */
+  public Student getValue() {
+    return value.get();
+  }
+
+  /**
+   * Show a student as picked, or clear the picker with null.
+   */
+  public void setValue(Student student) {
+    picking = true;
+    field.setText(student != null ? student.getName() : "");
+    picking = false;
+    value.set(student);
+    popup.hide();
+  }
+
+  public void setPromptText(String text) {
+    field.setPromptText(text);
+  }
+
+  private void search(String text) {
+    matches.getItems().setAll(roster.search(text, MAX_SHOWN));
+    if (matches.getItems().isEmpty() || getScene() == null) {
+      popup.hide();
+      return;
+    }
+    matches.getSelectionModel().selectFirst();
+    matches.setPrefWidth(Math.max(field.getWidth(), 200));
+    matches.setPrefHeight(matches.getItems().size() * ROW_HEIGHT + 2);
+    if (!popup.isShowing()) {
+      Bounds bounds = field.localToScreen(field.getBoundsInLocal());
+      if (bounds != null) {
+        popup.show(field, bounds.getMinX(), bounds.getMaxY());
+      }
+    }
+  }
+
+  private void handleKey(KeyEvent event) {
+    switch (event.getCode()) {
+      case DOWN -> {
+        if (!popup.isShowing()) {
+          search(field.getText());
+        } else {
+          matches.getSelectionModel().selectNext();
+        }
+        event.consume();
+      }
+      case UP -> {
+        matches.getSelectionModel().selectPrevious();
+        event.consume();
+      }
+      case ENTER -> {
+        if (popup.isShowing()) {
+          pick(matches.getSelectionModel().getSelectedItem());
+          event.consume();
+        }
+      }
+      case ESCAPE -> {
+        if (popup.isShowing()) {
+          popup.hide();
+          event.consume();
+        }
+      }
+      default -> {
+      }
+    }
+  }
+
+  private void pick(Student student) {
+    if (student != null) {
+      setValue(student);
+      field.positionCaret(field.getText().length());
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package org.example.testapp;
+
+import org.example.testapp.attendance.AttendanceReport;
+import org.example.testapp.entities.LocatedStudent;
+import org.example.testapp.entities.Student;
+import org.example.testapp.verification.AttendanceConflict;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * What the seat map's heatmap overlay shows: a palette level per seat, from the last
+ * analysis result.
+ *
+ * Levels are worked out once, when the heatmap is built, so painting a seat is an array
+ * read and a lookup in the precomputed {@link #PALETTE}. Switching the mode or loading a
+ * new result builds a new heatmap; the seat map just repaints with it.
+ */
+public class SeatHeatmap {
+  public static final int LEVELS = 64;
+  public static final int NO_VALUE = -1;
+
+  /**
+   * Translucent ARGB colours by level, from red (0, worst) through amber to green
+   * ({@code LEVELS - 1}, best).
+   */
+  public static final int[] PALETTE = buildPalette();
+
+  private static final int CONFLICTS_FOR_RED = 4; // A seat in this many conflicts is fully red
+  private static final int ALPHA = 0x73; // About 45%, so the seat's text stays readable
+
+  public static final SeatHeatmap NONE = new SeatHeatmap(Mode.OFF, new int[0]);
+
+  private final Mode mode;
+  private final int[] levels; // By seat index, NO_VALUE for seats without one
+
+  public enum Mode {
+    OFF, CONFIDENCE, CONFLICTS
+  }
+
+  private SeatHeatmap(Mode mode, int[] levels) {
+    this.mode = mode;
+    this.levels = levels;
+  }
+
+  /**
+   * Colour the seats of {@code model} by confidence or by how many conflicts their student
+   * is involved in. Students are matched to seats by id, so the result may come from a
+   * snapshot of the room.
+   *
+   * @param result the analysis to show, or null for none
+   */
+  public static SeatHeatmap build(SeatViewModel model, AttendanceService.AttendanceAnalysisResult result, Mode mode) {
+    if (mode == Mode.OFF || result == null || model.size() == 0) {
+      return NONE;
+    }
+    Map<String, Integer> seats = new HashMap<>();
+    for (int i = 0; i < model.size(); i++) {
+      LocatedStudent student = model.getStudent(i);
+      if (student != null) {
+        seats.put(student.getStudent().getId(), i);
+      }
+    }
+    int[] levels = new int[model.size()];
+    Arrays.fill(levels, NO_VALUE);
+
+    if (mode == Mode.CONFIDENCE) {
+      for (AttendanceReport report : result.reports) {
+        Integer seat = seats.get(report.getStudent().getId());
+        if (seat != null) {
+          double confidence = Math.max(0, Math.min(1, report.getConfidenceScore()));
+          levels[seat] = (int) Math.round(confidence * (LEVELS - 1));
+        }
+      }
+    } else {
+      int[] counts = new int[model.size()];
+      for (AttendanceConflict conflict : result.conflicts) {
+        count(seats, counts, conflict.getStudent());
+        count(seats, counts, conflict.getInvolvedStudent());
+      }
+      for (AttendanceReport report : result.reports) {
+        Integer seat = seats.get(report.getStudent().getId());
+        if (seat != null) {
+          int conflicts = Math.min(counts[seat], CONFLICTS_FOR_RED);
+          levels[seat] = (LEVELS - 1) - conflicts * (LEVELS - 1) / CONFLICTS_FOR_RED;
+        }
+      }
+    }
+    return new SeatHeatmap(mode, levels);
+  }
+
+  public Mode getMode() {
+    return mode;
+  }
+
+  /**
+   * The palette level of a seat, or {@link #NO_VALUE}.
+   */
+  public int getLevel(int index) {
+    return index < levels.length ? levels[index] : NO_VALUE;
+  }
+
+  private static void count(Map<String, Integer> seats, int[] counts, Student student) {
+    if (student == null) {
+      return;
+    }
+    Integer seat = seats.get(student.getId());
+    if (seat != null) {
+      counts[seat]++;
+    }
+  }
+
+  private static int[] buildPalette() {
+    int[] red = {0xE7, 0x4C, 0x3C};
+    int[] amber = {0xF3, 0x9C, 0x12};
+    int[] green = {0x27, 0xAE, 0x60};
+    int[] palette = new int[LEVELS];
+    for (int level = 0; level < LEVELS; level++) {
+      double t = level / (double) (LEVELS - 1);
+      int[] from = t < 0.5 ? red : amber;
+      int[] to = t < 0.5 ? amber : green;
+      double f = t < 0.5 ? t * 2 : (t - 0.5) * 2;
+      int argb = ALPHA << 24;
+      for (int channel = 0; channel < 3; channel++) {
+        int value = (int) Math.round(from[channel] + (to[channel] - from[channel]) * f);
+        argb |= value << (16 - 8 * channel);
+      }
+      palette[level] = argb;
+    }
+    return palette;
+  }
+}
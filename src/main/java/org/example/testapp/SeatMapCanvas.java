@@ -0,0 +1,571 @@
+package org.example.testapp;
+
+import javafx.animation.AnimationTimer;
+import javafx.collections.ListChangeListener;
+import javafx.geometry.Orientation;
+import javafx.geometry.VPos;
+import javafx.scene.Cursor;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.input.ZoomEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontPosture;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+import javafx.util.Duration;
+import org.example.testapp.SeatViewModel.SeatState;
+import org.example.testapp.entities.LocatedStudent;
+import org.example.testapp.entities.Position;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Seat map drawn on a single canvas the size of the viewport.
+ *
+ * Only the seats in view are drawn, so a large hall costs no more than a small one. What
+ * each seat shows comes from a {@link SeatViewModel}; {@link #refresh} repaints just the
+ * seats it recorded as changed, and scrolling and zooming repaint the viewport, each at
+ * most once per frame.
+ * Clicks are hit-tested here: the box at the top of a seat toggles its selection, the
+ * rest of an occupied seat opens the student's details. Ctrl+scroll or a pinch zooms
+ * around the pointer.
+ * A {@link SeatHeatmap} can tint the seats by analysis results; it is painted over the
+ * seats in a second pass, so switching it only repaints the viewport. Seats flashed with
+ * {@link #pulse} share one animation however many there are.
+ */
+public class SeatMapCanvas extends Region {
+  private static final double CELL = 100; // Seat size at zoom 1, as in the old grid
+  private static final double GAP = 8;
+  private static final double PADDING = 15;
+  private static final double CHECK_BOX = 13;
+  private static final double MIN_ZOOM = 0.25;
+  private static final double MAX_ZOOM = 2.5;
+
+  // Background, border, text per seat state, light then dark, mirroring the classroom styles
+  private static final Color[][] FILL = {
+      {Color.WHITE, Color.web("#E8F4F8"), Color.web("#FEF5E7"), Color.web("#D5F4E6")},
+      {Color.web("#1A252F"), Color.web("#1B3A52"), Color.web("#3D2E1A"), Color.web("#1B3E28")}};
+  private static final Color[][] BORDER = {
+      {Color.web("#BDC3C7"), Color.web("#3498DB"), Color.web("#F39C12"), Color.web("#27AE60")},
+      {Color.web("#3E4A5C"), Color.web("#5DADE2"), Color.web("#F39C12"), Color.web("#27AE60")}};
+  private static final Color[][] NAME = {
+      {Color.web("#999999"), Color.web("#0E5A8A"), Color.web("#C87F0A"), Color.web("#1E6F4B")},
+      {Color.web("#7F8C8D"), Color.web("#A8D8EA"), Color.web("#F8C471"), Color.web("#52BE80")}};
+  private static final Color[] BACKGROUND = {Color.web("#FAFBFC"), Color.web("#0F0F1E")};
+  private static final Color POSITION_TEXT = Color.web("#7F8C8D");
+  private static final Color CLAIMS_TEXT = Color.web("#3498DB");
+  private static final Color WARNING_TEXT = Color.web("#E74C3C");
+  private static final Color PULSE_COLOR = Color.web("#3498DB");
+  private static final Duration PULSE_DURATION = Duration.millis(400);
+  private static final Color[] HEAT = new Color[SeatHeatmap.LEVELS]; // SeatHeatmap.PALETTE as colours
+
+  static {
+    for (int level = 0; level < HEAT.length; level++) {
+      int argb = SeatHeatmap.PALETTE[level];
+      HEAT[level] = Color.rgb((argb >> 16) & 0xFF, (argb >> 8) & 0xFF, argb & 0xFF, (argb >>> 24) / 255.0);
+    }
+  }
+
+  private final Canvas canvas = new Canvas();
+  private final ScrollBar hbar = new ScrollBar();
+  private final ScrollBar vbar = new ScrollBar();
+  private final SeatViewModel model;
+  private final BitSet dirty = new BitSet();
+  private final AnimationTimer painter;
+  private SeatHeatmap heatmap = SeatHeatmap.NONE;
+  private final BitSet pulsing = new BitSet(); // Seats flashing in the running pulse
+  private Color pulseFill = Color.TRANSPARENT;
+  private double zoom = 1;
+  private boolean fullRepaint = true;
+  private boolean paintScheduled;
+  private boolean dark;
+  private int hovered = -1;
+  private Consumer<LocatedStudent> onSelectionToggled;
+  private Consumer<LocatedStudent> onStudentClicked;
+
+  public SeatMapCanvas(SeatViewModel model) {
+    this.model = model;
+    getStyleClass().add("classroom-grid");
+    hbar.setOrientation(Orientation.HORIZONTAL);
+    vbar.setOrientation(Orientation.VERTICAL);
+    getChildren().addAll(canvas, hbar, vbar);
+
+    painter = new AnimationTimer() {
+      @Override
+      public void handle(long now) {
+        stop();
+        paintScheduled = false;
+        paint();
+      }
+    };
+
+    hbar.valueProperty().addListener((obs, old, value) -> repaintAll());
+    vbar.valueProperty().addListener((obs, old, value) -> repaintAll());
+    canvas.setOnMouseClicked(this::handleClick);
+    canvas.setOnMouseMoved(this::handleMove);
+    canvas.setOnMouseExited(e -> setHovered(-1));
+    setOnScroll(this::handleScroll);
+    setOnZoom(this::handleZoom);
+
+    // Repaint with the other palette when dark mode is switched on the scene root
+    ListChangeListener<String> themeListener = change -> updateTheme();
+    sceneProperty().addListener((obs, oldScene, newScene) -> {
+      if (oldScene != null) {
+        oldScene.getRoot().getStyleClass().removeListener(themeListener);
+      }
+      if (newScene != null) {
+        newScene.getRoot().getStyleClass().addListener(themeListener);
+      }
+      updateTheme();
+    });
+  }
+
+  public void setOnSelectionToggled(Consumer<LocatedStudent> handler) {
+    this.onSelectionToggled = handler;
+  }
+
+  public void setOnStudentClicked(Consumer<LocatedStudent> handler) {
+    this.onStudentClicked = handler;
+  }
+
+  /**
+   * Paint what changed in the model on the next frame: the seats it recorded, or the
+   * whole map if its classroom was replaced.
+   */
+  public void refresh() {
+    if (model.isReset()) {
+      hovered = -1;
+      pulsing.clear();
+      requestLayout();
+      repaintAll();
+    } else {
+      schedulePaint();
+    }
+  }
+
+  /**
+   * Tint the seats with a heatmap, or stop with {@link SeatHeatmap#NONE}.
+   */
+  public void setHeatmap(SeatHeatmap heatmap) {
+    this.heatmap = heatmap;
+    repaintAll();
+  }
+
+  /**
+   * Flash these seats, e.g. after a bulk action. The seats of one pulse, and of any pulse
+   * started while it runs, are animated together by a single transition that repaints
+   * only them.
+   */
+  public void pulse(Collection<Position> seats) {
+    if (model.getClassroom() == null) {
+      return;
+    }
+    for (Position pos : seats) {
+      if (model.getClassroom().isInside(pos)) {
+        pulsing.set(model.indexOf(pos));
+      }
+    }
+    AnimationScheduler.getInstance().play(this, "pulse",
+        node -> AnimationUtils.group(PULSE_DURATION, this::setPulse));
+  }
+
+  /**
+   * Repaint every seat in view, e.g. after the language changed.
+   */
+  public void invalidateAll() {
+    repaintAll();
+  }
+
+  /**
+   * Write the whole room as a PNG, in the current theme, at {@code scale} image pixels per
+   * seat-map pixel at zoom 1. The room is painted in tiles, so any size can be exported.
+   * Call on the FX application thread.
+   */
+  public void writeImage(File file, double scale) throws IOException {
+    if (model.getClassroom() == null) {
+      throw new IllegalStateException("No classroom to export");
+    }
+    int width = (int) Math.ceil(contentWidth() / zoom * scale);
+    int height = (int) Math.ceil(contentHeight() / zoom * scale);
+    int theme = dark ? 1 : 0;
+    new TiledImageWriter(width, height).writePng(new CanvasTileRenderer((gc, x, y, w, h) ->
+        paintArea(gc, PADDING * scale, PADDING * scale, x, y, w, h, scale, theme, -1)), file);
+  }
+
+  public double getZoom() {
+    return zoom;
+  }
+
+  /**
+   * Zoom around the centre of the view.
+   */
+  public void setZoom(double zoom) {
+    zoomAt(zoom, canvas.getWidth() / 2, canvas.getHeight() / 2);
+  }
+
+  @Override
+  protected void layoutChildren() {
+    double width = getWidth();
+    double height = getHeight();
+    double barWidth = vbar.prefWidth(-1);
+    double barHeight = hbar.prefHeight(-1);
+    boolean needH = contentWidth() > width;
+    boolean needV = contentHeight() > (needH ? height - barHeight : height);
+    needH = contentWidth() > (needV ? width - barWidth : width);
+
+    double viewWidth = Math.max(0, needV ? width - barWidth : width);
+    double viewHeight = Math.max(0, needH ? height - barHeight : height);
+    canvas.setWidth(viewWidth);
+    canvas.setHeight(viewHeight);
+    canvas.relocate(0, 0);
+
+    hbar.setVisible(needH);
+    vbar.setVisible(needV);
+    hbar.resizeRelocate(0, viewHeight, viewWidth, barHeight);
+    vbar.resizeRelocate(viewWidth, 0, barWidth, viewHeight);
+    configure(hbar, contentWidth(), viewWidth);
+    configure(vbar, contentHeight(), viewHeight);
+    repaintAll();
+  }
+
+  @Override
+  protected double computePrefWidth(double height) {
+    return Math.min(contentWidth(), 900);
+  }
+
+  @Override
+  protected double computePrefHeight(double width) {
+    return Math.min(contentHeight(), 600);
+  }
+
+  private static void configure(ScrollBar bar, double content, double view) {
+    double max = Math.max(0, content - view);
+    bar.setMin(0);
+    bar.setMax(max);
+    bar.setVisibleAmount(content > 0 ? view * max / content : 0);
+    bar.setUnitIncrement(40);
+    bar.setBlockIncrement(Math.max(40, view * 0.9));
+    if (bar.getValue() > max) {
+      bar.setValue(max);
+    }
+  }
+
+  private double pitch() {
+    return (CELL + GAP) * zoom;
+  }
+
+  private double contentWidth() {
+    int cols = model.getCols();
+    return (2 * PADDING + cols * (CELL + GAP) - GAP) * zoom;
+  }
+
+  private double contentHeight() {
+    int rows = model.getRows();
+    return (2 * PADDING + rows * (CELL + GAP) - GAP) * zoom;
+  }
+
+  private void updateTheme() {
+    Scene scene = getScene();
+    Parent root = scene != null ? scene.getRoot() : null;
+    boolean nowDark = root != null && root.getStyleClass().contains("dark-mode");
+    if (nowDark != dark) {
+      dark = nowDark;
+      repaintAll();
+    }
+  }
+
+  private void repaintAll() {
+    fullRepaint = true;
+    schedulePaint();
+  }
+
+  /**
+   * Paint on the next frame, so a burst of scroll events or seat changes costs one paint.
+   */
+  private void schedulePaint() {
+    if (!paintScheduled) {
+      paintScheduled = true;
+      painter.start();
+    }
+  }
+
+  private void paint() {
+    GraphicsContext gc = canvas.getGraphicsContext2D();
+    int theme = dark ? 1 : 0;
+    if (model.isReset()) {
+      fullRepaint = true;
+    }
+    model.drainChanges(dirty);
+    if (model.getClassroom() == null) {
+      gc.setFill(BACKGROUND[theme]);
+      gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+      dirty.clear();
+      fullRepaint = false;
+      return;
+    }
+    int cols = model.getCols();
+    double pitch = pitch();
+    double originX = PADDING * zoom - hbar.getValue();
+    double originY = PADDING * zoom - vbar.getValue();
+
+    if (fullRepaint) {
+      paintArea(gc, originX, originY, 0, 0, canvas.getWidth(), canvas.getHeight(), zoom, theme, hovered);
+    } else {
+      for (int index = dirty.nextSetBit(0); index >= 0; index = dirty.nextSetBit(index + 1)) {
+        double x = originX + (index % cols) * pitch;
+        double y = originY + (index / cols) * pitch;
+        if (x + pitch > 0 && y + pitch > 0 && x < canvas.getWidth() && y < canvas.getHeight()) {
+          // Clear the cell and its share of the gaps, where the hover border may reach
+          gc.setFill(BACKGROUND[theme]);
+          gc.fillRect(x - GAP * zoom / 2, y - GAP * zoom / 2, pitch, pitch);
+          drawCell(gc, index, x, y, zoom, theme, index == hovered);
+          drawHeat(gc, index, x, y, zoom);
+          drawPulse(gc, index, x, y, zoom);
+        }
+      }
+    }
+    dirty.clear();
+    fullRepaint = false;
+  }
+
+  /**
+   * Paint the background and the seats overlapping an area of {@code gc}, with the room's
+   * top-left seat at ({@code originX}, {@code originY}).
+   */
+  private void paintArea(GraphicsContext gc, double originX, double originY, double x, double y, double width,
+      double height, double zoom, int theme, int hovered) {
+    int rows = model.getRows();
+    int cols = model.getCols();
+    double pitch = (CELL + GAP) * zoom;
+    gc.setFill(BACKGROUND[theme]);
+    gc.fillRect(x, y, width, height);
+    int firstCol = Math.max(0, (int) Math.floor((x - originX) / pitch));
+    int lastCol = Math.min(cols - 1, (int) Math.floor((x + width - originX) / pitch));
+    int firstRow = Math.max(0, (int) Math.floor((y - originY) / pitch));
+    int lastRow = Math.min(rows - 1, (int) Math.floor((y + height - originY) / pitch));
+    for (int row = firstRow; row <= lastRow; row++) {
+      for (int col = firstCol; col <= lastCol; col++) {
+        int index = row * cols + col;
+        drawCell(gc, index, originX + col * pitch, originY + row * pitch, zoom, theme, index == hovered);
+      }
+    }
+    if (heatmap.getMode() == SeatHeatmap.Mode.OFF && pulsing.isEmpty()) {
+      return;
+    }
+    for (int row = firstRow; row <= lastRow; row++) {
+      for (int col = firstCol; col <= lastCol; col++) {
+        int index = row * cols + col;
+        double cellX = originX + col * pitch;
+        double cellY = originY + row * pitch;
+        drawHeat(gc, index, cellX, cellY, zoom);
+        drawPulse(gc, index, cellX, cellY, zoom);
+      }
+    }
+  }
+
+  private void setPulse(double progress) {
+    pulseFill = PULSE_COLOR.deriveColor(0, 1, 1, 0.45 * (1 - progress));
+    dirty.or(pulsing);
+    if (progress >= 1) {
+      pulsing.clear();
+    }
+    schedulePaint();
+  }
+
+  private void drawPulse(GraphicsContext gc, int index, double x, double y, double zoom) {
+    if (!pulsing.get(index)) {
+      return;
+    }
+    double size = CELL * zoom;
+    double arc = 12 * zoom;
+    gc.setFill(pulseFill);
+    gc.fillRoundRect(x, y, size, size, arc, arc);
+  }
+
+  private void drawHeat(GraphicsContext gc, int index, double x, double y, double zoom) {
+    int level = heatmap.getLevel(index);
+    if (level == SeatHeatmap.NO_VALUE) {
+      return;
+    }
+    double size = CELL * zoom;
+    double arc = 12 * zoom;
+    gc.setFill(HEAT[level]);
+    gc.fillRoundRect(x, y, size, size, arc, arc);
+  }
+
+  private void drawCell(GraphicsContext gc, int index, double x, double y, double zoom, int theme, boolean hover) {
+    double size = CELL * zoom;
+    SeatState state = model.getState(index);
+    LocatedStudent student = model.getStudent(index);
+    double arc = 12 * zoom;
+    double border = (state == SeatState.SELECTED ? 3 : 2) * zoom;
+
+    gc.setFill(FILL[theme][state.ordinal()]);
+    gc.fillRoundRect(x, y, size, size, arc, arc);
+    gc.setStroke(BORDER[theme][state.ordinal()]);
+    gc.setLineWidth(hover ? border + 1 : border);
+    gc.strokeRoundRect(x + border / 2, y + border / 2, size - border, size - border, arc, arc);
+
+    // Skip text once it would be too small to read
+    if (size < 40) {
+      return;
+    }
+    gc.setTextAlign(TextAlignment.CENTER);
+    gc.setTextBaseline(VPos.CENTER);
+    double centerX = x + size / 2;
+    double textWidth = size - 16 * zoom;
+    LanguageManager lm = LanguageManager.getInstance();
+    if (student == null) {
+      gc.setFill(NAME[theme][SeatState.EMPTY.ordinal()]);
+      gc.setFont(Font.font(12 * zoom));
+      gc.fillText(lm.get("empty"), centerX, y + size / 2, textWidth);
+      return;
+    }
+
+    double box = CHECK_BOX * zoom;
+    double boxY = y + 8 * zoom;
+    gc.setLineWidth(Math.max(1, zoom));
+    gc.setStroke(BORDER[theme][state.ordinal()]);
+    gc.strokeRect(centerX - box / 2, boxY, box, box);
+    if (state == SeatState.SELECTED) {
+      gc.setFill(BORDER[theme][state.ordinal()]);
+      gc.fillRect(centerX - box / 2 + 2 * zoom, boxY + 2 * zoom, box - 4 * zoom, box - 4 * zoom);
+    }
+
+    gc.setFill(NAME[theme][state.ordinal()]);
+    gc.setFont(Font.font(null, FontWeight.BOLD, 12 * zoom));
+    gc.fillText(student.getStudent().getName(), centerX, y + 36 * zoom, textWidth);
+    if (size < 75) {
+      return;
+    }
+    Position pos = student.getPosition();
+    gc.setFill(POSITION_TEXT);
+    gc.setFont(Font.font(null, FontWeight.NORMAL, FontPosture.ITALIC, 9 * zoom));
+    gc.fillText("(" + pos.row() + "," + pos.col() + ")", centerX, y + 54 * zoom, textWidth);
+    gc.setFill(CLAIMS_TEXT);
+    gc.setFont(Font.font(null, FontWeight.SEMI_BOLD, 8 * zoom));
+    gc.fillText(model.getClaimCount(index) + " claims", centerX, y + 68 * zoom, textWidth);
+    if (state == SeatState.UNVERIFIED) {
+      gc.setFill(WARNING_TEXT);
+      gc.setFont(Font.font(null, FontWeight.BOLD, 8 * zoom));
+      gc.fillText(lm.get("incomplete"), centerX, y + 82 * zoom, textWidth);
+    }
+  }
+
+  /**
+   * The seat index under a point of the canvas, or -1 over a gap or outside the room.
+   */
+  private int indexAt(double x, double y) {
+    if (model.getClassroom() == null) {
+      return -1;
+    }
+    double pitch = pitch();
+    double contentX = x + hbar.getValue() - PADDING * zoom;
+    double contentY = y + vbar.getValue() - PADDING * zoom;
+    if (contentX < 0 || contentY < 0) {
+      return -1;
+    }
+    int col = (int) (contentX / pitch);
+    int row = (int) (contentY / pitch);
+    if (col >= model.getCols() || row >= model.getRows()
+        || contentX - col * pitch > CELL * zoom || contentY - row * pitch > CELL * zoom) {
+      return -1;
+    }
+    return row * model.getCols() + col;
+  }
+
+  private void handleClick(MouseEvent event) {
+    if (event.getButton() != MouseButton.PRIMARY) {
+      return;
+    }
+    int index = indexAt(event.getX(), event.getY());
+    LocatedStudent student = index >= 0 ? model.getStudent(index) : null;
+    if (student == null) {
+      return;
+    }
+    double pitch = pitch();
+    int cols = model.getCols();
+    double cellX = event.getX() + hbar.getValue() - PADDING * zoom - (index % cols) * pitch;
+    double cellY = event.getY() + vbar.getValue() - PADDING * zoom - (index / cols) * pitch;
+    double box = CHECK_BOX * zoom;
+    // A little slack around the box, as a CheckBox's padding gives
+    boolean onBox = Math.abs(cellX - CELL * zoom / 2) <= box / 2 + 4 * zoom
+        && cellY >= 4 * zoom && cellY <= 8 * zoom + box + 4 * zoom;
+    if (onBox) {
+      if (onSelectionToggled != null) {
+        onSelectionToggled.accept(student);
+      }
+    } else if (onStudentClicked != null) {
+      onStudentClicked.accept(student);
+    }
+  }
+
+  private void handleMove(MouseEvent event) {
+    setHovered(indexAt(event.getX(), event.getY()));
+  }
+
+  private void setHovered(int index) {
+    if (index == hovered) {
+      return;
+    }
+    if (hovered >= 0 && hovered < model.size()) {
+      dirty.set(hovered);
+    }
+    hovered = index;
+    if (index >= 0) {
+      dirty.set(index);
+    }
+    canvas.setCursor(index >= 0 && model.getStudent(index) != null ? Cursor.HAND : Cursor.DEFAULT);
+    schedulePaint();
+  }
+
+  private void handleScroll(ScrollEvent event) {
+    if (event.isControlDown()) {
+      zoomAt(zoom * Math.pow(1.0015, event.getDeltaY()), event.getX(), event.getY());
+    } else {
+      double dx = event.isShiftDown() && event.getDeltaX() == 0 ? event.getDeltaY() : event.getDeltaX();
+      double dy = event.isShiftDown() && event.getDeltaX() == 0 ? 0 : event.getDeltaY();
+      hbar.setValue(clamp(hbar.getValue() - dx, 0, hbar.getMax()));
+      vbar.setValue(clamp(vbar.getValue() - dy, 0, vbar.getMax()));
+    }
+    event.consume();
+  }
+
+  private void handleZoom(ZoomEvent event) {
+    zoomAt(zoom * event.getZoomFactor(), event.getX(), event.getY());
+    event.consume();
+  }
+
+  /**
+   * Change the zoom, keeping the content under the given canvas point in place.
+   */
+  private void zoomAt(double newZoom, double x, double y) {
+    newZoom = clamp(newZoom, MIN_ZOOM, MAX_ZOOM);
+    if (newZoom == zoom) {
+      return;
+    }
+    double contentX = (x + hbar.getValue()) / zoom;
+    double contentY = (y + vbar.getValue()) / zoom;
+    zoom = newZoom;
+    layoutChildren();
+    hbar.setValue(clamp(contentX * zoom - x, 0, hbar.getMax()));
+    vbar.setValue(clamp(contentY * zoom - y, 0, vbar.getMax()));
+    repaintAll();
+  }
+
+  private static double clamp(double value, double min, double max) {
+    return Math.max(min, Math.min(max, value));
+  }
+}
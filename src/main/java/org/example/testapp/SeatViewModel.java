@@ -0,0 +1,175 @@
+package org.example.testapp;
+
+import org.example.testapp.entities.Classroom;
+import org.example.testapp.entities.Direction;
+import org.example.testapp.entities.LocatedStudent;
+import org.example.testapp.entities.Position;
+
+import java.util.BitSet;
+import java.util.function.Predicate;
+
+/**
+ * What each seat of the seat map shows, keyed by position, and which seats changed since
+ * the map was last painted.
+ *
+ * Updating a seat recomputes its state and compares it with the cached one; only a seat
+ * whose student, state or claim count actually differs is recorded as changed. Callers
+ * update the seats an action can affect (a claim touches the claimer's seat and its four
+ * neighbours at most) and the map repaints just the changed ones on the next frame.
+ */
+public class SeatViewModel {
+  private final Predicate<String> isSelected;
+  private final BitSet changed = new BitSet();
+  private Classroom classroom;
+  private int cols;
+  private LocatedStudent[] students = new LocatedStudent[0]; // Row-major
+  private SeatState[] states = new SeatState[0];
+  private int[] claimCounts = new int[0];
+  private boolean reset = true;
+
+  public enum SeatState {
+    EMPTY, VERIFIED, UNVERIFIED, SELECTED
+  }
+
+  /**
+   * @param isSelected whether the student with this id is selected
+   */
+  public SeatViewModel(Predicate<String> isSelected) {
+    this.isSelected = isSelected;
+  }
+
+  /**
+   * Show a classroom, or nothing if null. Reads every seat once and marks the whole map
+   * for repainting.
+   */
+  public void setClassroom(Classroom classroom) {
+    this.classroom = classroom;
+    this.cols = classroom != null ? classroom.getCols() : 0;
+    int cells = classroom != null ? classroom.getRows() * cols : 0;
+    students = new LocatedStudent[cells];
+    states = new SeatState[cells];
+    claimCounts = new int[cells];
+    for (int i = 0; i < cells; i++) {
+      read(i);
+    }
+    changed.clear();
+    reset = true;
+  }
+
+  public Classroom getClassroom() {
+    return classroom;
+  }
+
+  /**
+   * Re-read one seat.
+   *
+   * @return whether what the seat shows changed
+   */
+  public boolean update(Position pos) {
+    if (classroom == null || pos == null || !classroom.isInside(pos)) {
+      return false;
+    }
+    return refresh(indexOf(pos));
+  }
+
+  /**
+   * Re-read a seat and its four neighbours, the seats whose state can depend on who
+   * sits there and what they claim.
+   */
+  public void updateAround(Position pos) {
+    if (pos == null) {
+      return;
+    }
+    update(pos);
+    for (Direction direction : Direction.values()) {
+      update(pos.getNeighbor(direction));
+    }
+  }
+
+  /**
+   * Re-read every seat, for changes that could touch any of them (undo, select all).
+   * Still only the seats that differ are repainted.
+   */
+  public void updateAll() {
+    for (int i = 0; i < students.length; i++) {
+      refresh(i);
+    }
+  }
+
+  /**
+   * Whether the classroom was replaced since the last {@link #drainChanges}, so the
+   * whole map must be laid out and painted again.
+   */
+  public boolean isReset() {
+    return reset;
+  }
+
+  /**
+   * Move the indices of the seats changed since the last call into {@code into} and
+   * forget them here.
+   */
+  public void drainChanges(BitSet into) {
+    into.or(changed);
+    changed.clear();
+    reset = false;
+  }
+
+  public int getRows() {
+    return classroom != null ? classroom.getRows() : 0;
+  }
+
+  public int getCols() {
+    return cols;
+  }
+
+  public int size() {
+    return students.length;
+  }
+
+  public int indexOf(Position pos) {
+    return pos.row() * cols + pos.col();
+  }
+
+  /**
+   * The student on a seat, or null if it is empty.
+   */
+  public LocatedStudent getStudent(int index) {
+    return students[index];
+  }
+
+  public SeatState getState(int index) {
+    return states[index];
+  }
+
+  public int getClaimCount(int index) {
+    return claimCounts[index];
+  }
+
+  private boolean refresh(int index) {
+    LocatedStudent oldStudent = students[index];
+    SeatState oldState = states[index];
+    int oldClaims = claimCounts[index];
+    read(index);
+    if (students[index] != oldStudent || states[index] != oldState || claimCounts[index] != oldClaims) {
+      changed.set(index);
+      return true;
+    }
+    return false;
+  }
+
+  private void read(int index) {
+    Position pos = new Position(index / cols, index % cols);
+    LocatedStudent student = classroom.getAt(pos).orElse(null);
+    students[index] = student;
+    claimCounts[index] = student != null ? student.getClaims().size() : 0;
+    if (student == null) {
+      states[index] = SeatState.EMPTY;
+    } else if (isSelected.test(student.getStudent().getId())) {
+      states[index] = SeatState.SELECTED;
+    } else if (classroom.isFullyDeclared(pos)) {
+      states[index] = SeatState.VERIFIED;
+    } else {
+      states[index] = SeatState.UNVERIFIED;
+    }
+  }
+}
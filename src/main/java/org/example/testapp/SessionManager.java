@@ -38,7 +38,7 @@ public class SessionManager {
 
   public static Classroom loadSession(File file) throws IOException {
     Classroom classroom = null;
-    Map<String, Student> students = new HashMap<>();
+    StudentPool students = new StudentPool();
     Map<String, LocatedStudent> locatedStudents = new HashMap<>();
     Map<String, Position> studentPositions = new HashMap<>();
     String currentStudent = null;
@@ -63,9 +63,7 @@ public class SessionManager {
             if (parts.length >= 3) {
               currentStudentId = parts[1];
               currentStudent = parts[2];
-              Student student = new Student(currentStudentId, currentStudent);
-              students.put(currentStudentId, student);
-              LocatedStudent locStudent = new LocatedStudent(student);
+              LocatedStudent locStudent = new LocatedStudent(students.intern(currentStudentId, currentStudent));
               locatedStudents.put(currentStudentId, locStudent);
             }
           }
@@ -83,7 +81,8 @@ public class SessionManager {
               Direction direction = Direction.valueOf(parts[1]);
               String targetId = parts[2];
 
-              Student target = targetId.equals("ABSENT") ? null : students.get(targetId);
+              // A target saved later in the file gets a placeholder until its STUDENT line
+              Student target = targetId.equals("ABSENT") ? null : students.reference(targetId, targetId);
               Claim claim = new Claim(direction, target);
               locatedStudents.get(currentStudentId).addClaim(claim);
             }
@@ -96,6 +95,8 @@ public class SessionManager {
       throw new IOException("Invalid session file: classroom dimensions not found");
     }
 
+    students.canonicalize(locatedStudents.values());
+
     // Place all students
     for (var entry : locatedStudents.entrySet()) {
       LocatedStudent locStudent = entry.getValue();
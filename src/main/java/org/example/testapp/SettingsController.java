@@ -11,10 +11,15 @@ import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 
+import org.example.testapp.persistence.AttendanceRepository;
+import org.example.testapp.persistence.Persistence;
+
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -406,6 +411,12 @@ public class SettingsController {
         try (FileInputStream in = new FileInputStream(settingsFile)) {
           props.load(in);
         }
+      }
+      AttendanceRepository repository = Persistence.getRepository();
+      if (repository != null) {
+        props.putAll(repository.loadSettings());
+      }
+      if (!props.isEmpty()) {
 
         neighborWeightSlider = neighborWeightSlider == null ? null : neighborWeightSlider;
         occupancyWeightSlider = occupancyWeightSlider == null ? null : occupancyWeightSlider;
@@ -443,6 +454,14 @@ public class SettingsController {
       try (FileOutputStream out = new FileOutputStream(settingsFile)) {
         props.store(out, "Smart Attendance Settings");
       }
+      AttendanceRepository repository = Persistence.getRepository();
+      if (repository != null) {
+        Map<String, String> settings = new HashMap<>();
+        for (String name : props.stringPropertyNames()) {
+          settings.put(name, props.getProperty(name));
+        }
+        repository.saveSettings(settings);
+      }
     } catch (IOException ignored) {
     }
   }
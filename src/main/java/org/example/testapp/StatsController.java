@@ -2,20 +2,44 @@ package org.example.testapp;
 
 import org.example.testapp.attendance.AttendanceReport;
 import org.example.testapp.entities.*;
+import org.example.testapp.stats.ConfidenceHistogram;
+import org.example.testapp.stats.SemesterStats;
+import org.example.testapp.stats.SemesterStatsStore;
+import org.example.testapp.verification.AttendanceConflict;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Pos;
+import javafx.scene.chart.BarChart;
+import javafx.scene.chart.CategoryAxis;
+import javafx.scene.chart.NumberAxis;
 import javafx.scene.chart.PieChart;
+import javafx.scene.chart.XYChart;
 import javafx.scene.control.Label;
 import javafx.scene.control.ScrollPane;
+import javafx.scene.control.Tooltip;
+import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class StatsController {
+  private static final int CONFIDENCE_BINS = 10;
+  private static final double HEATMAP_CELL_SIZE = 28;
+  private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(r -> {
+    Thread thread = new Thread(r, "stats-writer");
+    thread.setDaemon(true);
+    return thread;
+  });
+
   private VBox root;
   private Label titleLabel;
   private Label totalStudentsLabel;
@@ -24,8 +48,21 @@ public class StatsController {
   private Label attendanceRateLabel;
   private PieChart attendanceChart;
   private Label emptyStateLabel;
+  // Semester-wide aggregates
+  private SemesterStatsStore semesterStore;
+  private Label semesterTitleLabel;
+  private Label semesterSummaryLabel;
+  private BarChart<String, Number> confidenceChart;
+  private BarChart<String, Number> conflictChart;
+  private GridPane seatHeatmap;
 
   public StatsController() {
+    try {
+      semesterStore = SemesterStatsStore.open(
+          new File(System.getProperty("user.home"), ".whoami/semester_stats.dat").toPath());
+    } catch (IOException e) {
+      System.err.println("Failed to open semester statistics: " + e.getMessage());
+    }
     buildUI();
     // Listen for language changes
     LanguageManager.getInstance().addLanguageChangeListener(lang -> updateLabels());
@@ -81,13 +118,133 @@ public class StatsController {
     Label chartLabel = new Label("Chart:");
     chartLabel.getStyleClass().add("label-title");
 
+    // Semester overview, built from the streaming aggregates
+    semesterTitleLabel = new Label(LanguageManager.getInstance().get("semester_overview"));
+    semesterTitleLabel.getStyleClass().add("label-title");
+
+    semesterSummaryLabel = new Label();
+    semesterSummaryLabel.getStyleClass().add("label-secondary");
+
+    confidenceChart = new BarChart<>(new CategoryAxis(), new NumberAxis());
+    confidenceChart.setTitle(LanguageManager.getInstance().get("confidence_distribution"));
+    confidenceChart.setLegendVisible(false);
+    confidenceChart.setAnimated(false);
+    confidenceChart.setPrefHeight(300);
+
+    conflictChart = new BarChart<>(new CategoryAxis(), new NumberAxis());
+    conflictChart.setTitle(LanguageManager.getInstance().get("conflict_types"));
+    conflictChart.setLegendVisible(false);
+    conflictChart.setAnimated(false);
+    conflictChart.setPrefHeight(300);
+
+    HBox semesterCharts = new HBox(15, confidenceChart, conflictChart);
+    HBox.setHgrow(confidenceChart, Priority.ALWAYS);
+    HBox.setHgrow(conflictChart, Priority.ALWAYS);
+
+    seatHeatmap = new GridPane();
+    seatHeatmap.setHgap(3);
+    seatHeatmap.setVgap(3);
+
+    VBox semesterContainer = new VBox(10, semesterTitleLabel, semesterSummaryLabel, semesterCharts, seatHeatmap);
+    semesterContainer.getStyleClass().add("card");
+
     root.getChildren().addAll(
         titleLabel,
         statsBox,
         emptyStateLabel,
         chartLabel,
-        chartContainer);
+        chartContainer,
+        semesterContainer);
     VBox.setVgrow(chartContainer, Priority.ALWAYS);
+
+    refreshSemester();
+  }
+
+  /**
+   * Fold a finished analysis into the semester aggregates and redraw the overview. The
+   * aggregates are saved on the writer thread.
+   */
+  public void recordAnalysis(AttendanceService.AttendanceAnalysisResult result, long sessionId) {
+    if (result == null || semesterStore == null) {
+      return;
+    }
+    semesterStore.ingest(sessionId, result.reports, result.conflicts);
+    refreshSemester();
+    SemesterStatsStore store = semesterStore;
+    WRITER.execute(() -> {
+      try {
+        store.save();
+      } catch (IOException e) {
+        System.err.println("Failed to record semester statistics: " + e.getMessage());
+      }
+    });
+  }
+
+  /**
+   * Redraw the semester overview. Work is bounded by the number of histogram bins,
+   * conflict types and seats, never by the number of recorded sessions.
+   */
+  private void refreshSemester() {
+    if (semesterStore == null) {
+      return;
+    }
+    SemesterStats semester = semesterStore.getSemester();
+    ConfidenceHistogram confidence = semester.getConfidence();
+    long reports = semester.getTotalReports();
+    long present = semester.getStatusCount(AttendanceReport.AttendanceStatus.PRESENT);
+
+    semesterSummaryLabel.setText(String.format(LanguageManager.getInstance().get("semester_summary"),
+        semester.getSessions(), reports, reports > 0 ? present * 100 / reports : 0,
+        confidence.quantile(0.1), confidence.quantile(0.5), confidence.quantile(0.9)));
+
+    XYChart.Series<String, Number> confidenceSeries = new XYChart.Series<>();
+    long[] bins = confidence.bins(CONFIDENCE_BINS);
+    for (int i = 0; i < bins.length; i++) {
+      confidenceSeries.getData().add(new XYChart.Data<>(
+          String.format("%d-%d%%", i * 100 / CONFIDENCE_BINS, (i + 1) * 100 / CONFIDENCE_BINS), bins[i]));
+    }
+    confidenceChart.getData().setAll(List.of(confidenceSeries));
+
+    XYChart.Series<String, Number> conflictSeries = new XYChart.Series<>();
+    for (AttendanceConflict.ConflictType type : AttendanceConflict.ConflictType.values()) {
+      conflictSeries.getData().add(new XYChart.Data<>(type.name(), semester.getConflictCount(type)));
+    }
+    conflictChart.getData().setAll(List.of(conflictSeries));
+
+    updateSeatHeatmap(semester);
+  }
+
+  private void updateSeatHeatmap(SemesterStats semester) {
+    LanguageManager lm = LanguageManager.getInstance();
+    seatHeatmap.getChildren().clear();
+    for (int c = 0; c < semester.getCols(); c++) {
+      seatHeatmap.add(rateLabel(semester.getColRate(c), lm.get("heatmap_col_rate"), c), c + 1, 0);
+    }
+    for (int r = 0; r < semester.getRows(); r++) {
+      seatHeatmap.add(rateLabel(semester.getRowRate(r), lm.get("heatmap_row_rate"), r), 0, r + 1);
+      for (int c = 0; c < semester.getCols(); c++) {
+        double rate = semester.getSeatRate(r, c);
+        Rectangle seat = new Rectangle(HEATMAP_CELL_SIZE, HEATMAP_CELL_SIZE);
+        // Red (never present) to green (always present); grey for unused seats
+        seat.setFill(Double.isNaN(rate) ? Color.web("#dddddd") : Color.hsb(rate * 120, 0.65, 0.85));
+        Tooltip.install(seat, new Tooltip(String.format(lm.get("heatmap_seat_rate"), r, c, percent(rate))));
+        seatHeatmap.add(seat, c + 1, r + 1);
+      }
+    }
+  }
+
+  /**
+   * Header cell of the heatmap: the rate of one row or column, named in its tooltip.
+   */
+  private Label rateLabel(double rate, String tooltipFormat, int index) {
+    Label label = new Label(percent(rate));
+    label.setStyle("-fx-font-size: 10px;");
+    label.setTooltip(new Tooltip(String.format(tooltipFormat, index, percent(rate))));
+    return label;
+  }
+
+  private static String percent(double rate) {
+    return Double.isNaN(rate) ? "-" : Math.round(rate * 100) + "%";
   }
 
   public void updateStats(Classroom classroom, AttendanceService attendanceService) {
@@ -179,5 +336,9 @@ public class StatsController {
     // Update other static labels
     titleLabel.setText(lm.get("attendance_statistics"));
     emptyStateLabel.setText(lm.get("no_stats"));
+    semesterTitleLabel.setText(lm.get("semester_overview"));
+    confidenceChart.setTitle(lm.get("confidence_distribution"));
+    conflictChart.setTitle(lm.get("conflict_types"));
+    refreshSemester();
   }
 }
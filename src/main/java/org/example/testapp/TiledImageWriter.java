@@ -0,0 +1,198 @@
+package org.example.testapp;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes an image of any size as a PNG, rendering it tile by tile.
+ *
+ * The image is produced in horizontal bands that fit the memory budget; each band is
+ * filled by rendering tiles no larger than the tile size into one {@code int[]} ARGB
+ * raster, then encoded and streamed out before the next band is rendered. Neither the
+ * whole image nor a full-size snapshot is ever held in memory, so a thousand-row table
+ * at twice the screen resolution costs the same memory as a small one.
+ */
+public class TiledImageWriter {
+  public static final int DEFAULT_TILE_SIZE = 2048; // Well under the usual texture limit
+  public static final long DEFAULT_MEMORY_BUDGET = 16L << 20; // Bytes of ARGB per band
+
+  private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+  private static final int CHUNK_SIZE = 64 * 1024; // Compressed bytes per IDAT chunk
+  private static final int FILTER_UP = 2;
+
+  private final int width;
+  private final int height;
+  private final int tileSize;
+  private final long memoryBudget;
+
+  /**
+   * Renders part of the image.
+   */
+  public interface TileRenderer {
+    /**
+     * Fill the area at ({@code x}, {@code y}) of the image, at most a tile in each
+     * direction, as ARGB pixels: pixel (i, j) of the area goes to
+     * {@code argb[offset + j * scanlineStride + i]}.
+     */
+    void render(int x, int y, int width, int height, int[] argb, int offset, int scanlineStride);
+  }
+
+  public TiledImageWriter(int width, int height) {
+    this(width, height, DEFAULT_TILE_SIZE, DEFAULT_MEMORY_BUDGET);
+  }
+
+  public TiledImageWriter(int width, int height, int tileSize, long memoryBudget) {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("Image size must be positive: " + width + "x" + height);
+    }
+    this.width = width;
+    this.height = height;
+    this.tileSize = tileSize;
+    this.memoryBudget = memoryBudget;
+  }
+
+  /**
+   * Rows per band: as many as the budget allows, at least one.
+   */
+  public int getBandHeight() {
+    return (int) Math.max(1, Math.min(height, memoryBudget / (4L * width)));
+  }
+
+  public void writePng(TileRenderer renderer, File file) throws IOException {
+    try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+      writePng(renderer, out);
+    }
+  }
+
+  /**
+   * Render the whole image and write it to {@code out} as an 8-bit RGB PNG. Alpha is
+   * dropped, as the image is opaque.
+   */
+  public void writePng(TileRenderer renderer, OutputStream out) throws IOException {
+    DataOutputStream data = new DataOutputStream(out);
+    data.write(SIGNATURE);
+    byte[] header = new byte[13];
+    putInt(header, 0, width);
+    putInt(header, 4, height);
+    header[8] = 8; // Bits per sample
+    header[9] = 2; // Truecolour
+    writeChunk(data, "IHDR", header, header.length);
+
+    int bandHeight = getBandHeight();
+    int[] band = new int[bandHeight * width];
+    byte[] previous = new byte[width * 3]; // Row above, for the Up filter; zeros above the first
+    byte[] current = new byte[width * 3];
+    byte[] filtered = new byte[1 + width * 3];
+    filtered[0] = FILTER_UP;
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    try (DeflaterOutputStream compressed = new DeflaterOutputStream(new IdatStream(data), deflater, CHUNK_SIZE)) {
+      for (int bandY = 0; bandY < height; bandY += bandHeight) {
+        int rows = Math.min(bandHeight, height - bandY);
+        renderBand(renderer, bandY, rows, band);
+        for (int row = 0; row < rows; row++) {
+          int base = row * width;
+          for (int x = 0, i = 0; x < width; x++) {
+            int pixel = band[base + x];
+            current[i++] = (byte) (pixel >> 16);
+            current[i++] = (byte) (pixel >> 8);
+            current[i++] = (byte) pixel;
+          }
+          for (int i = 0; i < current.length; i++) {
+            filtered[i + 1] = (byte) (current[i] - previous[i]);
+          }
+          compressed.write(filtered);
+          byte[] swap = previous;
+          previous = current;
+          current = swap;
+        }
+      }
+    } finally {
+      deflater.end();
+    }
+    writeChunk(data, "IEND", new byte[0], 0);
+    data.flush();
+  }
+
+  private void renderBand(TileRenderer renderer, int bandY, int rows, int[] band) {
+    for (int tileY = 0; tileY < rows; tileY += tileSize) {
+      int tileHeight = Math.min(tileSize, rows - tileY);
+      for (int tileX = 0; tileX < width; tileX += tileSize) {
+        int tileWidth = Math.min(tileSize, width - tileX);
+        renderer.render(tileX, bandY + tileY, tileWidth, tileHeight, band, tileY * width + tileX, width);
+      }
+    }
+  }
+
+  private static void writeChunk(DataOutputStream out, String type, byte[] bytes, int length) throws IOException {
+    byte[] typeBytes = type.getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+    CRC32 crc = new CRC32();
+    crc.update(typeBytes);
+    crc.update(bytes, 0, length);
+    out.writeInt(length);
+    out.write(typeBytes);
+    out.write(bytes, 0, length);
+    out.writeInt((int) crc.getValue());
+  }
+
+  private static void putInt(byte[] bytes, int offset, int value) {
+    bytes[offset] = (byte) (value >>> 24);
+    bytes[offset + 1] = (byte) (value >>> 16);
+    bytes[offset + 2] = (byte) (value >>> 8);
+    bytes[offset + 3] = (byte) value;
+  }
+
+  /**
+   * Cuts the compressed stream into IDAT chunks; closing it writes the last one but
+   * leaves the underlying stream open.
+   */
+  private static final class IdatStream extends OutputStream {
+    private final DataOutputStream out;
+    private final byte[] buffer = new byte[CHUNK_SIZE];
+    private int count;
+
+    IdatStream(DataOutputStream out) {
+      this.out = out;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      if (count == buffer.length) {
+        flushChunk();
+      }
+      buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+      while (length > 0) {
+        if (count == buffer.length) {
+          flushChunk();
+        }
+        int n = Math.min(length, buffer.length - count);
+        System.arraycopy(bytes, offset, buffer, count, n);
+        count += n;
+        offset += n;
+        length -= n;
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      flushChunk();
+    }
+
+    private void flushChunk() throws IOException {
+      if (count > 0) {
+        writeChunk(out, "IDAT", buffer, count);
+        count = 0;
+      }
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package org.example.testapp.audit;
+
+/**
+ * A single audit log entry together with its location in the segmented log.
+ * The location is used as a paging cursor by {@link AuditStore}.
+ */
+public class AuditEntry {
+  private final String timestamp;
+  private final String action;
+  private final String details;
+  private final int segment;
+  private final long offset;
+
+  public AuditEntry(String timestamp, String action, String details, int segment, long offset) {
+    this.timestamp = timestamp;
+    this.action = action;
+    this.details = details;
+    this.segment = segment;
+    this.offset = offset;
+  }
+
+  /**
+   * Parse a log line of the form "[yyyy-MM-dd HH:mm:ss] ACTION: details".
+   *
+   * @return the parsed entry, or null if the line is malformed
+   */
+  public static AuditEntry parse(String line, int segment, long offset) {
+    if (!line.startsWith("[") || !line.contains("] ")) {
+      return null;
+    }
+    int closeIdx = line.indexOf("]");
+    String timestamp = line.substring(1, closeIdx);
+    String rest = line.substring(closeIdx + 2);
+    int colonIdx = rest.indexOf(":");
+    if (colonIdx <= 0) {
+      return null;
+    }
+    return new AuditEntry(timestamp, rest.substring(0, colonIdx), rest.substring(colonIdx + 1).trim(),
+        segment, offset);
+  }
+
+  public static String format(String timestamp, String action, String details) {
+    return String.format("[%s] %s: %s", timestamp, action, details);
+  }
+
+  public String getTimestamp() {
+    return timestamp;
+  }
+
+  public String getAction() {
+    return action;
+  }
+
+  public String getDetails() {
+    return details;
+  }
+
+  public int getSegment() {
+    return segment;
+  }
+
+  public long getOffset() {
+    return offset;
+  }
+
+  /**
+   * Compare log positions; entries are totally ordered by (segment, offset).
+   */
+  public boolean isBefore(AuditEntry other) {
+    return segment < other.segment || (segment == other.segment && offset < other.offset);
+  }
+
+  @Override
+  public String toString() {
+    return format(timestamp, action, details);
+  }
+}
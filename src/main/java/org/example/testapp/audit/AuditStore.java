@@ -0,0 +1,459 @@
+package org.example.testapp.audit;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Segmented, append-only audit log with a sparse block index.
+ *
+ * Entries are appended to "segment-NNNNNN.log" files that roll over at a fixed size.
+ * Every {@link #BLOCK_ENTRIES} entries a block record (byte offset, length, first/last
+ * timestamp and the set of actions in the block) is appended to the segment's ".idx"
+ * sidecar. Reads seek straight to the blocks they need, so paging through the log never
+ * loads more than a few blocks regardless of how large the audit trail has grown.
+ */
+public class AuditStore {
+  static final int BLOCK_ENTRIES = 256;
+  static final long SEGMENT_BYTES = 64L * 1024 * 1024;
+
+  private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.log");
+  private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+  private final Path dir;
+  private final List<Segment> segments = new ArrayList<>();
+  private long entryCount;
+
+  private AuditStore(Path dir) {
+    this.dir = dir;
+  }
+
+  /**
+   * Open (or create) the store in the given directory. A pre-existing single-file
+   * log is adopted as the first segment and indexed once.
+   */
+  public static AuditStore open(Path dir, Path legacyLog) throws IOException {
+    Files.createDirectories(dir);
+    AuditStore store = new AuditStore(dir);
+    store.migrateLegacyLog(legacyLog);
+    store.loadSegments();
+    return store;
+  }
+
+  public synchronized void append(String timestamp, String action, String details) throws IOException {
+    Segment segment = activeSegment();
+    byte[] bytes = (AuditEntry.format(timestamp, action, details) + "\n").getBytes(StandardCharsets.UTF_8);
+    Files.write(segment.log, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+    long lineStart = segment.size;
+    segment.size += bytes.length;
+    record(segment, lineStart, timestamp, action, bytes.length);
+    entryCount++;
+  }
+
+  /**
+   * Read the newest entries, newest first.
+   *
+   * @param action optional action filter (null for all actions)
+   * @param before optional cursor; only entries strictly older than it are returned
+   * @param limit  maximum number of entries in the page
+   */
+  public synchronized List<AuditEntry> readLatest(String action, AuditEntry before, int limit) throws IOException {
+    List<AuditEntry> page = new ArrayList<>();
+    String key = action != null ? indexKey(action) : null;
+
+    for (int s = segments.size() - 1; s >= 0 && page.size() < limit; s--) {
+      Segment segment = segments.get(s);
+      if (before != null && segment.id > before.getSegment()) {
+        continue;
+      }
+
+      List<Block> blocks = segment.readableBlocks();
+      for (int b = blocks.size() - 1; b >= 0 && page.size() < limit; b--) {
+        Block block = blocks.get(b);
+        if (before != null && segment.id == before.getSegment() && block.offset >= before.getOffset()) {
+          continue;
+        }
+        if (key != null && !block.actions.contains(key)) {
+          continue;
+        }
+
+        List<AuditEntry> entries = readBlock(segment, block);
+        for (int i = entries.size() - 1; i >= 0 && page.size() < limit; i--) {
+          AuditEntry entry = entries.get(i);
+          if (before != null && !entry.isBefore(before)) {
+            continue;
+          }
+          if (action != null && !action.equals(entry.getAction())) {
+            continue;
+          }
+          page.add(entry);
+        }
+      }
+    }
+    return page;
+  }
+
+  /**
+   * Read entries within a time range, oldest first.
+   *
+   * @param action optional action filter (null for all actions)
+   * @param from  inclusive lower bound (null for unbounded)
+   * @param to    inclusive upper bound (null for unbounded)
+   * @param after optional cursor; only entries strictly newer than it are returned
+   * @param limit maximum number of entries in the page
+   */
+  public synchronized List<AuditEntry> readRange(String action, LocalDateTime from, LocalDateTime to,
+      AuditEntry after, int limit) throws IOException {
+    List<AuditEntry> page = new ArrayList<>();
+    String key = action != null ? indexKey(action) : null;
+    String fromTs = from != null ? from.format(FORMATTER) : null;
+    String toTs = to != null ? to.format(FORMATTER) : null;
+
+    for (Segment segment : segments) {
+      if (after != null && segment.id < after.getSegment()) {
+        continue;
+      }
+      List<Block> blocks = segment.readableBlocks();
+      if (blocks.isEmpty()) {
+        continue;
+      }
+      if (fromTs != null && blocks.get(blocks.size() - 1).lastTs.compareTo(fromTs) < 0) {
+        continue;
+      }
+
+      int start = fromTs != null ? firstBlockEndingAtOrAfter(blocks, fromTs) : 0;
+      for (int b = start; b < blocks.size(); b++) {
+        Block block = blocks.get(b);
+        if (toTs != null && block.firstTs.compareTo(toTs) > 0) {
+          return page;
+        }
+        if (after != null && segment.id == after.getSegment() && block.offset + block.length <= after.getOffset()) {
+          continue;
+        }
+        if (key != null && !block.actions.contains(key)) {
+          continue;
+        }
+
+        for (AuditEntry entry : readBlock(segment, block)) {
+          if (after != null && !after.isBefore(entry)) {
+            continue;
+          }
+          if (fromTs != null && entry.getTimestamp().compareTo(fromTs) < 0) {
+            continue;
+          }
+          if (toTs != null && entry.getTimestamp().compareTo(toTs) > 0) {
+            return page;
+          }
+          if (action != null && !action.equals(entry.getAction())) {
+            continue;
+          }
+          page.add(entry);
+          if (page.size() >= limit) {
+            return page;
+          }
+        }
+      }
+    }
+    return page;
+  }
+
+  /**
+   * All action types seen in the log, answered from the index alone.
+   */
+  public synchronized Set<String> knownActions() {
+    Set<String> actions = new TreeSet<>();
+    for (Segment segment : segments) {
+      for (Block block : segment.readableBlocks()) {
+        actions.addAll(block.actions);
+      }
+    }
+    return actions;
+  }
+
+  public synchronized long entryCount() {
+    return entryCount;
+  }
+
+  public synchronized void clear() throws IOException {
+    for (Segment segment : segments) {
+      Files.deleteIfExists(segment.log);
+      Files.deleteIfExists(segment.idx);
+    }
+    segments.clear();
+    entryCount = 0;
+  }
+
+  private void migrateLegacyLog(Path legacyLog) throws IOException {
+    if (legacyLog == null || !Files.exists(legacyLog)) {
+      return;
+    }
+    try (Stream<Path> files = Files.list(dir)) {
+      if (files.anyMatch(p -> SEGMENT_NAME.matcher(p.getFileName().toString()).matches())) {
+        return;
+      }
+    }
+    Files.move(legacyLog, segmentLog(0));
+  }
+
+  private void loadSegments() throws IOException {
+    List<Integer> ids = new ArrayList<>();
+    try (Stream<Path> files = Files.list(dir)) {
+      files.forEach(p -> {
+        Matcher m = SEGMENT_NAME.matcher(p.getFileName().toString());
+        if (m.matches()) {
+          ids.add(Integer.parseInt(m.group(1)));
+        }
+      });
+    }
+    Collections.sort(ids);
+
+    for (int id : ids) {
+      Segment segment = new Segment(id, segmentLog(id), dir.resolve(String.format("segment-%06d.idx", id)));
+      loadIndex(segment);
+      catchUp(segment);
+      segments.add(segment);
+      for (Block block : segment.readableBlocks()) {
+        entryCount += block.count;
+      }
+    }
+  }
+
+  private void loadIndex(Segment segment) throws IOException {
+    if (!Files.exists(segment.idx)) {
+      return;
+    }
+    for (String line : Files.readAllLines(segment.idx)) {
+      Block block = Block.fromIndexLine(line);
+      if (block != null) {
+        segment.blocks.add(block);
+      }
+    }
+  }
+
+  /**
+   * Index whatever lies past the last persisted block (entries of the open block, or
+   * the whole file for a segment without a sidecar).
+   */
+  private void catchUp(Segment segment) throws IOException {
+    segment.size = Files.size(segment.log);
+    long from = 0;
+    if (!segment.blocks.isEmpty()) {
+      Block last = segment.blocks.get(segment.blocks.size() - 1);
+      from = last.offset + last.length;
+    }
+    if (from > segment.size) {
+      // Index is ahead of a truncated log; rebuild it from scratch
+      segment.blocks.clear();
+      Files.deleteIfExists(segment.idx);
+      from = 0;
+    }
+
+    ByteArrayOutputStream line = new ByteArrayOutputStream();
+    long lineStart = from;
+    long pos = from;
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(segment.log))) {
+      in.skipNBytes(from);
+      int b;
+      while ((b = in.read()) != -1) {
+        pos++;
+        if (b == '\n') {
+          indexLine(segment, line.toString(StandardCharsets.UTF_8), lineStart, pos - lineStart);
+          line.reset();
+          lineStart = pos;
+        } else {
+          line.write(b);
+        }
+      }
+    }
+
+    if (line.size() > 0) {
+      // Terminate a line torn by a crash so the next append starts cleanly
+      Files.write(segment.log, new byte[] { '\n' }, StandardOpenOption.APPEND);
+      segment.size++;
+      indexLine(segment, line.toString(StandardCharsets.UTF_8), lineStart, pos - lineStart + 1);
+    }
+  }
+
+  private void indexLine(Segment segment, String line, long lineStart, long bytes) throws IOException {
+    AuditEntry entry = AuditEntry.parse(line, segment.id, lineStart);
+    if (entry != null) {
+      record(segment, lineStart, entry.getTimestamp(), entry.getAction(), bytes);
+    } else {
+      if (segment.tail == null) {
+        segment.tail = new Block(lineStart);
+      }
+      segment.tail.length += bytes;
+    }
+  }
+
+  private void record(Segment segment, long lineStart, String timestamp, String action, long bytes)
+      throws IOException {
+    if (segment.tail == null) {
+      segment.tail = new Block(lineStart);
+    }
+    segment.tail.add(timestamp, indexKey(action), bytes);
+    if (segment.tail.count >= BLOCK_ENTRIES) {
+      seal(segment);
+    }
+  }
+
+  private void seal(Segment segment) throws IOException {
+    Block tail = segment.tail;
+    if (tail == null || tail.count == 0) {
+      return;
+    }
+    Files.write(segment.idx, (tail.toIndexLine() + "\n").getBytes(StandardCharsets.UTF_8),
+        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    segment.blocks.add(tail);
+    segment.tail = null;
+  }
+
+  private Segment activeSegment() throws IOException {
+    Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+    if (last != null && last.size < SEGMENT_BYTES) {
+      return last;
+    }
+    if (last != null) {
+      seal(last);
+    }
+    int id = last != null ? last.id + 1 : 0;
+    Segment segment = new Segment(id, segmentLog(id), dir.resolve(String.format("segment-%06d.idx", id)));
+    segments.add(segment);
+    return segment;
+  }
+
+  private List<AuditEntry> readBlock(Segment segment, Block block) throws IOException {
+    byte[] buffer = new byte[(int) block.length];
+    try (RandomAccessFile file = new RandomAccessFile(segment.log.toFile(), "r")) {
+      file.seek(block.offset);
+      file.readFully(buffer);
+    }
+
+    List<AuditEntry> entries = new ArrayList<>(block.count);
+    int start = 0;
+    for (int i = 0; i < buffer.length; i++) {
+      if (buffer[i] == '\n') {
+        String line = new String(buffer, start, i - start, StandardCharsets.UTF_8);
+        AuditEntry entry = AuditEntry.parse(line, segment.id, block.offset + start);
+        if (entry != null) {
+          entries.add(entry);
+        }
+        start = i + 1;
+      }
+    }
+    return entries;
+  }
+
+  private static int firstBlockEndingAtOrAfter(List<Block> blocks, String timestamp) {
+    int lo = 0;
+    int hi = blocks.size() - 1;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (blocks.get(mid).lastTs.compareTo(timestamp) < 0) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  private Path segmentLog(int id) {
+    return dir.resolve(String.format("segment-%06d.log", id));
+  }
+
+  private static String indexKey(String action) {
+    return action.replace('|', '_').replace(',', '_');
+  }
+
+  private static class Segment {
+    final int id;
+    final Path log;
+    final Path idx;
+    final List<Block> blocks = new ArrayList<>(); // Sealed blocks, persisted in the sidecar
+    Block tail; // Open block, rebuilt from the log on startup
+    long size;
+
+    Segment(int id, Path log, Path idx) {
+      this.id = id;
+      this.log = log;
+      this.idx = idx;
+    }
+
+    List<Block> readableBlocks() {
+      if (tail == null || tail.count == 0) {
+        return blocks;
+      }
+      List<Block> all = new ArrayList<>(blocks);
+      all.add(tail);
+      return all;
+    }
+  }
+
+  private static class Block {
+    final long offset;
+    long length;
+    int count;
+    String firstTs;
+    String lastTs;
+    final Set<String> actions = new HashSet<>();
+
+    Block(long offset) {
+      this.offset = offset;
+    }
+
+    void add(String timestamp, String actionKey, long bytes) {
+      if (count == 0) {
+        firstTs = timestamp;
+      }
+      lastTs = timestamp;
+      count++;
+      length += bytes;
+      actions.add(actionKey);
+    }
+
+    String toIndexLine() {
+      return "BLOCK|" + offset + "|" + length + "|" + count + "|" + firstTs + "|" + lastTs + "|"
+          + String.join(",", actions);
+    }
+
+    static Block fromIndexLine(String line) {
+      String[] parts = line.split("\\|", 7);
+      if (parts.length < 7 || !parts[0].equals("BLOCK")) {
+        return null;
+      }
+      try {
+        Block block = new Block(Long.parseLong(parts[1]));
+        block.length = Long.parseLong(parts[2]);
+        block.count = Integer.parseInt(parts[3]);
+        block.firstTs = parts[4];
+        block.lastTs = parts[5];
+        if (!parts[6].isEmpty()) {
+          block.actions.addAll(Arrays.asList(parts[6].split(",")));
+        }
+        return block;
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+  }
+}
@@ -2,7 +2,8 @@ package org.example.testapp.entities;
 
 public class Claim {
     private final Direction direction;
-    private final Student target; // null means "I declare this position is empty/absent"
+    private volatile Student target; // null means "I declare this position is empty/absent"
+    private volatile String tag; // Why the claim is suspect, or null
 
     public Claim(Direction direction, Student target) {
         this.direction = direction;
@@ -17,10 +18,39 @@ public class Claim {
         return target;
     } // Returns null for absent claims
 
+    /**
+     * Point the claim at another instance of the same student, keeping the claim itself
+     * so every list holding it stays valid. See {@link StudentPool#canonicalize}.
+     */
+    void retarget(Student target) {
+        this.target = target;
+    }
+
+    /**
+     * Why the claim was kept although a check at ingest found it suspect, such as
+     * "UNKNOWN_TARGET" for a claim about a student who had not registered; null if the
+     * claim passed every check.
+     */
+    public String getTag() {
+        return tag;
+    }
+
+    public boolean isTagged() {
+        return tag != null;
+    }
+
+    public void tag(String reason) {
+        this.tag = reason;
+    }
+
+    public void clearTag() {
+        this.tag = null;
+    }
+
     /**
      * Check if this claim declares an absent/empty neighbor.
      */
     public boolean isAbsentClaim() {
         return target == null;
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
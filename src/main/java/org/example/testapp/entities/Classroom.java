@@ -1,14 +1,34 @@
 package org.example.testapp.entities;
 
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+/**
+ * The seats of a room and who sits on them.
+ *
+ * Thread-safe: all seat state is guarded by the instance lock, so the room can be read
+ * from an analysis thread while the FX thread places and removes students. A sequence of
+ * calls is not atomic; hold the lock around it, or work on a copy, to see one consistent
+ * room.
+ */
 public class Classroom {
     private final int rows;
     private final int cols;
 
-    private final Map<Position, LocatedStudent> placements = new HashMap<>();
+    // Who sits where, row-major; null for an empty seat
+    private final LocatedStudent[] seats;
+
+    // Neighbour-declaration state per seat, row-major. A seat's bit in "declared" is current
+    // while its bit in "checked" is set and its student's claims are still at the version
+    // recorded when it was computed. Placing or freeing a seat clears "checked" for it and
+    // its four neighbours; claim changes are caught by the version.
+    private final BitSet declared;
+    private final BitSet checked;
+    private final int[] checkedVersions;
 
     public Classroom(int rows, int cols) {
         if (rows <= 0 || cols <= 0)
@@ -16,6 +36,10 @@ public class Classroom {
 
         this.rows = rows;
         this.cols = cols;
+        this.seats = new LocatedStudent[rows * cols];
+        this.declared = new BitSet(rows * cols);
+        this.checked = new BitSet(rows * cols);
+        this.checkedVersions = new int[rows * cols];
     }
 
     public int getRows() {
@@ -31,33 +55,57 @@ public class Classroom {
                 && pos.col() >= 0 && pos.col() < cols;
     }
 
-    public boolean isOccupied(Position pos) {
-        return placements.containsKey(pos);
+    public synchronized boolean isOccupied(Position pos) {
+        return isInside(pos) && seats[pos.row() * cols + pos.col()] != null;
     }
 
-    public Optional<LocatedStudent> getAt(Position pos) {
-        return Optional.ofNullable(placements.get(pos));
+    public synchronized Optional<LocatedStudent> getAt(Position pos) {
+        return Optional.ofNullable(isInside(pos) ? seats[pos.row() * cols + pos.col()] : null);
     }
 
-    public void place(LocatedStudent student) {
+    public synchronized void place(LocatedStudent student) {
         if (!isInside(student.getPosition()))
             throw new IllegalArgumentException("Position out of classroom bounds");
 
         if (isOccupied(student.getPosition()))
             throw new IllegalStateException("Seat already occupied");
 
-        placements.put(student.getPosition(), student);
+        Position pos = student.getPosition();
+        seats[pos.row() * cols + pos.col()] = student;
+        seatChanged(pos.row(), pos.col());
     }
 
-    public Map<Position, LocatedStudent> allPlacements() {
-        return Map.copyOf(placements);
+    /**
+     * Free a seat, returning the student who sat there if any.
+     */
+    public synchronized Optional<LocatedStudent> remove(Position pos) {
+        if (!isInside(pos)) {
+            return Optional.empty();
+        }
+        int index = pos.row() * cols + pos.col();
+        LocatedStudent removed = seats[index];
+        if (removed != null) {
+            seats[index] = null;
+            seatChanged(pos.row(), pos.col());
+        }
+        return Optional.ofNullable(removed);
+    }
+
+    public synchronized Map<Position, LocatedStudent> allPlacements() {
+        Map<Position, LocatedStudent> placements = new HashMap<>();
+        for (int index = 0; index < seats.length; index++) {
+            if (seats[index] != null) {
+                placements.put(new Position(index / cols, index % cols), seats[index]);
+            }
+        }
+        return Collections.unmodifiableMap(placements);
     }
 
     /**
      * Get all actual neighbors of a student at the given position.
      * Returns a map of Direction -> LocatedStudent for all occupied neighbor seats.
      */
-    public Map<Direction, LocatedStudent> getNeighborsOf(Position pos) {
+    public synchronized Map<Direction, LocatedStudent> getNeighborsOf(Position pos) {
         Map<Direction, LocatedStudent> neighbors = new HashMap<>();
 
         for (Direction dir : Direction.values()) {
@@ -78,33 +126,40 @@ public class Classroom {
      * 
      * @return true if all neighbors are declared, false otherwise
      */
-    public boolean hasAllNeighborsDeclared(LocatedStudent student) {
-        if (student.getPosition() == null) {
+    public synchronized boolean hasAllNeighborsDeclared(LocatedStudent student) {
+        Position pos = student.getPosition();
+        if (pos == null) {
             return true; // No position means no neighbors to declare
         }
-
-        Map<Direction, LocatedStudent> actualNeighbors = getNeighborsOf(student.getPosition());
-
-        // Check that each actual neighbor is declared in claims
-        for (Map.Entry<Direction, LocatedStudent> entry : actualNeighbors.entrySet()) {
-            Direction direction = entry.getKey();
-            LocatedStudent neighbor = entry.getValue();
-
-            boolean isDeclared = student.getClaims().stream()
-                    .anyMatch(claim -> claim.getDirection() == direction &&
-                            !claim.isAbsentClaim() &&
-                            claim.getTarget().equals(neighbor.getStudent()));
-
-            if (!isDeclared) {
-                return false;
-            }
+        if (isInside(pos) && seats[pos.row() * cols + pos.col()] == student) {
+            return isFullyDeclared(pos);
         }
+        // Not seated here (yet), so nothing is cached for it
+        return computeDeclared(student, pos.row(), pos.col());
+    }
 
-        // Also check: student might have claimed empty positions that actually exist
-        // For validation purposes, we accept claims of empty/absent neighbors
-        // as long as they don't conflict with actual occupied neighbors
-
-        return true;
+    /**
+     * Whether the student on this seat has declared all their actual neighbors, from the
+     * cached per-seat state. Empty seats and seats outside the room have nothing to declare.
+     * Constant time unless the seat's student, a neighbor or the student's claims changed
+     * since the last query.
+     */
+    public synchronized boolean isFullyDeclared(Position seat) {
+        if (!isInside(seat)) {
+            return true;
+        }
+        int index = seat.row() * cols + seat.col();
+        LocatedStudent student = seats[index];
+        if (student == null) {
+            return true;
+        }
+        int version = student.getClaimsVersion();
+        if (!checked.get(index) || checkedVersions[index] != version) {
+            declared.set(index, computeDeclared(student, seat.row(), seat.col()));
+            checked.set(index);
+            checkedVersions[index] = version;
+        }
+        return declared.get(index);
     }
 
     /**
@@ -112,13 +167,52 @@ public class Classroom {
      * 
      * @throws IllegalStateException if any student hasn't declared all neighbors
      */
-    public void validateAllNeighborsDeclared() {
-        for (LocatedStudent student : placements.values()) {
-            if (!hasAllNeighborsDeclared(student)) {
+    public synchronized void validateAllNeighborsDeclared() {
+        for (LocatedStudent student : seats) {
+            if (student != null && !isFullyDeclared(student.getPosition())) {
                 throw new IllegalStateException(
                         "Student " + student.getStudent().getName() +
                                 " has not declared all neighbors");
             }
         }
     }
+
+    private void seatChanged(int row, int col) {
+        checked.clear(row * cols + col);
+        if (col > 0) checked.clear(row * cols + col - 1);
+        if (col + 1 < cols) checked.clear(row * cols + col + 1);
+        if (row > 0) checked.clear((row - 1) * cols + col);
+        if (row + 1 < rows) checked.clear((row + 1) * cols + col);
+    }
+
+    /**
+     * Whether a student at this seat declared every occupied neighbor seat. Claims of
+     * empty/absent neighbors are accepted as long as the actual occupied neighbors are
+     * declared too.
+     */
+    private boolean computeDeclared(LocatedStudent student, int row, int col) {
+        return declares(student, Direction.LEFT, row, col - 1)
+                && declares(student, Direction.RIGHT, row, col + 1)
+                && declares(student, Direction.FRONT, row - 1, col)
+                && declares(student, Direction.BACK, row + 1, col);
+    }
+
+    private boolean declares(LocatedStudent student, Direction direction, int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            return true;
+        }
+        LocatedStudent neighbor = seats[row * cols + col];
+        if (neighbor == null) {
+            return true;
+        }
+        List<Claim> claims = student.getClaims();
+        for (int i = 0; i < claims.size(); i++) {
+            Claim claim = claims.get(i);
+            if (claim.getDirection() == direction && !claim.isAbsentClaim()
+                    && claim.getTarget().equals(neighbor.getStudent())) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
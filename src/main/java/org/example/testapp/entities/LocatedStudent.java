@@ -1,8 +1,10 @@
 package org.example.testapp.entities;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.RandomAccess;
 
 public class LocatedStudent {
 
@@ -12,7 +14,7 @@ public class LocatedStudent {
     private Position position;
 
     // All neighbor claims made by this student
-    private final List<Claim> claims = new ArrayList<>();
+    private final ClaimList claims = new ClaimList();
 
     // State of this student in the system
     private Status status = Status.UNKNOWN;
@@ -49,6 +51,23 @@ public class LocatedStudent {
         this.claims.add(claim);
     }
 
+    /**
+     * Point one of this student's claims at the canonical instance of its target,
+     * counting it as a change of the claims.
+     */
+    void retargetClaim(Claim claim, Student target) {
+        claim.retarget(target);
+        claims.changed();
+    }
+
+    /**
+     * A number that changes whenever the claims list is modified, so cached results
+     * derived from the claims can tell they are stale.
+     */
+    public int getClaimsVersion() {
+        return claims.version();
+    }
+
     public Status getStatus() {
         return status;
     }
@@ -78,4 +97,51 @@ public class LocatedStudent {
                 .map(Claim::getTarget)
                 .findFirst();
     }
+
+    /**
+     * The claims list, counting every modification, replacements included.
+     */
+    private static final class ClaimList extends AbstractList<Claim> implements RandomAccess {
+        private final List<Claim> claims = new ArrayList<>();
+        private int version;
+
+        int version() {
+            return version;
+        }
+
+        void changed() {
+            version++;
+        }
+
+        @Override
+        public Claim get(int index) {
+            return claims.get(index);
+        }
+
+        @Override
+        public int size() {
+            return claims.size();
+        }
+
+        @Override
+        public Claim set(int index, Claim claim) {
+            version++;
+            return claims.set(index, claim);
+        }
+
+        @Override
+        public void add(int index, Claim claim) {
+            claims.add(index, claim);
+            version++;
+            modCount++;
+        }
+
+        @Override
+        public Claim remove(int index) {
+            Claim removed = claims.remove(index);
+            version++;
+            modCount++;
+            return removed;
+        }
+    }
 }
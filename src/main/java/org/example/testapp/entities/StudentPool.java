@@ -0,0 +1,108 @@
+package org.example.testapp.entities;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Canonical {@link Student} instances for one session, keyed by id.
+ *
+ * Import paths create students through the pool so a student and every claim that
+ * targets them share one instance (and one name string), letting equality checks
+ * succeed on identity. Safe to use from several parsing threads at once.
+ *
+ * A claim can name a student before their own registration is read. The pool then
+ * hands out a placeholder, which the registration replaces if its name differs; call
+ * {@link #canonicalize} once loading is done to point such claims at the final instance.
+ * Claims are retargeted in place, so lists that already hold them keep working.
+ */
+public class StudentPool {
+    private final ConcurrentHashMap<String, Student> students = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> names = new ConcurrentHashMap<>();
+    private final Set<String> registered = ConcurrentHashMap.newKeySet(); // Ids seen through intern
+    private final AtomicInteger replacements = new AtomicInteger();
+
+    /**
+     * The student as registered under this id. A different name replaces the earlier
+     * instance.
+     */
+    public Student intern(String id, String name) {
+        String canonicalName = name(name);
+        registered.add(id);
+        return students.compute(id, (key, existing) -> {
+            if (existing == null) return new Student(key, canonicalName);
+            if (Objects.equals(existing.getName(), canonicalName)) return existing;
+            replacements.incrementAndGet();
+            return new Student(key, canonicalName);
+        });
+    }
+
+    /**
+     * The student a claim refers to: the known instance for this id, or a placeholder
+     * with the given name until the student registers.
+     */
+    public Student reference(String id, String name) {
+        Student existing = students.get(id);
+        if (existing != null) {
+            return existing;
+        }
+        return students.computeIfAbsent(id, key -> new Student(key, name(name)));
+    }
+
+    /**
+     * The canonical instance, or null if the id was never seen.
+     */
+    public Student get(String id) {
+        return students.get(id);
+    }
+
+    /**
+     * Whether a registration for this id has been interned, as opposed to the id only
+     * being named by claims.
+     */
+    public boolean isRegistered(String id) {
+        return registered.contains(id);
+    }
+
+    public int size() {
+        return students.size();
+    }
+
+    /**
+     * How many times an instance was replaced; unchanged means no claim needs
+     * {@link #canonicalize}.
+     */
+    public int getReplacementCount() {
+        return replacements.get();
+    }
+
+    /**
+     * Point claims at the canonical instance of their target where a placeholder was
+     * replaced after the claim was parsed. The claim instances stay the same.
+     *
+     * @return how many claims were retargeted
+     */
+    public int canonicalize(Collection<LocatedStudent> located) {
+        int retargeted = 0;
+        for (LocatedStudent student : located) {
+            for (Claim claim : student.getClaims()) {
+                Student target = claim.getTarget();
+                if (target == null) continue;
+                Student canonical = students.get(target.getId());
+                if (canonical != null && canonical != target) {
+                    student.retargetClaim(claim, canonical);
+                    retargeted++;
+                }
+            }
+        }
+        return retargeted;
+    }
+
+    private String name(String name) {
+        if (name == null) return null;
+        String existing = names.putIfAbsent(name, name);
+        return existing != null ? existing : name;
+    }
+}
@@ -0,0 +1,189 @@
+package org.example.testapp.history;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Append-only analysis history made of fixed-size records.
+ *
+ * Record i lives at HEADER_SIZE + i * AnalysisRecord.SIZE, so appending is a single
+ * positional write and any page of older records is a single positional read. The most
+ * recent records are also kept in memory so the history view can open without touching
+ * the file.
+ */
+public class AnalysisHistoryStore {
+  static final int TAIL_CAPACITY = 100;
+
+  private static final byte[] MAGIC = "WHOAMIH1".getBytes(StandardCharsets.US_ASCII);
+  private static final int HEADER_SIZE = 16;
+  private static final Pattern LEGACY_SUMMARY = Pattern.compile(
+      "Analyzed (\\d+) students \\((\\d+) present, (\\d+) absent, (\\d+) conflicts\\)");
+  private static final DateTimeFormatter LEGACY_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+  private final FileChannel channel;
+  private final Deque<AnalysisRecord> tail = new ArrayDeque<>();
+  private long size;
+
+  private AnalysisHistoryStore(FileChannel channel) {
+    this.channel = channel;
+  }
+
+  /**
+   * Open (or create) the store. Entries from the old line-based history file are
+   * converted once and the old file is kept aside with a ".migrated" suffix.
+   */
+  public static AnalysisHistoryStore open(Path file, Path legacyFile) throws IOException {
+    Files.createDirectories(file.getParent());
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    AnalysisHistoryStore store = new AnalysisHistoryStore(channel);
+    store.initialize();
+    if (legacyFile != null && Files.exists(legacyFile)) {
+      store.migrate(legacyFile);
+    }
+    return store;
+  }
+
+  public synchronized void append(AnalysisRecord record) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(AnalysisRecord.SIZE);
+    record.writeTo(buffer);
+    buffer.flip();
+    long position = HEADER_SIZE + size * AnalysisRecord.SIZE;
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer, position);
+    }
+    size++;
+    remember(record);
+  }
+
+  /**
+   * Read up to count records starting at the given index, oldest first.
+   */
+  public synchronized List<AnalysisRecord> read(long fromIndex, int count) throws IOException {
+    long from = Math.max(0, fromIndex);
+    int n = (int) Math.max(0, Math.min(count, size - from));
+    List<AnalysisRecord> records = new ArrayList<>(n);
+    if (n == 0) {
+      return records;
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate(n * AnalysisRecord.SIZE);
+    long position = HEADER_SIZE + from * AnalysisRecord.SIZE;
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position);
+      if (read < 0) {
+        break;
+      }
+      position += read;
+    }
+    buffer.flip();
+    while (buffer.remaining() >= AnalysisRecord.SIZE) {
+      records.add(AnalysisRecord.readFrom(buffer));
+    }
+    return records;
+  }
+
+  /**
+   * The most recent records held in memory, oldest first.
+   */
+  public synchronized List<AnalysisRecord> tail() {
+    return new ArrayList<>(tail);
+  }
+
+  public synchronized long size() {
+    return size;
+  }
+
+  public synchronized void clear() throws IOException {
+    channel.truncate(HEADER_SIZE);
+    size = 0;
+    tail.clear();
+  }
+
+  public synchronized void close() throws IOException {
+    channel.close();
+  }
+
+  private void initialize() throws IOException {
+    if (channel.size() < HEADER_SIZE) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.put(MAGIC);
+      header.putInt(AnalysisRecord.SIZE);
+      header.putInt(0); // Reserved
+      header.flip();
+      channel.truncate(0);
+      channel.write(header, 0);
+      size = 0;
+      return;
+    }
+
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    channel.read(header, 0);
+    header.flip();
+    byte[] magic = new byte[MAGIC.length];
+    header.get(magic);
+    if (!Arrays.equals(magic, MAGIC) || header.getInt() != AnalysisRecord.SIZE) {
+      throw new IOException("Unrecognized analysis history format");
+    }
+
+    // Drop a record torn by a crash during append
+    size = (channel.size() - HEADER_SIZE) / AnalysisRecord.SIZE;
+    channel.truncate(HEADER_SIZE + size * AnalysisRecord.SIZE);
+
+    for (AnalysisRecord record : read(size - TAIL_CAPACITY, TAIL_CAPACITY)) {
+      remember(record);
+    }
+  }
+
+  private void migrate(Path legacyFile) throws IOException {
+    for (String line : Files.readAllLines(legacyFile)) {
+      if (!line.startsWith("ANALYSIS|")) {
+        continue;
+      }
+      String[] parts = line.substring(9).split("\\|", 2);
+      if (parts.length < 2) {
+        continue;
+      }
+      Matcher m = LEGACY_SUMMARY.matcher(parts[1]);
+      if (!m.find()) {
+        continue;
+      }
+      try {
+        long timestamp = LocalDateTime.parse(parts[0], LEGACY_FORMATTER)
+            .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        int total = Integer.parseInt(m.group(1));
+        int present = Integer.parseInt(m.group(2));
+        int absent = Integer.parseInt(m.group(3));
+        append(new AnalysisRecord(timestamp, 0, total, present, absent,
+            Math.max(0, total - present - absent), Integer.parseInt(m.group(4)), Double.NaN));
+      } catch (RuntimeException e) {
+        System.err.println("Skipping unreadable history line: " + line);
+      }
+    }
+    Files.move(legacyFile, legacyFile.resolveSibling(legacyFile.getFileName() + ".migrated"),
+        StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  private void remember(AnalysisRecord record) {
+    tail.addLast(record);
+    if (tail.size() > TAIL_CAPACITY) {
+      tail.removeFirst();
+    }
+  }
+}
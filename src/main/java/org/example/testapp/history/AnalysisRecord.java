@@ -0,0 +1,116 @@
+package org.example.testapp.history;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Summary of one attendance analysis, stored as a fixed-size binary record.
+ */
+public class AnalysisRecord {
+  /** Encoded size in bytes: 2 longs, 5 ints and 1 double. */
+  public static final int SIZE = 8 + 8 + 5 * 4 + 8;
+
+  private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+  private final long timestamp;
+  private final long sessionId;
+  private final int total;
+  private final int present;
+  private final int absent;
+  private final int uncertain;
+  private final int conflicts;
+  private final double averageConfidence;
+  private final long analysisId; // Database key, not part of the binary record; 0 when read from a file
+
+  public AnalysisRecord(long timestamp, long sessionId, int total, int present, int absent, int uncertain,
+      int conflicts, double averageConfidence) {
+    this(0, timestamp, sessionId, total, present, absent, uncertain, conflicts, averageConfidence);
+  }
+
+  public AnalysisRecord(long analysisId, long timestamp, long sessionId, int total, int present, int absent,
+      int uncertain, int conflicts, double averageConfidence) {
+    this.analysisId = analysisId;
+    this.timestamp = timestamp;
+    this.sessionId = sessionId;
+    this.total = total;
+    this.present = present;
+    this.absent = absent;
+    this.uncertain = uncertain;
+    this.conflicts = conflicts;
+    this.averageConfidence = averageConfidence;
+  }
+
+  void writeTo(ByteBuffer buffer) {
+    buffer.putLong(timestamp);
+    buffer.putLong(sessionId);
+    buffer.putInt(total);
+    buffer.putInt(present);
+    buffer.putInt(absent);
+    buffer.putInt(uncertain);
+    buffer.putInt(conflicts);
+    buffer.putDouble(averageConfidence);
+  }
+
+  static AnalysisRecord readFrom(ByteBuffer buffer) {
+    return new AnalysisRecord(buffer.getLong(), buffer.getLong(), buffer.getInt(), buffer.getInt(),
+        buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getDouble());
+  }
+
+  /**
+   * The record's key in the database, which orders records with the same timestamp;
+   * 0 for records read from the history file.
+   */
+  public long getAnalysisId() {
+    return analysisId;
+  }
+
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  public String getTimestampText() {
+    return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault()).format(FORMATTER);
+  }
+
+  public long getSessionId() {
+    return sessionId;
+  }
+
+  public int getTotal() {
+    return total;
+  }
+
+  public int getPresent() {
+    return present;
+  }
+
+  public int getAbsent() {
+    return absent;
+  }
+
+  public int getUncertain() {
+    return uncertain;
+  }
+
+  public int getConflicts() {
+    return conflicts;
+  }
+
+  public double getAverageConfidence() {
+    return averageConfidence;
+  }
+
+  /**
+   * Human readable summary, in the same wording the history view has always shown.
+   */
+  public String getSummary() {
+    String summary = String.format("Analyzed %d students (%d present, %d absent, %d conflicts)",
+        total, present, absent, conflicts);
+    // Records migrated from the old text history carry no confidence
+    return Double.isNaN(averageConfidence) ? summary
+        : summary + String.format(" - avg confidence %.0f%%", averageConfidence * 100);
+  }
+}
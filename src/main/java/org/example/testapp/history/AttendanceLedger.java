@@ -0,0 +1,365 @@
+package org.example.testapp.history;
+
+import org.example.testapp.attendance.AttendanceReport;
+import org.example.testapp.attendance.AttendanceReport.AttendanceStatus;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Per-student attendance across sessions.
+ *
+ * Sessions and students are interned into dense indexes (the session and student
+ * dictionaries). For every student there is one {@link SessionBitmap} per attendance
+ * status holding the indexes of the sessions in which the student had that status, so
+ * questions such as "absent in more than 3 of the last 10 sessions" reduce to range
+ * cardinality counts on small compressed bitmaps.
+ *
+ * Recording a session appends only that session's statuses to a journal next to the
+ * ledger file, so the cost of a write does not grow with the history. The journal is
+ * replayed on open and folded into a rewritten ledger file every few dozen sessions.
+ * Each journal entry carries a checksum, and a tail torn by a crash is dropped.
+ */
+public class AttendanceLedger {
+  private static final int MAGIC = 0x57484C31; // "WHL1"
+  private static final AttendanceStatus[] STATUSES = AttendanceStatus.values();
+  private static final int COMPACT_AFTER = 32; // Journal entries kept before the ledger file is rewritten
+
+  private final Path file;
+  private final Path journal;
+  private final List<Long> sessionIds = new ArrayList<>();
+  private final List<Long> sessionTimes = new ArrayList<>();
+  private final Map<Long, Integer> sessionIndex = new HashMap<>();
+  private final List<String> studentIds = new ArrayList<>();
+  private final List<String> studentNames = new ArrayList<>();
+  private final Map<String, Integer> studentIndex = new HashMap<>();
+  private final List<SessionBitmap[]> bitmaps = new ArrayList<>();
+  private int journalEntries;
+
+  private AttendanceLedger(Path file) {
+    this.file = file;
+    this.journal = file.resolveSibling(file.getFileName() + ".log");
+  }
+
+  public static AttendanceLedger open(Path file) throws IOException {
+    AttendanceLedger ledger = new AttendanceLedger(file);
+    if (Files.exists(file)) {
+      ledger.load();
+    }
+    if (Files.exists(ledger.journal)) {
+      ledger.replayJournal();
+    }
+    return ledger;
+  }
+
+  /**
+   * Record the statuses of one analysis. Re-analysing the same session replaces the
+   * statuses previously recorded for it but keeps the session's original timestamp, so
+   * the session dictionary stays in time order.
+   */
+  public synchronized void record(long sessionId, long timestamp, List<AttendanceReport> reports)
+      throws IOException {
+    int session = beginSession(sessionId, timestamp);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(20 + reports.size() * 32);
+    DataOutputStream entry = new DataOutputStream(bytes);
+    entry.writeLong(sessionId);
+    entry.writeLong(timestamp);
+    entry.writeInt(reports.size());
+    for (AttendanceReport report : reports) {
+      String id = report.getStudent().getId();
+      String name = report.getStudent().getName() != null ? report.getStudent().getName() : "";
+      int status = report.getStatus().ordinal();
+      mark(session, id, name, status);
+      entry.writeUTF(id);
+      entry.writeUTF(name);
+      entry.writeByte(status);
+    }
+    appendToJournal(bytes.toByteArray());
+  }
+
+  public synchronized int sessionCount() {
+    return sessionIds.size();
+  }
+
+  public synchronized int studentCount() {
+    return studentIds.size();
+  }
+
+  /**
+   * Students whose status was {@code status} in more than {@code moreThan} of the last
+   * {@code lastSessions} recorded sessions, mapped to that count.
+   */
+  public synchronized Map<String, Integer> studentsWithStatus(AttendanceStatus status, int moreThan,
+      int lastSessions) {
+    int to = sessionIds.size();
+    int from = Math.max(0, to - lastSessions);
+    Map<String, Integer> result = new LinkedHashMap<>();
+    for (int s = 0; s < studentIds.size(); s++) {
+      int count = bitmaps.get(s)[status.ordinal()].cardinality(from, to);
+      if (count > moreThan) {
+        result.put(studentIds.get(s), count);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Attendance rate (present sessions / recorded sessions) per student for sessions
+   * recorded within [fromMillis, toMillis]. Students with no session in the range are
+   * left out.
+   */
+  public synchronized Map<String, Double> attendanceRates(long fromMillis, long toMillis) {
+    int from = lowerBound(fromMillis);
+    int to = lowerBound(toMillis + 1);
+    Map<String, Double> rates = new LinkedHashMap<>();
+    for (int s = 0; s < studentIds.size(); s++) {
+      SessionBitmap[] perStatus = bitmaps.get(s);
+      int recorded = 0;
+      for (SessionBitmap bitmap : perStatus) {
+        recorded += bitmap.cardinality(from, to);
+      }
+      if (recorded > 0) {
+        int present = perStatus[AttendanceStatus.PRESENT.ordinal()].cardinality(from, to);
+        rates.put(studentIds.get(s), (double) present / recorded);
+      }
+    }
+    return rates;
+  }
+
+  /**
+   * Number of sessions within the last {@code lastSessions} in which the student had
+   * the given status.
+   */
+  public synchronized int countStatus(String studentId, AttendanceStatus status, int lastSessions) {
+    Integer student = studentIndex.get(studentId);
+    if (student == null) {
+      return 0;
+    }
+    int to = sessionIds.size();
+    return bitmaps.get(student)[status.ordinal()].cardinality(Math.max(0, to - lastSessions), to);
+  }
+
+  public synchronized String getStudentName(String studentId) {
+    Integer student = studentIndex.get(studentId);
+    return student != null ? studentNames.get(student) : studentId;
+  }
+
+  public synchronized void clear() throws IOException {
+    sessionIds.clear();
+    sessionTimes.clear();
+    sessionIndex.clear();
+    studentIds.clear();
+    studentNames.clear();
+    studentIndex.clear();
+    bitmaps.clear();
+    journalEntries = 0;
+    Files.deleteIfExists(journal);
+    Files.deleteIfExists(file);
+  }
+
+  /**
+   * Index of the session, added at the end if new; a known session has its statuses
+   * removed so they can be recorded again.
+   */
+  private int beginSession(long sessionId, long timestamp) {
+    Integer existing = sessionIndex.get(sessionId);
+    if (existing != null) {
+      for (SessionBitmap[] perStatus : bitmaps) {
+        for (SessionBitmap bitmap : perStatus) {
+          bitmap.remove(existing);
+        }
+      }
+      return existing;
+    }
+    int session = sessionIds.size();
+    sessionIds.add(sessionId);
+    sessionTimes.add(timestamp);
+    sessionIndex.put(sessionId, session);
+    return session;
+  }
+
+  private void mark(int session, String studentId, String name, int status) {
+    bitmaps.get(internStudent(studentId, name))[status].add(session);
+  }
+
+  private int internStudent(String id, String name) {
+    Integer existing = studentIndex.get(id);
+    if (existing != null) {
+      studentNames.set(existing, name);
+      return existing;
+    }
+    int index = studentIds.size();
+    studentIds.add(id);
+    studentNames.add(name);
+    studentIndex.put(id, index);
+    SessionBitmap[] perStatus = new SessionBitmap[STATUSES.length];
+    for (int i = 0; i < perStatus.length; i++) {
+      perStatus[i] = new SessionBitmap();
+    }
+    bitmaps.add(perStatus);
+    return index;
+  }
+
+  /**
+   * First session index whose timestamp is >= millis (sessions are recorded in time order).
+   */
+  private int lowerBound(long millis) {
+    int i = Collections.binarySearch(sessionTimes, millis);
+    if (i < 0) {
+      return -i - 1;
+    }
+    while (i > 0 && sessionTimes.get(i - 1).longValue() == millis) {
+      i--;
+    }
+    return i;
+  }
+
+  /**
+   * Append one session's entry to the journal, or rewrite the ledger file instead once
+   * the journal has grown long enough.
+   */
+  private void appendToJournal(byte[] entry) throws IOException {
+    if (journalEntries >= COMPACT_AFTER) {
+      compact();
+      return;
+    }
+    Files.createDirectories(file.getParent());
+    CRC32 crc = new CRC32();
+    crc.update(entry);
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+        Files.newOutputStream(journal, StandardOpenOption.CREATE, StandardOpenOption.APPEND)))) {
+      out.writeInt(entry.length);
+      out.write(entry);
+      out.writeInt((int) crc.getValue());
+    }
+    journalEntries++;
+  }
+
+  /**
+   * Write the whole ledger to its file, then drop the journal it now includes. Replaying
+   * a journal that survived a crash in between records the same sessions again, which
+   * changes nothing.
+   */
+  private void compact() throws IOException {
+    save();
+    Files.deleteIfExists(journal);
+    journalEntries = 0;
+  }
+
+  private void replayJournal() throws IOException {
+    long size = Files.size(journal);
+    long valid = 0;
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journal)))) {
+      while (valid < size) {
+        int length = in.readInt();
+        if (length < 0 || length > size - valid - 8) {
+          break;
+        }
+        byte[] entry = new byte[length];
+        in.readFully(entry);
+        CRC32 crc = new CRC32();
+        crc.update(entry);
+        if (in.readInt() != (int) crc.getValue()) {
+          break;
+        }
+        applyEntry(entry);
+        valid += 8 + length;
+        journalEntries++;
+      }
+    } catch (EOFException e) {
+      // Torn entry at the end, dropped below
+    }
+    if (valid < size) {
+      System.err.println("Dropping " + (size - valid) + " unreadable bytes at the end of the attendance journal");
+      try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+        channel.truncate(valid);
+      }
+    }
+  }
+
+  private void applyEntry(byte[] entry) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(entry));
+    int session = beginSession(in.readLong(), in.readLong());
+    int reports = in.readInt();
+    for (int i = 0; i < reports; i++) {
+      String id = in.readUTF();
+      String name = in.readUTF();
+      int status = in.readByte();
+      if (status >= 0 && status < STATUSES.length) {
+        mark(session, id, name, status);
+      }
+    }
+  }
+
+  private void save() throws IOException {
+    Files.createDirectories(file.getParent());
+    Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(sessionIds.size());
+      for (int i = 0; i < sessionIds.size(); i++) {
+        out.writeLong(sessionIds.get(i));
+        out.writeLong(sessionTimes.get(i));
+      }
+      out.writeInt(STATUSES.length);
+      out.writeInt(studentIds.size());
+      for (int s = 0; s < studentIds.size(); s++) {
+        out.writeUTF(studentIds.get(s));
+        out.writeUTF(studentNames.get(s) != null ? studentNames.get(s) : "");
+        for (SessionBitmap bitmap : bitmaps.get(s)) {
+          bitmap.writeTo(out);
+        }
+      }
+    }
+    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private void load() throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Unrecognized attendance ledger format");
+      }
+      int sessions = in.readInt();
+      for (int i = 0; i < sessions; i++) {
+        long id = in.readLong();
+        sessionIndex.put(id, sessionIds.size());
+        sessionIds.add(id);
+        sessionTimes.add(in.readLong());
+      }
+      int statuses = in.readInt();
+      if (statuses != STATUSES.length) {
+        throw new IOException("Attendance ledger was written with a different set of statuses");
+      }
+      int students = in.readInt();
+      for (int s = 0; s < students; s++) {
+        String id = in.readUTF();
+        studentIndex.put(id, studentIds.size());
+        studentIds.add(id);
+        studentNames.add(in.readUTF());
+        SessionBitmap[] perStatus = new SessionBitmap[statuses];
+        for (int i = 0; i < statuses; i++) {
+          perStatus[i] = SessionBitmap.readFrom(in);
+        }
+        bitmaps.add(perStatus);
+      }
+    }
+  }
+}
@@ -0,0 +1,287 @@
+package org.example.testapp.history;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Compressed set of session indexes, laid out like a Roaring bitmap.
+ *
+ * Values are split into 65536-wide chunks keyed by their high 16 bits. A chunk is held
+ * as a sorted char array while it is sparse and switches to a 1024-word bitmap once it
+ * holds more than {@link #ARRAY_MAX} values, so memory stays proportional to the
+ * number of sessions actually set.
+ */
+public class SessionBitmap {
+  private static final int ARRAY_MAX = 4096;
+
+  private int[] keys = new int[0];
+  private Container[] containers = new Container[0];
+
+  public void add(int value) {
+    int i = Arrays.binarySearch(keys, value >>> 16);
+    if (i < 0) {
+      i = -i - 1;
+      keys = insert(keys, i, value >>> 16);
+      Container[] grown = new Container[containers.length + 1];
+      System.arraycopy(containers, 0, grown, 0, i);
+      System.arraycopy(containers, i, grown, i + 1, containers.length - i);
+      grown[i] = new ArrayContainer();
+      containers = grown;
+    }
+    containers[i] = containers[i].add((char) value);
+  }
+
+  public void remove(int value) {
+    int i = Arrays.binarySearch(keys, value >>> 16);
+    if (i >= 0) {
+      containers[i] = containers[i].remove((char) value);
+    }
+  }
+
+  public boolean contains(int value) {
+    int i = Arrays.binarySearch(keys, value >>> 16);
+    return i >= 0 && containers[i].contains((char) value);
+  }
+
+  public int cardinality() {
+    int total = 0;
+    for (Container c : containers) {
+      total += c.cardinality();
+    }
+    return total;
+  }
+
+  /**
+   * Count values in [from, to).
+   */
+  public int cardinality(int from, int to) {
+    if (from >= to) {
+      return 0;
+    }
+    int total = 0;
+    int fromKey = from >>> 16;
+    int toKey = (to - 1) >>> 16;
+    for (int i = 0; i < keys.length; i++) {
+      int key = keys[i];
+      if (key < fromKey || key > toKey) {
+        continue;
+      }
+      int lo = key == fromKey ? from & 0xFFFF : 0;
+      int hi = key == toKey ? ((to - 1) & 0xFFFF) + 1 : 0x10000;
+      total += containers[i].count(lo, hi);
+    }
+    return total;
+  }
+
+  public void writeTo(DataOutput out) throws IOException {
+    out.writeInt(keys.length);
+    for (int i = 0; i < keys.length; i++) {
+      out.writeInt(keys[i]);
+      containers[i].writeTo(out);
+    }
+  }
+
+  public static SessionBitmap readFrom(DataInput in) throws IOException {
+    SessionBitmap bitmap = new SessionBitmap();
+    int n = in.readInt();
+    bitmap.keys = new int[n];
+    bitmap.containers = new Container[n];
+    for (int i = 0; i < n; i++) {
+      bitmap.keys[i] = in.readInt();
+      bitmap.containers[i] = Container.readFrom(in);
+    }
+    return bitmap;
+  }
+
+  private static int[] insert(int[] array, int index, int value) {
+    int[] grown = new int[array.length + 1];
+    System.arraycopy(array, 0, grown, 0, index);
+    grown[index] = value;
+    System.arraycopy(array, index, grown, index + 1, array.length - index);
+    return grown;
+  }
+
+  private abstract static class Container {
+    abstract Container add(char value);
+
+    abstract Container remove(char value);
+
+    abstract boolean contains(char value);
+
+    abstract int cardinality();
+
+    /** Count values in [lo, hi). */
+    abstract int count(int lo, int hi);
+
+    abstract void writeTo(DataOutput out) throws IOException;
+
+    static Container readFrom(DataInput in) throws IOException {
+      if (in.readBoolean()) {
+        BitmapContainer c = new BitmapContainer();
+        for (int w = 0; w < c.words.length; w++) {
+          c.words[w] = in.readLong();
+        }
+        c.cardinality = in.readInt();
+        return c;
+      }
+      ArrayContainer c = new ArrayContainer();
+      c.size = in.readInt();
+      c.values = new char[Math.max(4, c.size)];
+      for (int i = 0; i < c.size; i++) {
+        c.values[i] = in.readChar();
+      }
+      return c;
+    }
+  }
+
+  private static class ArrayContainer extends Container {
+    char[] values = new char[4];
+    int size;
+
+    @Override
+    Container add(char value) {
+      int i = Arrays.binarySearch(values, 0, size, value);
+      if (i >= 0) {
+        return this;
+      }
+      if (size >= ARRAY_MAX) {
+        return toBitmap().add(value);
+      }
+      i = -i - 1;
+      if (size == values.length) {
+        values = Arrays.copyOf(values, Math.min(ARRAY_MAX, values.length * 2));
+      }
+      System.arraycopy(values, i, values, i + 1, size - i);
+      values[i] = value;
+      size++;
+      return this;
+    }
+
+    @Override
+    Container remove(char value) {
+      int i = Arrays.binarySearch(values, 0, size, value);
+      if (i >= 0) {
+        System.arraycopy(values, i + 1, values, i, size - i - 1);
+        size--;
+      }
+      return this;
+    }
+
+    @Override
+    boolean contains(char value) {
+      return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    @Override
+    int cardinality() {
+      return size;
+    }
+
+    @Override
+    int count(int lo, int hi) {
+      return lowerBound(hi) - lowerBound(lo);
+    }
+
+    private int lowerBound(int value) {
+      if (value > 0xFFFF) {
+        return size;
+      }
+      int i = Arrays.binarySearch(values, 0, size, (char) value);
+      return i >= 0 ? i : -i - 1;
+    }
+
+    private BitmapContainer toBitmap() {
+      BitmapContainer bitmap = new BitmapContainer();
+      for (int i = 0; i < size; i++) {
+        bitmap.add(values[i]);
+      }
+      return bitmap;
+    }
+
+    @Override
+    void writeTo(DataOutput out) throws IOException {
+      out.writeBoolean(false);
+      out.writeInt(size);
+      for (int i = 0; i < size; i++) {
+        out.writeChar(values[i]);
+      }
+    }
+  }
+
+  private static class BitmapContainer extends Container {
+    final long[] words = new long[1024];
+    int cardinality;
+
+    @Override
+    Container add(char value) {
+      long before = words[value >>> 6];
+      words[value >>> 6] = before | (1L << value);
+      if (before != words[value >>> 6]) {
+        cardinality++;
+      }
+      return this;
+    }
+
+    @Override
+    Container remove(char value) {
+      long before = words[value >>> 6];
+      words[value >>> 6] = before & ~(1L << value);
+      if (before != words[value >>> 6]) {
+        cardinality--;
+      }
+      if (cardinality <= ARRAY_MAX / 2) {
+        return toArray();
+      }
+      return this;
+    }
+
+    @Override
+    boolean contains(char value) {
+      return (words[value >>> 6] & (1L << value)) != 0;
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    int count(int lo, int hi) {
+      int total = 0;
+      int v = lo;
+      for (; v < hi && (v & 63) != 0; v++) {
+        total += contains((char) v) ? 1 : 0;
+      }
+      for (; v + 64 <= hi; v += 64) {
+        total += Long.bitCount(words[v >>> 6]);
+      }
+      for (; v < hi; v++) {
+        total += contains((char) v) ? 1 : 0;
+      }
+      return total;
+    }
+
+    private ArrayContainer toArray() {
+      ArrayContainer array = new ArrayContainer();
+      for (int w = 0; w < words.length; w++) {
+        long bits = words[w];
+        while (bits != 0) {
+          array.add((char) ((w << 6) + Long.numberOfTrailingZeros(bits)));
+          bits &= bits - 1;
+        }
+      }
+      return array;
+    }
+
+    @Override
+    void writeTo(DataOutput out) throws IOException {
+      out.writeBoolean(true);
+      for (long word : words) {
+        out.writeLong(word);
+      }
+      out.writeInt(cardinality);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package org.example.testapp.persistence;
+
+import org.example.testapp.attendance.AttendanceReport;
+import org.example.testapp.attendance.AttendanceReport.AttendanceStatus;
+import org.example.testapp.history.AnalysisRecord;
+import org.example.testapp.verification.AttendanceConflict;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage for analysed sessions, analysis history, settings and audit entries.
+ *
+ * The file stores under {@code ~/.whoami} remain the default; an implementation of this
+ * interface can be enabled alongside them when cross-session queries are needed.
+ */
+public interface AttendanceRepository extends AutoCloseable {
+
+  /**
+   * Store one analysis of a session. The per-student reports and conflicts of a
+   * re-analysed session replace the earlier ones; the summary row is always appended.
+   */
+  void saveAnalysis(long sessionId, AnalysisRecord summary, List<AttendanceReport> reports,
+      List<AttendanceConflict> conflicts) throws IOException;
+
+  /**
+   * One page of analysis summaries, newest first, starting just after the record at
+   * {@code beforeMillis} with id {@code beforeAnalysisId} (see
+   * {@link AnalysisRecord#getAnalysisId}). Records sharing a timestamp are ordered by
+   * id, so none is skipped between pages. Pass {@link Long#MAX_VALUE} for both to start
+   * at the newest.
+   */
+  List<AnalysisRecord> readHistory(long beforeMillis, long beforeAnalysisId, int limit) throws IOException;
+
+  /**
+   * Students whose status was {@code status} in more than {@code moreThan} of the last
+   * {@code lastSessions} sessions, mapped to that count.
+   */
+  Map<String, Integer> studentsWithStatus(AttendanceStatus status, int moreThan, int lastSessions)
+      throws IOException;
+
+  void appendAudit(String timestamp, String action, String details) throws IOException;
+
+  Map<String, String> loadSettings() throws IOException;
+
+  /**
+   * Replace all stored settings with these; keys not in the map are removed.
+   */
+  void saveSettings(Map<String, String> settings) throws IOException;
+
+  /**
+   * Remove all sessions, reports and analysis summaries. Settings and audit entries are kept.
+   */
+  void clearHistory() throws IOException;
+
+  @Override
+  void close() throws IOException;
+}
@@ -0,0 +1,325 @@
+package org.example.testapp.persistence;
+
+import org.example.testapp.attendance.AttendanceReport;
+import org.example.testapp.attendance.AttendanceReport.AttendanceStatus;
+import org.example.testapp.entities.Position;
+import org.example.testapp.history.AnalysisRecord;
+import org.example.testapp.verification.AttendanceConflict;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link AttendanceRepository} on an in-process JDBC database (H2 or SQLite).
+ *
+ * The schema only uses types and statements both engines accept. Every statement is
+ * prepared once when the repository is opened and reused; reports and conflicts of an
+ * analysis are written as JDBC batches inside a single transaction.
+ */
+public class JdbcAttendanceRepository implements AttendanceRepository {
+  private static final int BATCH_SIZE = 500;
+
+  private static final String[] SCHEMA = {
+      "CREATE TABLE IF NOT EXISTS attendance_session ("
+          + "session_id BIGINT PRIMARY KEY, started_at BIGINT NOT NULL)",
+      "CREATE INDEX IF NOT EXISTS idx_session_started ON attendance_session (started_at)",
+      "CREATE TABLE IF NOT EXISTS analysis_summary ("
+          + "analysis_id BIGINT PRIMARY KEY, session_id BIGINT NOT NULL, analyzed_at BIGINT NOT NULL, "
+          + "total INT, present INT, absent INT, uncertain INT, conflicts INT, avg_confidence DOUBLE)",
+      "CREATE INDEX IF NOT EXISTS idx_analysis_time ON analysis_summary (analyzed_at)",
+      "CREATE TABLE IF NOT EXISTS attendance_report ("
+          + "session_id BIGINT NOT NULL, student_id VARCHAR(64) NOT NULL, student_name VARCHAR(255), "
+          + "status VARCHAR(16) NOT NULL, confidence DOUBLE, seat_row INT, seat_col INT, "
+          + "PRIMARY KEY (session_id, student_id))",
+      "CREATE INDEX IF NOT EXISTS idx_report_student ON attendance_report (student_id, session_id)",
+      "CREATE INDEX IF NOT EXISTS idx_report_status ON attendance_report (status, session_id)",
+      "CREATE TABLE IF NOT EXISTS attendance_conflict ("
+          + "session_id BIGINT NOT NULL, student_id VARCHAR(64), involved_id VARCHAR(64), "
+          + "conflict_type VARCHAR(32) NOT NULL, description VARCHAR(1024))",
+      "CREATE INDEX IF NOT EXISTS idx_conflict_session ON attendance_conflict (session_id)",
+      "CREATE TABLE IF NOT EXISTS app_setting (name VARCHAR(128) PRIMARY KEY, setting_value VARCHAR(1024))",
+      "CREATE TABLE IF NOT EXISTS audit_entry ("
+          + "logged_at VARCHAR(19) NOT NULL, action_name VARCHAR(64) NOT NULL, details VARCHAR(4096))",
+      "CREATE INDEX IF NOT EXISTS idx_audit_time ON audit_entry (logged_at)",
+      "CREATE INDEX IF NOT EXISTS idx_audit_action ON audit_entry (action_name, logged_at)"
+  };
+
+  private final Connection connection;
+  private final PreparedStatement findSession;
+  private final PreparedStatement insertSession;
+  private final PreparedStatement insertSummary;
+  private final PreparedStatement deleteReports;
+  private final PreparedStatement insertReport;
+  private final PreparedStatement deleteConflicts;
+  private final PreparedStatement insertConflict;
+  private final PreparedStatement selectHistory;
+  private final PreparedStatement selectStudentsWithStatus;
+  private final PreparedStatement insertAudit;
+  private final PreparedStatement selectSettings;
+  private final PreparedStatement deleteSettings;
+  private final PreparedStatement insertSetting;
+  private long nextAnalysisId;
+
+  private JdbcAttendanceRepository(Connection connection) throws SQLException {
+    this.connection = connection;
+    try (Statement statement = connection.createStatement()) {
+      for (String ddl : SCHEMA) {
+        statement.execute(ddl);
+      }
+      try (ResultSet rs = statement.executeQuery("SELECT MAX(analysis_id) FROM analysis_summary")) {
+        nextAnalysisId = rs.next() ? rs.getLong(1) + 1 : 1;
+      }
+    }
+    connection.setAutoCommit(false);
+
+    findSession = connection.prepareStatement("SELECT 1 FROM attendance_session WHERE session_id = ?");
+    insertSession = connection.prepareStatement(
+        "INSERT INTO attendance_session (session_id, started_at) VALUES (?, ?)");
+    insertSummary = connection.prepareStatement(
+        "INSERT INTO analysis_summary (analysis_id, session_id, analyzed_at, total, present, absent, "
+            + "uncertain, conflicts, avg_confidence) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+    deleteReports = connection.prepareStatement("DELETE FROM attendance_report WHERE session_id = ?");
+    insertReport = connection.prepareStatement(
+        "INSERT INTO attendance_report (session_id, student_id, student_name, status, confidence, "
+            + "seat_row, seat_col) VALUES (?, ?, ?, ?, ?, ?, ?)");
+    deleteConflicts = connection.prepareStatement("DELETE FROM attendance_conflict WHERE session_id = ?");
+    insertConflict = connection.prepareStatement(
+        "INSERT INTO attendance_conflict (session_id, student_id, involved_id, conflict_type, description) "
+            + "VALUES (?, ?, ?, ?, ?)");
+    selectHistory = connection.prepareStatement(
+        "SELECT analysis_id, analyzed_at, session_id, total, present, absent, uncertain, conflicts, "
+            + "avg_confidence FROM analysis_summary WHERE analyzed_at < ? OR (analyzed_at = ? AND analysis_id < ?) "
+            + "ORDER BY analyzed_at DESC, analysis_id DESC LIMIT ?");
+    selectStudentsWithStatus = connection.prepareStatement(
+        "SELECT student_id, COUNT(*) FROM attendance_report WHERE status = ? AND session_id IN "
+            + "(SELECT session_id FROM attendance_session ORDER BY started_at DESC LIMIT ?) "
+            + "GROUP BY student_id HAVING COUNT(*) > ?");
+    insertAudit = connection.prepareStatement(
+        "INSERT INTO audit_entry (logged_at, action_name, details) VALUES (?, ?, ?)");
+    selectSettings = connection.prepareStatement("SELECT name, setting_value FROM app_setting");
+    deleteSettings = connection.prepareStatement("DELETE FROM app_setting");
+    insertSetting = connection.prepareStatement("INSERT INTO app_setting (name, setting_value) VALUES (?, ?)");
+  }
+
+  /**
+   * Open (and create if needed) the database at the given JDBC URL. The matching driver
+   * must be on the classpath.
+   */
+  public static JdbcAttendanceRepository open(String url) throws IOException {
+    try {
+      return new JdbcAttendanceRepository(DriverManager.getConnection(url));
+    } catch (SQLException e) {
+      throw new IOException("Failed to open database " + url + ": " + e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public synchronized void saveAnalysis(long sessionId, AnalysisRecord summary, List<AttendanceReport> reports,
+      List<AttendanceConflict> conflicts) throws IOException {
+    try {
+      findSession.setLong(1, sessionId);
+      boolean known;
+      try (ResultSet rs = findSession.executeQuery()) {
+        known = rs.next();
+      }
+      if (!known) {
+        insertSession.setLong(1, sessionId);
+        insertSession.setLong(2, summary.getTimestamp());
+        insertSession.executeUpdate();
+      }
+
+      insertSummary.setLong(1, nextAnalysisId);
+      insertSummary.setLong(2, sessionId);
+      insertSummary.setLong(3, summary.getTimestamp());
+      insertSummary.setInt(4, summary.getTotal());
+      insertSummary.setInt(5, summary.getPresent());
+      insertSummary.setInt(6, summary.getAbsent());
+      insertSummary.setInt(7, summary.getUncertain());
+      insertSummary.setInt(8, summary.getConflicts());
+      insertSummary.setDouble(9, summary.getAverageConfidence());
+      insertSummary.executeUpdate();
+
+      deleteReports.setLong(1, sessionId);
+      deleteReports.executeUpdate();
+      int pending = 0;
+      for (AttendanceReport report : reports) {
+        Position pos = report.getLocatedStudent().getPosition();
+        insertReport.setLong(1, sessionId);
+        insertReport.setString(2, report.getStudent().getId());
+        insertReport.setString(3, report.getStudent().getName());
+        insertReport.setString(4, report.getStatus().name());
+        insertReport.setDouble(5, report.getConfidenceScore());
+        if (pos != null) {
+          insertReport.setInt(6, pos.row());
+          insertReport.setInt(7, pos.col());
+        } else {
+          insertReport.setNull(6, Types.INTEGER);
+          insertReport.setNull(7, Types.INTEGER);
+        }
+        insertReport.addBatch();
+        if (++pending == BATCH_SIZE) {
+          insertReport.executeBatch();
+          pending = 0;
+        }
+      }
+      if (pending > 0) {
+        insertReport.executeBatch();
+      }
+
+      deleteConflicts.setLong(1, sessionId);
+      deleteConflicts.executeUpdate();
+      pending = 0;
+      for (AttendanceConflict conflict : conflicts) {
+        insertConflict.setLong(1, sessionId);
+        insertConflict.setString(2, conflict.getStudent() != null ? conflict.getStudent().getId() : null);
+        insertConflict.setString(3,
+            conflict.getInvolvedStudent() != null ? conflict.getInvolvedStudent().getId() : null);
+        insertConflict.setString(4, conflict.getType().name());
+        insertConflict.setString(5, conflict.getDescription());
+        insertConflict.addBatch();
+        if (++pending == BATCH_SIZE) {
+          insertConflict.executeBatch();
+          pending = 0;
+        }
+      }
+      if (pending > 0) {
+        insertConflict.executeBatch();
+      }
+
+      connection.commit();
+      nextAnalysisId++;
+    } catch (SQLException e) {
+      rollback();
+      throw new IOException("Failed to save analysis: " + e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public synchronized List<AnalysisRecord> readHistory(long beforeMillis, long beforeAnalysisId, int limit)
+      throws IOException {
+    List<AnalysisRecord> page = new ArrayList<>();
+    try {
+      selectHistory.setLong(1, beforeMillis);
+      selectHistory.setLong(2, beforeMillis);
+      selectHistory.setLong(3, beforeAnalysisId);
+      selectHistory.setInt(4, limit);
+      try (ResultSet rs = selectHistory.executeQuery()) {
+        while (rs.next()) {
+          page.add(new AnalysisRecord(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getInt(4), rs.getInt(5),
+              rs.getInt(6), rs.getInt(7), rs.getInt(8), rs.getDouble(9)));
+        }
+      }
+      connection.commit();
+    } catch (SQLException e) {
+      throw new IOException("Failed to read history: " + e.getMessage(), e);
+    }
+    return page;
+  }
+
+  @Override
+  public synchronized Map<String, Integer> studentsWithStatus(AttendanceStatus status, int moreThan,
+      int lastSessions) throws IOException {
+    Map<String, Integer> result = new LinkedHashMap<>();
+    try {
+      selectStudentsWithStatus.setString(1, status.name());
+      selectStudentsWithStatus.setInt(2, lastSessions);
+      selectStudentsWithStatus.setInt(3, moreThan);
+      try (ResultSet rs = selectStudentsWithStatus.executeQuery()) {
+        while (rs.next()) {
+          result.put(rs.getString(1), rs.getInt(2));
+        }
+      }
+      connection.commit();
+    } catch (SQLException e) {
+      throw new IOException("Failed to query attendance: " + e.getMessage(), e);
+    }
+    return result;
+  }
+
+  @Override
+  public synchronized void appendAudit(String timestamp, String action, String details) throws IOException {
+    try {
+      insertAudit.setString(1, timestamp);
+      insertAudit.setString(2, action);
+      insertAudit.setString(3, details);
+      insertAudit.executeUpdate();
+      connection.commit();
+    } catch (SQLException e) {
+      rollback();
+      throw new IOException("Failed to write audit entry: " + e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public synchronized Map<String, String> loadSettings() throws IOException {
+    Map<String, String> settings = new LinkedHashMap<>();
+    try (ResultSet rs = selectSettings.executeQuery()) {
+      while (rs.next()) {
+        settings.put(rs.getString(1), rs.getString(2));
+      }
+      connection.commit();
+    } catch (SQLException e) {
+      throw new IOException("Failed to load settings: " + e.getMessage(), e);
+    }
+    return settings;
+  }
+
+  @Override
+  public synchronized void saveSettings(Map<String, String> settings) throws IOException {
+    try {
+      // Replaced as a whole in one transaction, so removed keys go too
+      deleteSettings.executeUpdate();
+      for (Map.Entry<String, String> entry : settings.entrySet()) {
+        insertSetting.setString(1, entry.getKey());
+        insertSetting.setString(2, entry.getValue());
+        insertSetting.addBatch();
+      }
+      insertSetting.executeBatch();
+      connection.commit();
+    } catch (SQLException e) {
+      rollback();
+      throw new IOException("Failed to save settings: " + e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public synchronized void clearHistory() throws IOException {
+    try (Statement statement = connection.createStatement()) {
+      statement.executeUpdate("DELETE FROM attendance_conflict");
+      statement.executeUpdate("DELETE FROM attendance_report");
+      statement.executeUpdate("DELETE FROM analysis_summary");
+      statement.executeUpdate("DELETE FROM attendance_session");
+      connection.commit();
+    } catch (SQLException e) {
+      rollback();
+      throw new IOException("Failed to clear history: " + e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    try {
+      connection.close();
+    } catch (SQLException e) {
+      throw new IOException("Failed to close database: " + e.getMessage(), e);
+    }
+  }
+
+  private void rollback() {
+    try {
+      connection.rollback();
+    } catch (SQLException e) {
+      System.err.println("Failed to roll back database transaction: " + e.getMessage());
+    }
+  }
+}
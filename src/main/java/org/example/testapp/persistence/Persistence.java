@@ -0,0 +1,60 @@
+package org.example.testapp.persistence;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Holds the optional database repository.
+ *
+ * The database is enabled with {@code -Dwhoami.storage=h2} or {@code -Dwhoami.storage=sqlite},
+ * which keep the database under {@code ~/.whoami}; {@code -Dwhoami.storage.url} selects any
+ * other JDBC URL. Without either property, or if the driver is missing, {@link #getRepository()}
+ * returns null and the file stores are used on their own.
+ */
+public class Persistence {
+  private static final String DB_DIR = System.getProperty("user.home") + File.separator + ".whoami";
+  private static AttendanceRepository repository;
+  private static boolean initialized;
+
+  public static synchronized AttendanceRepository getRepository() {
+    if (!initialized) {
+      initialized = true;
+      String url = configuredUrl();
+      if (url != null) {
+        try {
+          new File(DB_DIR).mkdirs();
+          repository = JdbcAttendanceRepository.open(url);
+          Runtime.getRuntime().addShutdownHook(new Thread(Persistence::close));
+        } catch (IOException e) {
+          System.err.println(e.getMessage());
+        }
+      }
+    }
+    return repository;
+  }
+
+  private static String configuredUrl() {
+    String url = System.getProperty("whoami.storage.url");
+    if (url != null && !url.isBlank()) {
+      return url;
+    }
+    String backend = System.getProperty("whoami.storage", "");
+    return switch (backend.toLowerCase()) {
+      case "h2" -> "jdbc:h2:file:" + DB_DIR + File.separator + "whoami";
+      case "sqlite" -> "jdbc:sqlite:" + DB_DIR + File.separator + "whoami.db";
+      default -> null;
+    };
+  }
+
+  private static synchronized void close() {
+    if (repository == null) {
+      return;
+    }
+    try {
+      repository.close();
+    } catch (IOException e) {
+      System.err.println(e.getMessage());
+    }
+    repository = null;
+  }
+}
@@ -0,0 +1,318 @@
+package org.example.testapp.registration;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Write-through cache in front of a remote {@link RegistrationSource}.
+ *
+ * Reads are served from a local {@link RegistrationCache} after a sync that flushes
+ * queued writes and fetches only registrations changed since the last sync. The count
+ * of remote registrations is compared with the cache to catch removals, which the delta
+ * query cannot see, and a mismatch falls back to a full paged read.
+ *
+ * The delta query only sees documents whose update time the remote source tracks
+ * ({@link RegistrationSource#tracksUpdateTimes}). On Firestore that is the
+ * {@code updatedAt} field, which student clients have to write on every change. While
+ * any registration lacks it, every sync is a full paged read, because an edited claim
+ * would otherwise never be fetched again.
+ *
+ * When the remote source fails, the cache keeps answering and writes are queued; a
+ * reconnect sync is retried periodically until the remote source is back.
+ *
+ * One flush is in flight at a time. Writes queued meanwhile go out in a single follow-up
+ * flush once it is done, so no write is sent twice, and each is dropped from the queue
+ * only when the flush that sent it is acknowledged.
+ */
+public class CachingRegistrationSource implements RegistrationSource {
+  private static final long RECONNECT_MILLIS = 15_000;
+  private static final long FRESH_MILLIS = 2_000; // Reuse a sync this recent instead of starting another
+  private static final int RESYNC_PAGE_SIZE = 500;
+
+  private final RegistrationSource remote;
+  private final RegistrationCache cache;
+  private final Executor executor;
+  private volatile boolean online = true;
+  private volatile Consumer<Boolean> onConnectivityChange;
+  private CompletableFuture<Void> syncing; // Guarded by this
+  private CompletableFuture<Void> flushing; // Guarded by this
+  private CompletableFuture<Void> nextFlush; // Follow-up to the flush in flight; guarded by this
+  private long lastSyncMillis; // Guarded by this
+  private boolean reconnectScheduled; // Guarded by this
+
+  public CachingRegistrationSource(RegistrationSource remote, RegistrationCache cache, Executor executor) {
+    this.remote = remote;
+    this.cache = cache;
+    this.executor = executor;
+  }
+
+  public boolean isOnline() {
+    return online;
+  }
+
+  /**
+   * Called with the new state whenever the remote source is lost or comes back.
+   */
+  public void setOnConnectivityChange(Consumer<Boolean> onConnectivityChange) {
+    this.onConnectivityChange = onConnectivityChange;
+  }
+
+  /**
+   * Number of local writes not yet applied remotely.
+   */
+  public int getPendingWriteCount() {
+    return cache.pendingWrites().size();
+  }
+
+  /**
+   * Flush queued writes and bring the cache up to date. Never fails: when the remote
+   * source is unreachable the cache is left as is and a reconnect is scheduled.
+   * Concurrent callers share the sync in flight.
+   */
+  public synchronized CompletableFuture<Void> sync() {
+    if (syncing != null) {
+      return syncing;
+    }
+    CompletableFuture<Void> done = new CompletableFuture<>();
+    syncing = done;
+    flush()
+        .thenCompose(v -> remote.tracksUpdateTimes())
+        .thenCompose(tracked -> tracked ? deltaSync() : fullResync())
+        .whenComplete((v, error) -> {
+          synchronized (this) {
+            syncing = null;
+            if (error == null) {
+              lastSyncMillis = System.currentTimeMillis();
+            }
+          }
+          persist();
+          setOnline(error == null, error);
+          done.complete(null);
+        });
+    return done;
+  }
+
+  @Override
+  public CompletableFuture<Void> openRegistration(Map<String, Object> setup) {
+    // Sync first so the deletes cover registrations the cache has not seen yet
+    return syncIfStale().thenCompose(ready -> writeThrough(() -> {
+      List<RegistrationWrite> writes = new ArrayList<>();
+      for (String id : cache.documentIds()) {
+        writes.add(RegistrationWrite.deleteRegistration(id));
+      }
+      writes.add(RegistrationWrite.putSession(new HashMap<>(setup)));
+      cache.writeAll(writes);
+      return null;
+    }));
+  }
+
+  @Override
+  public CompletableFuture<Void> closeRegistration() {
+    return writeThrough(() -> {
+      cache.write(RegistrationWrite.mergeSession(Map.of("status", "closed")));
+      return null;
+    });
+  }
+
+  @Override
+  public CompletableFuture<RegistrationPage> fetchPage(String afterDocumentId, int pageSize) {
+    // Sync once per read pass; later pages come from the same cache state
+    CompletableFuture<Void> ready = afterDocumentId == null ? syncIfStale() : CompletableFuture.completedFuture(null);
+    return ready.thenApply(v -> cache.page(afterDocumentId, pageSize));
+  }
+
+  @Override
+  public CompletableFuture<Long> countRegistrations() {
+    return syncIfStale().thenApply(v -> (long) cache.size());
+  }
+
+  @Override
+  public CompletableFuture<List<RegistrationDocument>> fetchChangedSince(long sinceMillis) {
+    return remote.fetchChangedSince(sinceMillis);
+  }
+
+  @Override
+  public CompletableFuture<Boolean> tracksUpdateTimes() {
+    return remote.tracksUpdateTimes();
+  }
+
+  @Override
+  public CompletableFuture<Void> applyWrites(List<RegistrationWrite> writes) {
+    return writeThrough(() -> {
+      cache.writeAll(writes);
+      return null;
+    });
+  }
+
+  @Override
+  public CompletableFuture<Integer> clearRegistrations() {
+    return syncIfStale().thenCompose(ready -> writeThrough(() -> {
+      List<String> ids = cache.documentIds();
+      List<RegistrationWrite> writes = new ArrayList<>(ids.size());
+      for (String id : ids) {
+        writes.add(RegistrationWrite.deleteRegistration(id));
+      }
+      cache.writeAll(writes);
+      return ids.size();
+    }));
+  }
+
+  @Override
+  public CompletableFuture<Void> endSession() {
+    return writeThrough(() -> {
+      cache.write(RegistrationWrite.deleteSession());
+      return null;
+    });
+  }
+
+  @Override
+  public Subscription listen(RegistrationListener listener) {
+    return remote.listen(new RegistrationListener() {
+      @Override
+      public void onChanges(List<RegistrationChange> changes) {
+        cache.mirror(changes);
+        listener.onChanges(changes);
+      }
+
+      @Override
+      public void onError(Throwable error) {
+        setOnline(false, error);
+        listener.onError(error);
+      }
+    });
+  }
+
+  private CompletableFuture<Void> syncIfStale() {
+    synchronized (this) {
+      if (syncing == null && online && System.currentTimeMillis() - lastSyncMillis < FRESH_MILLIS) {
+        return CompletableFuture.completedFuture(null);
+      }
+    }
+    return sync();
+  }
+
+  /**
+   * Apply a write to the cache and complete once it is stored locally. Pushing it to
+   * the remote source happens in the background.
+   */
+  private <T> CompletableFuture<T> writeThrough(Supplier<T> localWrite) {
+    return CompletableFuture.supplyAsync(() -> {
+      T result = localWrite.get();
+      persist();
+      flush().whenComplete((v, error) -> setOnline(error == null, error));
+      return result;
+    }, executor);
+  }
+
+  /**
+   * Send the queued writes to the remote source; fails if they could not be applied.
+   * While a flush is in flight, callers share one follow-up flush that starts after it.
+   */
+  private CompletableFuture<Void> flush() {
+    List<RegistrationWrite> pending;
+    CompletableFuture<Void> flight;
+    synchronized (this) {
+      if (flushing != null) {
+        if (nextFlush == null) {
+          nextFlush = flushing.handle((v, error) -> null).thenCompose(v -> {
+            synchronized (this) {
+              nextFlush = null;
+            }
+            return flush();
+          });
+        }
+        return nextFlush;
+      }
+      pending = cache.pendingWrites();
+      if (pending.isEmpty()) {
+        return CompletableFuture.completedFuture(null);
+      }
+      flight = new CompletableFuture<>();
+      flushing = flight;
+    }
+    remote.applyWrites(pending)
+        .thenRun(() -> {
+          cache.acknowledge(pending);
+          persist();
+        })
+        .whenComplete((v, error) -> {
+          synchronized (this) {
+            flushing = null;
+          }
+          if (error != null) {
+            flight.completeExceptionally(error);
+          } else {
+            flight.complete(null);
+          }
+        });
+    return flight;
+  }
+
+  /**
+   * Fetch what changed since the watermark, then read everything if the counts disagree.
+   */
+  private CompletableFuture<Void> deltaSync() {
+    return remote.fetchChangedSince(cache.getWatermark())
+        .thenAccept(cache::mergeRemote)
+        .thenCompose(v -> remote.countRegistrations())
+        .thenCompose(count -> count >= 0 && count != cache.size()
+            ? fullResync() : CompletableFuture.<Void>completedFuture(null));
+  }
+
+  private CompletableFuture<Void> fullResync() {
+    List<RegistrationDocument> all = new ArrayList<>();
+    return readFrom(null, all).thenRun(() -> cache.replaceRemote(all));
+  }
+
+  private CompletableFuture<Void> readFrom(String afterDocumentId, List<RegistrationDocument> into) {
+    return remote.fetchPage(afterDocumentId, RESYNC_PAGE_SIZE).thenCompose(page -> {
+      into.addAll(page.getDocuments());
+      return page.hasMore() ? readFrom(page.getLastDocumentId(), into) : CompletableFuture.completedFuture(null);
+    });
+  }
+
+  private void persist() {
+    try {
+      cache.save();
+    } catch (IOException e) {
+      System.err.println("Could not save registration cache: " + e.getMessage());
+    }
+  }
+
+  private void setOnline(boolean nowOnline, Throwable error) {
+    boolean changed = online != nowOnline;
+    online = nowOnline;
+    if (!nowOnline) {
+      if (changed) {
+        System.err.println("Registration source unreachable, working offline: "
+            + (error != null ? error.getMessage() : "unknown error"));
+      }
+      scheduleReconnect();
+    }
+    Consumer<Boolean> callback = onConnectivityChange;
+    if (changed && callback != null) {
+      callback.accept(nowOnline);
+    }
+  }
+
+  private synchronized void scheduleReconnect() {
+    if (reconnectScheduled) {
+      return;
+    }
+    reconnectScheduled = true;
+    CompletableFuture.delayedExecutor(RECONNECT_MILLIS, TimeUnit.MILLISECONDS, executor).execute(() -> {
+      synchronized (this) {
+        reconnectScheduled = false;
+      }
+      sync();
+    });
+  }
+}
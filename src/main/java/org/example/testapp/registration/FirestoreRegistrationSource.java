@@ -0,0 +1,242 @@
+package org.example.testapp.registration;
+
+import com.google.api.core.ApiFuture;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentChange;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.WriteBatch;
+import org.example.testapp.services.BulkWriter;
+import org.example.testapp.services.FirestoreService;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * {@link RegistrationSource} backed by the {@code students} and {@code classroom_setup}
+ * Firestore collections. Firestore callbacks run on the given executor, never on the
+ * caller's thread.
+ *
+ * Delta sync relies on registrations carrying an {@code updatedAt} timestamp field.
+ * Writes made here stamp it with the server time, and student clients must do the same
+ * on every registration they write. {@link #tracksUpdateTimes} reports whether any
+ * document lacks it, and callers then fall back to a full read.
+ */
+public class FirestoreRegistrationSource implements RegistrationSource {
+  private static final String UPDATED_AT = "updatedAt";
+  private static final String STUDENTS = "students";
+  private static final String SETUP = "classroom_setup";
+  private static final String SESSION_DOC = "current_session";
+  private static final int CLEAR_PAGE_SIZE = 500; // Registrations read and deleted per page
+
+  private final Firestore firestore;
+  private final Executor executor;
+  private final BulkWriter<Consumer<WriteBatch>> bulkWriter;
+
+  public FirestoreRegistrationSource(Firestore firestore, Executor executor) {
+    this.firestore = firestore;
+    this.executor = executor;
+    this.bulkWriter = FirestoreService.bulkWriter(firestore);
+  }
+
+  @Override
+  public CompletableFuture<Void> openRegistration(Map<String, Object> setup) {
+    return clearRegistrations()
+        .thenCompose(cleared -> toCompletable(sessionDoc().set(setup)))
+        .thenApply(result -> null);
+  }
+
+  @Override
+  public CompletableFuture<Void> closeRegistration() {
+    Map<String, Object> closeData = new HashMap<>();
+    closeData.put("status", "closed");
+    closeData.put("closeTime", new Date());
+    return toCompletable(sessionDoc().set(closeData, SetOptions.merge())).thenApply(result -> null);
+  }
+
+  /**
+   * Cursor query ordered by document id: {@code orderBy(__name__).startAfter(id).limit(n)}.
+   */
+  @Override
+  public CompletableFuture<RegistrationPage> fetchPage(String afterDocumentId, int pageSize) {
+    Query query = firestore.collection(STUDENTS).orderBy(FieldPath.documentId());
+    if (afterDocumentId != null) {
+      query = query.startAfter(afterDocumentId);
+    }
+    return toCompletable(query.limit(pageSize).get()).thenApply(snapshot -> {
+      List<QueryDocumentSnapshot> docs = snapshot.getDocuments();
+      List<RegistrationDocument> documents = new ArrayList<>(docs.size());
+      for (QueryDocumentSnapshot doc : docs) {
+        documents.add(toDocument(doc));
+      }
+      String last = docs.isEmpty() ? afterDocumentId : docs.get(docs.size() - 1).getId();
+      return new RegistrationPage(documents, last, docs.size() == pageSize);
+    });
+  }
+
+  @Override
+  public CompletableFuture<Long> countRegistrations() {
+    return toCompletable(firestore.collection(STUDENTS).count().get()).thenApply(snapshot -> snapshot.getCount());
+  }
+
+  @Override
+  public CompletableFuture<List<RegistrationDocument>> fetchChangedSince(long sinceMillis) {
+    Query query = firestore.collection(STUDENTS)
+        .whereGreaterThan(UPDATED_AT, Timestamp.of(new Date(sinceMillis)))
+        .orderBy(UPDATED_AT);
+    return toCompletable(query.get()).thenApply(snapshot -> {
+      List<RegistrationDocument> documents = new ArrayList<>(snapshot.size());
+      for (QueryDocumentSnapshot doc : snapshot.getDocuments()) {
+        documents.add(toDocument(doc));
+      }
+      return documents;
+    });
+  }
+
+  /**
+   * Compares the number of registrations with the number carrying {@code updatedAt};
+   * both are aggregation queries, so no documents are read.
+   */
+  @Override
+  public CompletableFuture<Boolean> tracksUpdateTimes() {
+    CompletableFuture<Long> stamped = toCompletable(firestore.collection(STUDENTS)
+        .whereGreaterThanOrEqualTo(UPDATED_AT, Timestamp.MIN_VALUE).count().get())
+        .thenApply(snapshot -> snapshot.getCount());
+    return countRegistrations().thenCombine(stamped, (total, withUpdateTime) -> total.equals(withUpdateTime));
+  }
+
+  @Override
+  public CompletableFuture<Void> applyWrites(List<RegistrationWrite> writes) {
+    List<Consumer<WriteBatch>> operations = new ArrayList<>(writes.size());
+    for (RegistrationWrite write : writes) {
+      boolean session = write.getTarget() == RegistrationWrite.Target.SESSION;
+      DocumentReference ref = session ? sessionDoc() : firestore.collection(STUDENTS).document(write.getDocumentId());
+      Map<String, Object> data = session || write.getData() == null ? write.getData() : stamped(write.getData());
+      switch (write.getType()) {
+        case PUT -> operations.add(batch -> batch.set(ref, data));
+        case MERGE -> operations.add(batch -> batch.set(ref, data, SetOptions.merge()));
+        case DELETE -> operations.add(batch -> batch.delete(ref));
+      }
+    }
+    return bulkWriter.write(operations).thenAccept(result -> {
+      if (!result.isSuccessful()) {
+        throw new IllegalStateException("Could not apply " + result.getFailed() + " of " + writes.size() + " writes");
+      }
+    });
+  }
+
+  /**
+   * Deletes page by page with the same cursor query as {@link #fetchPage}, reading only
+   * document ids, so a full class is never held in memory at once.
+   */
+  @Override
+  public CompletableFuture<Integer> clearRegistrations() {
+    return clearFrom(null, 0);
+  }
+
+  private CompletableFuture<Integer> clearFrom(String afterDocumentId, int cleared) {
+    Query query = firestore.collection(STUDENTS).select(FieldPath.documentId()).orderBy(FieldPath.documentId());
+    if (afterDocumentId != null) {
+      query = query.startAfter(afterDocumentId);
+    }
+    return toCompletable(query.limit(CLEAR_PAGE_SIZE).get()).thenCompose(snapshot -> {
+      List<QueryDocumentSnapshot> documents = snapshot.getDocuments();
+      if (documents.isEmpty()) {
+        return CompletableFuture.completedFuture(cleared);
+      }
+      List<Consumer<WriteBatch>> deletes = new ArrayList<>(documents.size());
+      for (QueryDocumentSnapshot doc : documents) {
+        DocumentReference ref = doc.getReference();
+        deletes.add(batch -> batch.delete(ref));
+      }
+      String last = documents.get(documents.size() - 1).getId();
+      return bulkWriter.write(deletes).thenCompose(result -> {
+        if (!result.isSuccessful()) {
+          throw new IllegalStateException("Could not clear " + result.getFailed() + " of "
+              + documents.size() + " registrations");
+        }
+        int total = cleared + result.getWritten();
+        return documents.size() == CLEAR_PAGE_SIZE ? clearFrom(last, total)
+            : CompletableFuture.completedFuture(total);
+      });
+    });
+  }
+
+  @Override
+  public CompletableFuture<Void> endSession() {
+    return toCompletable(sessionDoc().delete()).thenApply(result -> null);
+  }
+
+  /**
+   * Backed by a snapshot listener on the students collection; only the document changes
+   * of each snapshot are passed on.
+   */
+  @Override
+  public Subscription listen(RegistrationListener listener) {
+    ListenerRegistration registration = firestore.collection(STUDENTS).addSnapshotListener(executor,
+        (snapshot, error) -> {
+          if (error != null) {
+            listener.onError(error);
+            return;
+          }
+          if (snapshot == null) {
+            return;
+          }
+          List<RegistrationChange> changes = new ArrayList<>();
+          for (DocumentChange change : snapshot.getDocumentChanges()) {
+            QueryDocumentSnapshot doc = change.getDocument();
+            RegistrationChange.Type type = switch (change.getType()) {
+              case ADDED -> RegistrationChange.Type.ADDED;
+              case MODIFIED -> RegistrationChange.Type.MODIFIED;
+              case REMOVED -> RegistrationChange.Type.REMOVED;
+            };
+            changes.add(type == RegistrationChange.Type.REMOVED
+                ? new RegistrationChange(type, doc.getId(), null)
+                : new RegistrationChange(type, doc.getId(), doc.getData(), updateTime(doc)));
+          }
+          if (!changes.isEmpty()) {
+            listener.onChanges(changes);
+          }
+        });
+    return registration::remove;
+  }
+
+  /**
+   * The fields plus a server-time {@code updatedAt}, so the next delta sync sees the write.
+   */
+  private static Map<String, Object> stamped(Map<String, Object> fields) {
+    Map<String, Object> data = new HashMap<>(fields);
+    data.put(UPDATED_AT, FieldValue.serverTimestamp());
+    return data;
+  }
+
+  private static RegistrationDocument toDocument(QueryDocumentSnapshot doc) {
+    return new RegistrationDocument(doc.getId(), updateTime(doc), doc.getData());
+  }
+
+  private static long updateTime(QueryDocumentSnapshot doc) {
+    Object updatedAt = doc.get(UPDATED_AT);
+    return updatedAt instanceof Timestamp timestamp ? timestamp.toDate().getTime()
+        : doc.getUpdateTime().toDate().getTime();
+  }
+
+  private DocumentReference sessionDoc() {
+    return firestore.collection(SETUP).document(SESSION_DOC);
+  }
+
+  private <T> CompletableFuture<T> toCompletable(ApiFuture<T> future) {
+    return FirestoreService.toCompletable(future, executor);
+  }
+}
@@ -0,0 +1,85 @@
+package org.example.testapp.registration;
+
+import org.example.testapp.entities.Classroom;
+import org.example.testapp.entities.LocatedStudent;
+import org.example.testapp.verification.ClaimValidator;
+import org.example.testapp.verification.SeatCollisionTable;
+
+import java.util.List;
+
+/**
+ * Outcome of a registration import: the classroom built from the registrations, the
+ * imported students in registration order, how many documents were skipped, how many
+ * students were kept without a seat, the claims dropped and why, the seat collisions
+ * met along the way, and the ingest pipeline's counters.
+ */
+public class ImportResult {
+  private final Classroom classroom;
+  private final List<LocatedStudent> students;
+  private final int skipped;
+  private final int unseated;
+  private final int rejectedClaims;
+  private final SeatCollisionTable seatCollisions;
+  private final List<ClaimValidator.Finding> claimFindings;
+  private final String pipelineSummary;
+
+  public ImportResult(Classroom classroom, List<LocatedStudent> students, int skipped, int unseated,
+      int rejectedClaims, List<ClaimValidator.Finding> claimFindings, SeatCollisionTable seatCollisions,
+      String pipelineSummary) {
+    this.classroom = classroom;
+    this.students = students;
+    this.skipped = skipped;
+    this.unseated = unseated;
+    this.rejectedClaims = rejectedClaims;
+    this.claimFindings = claimFindings;
+    this.seatCollisions = seatCollisions;
+    this.pipelineSummary = pipelineSummary;
+  }
+
+  public Classroom getClassroom() {
+    return classroom;
+  }
+
+  public List<LocatedStudent> getStudents() {
+    return students;
+  }
+
+  public int getSkipped() {
+    return skipped;
+  }
+
+  /**
+   * Students whose seat was taken, contested or outside any plausible room.
+   */
+  public int getUnseated() {
+    return unseated;
+  }
+
+  /**
+   * Claims dropped by {@link org.example.testapp.verification.ClaimValidator}, at
+   * ingest or against the final room.
+   */
+  public int getRejectedClaims() {
+    return rejectedClaims;
+  }
+
+  /**
+   * Every claim dropped, at ingest or against the final room, in the order they were
+   * found. Nothing stays tagged once the import is complete: a claim about a student who
+   * never registered is dropped by the final check.
+   */
+  public List<ClaimValidator.Finding> getClaimFindings() {
+    return claimFindings;
+  }
+
+  public SeatCollisionTable getSeatCollisions() {
+    return seatCollisions;
+  }
+
+  /**
+   * What each ingest stage passed and dropped, as in {@link IngestPipeline#getSummary()}.
+   */
+  public String getPipelineSummary() {
+    return pipelineSummary;
+  }
+}
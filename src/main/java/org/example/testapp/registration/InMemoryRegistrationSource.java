@@ -0,0 +1,259 @@
+package org.example.testapp.registration;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Local {@link RegistrationSource} holding registrations in memory, for running the
+ * import pipeline without Firestore. An optional latency simulates network round trips,
+ * and {@link #setOnline} simulates losing the connection.
+ *
+ * Listeners are notified synchronously on the thread that changes a registration.
+ */
+public class InMemoryRegistrationSource implements RegistrationSource {
+  private final NavigableMap<String, RegistrationDocument> registrations = new TreeMap<>(); // By document id
+  private final List<RegistrationListener> listeners = new CopyOnWriteArrayList<>();
+  private final Executor executor;
+  private Map<String, Object> session;
+  private int nextDocumentId = 1;
+  private long lastUpdateTime;
+  private volatile boolean online = true;
+
+  public InMemoryRegistrationSource() {
+    this(0);
+  }
+
+  public InMemoryRegistrationSource(long latencyMillis) {
+    this.executor = CompletableFuture.delayedExecutor(latencyMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * While offline every asynchronous operation fails with an {@link IOException}.
+   */
+  public void setOnline(boolean online) {
+    this.online = online;
+  }
+
+  /**
+   * Add a registration as a student would submit it; returns its document id.
+   */
+  public String register(Map<String, Object> registration) {
+    String documentId;
+    synchronized (this) {
+      documentId = "doc-" + nextDocumentId++;
+    }
+    register(documentId, registration);
+    return documentId;
+  }
+
+  /**
+   * Add or replace the registration with the given document id.
+   */
+  public void register(String documentId, Map<String, Object> registration) {
+    Map<String, Object> data = new HashMap<>(registration);
+    boolean existed;
+    long updateTime;
+    synchronized (this) {
+      updateTime = nextUpdateTime();
+      existed = registrations.put(documentId, new RegistrationDocument(documentId, updateTime, data)) != null;
+    }
+    notifyListeners(List.of(new RegistrationChange(
+        existed ? RegistrationChange.Type.MODIFIED : RegistrationChange.Type.ADDED, documentId, data, updateTime)));
+  }
+
+  public void unregister(String documentId) {
+    boolean existed;
+    synchronized (this) {
+      existed = registrations.remove(documentId) != null;
+    }
+    if (existed) {
+      notifyListeners(List.of(new RegistrationChange(RegistrationChange.Type.REMOVED, documentId, null)));
+    }
+  }
+
+  /**
+   * The setup document, or null if no session is open.
+   */
+  public synchronized Map<String, Object> getSession() {
+    return session != null ? Collections.unmodifiableMap(session) : null;
+  }
+
+  @Override
+  public CompletableFuture<Void> openRegistration(Map<String, Object> setup) {
+    return async(() -> {
+      removeAll();
+      synchronized (this) {
+        session = new HashMap<>(setup);
+      }
+      return null;
+    });
+  }
+
+  @Override
+  public CompletableFuture<Void> closeRegistration() {
+    return async(() -> {
+      synchronized (this) {
+        if (session == null) {
+          session = new HashMap<>();
+        }
+        session.put("status", "closed");
+      }
+      return null;
+    });
+  }
+
+  @Override
+  public CompletableFuture<RegistrationPage> fetchPage(String afterDocumentId, int pageSize) {
+    return async(() -> {
+      synchronized (this) {
+        Map<String, RegistrationDocument> tail = afterDocumentId == null ? registrations
+            : registrations.tailMap(afterDocumentId, false);
+        List<RegistrationDocument> documents = new ArrayList<>(Math.min(pageSize, tail.size()));
+        String last = afterDocumentId;
+        for (RegistrationDocument document : tail.values()) {
+          if (documents.size() == pageSize) {
+            break;
+          }
+          documents.add(document);
+          last = document.getId();
+        }
+        return new RegistrationPage(documents, last, documents.size() == pageSize);
+      }
+    });
+  }
+
+  @Override
+  public CompletableFuture<Long> countRegistrations() {
+    return async(() -> {
+      synchronized (this) {
+        return (long) registrations.size();
+      }
+    });
+  }
+
+  @Override
+  public CompletableFuture<List<RegistrationDocument>> fetchChangedSince(long sinceMillis) {
+    return async(() -> {
+      List<RegistrationDocument> changed = new ArrayList<>();
+      synchronized (this) {
+        for (RegistrationDocument document : registrations.values()) {
+          if (document.getUpdateTime() > sinceMillis) {
+            changed.add(document);
+          }
+        }
+      }
+      changed.sort(Comparator.comparingLong(RegistrationDocument::getUpdateTime));
+      return changed;
+    });
+  }
+
+  @Override
+  public CompletableFuture<Void> applyWrites(List<RegistrationWrite> writes) {
+    return async(() -> {
+      for (RegistrationWrite write : writes) {
+        if (write.getTarget() == RegistrationWrite.Target.REGISTRATION) {
+          if (write.getType() == RegistrationWrite.Type.DELETE) {
+            unregister(write.getDocumentId());
+          } else {
+            register(write.getDocumentId(), write.getData());
+          }
+          continue;
+        }
+        synchronized (this) {
+          switch (write.getType()) {
+            case PUT -> session = new HashMap<>(write.getData());
+            case MERGE -> {
+              if (session == null) {
+                session = new HashMap<>();
+              }
+              session.putAll(write.getData());
+            }
+            case DELETE -> session = null;
+          }
+        }
+      }
+      return null;
+    });
+  }
+
+  @Override
+  public CompletableFuture<Integer> clearRegistrations() {
+    return async(this::removeAll);
+  }
+
+  @Override
+  public CompletableFuture<Void> endSession() {
+    return async(() -> {
+      synchronized (this) {
+        session = null;
+      }
+      return null;
+    });
+  }
+
+  @Override
+  public Subscription listen(RegistrationListener listener) {
+    List<RegistrationChange> existing = new ArrayList<>();
+    synchronized (this) {
+      for (RegistrationDocument document : registrations.values()) {
+        existing.add(new RegistrationChange(RegistrationChange.Type.ADDED, document.getId(), document.getData(),
+            document.getUpdateTime()));
+      }
+      listeners.add(listener);
+    }
+    if (!existing.isEmpty()) {
+      listener.onChanges(existing);
+    }
+    return () -> listeners.remove(listener);
+  }
+
+  private int removeAll() {
+    List<RegistrationChange> removed = new ArrayList<>();
+    synchronized (this) {
+      for (String documentId : registrations.keySet()) {
+        removed.add(new RegistrationChange(RegistrationChange.Type.REMOVED, documentId, null));
+      }
+      registrations.clear();
+    }
+    if (!removed.isEmpty()) {
+      notifyListeners(removed);
+    }
+    return removed.size();
+  }
+
+  /**
+   * Strictly increasing, so two writes never share a delta sync watermark.
+   */
+  private long nextUpdateTime() {
+    lastUpdateTime = Math.max(System.currentTimeMillis(), lastUpdateTime + 1);
+    return lastUpdateTime;
+  }
+
+  private void notifyListeners(List<RegistrationChange> changes) {
+    for (RegistrationListener listener : listeners) {
+      listener.onChanges(changes);
+    }
+  }
+
+  private <T> CompletableFuture<T> async(Supplier<T> action) {
+    return CompletableFuture.supplyAsync(() -> {
+      if (!online) {
+        throw new CompletionException(new IOException("Registration source is offline"));
+      }
+      return action.get();
+    }, executor);
+  }
+}
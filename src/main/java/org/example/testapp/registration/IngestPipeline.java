@@ -0,0 +1,421 @@
+package org.example.testapp.registration;
+
+import org.example.testapp.attendance.AttendanceAggregator;
+import org.example.testapp.attendance.AttendanceReport;
+import org.example.testapp.entities.Classroom;
+import org.example.testapp.entities.LocatedStudent;
+import org.example.testapp.entities.Position;
+import org.example.testapp.verification.ClaimValidator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Staged, backpressured path from registration changes to a scored classroom:
+ * parse (students are interned through the ingest's pool, a page's worth at a time in
+ * parallel chunks) → validate (impossible claims
+ * are dropped by a {@link ClaimValidator}, suspect ones tagged, and the findings kept on
+ * the change) → place → score → consumer.
+ *
+ * Every stage holds a bounded buffer, so when a later stage or the consumer falls
+ * behind, earlier stages stop pulling and {@link #submit} futures stay pending until
+ * there is room again. Placing and scoring touch the classroom and run on the given
+ * placement executor, which must be serial (the FX thread for a classroom on screen).
+ *
+ * Scores are provisional: only the placed student and the seats around it are rescored,
+ * which is all the neighbour-based strategies depend on.
+ */
+public class IngestPipeline {
+  public static final int DEFAULT_CAPACITY = 64;
+  private static final int PARSE_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+  private static final ExecutorService WORKERS = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable, "ingest-worker");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final LiveRegistrationIngest ingest;
+  private final AttendanceAggregator scorer;
+  private final ClaimValidator validator;
+  private final Source source = new Source();
+  private final List<IngestStage<?, ?>> stages = new ArrayList<>();
+  private final Sink sink;
+  private volatile boolean cancelled;
+
+  /**
+   * @param scorer scores placed students, or null to skip scoring
+   * @param placementExecutor serial executor owning the ingest's classroom, or null for
+   *                          a private background one
+   * @param consumer receives batches of applied changes on {@code consumerExecutor}; the
+   *                 pipeline does not pull more than it can buffer until a batch returns
+   */
+  public IngestPipeline(LiveRegistrationIngest ingest, AttendanceAggregator scorer, Executor placementExecutor,
+      Executor consumerExecutor, Consumer<List<ScoredUpdate>> consumer) {
+    this.ingest = ingest;
+    this.scorer = scorer;
+    // Ids registered so far; a claim about a later registration is only tagged
+    this.validator = new ClaimValidator(ingest.getClassroom(), ingest.getPool()::isRegistered, false);
+    Executor placement = placementExecutor != null ? placementExecutor : newSerialExecutor();
+    if (scorer != null) {
+      scorer.setClassroom(ingest.getClassroom());
+    }
+
+    IngestStage<RegistrationChange, LiveRegistrationIngest.ParsedChange> parse =
+        new IngestStage<>("parse", ingest::parse, WORKERS, DEFAULT_CAPACITY, PARSE_PARALLELISM);
+    IngestStage<LiveRegistrationIngest.ParsedChange, LiveRegistrationIngest.ParsedChange> validate =
+        new IngestStage<>("validate", this::validate, WORKERS, DEFAULT_CAPACITY);
+    IngestStage<LiveRegistrationIngest.ParsedChange, LiveRegistrationIngest.Update> place =
+        new IngestStage<>("place", change -> cancelled ? null : ingest.apply(List.of(change)), placement,
+            DEFAULT_CAPACITY);
+    IngestStage<LiveRegistrationIngest.Update, ScoredUpdate> score =
+        new IngestStage<>("score", this::score, placement, DEFAULT_CAPACITY);
+    sink = new Sink(consumerExecutor != null ? consumerExecutor : placement, consumer, DEFAULT_CAPACITY);
+
+    // Subscribe from the end so each stage has its consumer before input arrives
+    score.subscribe(sink);
+    place.subscribe(score);
+    validate.subscribe(place);
+    parse.subscribe(validate);
+    source.subscribe(parse);
+    Collections.addAll(stages, parse, validate, place, score);
+  }
+
+  /**
+   * An executor running one task at a time, in order, on the pipeline's worker threads.
+   */
+  public static Executor newSerialExecutor() {
+    return new SerialExecutor(WORKERS);
+  }
+
+  /**
+   * Queue changes for ingestion. The future completes once the first stage has taken
+   * all of them, so a caller that waits for it before reading more is held back by the
+   * slowest stage.
+   */
+  public CompletableFuture<Void> submit(List<RegistrationChange> changes) {
+    return source.submit(changes);
+  }
+
+  /**
+   * No more changes will be submitted; {@link #getCompletion} completes once the ones
+   * already submitted have reached the consumer.
+   */
+  public void close() {
+    source.close();
+  }
+
+  /**
+   * Drop everything still queued and stop delivering to the consumer.
+   */
+  public void cancel() {
+    cancelled = true;
+    source.cancel();
+    sink.completion.cancel(false);
+  }
+
+  public CompletableFuture<Void> getCompletion() {
+    return sink.completion;
+  }
+
+  public LiveRegistrationIngest getIngest() {
+    return ingest;
+  }
+
+  public ClaimValidator getClaimValidator() {
+    return validator;
+  }
+
+  public List<IngestStage.Metrics> getMetrics() {
+    List<IngestStage.Metrics> metrics = new ArrayList<>(stages.size());
+    for (IngestStage<?, ?> stage : stages) {
+      metrics.add(stage.getMetrics());
+    }
+    return metrics;
+  }
+
+  /**
+   * One line for the status bar: each stage's counters, then the claim checks.
+   */
+  public String getSummary() {
+    StringBuilder sb = new StringBuilder();
+    for (IngestStage.Metrics metrics : getMetrics()) {
+      sb.append(metrics).append("; ");
+    }
+    return sb.append(validator).toString();
+  }
+
+  /**
+   * Changes waiting to enter the first stage.
+   */
+  public int getPendingCount() {
+    return source.pendingCount();
+  }
+
+  private LiveRegistrationIngest.ParsedChange validate(LiveRegistrationIngest.ParsedChange change) {
+    if (change.getType() == RegistrationChange.Type.REMOVED) {
+      return change;
+    }
+    // Unparseable registrations are dropped here rather than reaching the classroom
+    if (change.getStudent() == null) {
+      return null;
+    }
+    change.setFindings(validator.validate(change.getStudent()));
+    return change;
+  }
+
+  private ScoredUpdate score(LiveRegistrationIngest.Update update) {
+    if (scorer == null) {
+      return new ScoredUpdate(update, List.of());
+    }
+    Classroom classroom = ingest.getClassroom();
+    Map<String, AttendanceReport> reports = new LinkedHashMap<>();
+    for (LocatedStudent added : update.getAdded()) {
+      reports.put(added.getStudent().getId(), scorer.scoreStudent(added));
+    }
+    for (Position pos : update.getTouched()) {
+      classroom.getAt(pos).ifPresent(seated ->
+          reports.computeIfAbsent(seated.getStudent().getId(), id -> scorer.scoreStudent(seated)));
+    }
+    return new ScoredUpdate(update, new ArrayList<>(reports.values()));
+  }
+
+  /**
+   * An applied change together with provisional reports for the students it affected.
+   */
+  public static class ScoredUpdate {
+    private final LiveRegistrationIngest.Update update;
+    private final List<AttendanceReport> reports;
+
+    ScoredUpdate(LiveRegistrationIngest.Update update, List<AttendanceReport> reports) {
+      this.update = update;
+      this.reports = reports;
+    }
+
+    public LiveRegistrationIngest.Update getUpdate() {
+      return update;
+    }
+
+    public List<AttendanceReport> getReports() {
+      return reports;
+    }
+  }
+
+  /**
+   * Entry point: holds submitted changes until the first stage asks for them.
+   */
+  private static class Source implements Flow.Publisher<RegistrationChange> {
+    private final ArrayDeque<RegistrationChange> pending = new ArrayDeque<>();
+    private final ArrayDeque<CompletableFuture<Void>> waiting = new ArrayDeque<>();
+    private final ArrayDeque<Integer> waitingSizes = new ArrayDeque<>();
+    private Flow.Subscriber<? super RegistrationChange> subscriber;
+    private long credit;
+    private long emitted; // Changes handed to the first stage so far
+    private long accepted; // Changes covered by completed futures
+    private boolean closed;
+    private boolean done;
+
+    @Override
+    public synchronized void subscribe(Flow.Subscriber<? super RegistrationChange> subscriber) {
+      this.subscriber = subscriber;
+      subscriber.onSubscribe(new Flow.Subscription() {
+        @Override
+        public void request(long n) {
+          synchronized (Source.this) {
+            credit += n;
+            emit();
+          }
+        }
+
+        @Override
+        public void cancel() {
+          Source.this.cancel();
+        }
+      });
+    }
+
+    synchronized CompletableFuture<Void> submit(List<RegistrationChange> changes) {
+      if (closed) {
+        return CompletableFuture.failedFuture(new IllegalStateException("Pipeline is closed"));
+      }
+      CompletableFuture<Void> future = new CompletableFuture<>();
+      pending.addAll(changes);
+      waiting.add(future);
+      waitingSizes.add(changes.size());
+      emit();
+      return future;
+    }
+
+    synchronized void close() {
+      closed = true;
+      emit();
+    }
+
+    void cancel() {
+      List<CompletableFuture<Void>> dropped;
+      synchronized (this) {
+        closed = true;
+        done = true;
+        pending.clear();
+        dropped = new ArrayList<>(waiting);
+        waiting.clear();
+        waitingSizes.clear();
+      }
+      for (CompletableFuture<Void> future : dropped) {
+        future.cancel(false);
+      }
+    }
+
+    synchronized int pendingCount() {
+      return pending.size();
+    }
+
+    private void emit() {
+      if (done || subscriber == null) {
+        return;
+      }
+      while (credit > 0 && !pending.isEmpty()) {
+        credit--;
+        emitted++;
+        subscriber.onNext(pending.poll());
+      }
+      // Complete the futures of every submission now fully handed over
+      while (!waitingSizes.isEmpty() && emitted - accepted >= waitingSizes.peek()) {
+        accepted += waitingSizes.poll();
+        waiting.poll().complete(null);
+      }
+      if (closed && pending.isEmpty()) {
+        done = true;
+        subscriber.onComplete();
+      }
+    }
+  }
+
+  /**
+   * Hands batches to the consumer on its executor and asks for as many changes as each
+   * batch held once the consumer has returned.
+   */
+  private static class Sink implements Flow.Subscriber<ScoredUpdate> {
+    private final Executor executor;
+    private final Consumer<List<ScoredUpdate>> consumer;
+    private final int capacity;
+    private final Queue<ScoredUpdate> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private volatile Flow.Subscription subscription;
+    private volatile boolean upstreamDone;
+    private volatile Throwable error;
+
+    Sink(Executor executor, Consumer<List<ScoredUpdate>> consumer, int capacity) {
+      this.executor = executor;
+      this.consumer = consumer;
+      this.capacity = capacity;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      subscription.request(capacity);
+    }
+
+    @Override
+    public void onNext(ScoredUpdate item) {
+      pending.add(item);
+      schedule();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+      upstreamDone = true;
+      schedule();
+    }
+
+    @Override
+    public void onComplete() {
+      upstreamDone = true;
+      schedule();
+    }
+
+    private void schedule() {
+      if (wip.getAndIncrement() == 0) {
+        executor.execute(this::drain);
+      }
+    }
+
+    private void drain() {
+      int missed = 1;
+      do {
+        boolean finished = upstreamDone;
+        List<ScoredUpdate> batch = new ArrayList<>();
+        for (ScoredUpdate item; (item = pending.poll()) != null; ) {
+          batch.add(item);
+        }
+        if (!batch.isEmpty() && !completion.isDone()) {
+          try {
+            consumer.accept(batch);
+          } catch (RuntimeException e) {
+            System.err.println("Ingest consumer failed: " + e.getMessage());
+          }
+          subscription.request(batch.size());
+        }
+        if (finished && pending.isEmpty()) {
+          if (error != null) {
+            completion.completeExceptionally(error);
+          } else {
+            completion.complete(null);
+          }
+        }
+        missed = wip.addAndGet(-missed);
+      } while (missed != 0);
+    }
+  }
+
+  /**
+   * Runs tasks one after another on a shared pool.
+   */
+  private static class SerialExecutor implements Executor {
+    private final Executor backing;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    SerialExecutor(Executor backing) {
+      this.backing = backing;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+      tasks.add(task);
+      if (wip.getAndIncrement() == 0) {
+        backing.execute(this::runAll);
+      }
+    }
+
+    private void runAll() {
+      int missed = 1;
+      do {
+        for (Runnable task; (task = tasks.poll()) != null; ) {
+          try {
+            task.run();
+          } catch (RuntimeException e) {
+            System.err.println("Ingest task failed: " + e.getMessage());
+          }
+        }
+        missed = wip.addAndGet(-missed);
+      } while (missed != 0);
+    }
+  }
+}
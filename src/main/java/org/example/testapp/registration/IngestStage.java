@@ -0,0 +1,274 @@
+package org.example.testapp.registration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * One stage of an {@link IngestPipeline}: applies a function to each item on its
+ * executor and passes the results downstream.
+ *
+ * The stage buffers at most {@code capacity} items. It asks upstream for more only as it
+ * frees buffer slots, and it frees slots only while downstream has outstanding demand, so
+ * a slow consumer stalls every stage before it without blocking a thread. Items are
+ * processed one at a time; two stages sharing a serial executor never run at once.
+ *
+ * A stage built with a parallelism above one instead takes every item it may pass on
+ * at once, splits them into chunks of at least {@link #MIN_CHUNK} run side by side on
+ * its executor, and passes the results on in arrival order. Its function must then be
+ * safe to call from several threads.
+ */
+public class IngestStage<I, O> implements Flow.Processor<I, O> {
+  static final int MIN_CHUNK = 16; // Smaller batches are not worth handing to another thread
+
+  private final Function<I, O> function; // A null result drops the item
+  private final Executor executor;
+  private final int capacity;
+  private final int parallelism;
+  private final Queue<I> buffer = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger wip = new AtomicInteger();
+  private final AtomicLong demand = new AtomicLong();
+  private final Metrics metrics;
+  private volatile Flow.Subscription upstream;
+  private volatile Flow.Subscriber<? super O> downstream;
+  private volatile boolean upstreamDone;
+  private volatile Throwable upstreamError;
+  private volatile boolean cancelled;
+  private boolean terminated; // Only touched while draining
+
+  IngestStage(String name, Function<I, O> function, Executor executor, int capacity) {
+    this(name, function, executor, capacity, 1);
+  }
+
+  /**
+   * @param parallelism chunks of one batch run at once; the executor must not be serial
+   *                    when this is above one
+   */
+  IngestStage(String name, Function<I, O> function, Executor executor, int capacity, int parallelism) {
+    if (capacity <= 0)
+      throw new IllegalArgumentException("Capacity must be > 0");
+    if (parallelism <= 0)
+      throw new IllegalArgumentException("Parallelism must be > 0");
+    this.function = function;
+    this.executor = executor;
+    this.capacity = capacity;
+    this.parallelism = parallelism;
+    this.metrics = new Metrics(name, buffer);
+  }
+
+  Metrics getMetrics() {
+    return metrics;
+  }
+
+  @Override
+  public void onSubscribe(Flow.Subscription subscription) {
+    upstream = subscription;
+    subscription.request(capacity);
+  }
+
+  @Override
+  public void onNext(I item) {
+    buffer.add(item);
+    schedule();
+  }
+
+  @Override
+  public void onError(Throwable error) {
+    upstreamError = error;
+    upstreamDone = true;
+    schedule();
+  }
+
+  @Override
+  public void onComplete() {
+    upstreamDone = true;
+    schedule();
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super O> subscriber) {
+    downstream = subscriber;
+    subscriber.onSubscribe(new Flow.Subscription() {
+      @Override
+      public void request(long n) {
+        if (n <= 0) {
+          upstreamError = new IllegalArgumentException("Non-positive request: " + n);
+          upstreamDone = true;
+        } else {
+          demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+        }
+        schedule();
+      }
+
+      @Override
+      public void cancel() {
+        cancelled = true;
+        Flow.Subscription subscription = upstream;
+        if (subscription != null) {
+          subscription.cancel();
+        }
+        buffer.clear();
+      }
+    });
+  }
+
+  private void schedule() {
+    if (wip.getAndIncrement() == 0) {
+      executor.execute(this::drain);
+    }
+  }
+
+  private void drain() {
+    int missed = 1;
+    do {
+      Flow.Subscriber<? super O> out = downstream;
+      if (out != null && !terminated && !cancelled) {
+        if (upstreamError != null) {
+          terminated = true;
+          buffer.clear();
+          out.onError(upstreamError);
+        } else {
+          long freed = parallelism > 1 ? drainBatches(out) : drainItems(out);
+          if (freed > 0 && !upstreamDone) {
+            upstream.request(freed);
+          }
+          if (upstreamDone && buffer.isEmpty()) {
+            terminated = true;
+            out.onComplete();
+          }
+        }
+      }
+      missed = wip.addAndGet(-missed);
+    } while (missed != 0);
+  }
+
+  private long drainItems(Flow.Subscriber<? super O> out) {
+    long freed = 0;
+    while (demand.get() > 0 && !cancelled) {
+      I item = buffer.poll();
+      if (item == null) {
+        break;
+      }
+      freed++;
+      O result = apply(item);
+      if (result != null) {
+        demand.decrementAndGet();
+        out.onNext(result);
+      }
+    }
+    return freed;
+  }
+
+  private long drainBatches(Flow.Subscriber<? super O> out) {
+    long freed = 0;
+    while (!cancelled) {
+      // Never take more than downstream asked for; dropped items only leave room to spare
+      long wanted = Math.min(demand.get(), capacity);
+      List<I> batch = new ArrayList<>();
+      I item;
+      while (batch.size() < wanted && (item = buffer.poll()) != null) {
+        batch.add(item);
+      }
+      if (batch.isEmpty()) {
+        break;
+      }
+      freed += batch.size();
+      for (O result : applyAll(batch)) {
+        if (result != null && !cancelled) {
+          demand.decrementAndGet();
+          out.onNext(result);
+        }
+      }
+    }
+    return freed;
+  }
+
+  /**
+   * Apply the function to a batch in chunks, this thread taking the first one, and
+   * return the results in batch order.
+   */
+  @SuppressWarnings("unchecked")
+  private O[] applyAll(List<I> batch) {
+    int size = batch.size();
+    O[] results = (O[]) new Object[size];
+    int chunk = Math.max(MIN_CHUNK, (size + parallelism - 1) / parallelism);
+    List<CompletableFuture<Void>> others = new ArrayList<>();
+    for (int from = chunk; from < size; from += chunk) {
+      int start = from;
+      int end = Math.min(size, from + chunk);
+      others.add(CompletableFuture.runAsync(() -> applyRange(batch, results, start, end), executor));
+    }
+    applyRange(batch, results, 0, Math.min(size, chunk));
+    CompletableFuture.allOf(others.toArray(new CompletableFuture[0])).join();
+    return results;
+  }
+
+  private void applyRange(List<I> batch, O[] results, int from, int to) {
+    // Each chunk fills its own slots, so the hand-off keeps arrival order
+    for (int i = from; i < to; i++) {
+      results[i] = apply(batch.get(i));
+    }
+  }
+
+  private O apply(I item) {
+    long start = System.nanoTime();
+    try {
+      O result = function.apply(item);
+      if (result != null) {
+        metrics.processed.incrementAndGet();
+      } else {
+        metrics.dropped.incrementAndGet();
+      }
+      return result;
+    } catch (RuntimeException e) {
+      System.err.println("Ingest stage " + metrics.name + " failed on an item: " + e.getMessage());
+      metrics.dropped.incrementAndGet();
+      return null;
+    } finally {
+      metrics.busyNanos.addAndGet(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Counters for one stage; safe to read from any thread while the pipeline runs.
+   */
+  public static class Metrics {
+    private final String name;
+    private final Queue<?> buffer;
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+
+    Metrics(String name, Queue<?> buffer) {
+      this.name = name;
+      this.buffer = buffer;
+    }
+
+    public String getName() { return name; }
+    public long getProcessed() { return processed.get(); }
+    public long getDropped() { return dropped.get(); }
+
+    /** Items waiting in the stage's buffer. */
+    public int getQueueDepth() { return buffer.size(); }
+
+    /** Items handled per second of time spent in this stage. */
+    public double getThroughput() {
+      long nanos = busyNanos.get();
+      long handled = processed.get() + dropped.get();
+      return nanos > 0 ? handled * 1e9 / nanos : 0.0;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s: %d passed, %d dropped, queue %d, %.0f/s",
+          name, getProcessed(), getDropped(), getQueueDepth(), getThroughput());
+    }
+  }
+}
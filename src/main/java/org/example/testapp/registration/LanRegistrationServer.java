@@ -0,0 +1,386 @@
+package org.example.testapp.registration;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Registration server on the teacher's machine, for classes without Firestore.
+ *
+ * Student devices {@code POST /register} the same JSON a Firestore registration holds
+ * ({@code studentId}, {@code name}, {@code row}, {@code col}, {@code claims}) and
+ * {@code GET /session} to read the setup document. Each request runs on its own virtual
+ * thread and is acknowledged as soon as the registration is stored and queued; a single
+ * dispatcher drains the queue and hands listeners whole batches, so a burst of posts at
+ * the start of a lesson turns into a few classroom updates rather than one per phone.
+ *
+ * Registrations are keyed by student id, so a student posting again replaces their
+ * earlier registration.
+ *
+ * A new listener's replay of the existing registrations goes through the same queue,
+ * taken at the point where it joins, so each listener sees one ordered stream: the
+ * replay, then every later change exactly once and never a removal ahead of the
+ * addition it undoes.
+ */
+public class LanRegistrationServer implements RegistrationSource, AutoCloseable {
+  public static final int DEFAULT_PORT = 8085;
+  private static final int MAX_BODY_BYTES = 64 * 1024;
+  private static final int MAX_BATCH = 256;
+
+  private final ObjectMapper json = new ObjectMapper();
+  private final NavigableMap<String, RegistrationDocument> registrations = new ConcurrentSkipListMap<>();
+  private final BlockingQueue<Queued> ingestQueue = new LinkedBlockingQueue<>();
+  private final List<RegistrationListener> listeners = new CopyOnWriteArrayList<>();
+  private final Object queueLock = new Object(); // Keeps map updates and the queue in the same order
+  private long lastUpdateTime; // Guarded by queueLock
+  private final HttpServer server;
+  private final ExecutorService requestExecutor;
+  private final Thread dispatcher;
+  private volatile Map<String, Object> session;
+
+  private LanRegistrationServer(HttpServer server) {
+    this.server = server;
+    this.requestExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    this.dispatcher = Thread.ofPlatform().daemon().name("registration-dispatch").unstarted(this::dispatch);
+    server.setExecutor(requestExecutor);
+    server.createContext("/register", this::handleRegister);
+    server.createContext("/session", this::handleSession);
+  }
+
+  /**
+   * Start listening on all interfaces; port 0 picks a free port.
+   */
+  public static LanRegistrationServer start(int port) throws IOException {
+    // A large backlog absorbs the connection burst while handlers spin up
+    LanRegistrationServer lan = new LanRegistrationServer(HttpServer.create(new InetSocketAddress(port), 1024));
+    lan.dispatcher.start();
+    // The server's dispatcher thread inherits the daemon flag of the thread starting it;
+    // start it from a daemon so an open server never keeps the application alive
+    Thread starter = Thread.ofPlatform().daemon().unstarted(lan.server::start);
+    starter.start();
+    try {
+      starter.join();
+    } catch (InterruptedException e) {
+      lan.close();
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while starting the registration server");
+    }
+    return lan;
+  }
+
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  @Override
+  public CompletableFuture<Void> openRegistration(Map<String, Object> setup) {
+    removeAll();
+    Map<String, Object> open = new HashMap<>(setup);
+    open.put("status", "active");
+    session = open;
+    return CompletableFuture.completedFuture(null);
+  }
+
+  @Override
+  public CompletableFuture<Void> closeRegistration() {
+    Map<String, Object> closed = session != null ? new HashMap<>(session) : new HashMap<>();
+    closed.put("status", "closed");
+    session = closed;
+    return CompletableFuture.completedFuture(null);
+  }
+
+  @Override
+  public CompletableFuture<RegistrationPage> fetchPage(String afterDocumentId, int pageSize) {
+    Map<String, RegistrationDocument> tail = afterDocumentId == null ? registrations
+        : registrations.tailMap(afterDocumentId, false);
+    List<RegistrationDocument> documents = new ArrayList<>(pageSize);
+    String last = afterDocumentId;
+    for (RegistrationDocument document : tail.values()) {
+      if (documents.size() == pageSize) {
+        break;
+      }
+      documents.add(document);
+      last = document.getId();
+    }
+    return CompletableFuture.completedFuture(new RegistrationPage(documents, last, documents.size() == pageSize));
+  }
+
+  @Override
+  public CompletableFuture<Long> countRegistrations() {
+    return CompletableFuture.completedFuture((long) registrations.size());
+  }
+
+  @Override
+  public CompletableFuture<List<RegistrationDocument>> fetchChangedSince(long sinceMillis) {
+    List<RegistrationDocument> changed = new ArrayList<>();
+    for (RegistrationDocument document : registrations.values()) {
+      if (document.getUpdateTime() > sinceMillis) {
+        changed.add(document);
+      }
+    }
+    changed.sort((a, b) -> Long.compare(a.getUpdateTime(), b.getUpdateTime()));
+    return CompletableFuture.completedFuture(changed);
+  }
+
+  @Override
+  public CompletableFuture<Void> applyWrites(List<RegistrationWrite> writes) {
+    for (RegistrationWrite write : writes) {
+      if (write.getTarget() == RegistrationWrite.Target.REGISTRATION) {
+        if (write.getType() == RegistrationWrite.Type.DELETE) {
+          remove(write.getDocumentId());
+        } else {
+          store(write.getDocumentId(), write.getData());
+        }
+        continue;
+      }
+      switch (write.getType()) {
+        case PUT -> session = new HashMap<>(write.getData());
+        case MERGE -> {
+          Map<String, Object> merged = session != null ? new HashMap<>(session) : new HashMap<>();
+          merged.putAll(write.getData());
+          session = merged;
+        }
+        case DELETE -> session = null;
+      }
+    }
+    return CompletableFuture.completedFuture(null);
+  }
+
+  @Override
+  public CompletableFuture<Integer> clearRegistrations() {
+    return CompletableFuture.completedFuture(removeAll());
+  }
+
+  @Override
+  public CompletableFuture<Void> endSession() {
+    session = null;
+    return CompletableFuture.completedFuture(null);
+  }
+
+  @Override
+  public Subscription listen(RegistrationListener listener) {
+    Replay replay;
+    synchronized (queueLock) {
+      // Changes queued before this point are in the snapshot, later ones follow it
+      List<RegistrationChange> existing = new ArrayList<>(registrations.size());
+      for (RegistrationDocument document : registrations.values()) {
+        existing.add(new RegistrationChange(RegistrationChange.Type.ADDED, document.getId(), document.getData(),
+            document.getUpdateTime()));
+      }
+      replay = new Replay(listener, existing);
+      ingestQueue.add(replay);
+    }
+    return replay::cancel;
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    requestExecutor.shutdown();
+    dispatcher.interrupt();
+  }
+
+  private void handleRegister(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      if (!"POST".equals(exchange.getRequestMethod())) {
+        respond(exchange, 405, "{\"error\":\"POST a registration\"}");
+        return;
+      }
+      Map<String, Object> current = session;
+      if (current == null || !"active".equals(current.get("status"))) {
+        respond(exchange, 409, "{\"error\":\"registration is not open\"}");
+        return;
+      }
+      byte[] body;
+      try (InputStream in = exchange.getRequestBody()) {
+        body = in.readNBytes(MAX_BODY_BYTES + 1);
+      }
+      if (body.length > MAX_BODY_BYTES) {
+        respond(exchange, 413, "{\"error\":\"registration too large\"}");
+        return;
+      }
+      Map<String, Object> registration;
+      try {
+        registration = parse(body);
+      } catch (JsonProcessingException e) {
+        respond(exchange, 400, "{\"error\":\"invalid JSON\"}");
+        return;
+      }
+      Object studentId = registration != null ? registration.get("studentId") : null;
+      if (!(studentId instanceof String id) || id.isEmpty()) {
+        respond(exchange, 400, "{\"error\":\"studentId is required\"}");
+        return;
+      }
+      store(id, registration);
+      respond(exchange, 202, "{\"status\":\"registered\"}");
+    }
+  }
+
+  private void handleSession(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      Map<String, Object> current = session;
+      if (current == null) {
+        respond(exchange, 404, "{\"error\":\"no session\"}");
+        return;
+      }
+      respond(exchange, 200, json.writeValueAsString(current));
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, Object> parse(byte[] body) throws IOException {
+    return json.readValue(body, Map.class);
+  }
+
+  private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  private void store(String documentId, Map<String, Object> data) {
+    synchronized (queueLock) {
+      lastUpdateTime = Math.max(System.currentTimeMillis(), lastUpdateTime + 1);
+      long updateTime = lastUpdateTime;
+      RegistrationDocument previous = registrations.put(documentId,
+          new RegistrationDocument(documentId, updateTime, data));
+      ingestQueue.add(new Change(new RegistrationChange(
+          previous != null ? RegistrationChange.Type.MODIFIED : RegistrationChange.Type.ADDED, documentId, data,
+          updateTime)));
+    }
+  }
+
+  private void remove(String documentId) {
+    synchronized (queueLock) {
+      if (registrations.remove(documentId) != null) {
+        ingestQueue.add(new Change(new RegistrationChange(RegistrationChange.Type.REMOVED, documentId, null)));
+      }
+    }
+  }
+
+  private int removeAll() {
+    int removed = 0;
+    for (String documentId : registrations.keySet()) {
+      synchronized (queueLock) {
+        if (registrations.remove(documentId) != null) {
+          ingestQueue.add(new Change(new RegistrationChange(RegistrationChange.Type.REMOVED, documentId, null)));
+          removed++;
+        }
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * Deliver queued changes in batches until the server is closed. A replay first flushes
+   * the changes queued before it to the existing listeners, then joins its listener.
+   */
+  private void dispatch() {
+    List<Queued> drained = new ArrayList<>(MAX_BATCH);
+    List<RegistrationChange> batch = new ArrayList<>(MAX_BATCH);
+    try {
+      while (true) {
+        drained.add(ingestQueue.take());
+        ingestQueue.drainTo(drained, MAX_BATCH - 1);
+        for (Queued queued : drained) {
+          if (queued instanceof Change change) {
+            batch.add(change.change);
+          } else if (queued instanceof Replay replay) {
+            deliver(batch);
+            replay.join();
+          }
+        }
+        drained.clear();
+        deliver(batch);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void deliver(List<RegistrationChange> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    List<RegistrationChange> changes = List.copyOf(batch);
+    batch.clear();
+    for (RegistrationListener listener : listeners) {
+      deliverTo(listener, changes);
+    }
+  }
+
+  private static void deliverTo(RegistrationListener listener, List<RegistrationChange> changes) {
+    try {
+      listener.onChanges(changes);
+    } catch (RuntimeException e) {
+      listener.onError(e);
+    }
+  }
+
+  /**
+   * An entry of the dispatcher's queue.
+   */
+  private interface Queued {
+  }
+
+  private static final class Change implements Queued {
+    private final RegistrationChange change;
+
+    Change(RegistrationChange change) {
+      this.change = change;
+    }
+  }
+
+  /**
+   * A listener waiting for its replay; it receives nothing else until the dispatcher
+   * reaches this entry.
+   */
+  private final class Replay implements Queued {
+    private final RegistrationListener listener;
+    private final List<RegistrationChange> existing;
+    private boolean cancelled;
+
+    Replay(RegistrationListener listener, List<RegistrationChange> existing) {
+      this.listener = listener;
+      this.existing = existing;
+    }
+
+    synchronized void join() {
+      if (cancelled) {
+        return;
+      }
+      if (!existing.isEmpty()) {
+        deliverTo(listener, List.copyOf(existing));
+      }
+      listeners.add(listener);
+    }
+
+    synchronized void cancel() {
+      cancelled = true;
+      listeners.remove(listener);
+    }
+  }
+}
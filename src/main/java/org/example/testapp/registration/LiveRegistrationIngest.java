@@ -0,0 +1,395 @@
+package org.example.testapp.registration;
+
+import org.example.testapp.entities.Classroom;
+import org.example.testapp.entities.Claim;
+import org.example.testapp.entities.Direction;
+import org.example.testapp.entities.LocatedStudent;
+import org.example.testapp.entities.Position;
+import org.example.testapp.entities.Student;
+import org.example.testapp.entities.StudentPool;
+import org.example.testapp.verification.ClaimValidator;
+import org.example.testapp.verification.SeatCollisionTable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies registration changes to a live {@link Classroom} one document at a time.
+ *
+ * Parsing ({@link #parse}) only touches the thread-safe student pool and runs on the
+ * listener thread; {@link #apply} mutates the classroom and the student registry and
+ * must run on the thread that owns them. Each update reports the seats whose rendering
+ * may have changed: the seats that were vacated or taken, plus their neighbours, whose
+ * declaration checks depend on them.
+ *
+ * When two registrations name the same seat, a {@link SeatCollisionTable} decides who
+ * sits there under its policy; the others are kept without a seat and take it over if
+ * the policy picks them once the holder leaves.
+ *
+ * Claims tagged because their target had not registered yet stay tagged until that
+ * student registers; the update that clears tags says so.
+ */
+public class LiveRegistrationIngest {
+  private final Classroom classroom;
+  private final Map<String, LocatedStudent> registry;
+  private final Map<String, LocatedStudent> byDocument = new HashMap<>();
+  private final Map<String, String> documentOf = new HashMap<>(); // Student id to document id
+  private final Map<String, Position> requested = new HashMap<>(); // Seat each student registered for
+  private final StudentPool pool = new StudentPool();
+  private final SeatCollisionTable seats;
+  private final Set<Claim> tagged = new HashSet<>(); // Admitted claims tagged UNKNOWN_TARGET
+  private int canonicalizedAt; // Pool replacement count at the last canonicalize
+
+  /**
+   * @param registry student id to student, shared with the caller and updated in place
+   */
+  public LiveRegistrationIngest(Classroom classroom, Map<String, LocatedStudent> registry) {
+    this(classroom, registry, SeatCollisionTable.Policy.FIRST_WRITE_WINS);
+  }
+
+  /**
+   * @param registry student id to student, shared with the caller and updated in place
+   * @param policy how to settle two registrations for the same seat
+   */
+  public LiveRegistrationIngest(Classroom classroom, Map<String, LocatedStudent> registry,
+      SeatCollisionTable.Policy policy) {
+    this.classroom = classroom;
+    this.registry = registry;
+    this.seats = new SeatCollisionTable(policy);
+  }
+
+  public List<ParsedChange> parse(List<RegistrationChange> changes) {
+    List<ParsedChange> parsed = new ArrayList<>(changes.size());
+    for (RegistrationChange change : changes) {
+      parsed.add(parse(change));
+    }
+    return parsed;
+  }
+
+  public ParsedChange parse(RegistrationChange change) {
+    LocatedStudent student = change.getType() == RegistrationChange.Type.REMOVED ? null
+        : RegistrationParser.parse(change.getData(), pool);
+    return new ParsedChange(change.getType(), change.getDocumentId(), student, change.getUpdateTime());
+  }
+
+  public Update apply(List<ParsedChange> changes) {
+    Update update = new Update();
+    for (ParsedChange change : changes) {
+      LocatedStudent previous = byDocument.remove(change.documentId);
+      if (previous != null) {
+        withdraw(previous, update);
+      }
+      if (change.type != RegistrationChange.Type.REMOVED && change.student != null) {
+        admit(change.documentId, change.student, change.updateTime, update);
+        if (byDocument.containsKey(change.documentId)) {
+          update.findings.addAll(change.findings);
+          for (ClaimValidator.Finding finding : change.findings) {
+            if (!finding.isRejected()) {
+              tagged.add(finding.getClaim());
+            }
+          }
+        }
+      }
+    }
+    if (!update.added.isEmpty()) {
+      resolveTags(update);
+    }
+    if (pool.getReplacementCount() != canonicalizedAt) {
+      // A new registration replaced the placeholder earlier claims point at
+      canonicalizedAt = pool.getReplacementCount();
+      update.retargeted = pool.canonicalize(registry.values()) > 0;
+    }
+    return update;
+  }
+
+  public Classroom getClassroom() {
+    return classroom;
+  }
+
+  /**
+   * The pool students are parsed into; its registered ids are the ones seen so far.
+   */
+  public StudentPool getPool() {
+    return pool;
+  }
+
+  /**
+   * Registered students currently without the seat they asked for.
+   */
+  public int countUnseated() {
+    int unseated = 0;
+    for (Map.Entry<String, Position> entry : requested.entrySet()) {
+      LocatedStudent student = registry.get(entry.getKey());
+      if (student != null && student.getPosition() == null) {
+        unseated++;
+      }
+    }
+    return unseated;
+  }
+
+  /**
+   * Seat claims and the collisions between them.
+   */
+  public SeatCollisionTable getSeatCollisions() {
+    return seats;
+  }
+
+  private void withdraw(LocatedStudent student, Update update) {
+    String id = student.getStudent().getId();
+    Position pos = student.getPosition();
+    if (pos != null && classroom.getAt(pos).orElse(null) == student) {
+      classroom.remove(pos);
+      touch(pos, update);
+    }
+    Position seat = requested.remove(id);
+    if (seat != null) {
+      Student successor = seats.release(seat, student.getStudent());
+      if (successor != null) {
+        seat(successor.getId(), seat, update);
+      }
+    }
+    if (registry.get(id) == student) {
+      registry.remove(id);
+      documentOf.remove(id);
+    }
+    tagged.removeAll(student.getClaims());
+    update.remove(student);
+  }
+
+  /**
+   * Clear the tag of claims whose target has registered since.
+   */
+  private void resolveTags(Update update) {
+    for (Iterator<Claim> it = tagged.iterator(); it.hasNext(); ) {
+      Claim claim = it.next();
+      if (pool.isRegistered(claim.getTarget().getId())) {
+        claim.clearTag();
+        it.remove();
+        update.tagsResolved = true;
+      }
+    }
+  }
+
+  private void admit(String documentId, LocatedStudent student, long updateTime, Update update) {
+    String id = student.getStudent().getId();
+    if (registry.containsKey(id)) {
+      // Another document already registered this student; the first one wins
+      update.skipped++;
+      return;
+    }
+    registry.put(id, student);
+    byDocument.put(documentId, student);
+    documentOf.put(id, documentId);
+    update.added.add(student);
+
+    Position pos = student.getPosition();
+    if (pos == null) {
+      return;
+    }
+    requested.put(id, pos);
+    if (!classroom.isInside(pos)) {
+      replace(student, unseated(student), update);
+      update.unseated++;
+      return;
+    }
+    SeatCollisionTable.Result result = seats.claim(pos, student.getStudent(), updateTime);
+    if (result.getDisplaced() != null) {
+      unseat(result.getDisplaced().getId(), pos, update);
+    }
+    if (result.getOutcome() == SeatCollisionTable.Outcome.SEATED) {
+      classroom.place(student);
+      touch(pos, update);
+    } else {
+      replace(student, unseated(student), update);
+      update.unseated++;
+    }
+  }
+
+  /**
+   * Move a seated student off their seat, after losing it to another registration.
+   */
+  private void unseat(String id, Position pos, Update update) {
+    LocatedStudent current = registry.get(id);
+    if (current == null) {
+      return;
+    }
+    if (classroom.getAt(pos).orElse(null) == current) {
+      classroom.remove(pos);
+      touch(pos, update);
+    }
+    replace(current, unseated(current), update);
+    update.unseated++;
+  }
+
+  /**
+   * Give a waiting student the seat they registered for.
+   */
+  private void seat(String id, Position pos, Update update) {
+    LocatedStudent current = registry.get(id);
+    if (current == null) {
+      return;
+    }
+    LocatedStudent seated = copy(current);
+    seated.setPosition(pos);
+    classroom.place(seated);
+    touch(pos, update);
+    replace(current, seated, update);
+  }
+
+  private void replace(LocatedStudent current, LocatedStudent replacement, Update update) {
+    String id = current.getStudent().getId();
+    registry.put(id, replacement);
+    String documentId = documentOf.get(id);
+    if (documentId != null) {
+      byDocument.put(documentId, replacement);
+    }
+    update.remove(current);
+    update.added.add(replacement);
+  }
+
+  /**
+   * Copy of a student without a seat, for registrations outside the room or on a taken seat.
+   */
+  private static LocatedStudent unseated(LocatedStudent student) {
+    return copy(student);
+  }
+
+  private static LocatedStudent copy(LocatedStudent student) {
+    LocatedStudent copy = new LocatedStudent(student.getStudent());
+    for (Claim claim : student.getClaims()) {
+      copy.addClaim(claim);
+    }
+    return copy;
+  }
+
+  private void touch(Position pos, Update update) {
+    update.touched.add(pos);
+    for (Direction direction : Direction.values()) {
+      Position neighbor = pos.getNeighbor(direction);
+      if (neighbor != null && classroom.isInside(neighbor)) {
+        update.touched.add(neighbor);
+      }
+    }
+  }
+
+  /**
+   * A registration change with its document already parsed; the student is null for
+   * removals and malformed documents.
+   */
+  public static class ParsedChange {
+    private final RegistrationChange.Type type;
+    private final String documentId;
+    private final LocatedStudent student;
+    private final long updateTime;
+    private List<ClaimValidator.Finding> findings = List.of(); // Set once, before the change is applied
+
+    public ParsedChange(RegistrationChange.Type type, String documentId, LocatedStudent student, long updateTime) {
+      this.type = type;
+      this.documentId = documentId;
+      this.student = student;
+      this.updateTime = updateTime;
+    }
+
+    public RegistrationChange.Type getType() {
+      return type;
+    }
+
+    public String getDocumentId() {
+      return documentId;
+    }
+
+    public LocatedStudent getStudent() {
+      return student;
+    }
+
+    public long getUpdateTime() {
+      return updateTime;
+    }
+
+    /**
+     * Claims of the student that validation rejected or tagged.
+     */
+    public List<ClaimValidator.Finding> getFindings() {
+      return findings;
+    }
+
+    void setFindings(List<ClaimValidator.Finding> findings) {
+      this.findings = findings;
+    }
+  }
+
+  /**
+   * What one {@link #apply} call changed.
+   */
+  public static class Update {
+    private final Set<Position> touched = new LinkedHashSet<>();
+    private final List<LocatedStudent> added = new ArrayList<>();
+    private final List<LocatedStudent> removed = new ArrayList<>();
+    private final List<ClaimValidator.Finding> findings = new ArrayList<>();
+    private int skipped;
+    private int unseated;
+    private boolean retargeted;
+    private boolean tagsResolved;
+
+    /**
+     * Report a student as gone; one added earlier in this update is simply dropped.
+     */
+    private void remove(LocatedStudent student) {
+      if (!added.remove(student)) {
+        removed.add(student);
+      }
+    }
+
+    public Set<Position> getTouched() {
+      return Collections.unmodifiableSet(touched);
+    }
+
+    public List<LocatedStudent> getAdded() {
+      return Collections.unmodifiableList(added);
+    }
+
+    public List<LocatedStudent> getRemoved() {
+      return Collections.unmodifiableList(removed);
+    }
+
+    /** Registrations ignored because their student was already registered. */
+    public int getSkipped() {
+      return skipped;
+    }
+
+    /** Students kept without a seat because theirs was outside the room, taken or contested. */
+    public int getUnseated() {
+      return unseated;
+    }
+
+    /**
+     * Whether claims already registered were pointed at a renamed student, so lists
+     * showing claim targets by name are out of date.
+     */
+    public boolean isRetargeted() {
+      return retargeted;
+    }
+
+    /**
+     * Claims rejected or tagged in the registrations this update admitted.
+     */
+    public List<ClaimValidator.Finding> getFindings() {
+      return Collections.unmodifiableList(findings);
+    }
+
+    /**
+     * Whether tagged claims were cleared because their target registered, so lists
+     * showing tags are out of date.
+     */
+    public boolean hasResolvedTags() {
+      return tagsResolved;
+    }
+  }
+}
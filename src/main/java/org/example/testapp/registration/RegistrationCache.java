@@ -0,0 +1,349 @@
+package org.example.testapp.registration;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Local mirror of the registrations plus an outbox of writes not yet confirmed by the
+ * remote source, persisted so both survive a restart.
+ *
+ * Local writes win over remote data until they are acknowledged, so a delta sync
+ * arriving before the outbox is flushed cannot undo them. The outbox keeps one write
+ * per document: a later write to the same document replaces or merges into the earlier
+ * one.
+ */
+public class RegistrationCache {
+  private static final int MAGIC = 0x57485243; // "WHRC"
+  private static final String SESSION_KEY = "\0session";
+
+  private static final byte NULL = 0;
+  private static final byte STRING = 1;
+  private static final byte LONG = 2;
+  private static final byte DOUBLE = 3;
+  private static final byte BOOLEAN = 4;
+  private static final byte LIST = 5;
+  private static final byte MAP = 6;
+
+  private final Path file;
+  private final NavigableMap<String, RegistrationDocument> documents = new TreeMap<>(); // By document id
+  private final Map<String, RegistrationWrite> outbox = new LinkedHashMap<>(); // By document key, oldest first
+  private Map<String, Object> session;
+  private long watermark; // Latest remote update time seen
+
+  private RegistrationCache(Path file) {
+    this.file = file;
+  }
+
+  /**
+   * Open the cache file, starting empty if it is missing or unreadable.
+   */
+  public static RegistrationCache open(Path file) {
+    RegistrationCache cache = new RegistrationCache(file);
+    if (Files.exists(file)) {
+      try {
+        cache.load();
+      } catch (IOException e) {
+        System.err.println("Ignoring unreadable registration cache: " + e.getMessage());
+        cache.documents.clear();
+        cache.outbox.clear();
+        cache.session = null;
+        cache.watermark = 0;
+      }
+    }
+    return cache;
+  }
+
+  public synchronized int size() {
+    return documents.size();
+  }
+
+  public synchronized long getWatermark() {
+    return watermark;
+  }
+
+  public synchronized Map<String, Object> getSession() {
+    return session;
+  }
+
+  /**
+   * Same paging contract as {@link RegistrationSource#fetchPage}.
+   */
+  public synchronized RegistrationPage page(String afterDocumentId, int pageSize) {
+    Map<String, RegistrationDocument> tail = afterDocumentId == null ? documents
+        : documents.tailMap(afterDocumentId, false);
+    List<RegistrationDocument> page = new ArrayList<>(Math.min(pageSize, tail.size()));
+    String last = afterDocumentId;
+    for (RegistrationDocument document : tail.values()) {
+      if (page.size() == pageSize) {
+        break;
+      }
+      page.add(document);
+      last = document.getId();
+    }
+    return new RegistrationPage(page, last, page.size() == pageSize);
+  }
+
+  public synchronized List<String> documentIds() {
+    return new ArrayList<>(documents.keySet());
+  }
+
+  /**
+   * Apply a local write and queue it for the remote source.
+   */
+  public synchronized void write(RegistrationWrite write) {
+    applyLocally(write);
+    String key = keyOf(write);
+    outbox.put(key, coalesce(outbox.remove(key), write));
+  }
+
+  public synchronized void writeAll(Collection<RegistrationWrite> writes) {
+    for (RegistrationWrite write : writes) {
+      write(write);
+    }
+  }
+
+  /**
+   * Snapshot of the queued writes, oldest first.
+   */
+  public synchronized List<RegistrationWrite> pendingWrites() {
+    return new ArrayList<>(outbox.values());
+  }
+
+  public synchronized boolean hasPendingWrites() {
+    return !outbox.isEmpty();
+  }
+
+  /**
+   * Drop writes the remote source has applied. A write queued for the same document
+   * since the snapshot was taken stays in the outbox.
+   */
+  public synchronized void acknowledge(List<RegistrationWrite> applied) {
+    for (RegistrationWrite write : applied) {
+      outbox.remove(keyOf(write), write);
+    }
+  }
+
+  /**
+   * Merge documents read from the remote source and advance the watermark.
+   */
+  public synchronized void mergeRemote(List<RegistrationDocument> remote) {
+    for (RegistrationDocument document : remote) {
+      if (!outbox.containsKey(document.getId())) {
+        documents.put(document.getId(), document);
+      }
+      watermark = Math.max(watermark, document.getUpdateTime());
+    }
+  }
+
+  /**
+   * Replace the mirror with a full read of the remote source, keeping queued writes.
+   */
+  public synchronized void replaceRemote(List<RegistrationDocument> remote) {
+    documents.clear();
+    watermark = 0;
+    mergeRemote(remote);
+    for (RegistrationWrite write : outbox.values()) {
+      applyLocally(write);
+    }
+  }
+
+  /**
+   * Mirror changes pushed by a live listener. These carry no update time, so the
+   * watermark is left alone and the next delta sync may read them again.
+   */
+  public synchronized void mirror(List<RegistrationChange> changes) {
+    for (RegistrationChange change : changes) {
+      String id = change.getDocumentId();
+      if (outbox.containsKey(id)) {
+        continue;
+      }
+      if (change.getType() == RegistrationChange.Type.REMOVED) {
+        documents.remove(id);
+      } else {
+        RegistrationDocument previous = documents.get(id);
+        long updateTime = previous != null ? previous.getUpdateTime() : 0;
+        documents.put(id, new RegistrationDocument(id, updateTime, change.getData()));
+      }
+    }
+  }
+
+  public synchronized void save() throws IOException {
+    Files.createDirectories(file.getParent());
+    Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+      out.writeInt(MAGIC);
+      out.writeLong(watermark);
+      writeValue(out, session);
+      out.writeInt(documents.size());
+      for (RegistrationDocument document : documents.values()) {
+        out.writeUTF(document.getId());
+        out.writeLong(document.getUpdateTime());
+        writeValue(out, document.getData());
+      }
+      out.writeInt(outbox.size());
+      for (RegistrationWrite write : outbox.values()) {
+        out.writeByte(write.getType().ordinal());
+        out.writeByte(write.getTarget().ordinal());
+        writeValue(out, write.getDocumentId());
+        writeValue(out, write.getData());
+      }
+    }
+    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void load() throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Unrecognized registration cache format");
+      }
+      watermark = in.readLong();
+      session = (Map<String, Object>) readValue(in);
+      int documentCount = in.readInt();
+      for (int i = 0; i < documentCount; i++) {
+        String id = in.readUTF();
+        long updateTime = in.readLong();
+        documents.put(id, new RegistrationDocument(id, updateTime, (Map<String, Object>) readValue(in)));
+      }
+      int writeCount = in.readInt();
+      for (int i = 0; i < writeCount; i++) {
+        RegistrationWrite.Type type = RegistrationWrite.Type.values()[in.readByte()];
+        RegistrationWrite.Target target = RegistrationWrite.Target.values()[in.readByte()];
+        String documentId = (String) readValue(in);
+        RegistrationWrite write = RegistrationWrite.of(type, target, documentId,
+            (Map<String, Object>) readValue(in));
+        outbox.put(keyOf(write), write);
+      }
+    } catch (ClassCastException | ArrayIndexOutOfBoundsException e) {
+      throw new IOException("Corrupt registration cache", e);
+    }
+  }
+
+  private void applyLocally(RegistrationWrite write) {
+    if (write.getTarget() == RegistrationWrite.Target.SESSION) {
+      switch (write.getType()) {
+        case PUT -> session = new HashMap<>(write.getData());
+        case MERGE -> {
+          Map<String, Object> merged = session != null ? new HashMap<>(session) : new HashMap<>();
+          merged.putAll(write.getData());
+          session = merged;
+        }
+        case DELETE -> session = null;
+      }
+      return;
+    }
+    String id = write.getDocumentId();
+    switch (write.getType()) {
+      case PUT -> documents.put(id, new RegistrationDocument(id, System.currentTimeMillis(), write.getData()));
+      case MERGE -> {
+        RegistrationDocument previous = documents.get(id);
+        Map<String, Object> merged = previous != null ? new HashMap<>(previous.getData()) : new HashMap<>();
+        merged.putAll(write.getData());
+        documents.put(id, new RegistrationDocument(id, System.currentTimeMillis(), merged));
+      }
+      case DELETE -> documents.remove(id);
+    }
+  }
+
+  /**
+   * Combine a queued write with a newer one for the same document into a single write
+   * with the same effect.
+   */
+  private static RegistrationWrite coalesce(RegistrationWrite earlier, RegistrationWrite later) {
+    if (earlier == null || later.getType() != RegistrationWrite.Type.MERGE) {
+      return later;
+    }
+    if (earlier.getType() == RegistrationWrite.Type.DELETE) {
+      // Merging into a deleted document creates it with just the merged fields
+      return RegistrationWrite.of(RegistrationWrite.Type.PUT, later.getTarget(), later.getDocumentId(),
+          later.getData());
+    }
+    Map<String, Object> merged = new HashMap<>(earlier.getData());
+    merged.putAll(later.getData());
+    return RegistrationWrite.of(earlier.getType(), later.getTarget(), later.getDocumentId(), merged);
+  }
+
+  private static String keyOf(RegistrationWrite write) {
+    return write.getTarget() == RegistrationWrite.Target.SESSION ? SESSION_KEY : write.getDocumentId();
+  }
+
+  private static void writeValue(DataOutputStream out, Object value) throws IOException {
+    if (value == null) {
+      out.writeByte(NULL);
+    } else if (value instanceof Boolean b) {
+      out.writeByte(BOOLEAN);
+      out.writeBoolean(b);
+    } else if (value instanceof Double || value instanceof Float) {
+      out.writeByte(DOUBLE);
+      out.writeDouble(((Number) value).doubleValue());
+    } else if (value instanceof Number n) {
+      out.writeByte(LONG);
+      out.writeLong(n.longValue());
+    } else if (value instanceof List<?> list) {
+      out.writeByte(LIST);
+      out.writeInt(list.size());
+      for (Object element : list) {
+        writeValue(out, element);
+      }
+    } else if (value instanceof Map<?, ?> map) {
+      out.writeByte(MAP);
+      out.writeInt(map.size());
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        out.writeUTF(String.valueOf(entry.getKey()));
+        writeValue(out, entry.getValue());
+      }
+    } else {
+      // Timestamps, references and other backend types are kept as text
+      out.writeByte(STRING);
+      out.writeUTF(value.toString());
+    }
+  }
+
+  private static Object readValue(DataInputStream in) throws IOException {
+    byte tag = in.readByte();
+    switch (tag) {
+      case NULL:
+        return null;
+      case STRING:
+        return in.readUTF();
+      case LONG:
+        return in.readLong();
+      case DOUBLE:
+        return in.readDouble();
+      case BOOLEAN:
+        return in.readBoolean();
+      case LIST: {
+        int size = in.readInt();
+        List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          list.add(readValue(in));
+        }
+        return list;
+      }
+      case MAP: {
+        int size = in.readInt();
+        Map<String, Object> map = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+          map.put(in.readUTF(), readValue(in));
+        }
+        return map;
+      }
+      default:
+        throw new IOException("Unknown value tag " + tag);
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package org.example.testapp.registration;
+
+import java.util.Map;
+
+/**
+ * One added, modified or removed registration document.
+ */
+public class RegistrationChange {
+  public enum Type {
+    ADDED,
+    MODIFIED,
+    REMOVED
+  }
+
+  private final Type type;
+  private final String documentId;
+  private final Map<String, Object> data;
+  private final long updateTime;
+
+  public RegistrationChange(Type type, String documentId, Map<String, Object> data) {
+    this(type, documentId, data, 0);
+  }
+
+  /**
+   * @param updateTime when the document was written, in epoch millis, or 0 if unknown
+   */
+  public RegistrationChange(Type type, String documentId, Map<String, Object> data, long updateTime) {
+    this.type = type;
+    this.documentId = documentId;
+    this.data = data;
+    this.updateTime = updateTime;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public String getDocumentId() {
+    return documentId;
+  }
+
+  /**
+   * The document's fields, or null for a removal.
+   */
+  public Map<String, Object> getData() {
+    return data;
+  }
+
+  /**
+   * When the document was written, in epoch millis, or 0 if the source did not say.
+   */
+  public long getUpdateTime() {
+    return updateTime;
+  }
+}
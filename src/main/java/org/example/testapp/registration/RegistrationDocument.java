@@ -0,0 +1,33 @@
+package org.example.testapp.registration;
+
+import java.util.Map;
+
+/**
+ * A registration document with its id and last update time.
+ */
+public class RegistrationDocument {
+  private final String id;
+  private final long updateTime;
+  private final Map<String, Object> data;
+
+  public RegistrationDocument(String id, long updateTime, Map<String, Object> data) {
+    this.id = id;
+    this.updateTime = updateTime;
+    this.data = data;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * Last update time in epoch milliseconds, used as the delta sync watermark.
+   */
+  public long getUpdateTime() {
+    return updateTime;
+  }
+
+  public Map<String, Object> getData() {
+    return data;
+  }
+}
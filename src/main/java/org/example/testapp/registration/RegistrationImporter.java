@@ -0,0 +1,209 @@
+package org.example.testapp.registration;
+
+import org.example.testapp.entities.Claim;
+import org.example.testapp.entities.Classroom;
+import org.example.testapp.entities.LocatedStudent;
+import org.example.testapp.verification.ClaimValidator;
+import org.example.testapp.verification.SeatCollisionTable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Asynchronous registration import.
+ *
+ * The pipeline closes registration, reads registrations page by page and streams them
+ * through an {@link IngestPipeline}. The next page is requested as soon as the current
+ * one arrives, but a page is only handed over as fast as the pipeline drains, so at most
+ * two pages of raw documents plus the stage buffers are held at once. Nothing touches
+ * the UI; the caller receives the finished {@link ImportResult} in one piece and
+ * publishes it on its own thread.
+ */
+public class RegistrationImporter {
+  public static final int DEFAULT_PAGE_SIZE = 300;
+  private static final int MAX_ROOM_SIZE = 500; // Seats beyond this are treated as bogus
+
+  private final RegistrationSource source;
+  private final Executor executor;
+  private final int pageSize;
+  private final SeatCollisionTable.Policy seatPolicy;
+
+  public RegistrationImporter(RegistrationSource source, Executor executor) {
+    this(source, executor, DEFAULT_PAGE_SIZE);
+  }
+
+  public RegistrationImporter(RegistrationSource source, Executor executor, int pageSize) {
+    this(source, executor, pageSize, SeatCollisionTable.Policy.FIRST_WRITE_WINS);
+  }
+
+  /**
+   * @param seatPolicy how to settle two registrations for the same seat
+   */
+  public RegistrationImporter(RegistrationSource source, Executor executor, int pageSize,
+      SeatCollisionTable.Policy seatPolicy) {
+    if (pageSize <= 0)
+      throw new IllegalArgumentException("Page size must be > 0");
+    this.source = source;
+    this.executor = executor;
+    this.pageSize = pageSize;
+    this.seatPolicy = seatPolicy;
+  }
+
+  /**
+   * Start an import.
+   *
+   * @param fallbackRows rows to use when no registration has a seat
+   * @param fallbackCols columns to use when no registration has a seat
+   * @param progress receives -1 while the total is unknown, then the ingested fraction
+   *                 (0..1); called from background threads
+   */
+  public ImportTask start(int fallbackRows, int fallbackCols, DoubleConsumer progress) {
+    ImportTask task = new ImportTask();
+    progress.accept(-1);
+
+    // Students are placed into a working room large enough for any plausible seat; the
+    // result is re-placed into a room sized from the registrations once all are in
+    Map<String, LocatedStudent> registry = new LinkedHashMap<>();
+    LiveRegistrationIngest ingest = new LiveRegistrationIngest(new Classroom(MAX_ROOM_SIZE, MAX_ROOM_SIZE), registry,
+        seatPolicy);
+    int[] counts = new int[2]; // Ingested, skipped as duplicates
+    List<ClaimValidator.Finding> findings = new ArrayList<>(); // Only touched by the consumer, then build
+    CompletableFuture<Long> total = source.countRegistrations().exceptionally(error -> -1L);
+    IngestPipeline pipeline = new IngestPipeline(ingest, null, null, null, updates -> {
+      for (IngestPipeline.ScoredUpdate scored : updates) {
+        counts[0]++;
+        counts[1] += scored.getUpdate().getSkipped();
+        for (ClaimValidator.Finding finding : scored.getUpdate().getFindings()) {
+          if (finding.isRejected()) { // A tag may still resolve; the final check decides
+            findings.add(finding);
+          }
+        }
+      }
+      long expected = total.getNow(-1L);
+      if (expected > 0) {
+        progress.accept(Math.min(1.0, (double) counts[0] / expected));
+      }
+    });
+    task.pipeline = pipeline;
+
+    source.closeRegistration()
+        .thenCompose(closed -> readPages(source.fetchPage(null, pageSize), pipeline, task))
+        .thenCompose(read -> {
+          pipeline.close();
+          return pipeline.getCompletion();
+        })
+        .thenApplyAsync(done -> {
+          long dropped = pipeline.getMetrics().stream().mapToLong(IngestStage.Metrics::getDropped).sum();
+          return build(new ArrayList<>(registry.values()), counts[1] + (int) dropped, ingest.countUnseated(),
+              (int) pipeline.getClaimValidator().getRejectedCount(), findings, ingest.getSeatCollisions(),
+              pipeline.getSummary(), fallbackRows, fallbackCols);
+        }, executor)
+        .whenComplete((result, error) -> {
+          if (error != null) {
+            pipeline.cancel();
+            task.result.completeExceptionally(error);
+          } else {
+            task.result.complete(result);
+          }
+        });
+    return task;
+  }
+
+  /**
+   * Hand the pending page to the pipeline while the next one is fetched, then continue
+   * with the next once the pipeline has taken the whole page.
+   */
+  private CompletableFuture<Void> readPages(CompletableFuture<RegistrationPage> pending, IngestPipeline pipeline,
+      ImportTask task) {
+    return pending.thenCompose(page -> {
+      if (task.isCancelled()) {
+        throw new CancellationException();
+      }
+      CompletableFuture<RegistrationPage> next = page.hasMore()
+          ? source.fetchPage(page.getLastDocumentId(), pageSize)
+          : null;
+      List<RegistrationChange> changes = new ArrayList<>(page.getDocuments().size());
+      for (RegistrationDocument document : page.getDocuments()) {
+        changes.add(new RegistrationChange(RegistrationChange.Type.ADDED, document.getId(), document.getData(),
+            document.getUpdateTime()));
+      }
+      return pipeline.submit(changes).thenCompose(accepted -> next != null ? readPages(next, pipeline, task)
+          : CompletableFuture.<Void>completedFuture(null));
+    });
+  }
+
+  private static ImportResult build(List<LocatedStudent> students, int skipped, int unseated, int rejectedClaims,
+      List<ClaimValidator.Finding> findings, SeatCollisionTable seatCollisions, String pipelineSummary,
+      int fallbackRows, int fallbackCols) {
+    int maxRow = -1;
+    int maxCol = -1;
+    for (LocatedStudent located : students) {
+      if (located.getPosition() != null) {
+        maxRow = Math.max(maxRow, located.getPosition().row());
+        maxCol = Math.max(maxCol, located.getPosition().col());
+      }
+    }
+
+    int rowsCount = maxRow >= 0 ? maxRow + 1 : Math.max(3, fallbackRows);
+    int colsCount = maxCol >= 0 ? maxCol + 1 : Math.max(3, fallbackCols);
+    Classroom classroom = new Classroom(rowsCount, colsCount);
+    Set<String> ids = new HashSet<>();
+    for (LocatedStudent located : students) {
+      ids.add(located.getStudent().getId());
+      if (located.getPosition() != null)
+        classroom.place(located);
+    }
+
+    // Every registration is in and the room has its final size, so claims about students
+    // who never registered, or past the edge of the room, can now be dropped
+    ClaimValidator finalCheck = new ClaimValidator(classroom, ids::contains, true);
+    for (LocatedStudent located : students) {
+      findings.addAll(finalCheck.validate(located));
+      for (Claim claim : located.getClaims()) {
+        claim.clearTag(); // Every registration is in, so a claim still kept names a known student
+      }
+    }
+    return new ImportResult(classroom, students, skipped, unseated,
+        rejectedClaims + (int) finalCheck.getRejectedCount(), findings, seatCollisions, pipelineSummary);
+  }
+
+  /**
+   * Handle on a running import.
+   */
+  public static class ImportTask {
+    private final CompletableFuture<ImportResult> result = new CompletableFuture<>();
+    private volatile IngestPipeline pipeline;
+    private volatile boolean cancelled;
+
+    /**
+     * Completes with the import result, exceptionally on failure, or is cancelled.
+     */
+    public CompletableFuture<ImportResult> getResult() {
+      return result;
+    }
+
+    /**
+     * Stop the import. Registrations not yet ingested are dropped and the result is cancelled.
+     */
+    public void cancel() {
+      cancelled = true;
+      // Before the pipeline, whose failure would otherwise complete the result first
+      result.cancel(false);
+      if (pipeline != null) {
+        pipeline.cancel();
+      }
+    }
+
+    public boolean isCancelled() {
+      return cancelled;
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package org.example.testapp.registration;
+
+import java.util.List;
+
+/**
+ * Receives registration changes as they happen. Called on a background thread.
+ */
+public interface RegistrationListener {
+
+  /**
+   * A batch of changes. The first batch after subscribing contains every existing
+   * registration as {@link RegistrationChange.Type#ADDED}.
+   */
+  void onChanges(List<RegistrationChange> changes);
+
+  default void onError(Throwable error) {
+    System.err.println("Registration listener failed: " + error.getMessage());
+  }
+}
@@ -0,0 +1,33 @@
+package org.example.testapp.registration;
+
+import java.util.List;
+
+/**
+ * One page of registrations in document id order, with the cursor for the next page.
+ */
+public class RegistrationPage {
+  private final List<RegistrationDocument> documents;
+  private final String lastDocumentId;
+  private final boolean hasMore;
+
+  public RegistrationPage(List<RegistrationDocument> documents, String lastDocumentId, boolean hasMore) {
+    this.documents = documents;
+    this.lastDocumentId = lastDocumentId;
+    this.hasMore = hasMore;
+  }
+
+  public List<RegistrationDocument> getDocuments() {
+    return documents;
+  }
+
+  /**
+   * Cursor to pass to {@link RegistrationSource#fetchPage} for the following page.
+   */
+  public String getLastDocumentId() {
+    return lastDocumentId;
+  }
+
+  public boolean hasMore() {
+    return hasMore;
+  }
+}
@@ -0,0 +1,75 @@
+package org.example.testapp.registration;
+
+import org.example.testapp.entities.Claim;
+import org.example.testapp.entities.Direction;
+import org.example.testapp.entities.LocatedStudent;
+import org.example.testapp.entities.Position;
+import org.example.testapp.entities.StudentPool;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns one registration document into a {@link LocatedStudent} with its claims.
+ * Students come from the given {@link StudentPool}, which is thread-safe, so documents
+ * can be parsed on any thread.
+ */
+public final class RegistrationParser {
+
+  private RegistrationParser() {
+  }
+
+  /**
+   * Parse a registration, or return null if it has no student id or is malformed.
+   */
+  @SuppressWarnings("unchecked")
+  public static LocatedStudent parse(Map<String, Object> doc, StudentPool pool) {
+    try {
+      String studentId = (String) doc.get("studentId");
+      String name = (String) doc.get("name");
+      if (studentId == null || studentId.isEmpty()) {
+        return null;
+      }
+
+      LocatedStudent located = new LocatedStudent(pool.intern(studentId, name));
+
+      Integer row = intValue(doc.get("row"));
+      Integer col = intValue(doc.get("col"));
+      if (row != null && col != null && row >= 0 && col >= 0) {
+        located.setPosition(new Position(row, col));
+      }
+
+      List<Map<String, Object>> claimsList = (List<Map<String, Object>>) doc.get("claims");
+      if (claimsList == null)
+        claimsList = (List<Map<String, Object>>) doc.get("neighborClaims");
+
+      if (claimsList != null) {
+        for (Map<String, Object> claimMap : claimsList) {
+          String dirStr = (String) claimMap.get("direction");
+          if (dirStr == null)
+            continue;
+          Direction direction = Direction.valueOf(dirStr.toUpperCase());
+
+          Object targetObj = claimMap.get("student");
+          if (targetObj == null) {
+            located.addClaim(new Claim(direction, null));
+          } else {
+            String targetId = (targetObj instanceof Map) ? ((Map<String, String>) targetObj).get("studentId")
+                : targetObj.toString();
+            String targetName = (targetObj instanceof Map) ? ((Map<String, String>) targetObj).get("name")
+                : targetId;
+            located.addClaim(new Claim(direction, pool.reference(targetId, targetName)));
+          }
+        }
+      }
+      return located;
+    } catch (RuntimeException e) {
+      System.err.println("Error processing doc: " + e.getMessage());
+      return null;
+    }
+  }
+
+  private static Integer intValue(Object value) {
+    return value instanceof Number number ? number.intValue() : null;
+  }
+}
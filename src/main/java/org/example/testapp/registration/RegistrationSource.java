@@ -0,0 +1,75 @@
+package org.example.testapp.registration;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Where students register their seat and neighbour claims.
+ *
+ * Registrations are exchanged as plain field maps (the same shape as a Firestore
+ * document's data), so the import pipeline does not depend on a particular backend.
+ * Every operation is asynchronous and must not block the calling thread.
+ */
+public interface RegistrationSource {
+
+  /**
+   * Remove earlier registrations and publish the setup document for a new class.
+   */
+  CompletableFuture<Void> openRegistration(Map<String, Object> setup);
+
+  /**
+   * Mark registration as closed so no more students can submit.
+   */
+  CompletableFuture<Void> closeRegistration();
+
+  /**
+   * Fetch up to {@code pageSize} registrations in document id order, starting after
+   * the given document id (null for the first page).
+   */
+  CompletableFuture<RegistrationPage> fetchPage(String afterDocumentId, int pageSize);
+
+  /**
+   * Number of registrations, or -1 if the source cannot tell cheaply.
+   */
+  CompletableFuture<Long> countRegistrations();
+
+  /**
+   * Registrations updated after {@code sinceMillis}. Used for delta sync; removals are
+   * not reported.
+   */
+  CompletableFuture<List<RegistrationDocument>> fetchChangedSince(long sinceMillis);
+
+  /**
+   * Whether every registration carries the update time {@link #fetchChangedSince} filters
+   * on. When some do not, a delta sync would miss them, so callers read everything instead.
+   */
+  default CompletableFuture<Boolean> tracksUpdateTimes() {
+    return CompletableFuture.completedFuture(true);
+  }
+
+  /**
+   * Apply outbound writes, at most one per document. Fails if any write was not applied.
+   */
+  CompletableFuture<Void> applyWrites(List<RegistrationWrite> writes);
+
+  /**
+   * Delete all registrations; completes with the number removed.
+   */
+  CompletableFuture<Integer> clearRegistrations();
+
+  /**
+   * Delete the setup document so students see the session is over.
+   */
+  CompletableFuture<Void> endSession();
+
+  /**
+   * Follow registrations as they are added, modified and removed until the returned
+   * subscription is cancelled.
+   */
+  Subscription listen(RegistrationListener listener);
+
+  interface Subscription {
+    void cancel();
+  }
+}
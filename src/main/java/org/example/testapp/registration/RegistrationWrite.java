@@ -0,0 +1,80 @@
+package org.example.testapp.registration;
+
+import java.util.Map;
+
+/**
+ * An outbound write to a registration document or to the session setup document.
+ */
+public class RegistrationWrite {
+  public enum Type {
+    PUT,
+    MERGE,
+    DELETE
+  }
+
+  public enum Target {
+    REGISTRATION,
+    SESSION
+  }
+
+  private final Type type;
+  private final Target target;
+  private final String documentId;
+  private final Map<String, Object> data;
+
+  private RegistrationWrite(Type type, Target target, String documentId, Map<String, Object> data) {
+    this.type = type;
+    this.target = target;
+    this.documentId = documentId;
+    this.data = data;
+  }
+
+  public static RegistrationWrite deleteRegistration(String documentId) {
+    return new RegistrationWrite(Type.DELETE, Target.REGISTRATION, documentId, null);
+  }
+
+  public static RegistrationWrite putRegistration(String documentId, Map<String, Object> data) {
+    return new RegistrationWrite(Type.PUT, Target.REGISTRATION, documentId, data);
+  }
+
+  public static RegistrationWrite putSession(Map<String, Object> data) {
+    return new RegistrationWrite(Type.PUT, Target.SESSION, null, data);
+  }
+
+  /**
+   * Update only the given fields of the session document.
+   */
+  public static RegistrationWrite mergeSession(Map<String, Object> data) {
+    return new RegistrationWrite(Type.MERGE, Target.SESSION, null, data);
+  }
+
+  public static RegistrationWrite deleteSession() {
+    return new RegistrationWrite(Type.DELETE, Target.SESSION, null, null);
+  }
+
+  static RegistrationWrite of(Type type, Target target, String documentId, Map<String, Object> data) {
+    return new RegistrationWrite(type, target, documentId, data);
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public Target getTarget() {
+    return target;
+  }
+
+  /**
+   * Registration document id; null for session writes.
+   */
+  public String getDocumentId() {
+    return documentId;
+  }
+
+  /**
+   * Fields to write; null for deletes.
+   */
+  public Map<String, Object> getData() {
+    return data;
+  }
+}
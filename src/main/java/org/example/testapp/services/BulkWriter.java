@@ -0,0 +1,239 @@
+package org.example.testapp.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Splits a list of write operations into batch-sized chunks and commits them with
+ * bounded parallelism, retrying failed chunks with exponential backoff.
+ *
+ * The actual commit is delegated to a {@link ChunkCommitter}, so the same writer drives
+ * Firestore {@code WriteBatch}es or a local fake.
+ */
+public class BulkWriter<T> {
+    /** Firestore rejects batches with more than 500 operations. */
+    public static final int MAX_BATCH_SIZE = 500;
+
+    private final ChunkCommitter<T> committer;
+    private final ScheduledExecutorService scheduler;
+    private final int batchSize;
+    private final int maxConcurrency;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final Metrics metrics = new Metrics();
+
+    /**
+     * Commits one chunk; the returned future fails if the chunk was not written.
+     */
+    @FunctionalInterface
+    public interface ChunkCommitter<T> {
+        CompletableFuture<?> commit(List<T> chunk);
+    }
+
+    public BulkWriter(ChunkCommitter<T> committer, ScheduledExecutorService scheduler) {
+        this(committer, scheduler, MAX_BATCH_SIZE, 4, 5, 200);
+    }
+
+    public BulkWriter(ChunkCommitter<T> committer, ScheduledExecutorService scheduler, int batchSize,
+                      int maxConcurrency, int maxAttempts, long initialBackoffMillis) {
+        if (batchSize <= 0 || batchSize > MAX_BATCH_SIZE)
+            throw new IllegalArgumentException("Batch size must be between 1 and " + MAX_BATCH_SIZE);
+        if (maxConcurrency <= 0 || maxAttempts <= 0)
+            throw new IllegalArgumentException("Concurrency and attempts must be > 0");
+
+        this.committer = committer;
+        this.scheduler = scheduler;
+        this.batchSize = batchSize;
+        this.maxConcurrency = maxConcurrency;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+    }
+
+    /**
+     * Write all operations. The future always completes normally; failed chunks are
+     * reported in the result after their last attempt.
+     */
+    public CompletableFuture<Result> write(List<T> operations) {
+        long start = System.nanoTime();
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < operations.size(); from += batchSize) {
+            chunks.add(operations.subList(from, Math.min(operations.size(), from + batchSize)));
+        }
+
+        ChunkResult[] results = new ChunkResult[chunks.size()];
+        CompletableFuture<Result> done = new CompletableFuture<>();
+        if (chunks.isEmpty()) {
+            done.complete(new Result(List.of(), 0));
+            return done;
+        }
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(chunks.size());
+        Runnable[] startNext = new Runnable[1];
+        startNext[0] = () -> {
+            int index = next.getAndIncrement();
+            if (index >= chunks.size()) {
+                return;
+            }
+            commitWithRetry(index, chunks.get(index), 1, System.nanoTime()).thenAccept(result -> {
+                results[index] = result;
+                if (remaining.decrementAndGet() == 0) {
+                    long elapsed = System.nanoTime() - start;
+                    List<ChunkResult> all = new ArrayList<>(results.length);
+                    Collections.addAll(all, results);
+                    Result total = new Result(all, TimeUnit.NANOSECONDS.toMillis(elapsed));
+                    metrics.record(total.getWritten(), elapsed);
+                    done.complete(total);
+                } else {
+                    startNext[0].run();
+                }
+            });
+        };
+        for (int i = 0; i < Math.min(maxConcurrency, chunks.size()); i++) {
+            startNext[0].run();
+        }
+        return done;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    private CompletableFuture<ChunkResult> commitWithRetry(int index, List<T> chunk, int attempt, long start) {
+        CompletableFuture<?> commit;
+        try {
+            commit = committer.commit(chunk);
+        } catch (RuntimeException e) {
+            commit = CompletableFuture.failedFuture(e);
+        }
+        return commit.handle((ignored, error) -> error).thenCompose(error -> {
+            if (error == null) {
+                metrics.chunksCommitted.incrementAndGet();
+                return CompletableFuture.completedFuture(new ChunkResult(index, chunk.size(), attempt, null,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+            }
+            if (attempt >= maxAttempts) {
+                metrics.chunksFailed.incrementAndGet();
+                return CompletableFuture.completedFuture(new ChunkResult(index, chunk.size(), attempt, error,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+            }
+            metrics.retries.incrementAndGet();
+            // Exponential backoff with jitter so parallel chunks don't retry in lockstep
+            long backoff = initialBackoffMillis << (attempt - 1);
+            long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+            CompletableFuture<ChunkResult> retry = new CompletableFuture<>();
+            scheduler.schedule(() -> commitWithRetry(index, chunk, attempt + 1, start).thenAccept(retry::complete),
+                    delay, TimeUnit.MILLISECONDS);
+            return retry;
+        });
+    }
+
+    /**
+     * Outcome of one chunk after its last attempt.
+     */
+    public static class ChunkResult {
+        private final int index;
+        private final int size;
+        private final int attempts;
+        private final Throwable error;
+        private final long elapsedMillis;
+
+        ChunkResult(int index, int size, int attempts, Throwable error, long elapsedMillis) {
+            this.index = index;
+            this.size = size;
+            this.attempts = attempts;
+            this.error = error;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public int getIndex() { return index; }
+        public int getSize() { return size; }
+        public int getAttempts() { return attempts; }
+        public boolean isSuccessful() { return error == null; }
+        public Throwable getError() { return error; }
+        public long getElapsedMillis() { return elapsedMillis; }
+    }
+
+    /**
+     * Outcome of one {@link #write} call, with a result per chunk in chunk order.
+     */
+    public static class Result {
+        private final List<ChunkResult> chunks;
+        private final long elapsedMillis;
+
+        Result(List<ChunkResult> chunks, long elapsedMillis) {
+            this.chunks = chunks;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public List<ChunkResult> getChunks() {
+            return chunks;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public boolean isSuccessful() {
+            return chunks.stream().allMatch(ChunkResult::isSuccessful);
+        }
+
+        public int getWritten() {
+            return chunks.stream().filter(ChunkResult::isSuccessful).mapToInt(ChunkResult::getSize).sum();
+        }
+
+        public int getFailed() {
+            return chunks.stream().filter(c -> !c.isSuccessful()).mapToInt(ChunkResult::getSize).sum();
+        }
+
+        public double getOperationsPerSecond() {
+            return elapsedMillis > 0 ? getWritten() * 1000.0 / elapsedMillis : getWritten();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d written, %d failed in %d chunks, %d ms (%.0f ops/s)",
+                    getWritten(), getFailed(), chunks.size(), elapsedMillis, getOperationsPerSecond());
+        }
+    }
+
+    /**
+     * Running totals across all writes made by this writer.
+     */
+    public static class Metrics {
+        private final AtomicLong chunksCommitted = new AtomicLong();
+        private final AtomicLong chunksFailed = new AtomicLong();
+        private final AtomicLong retries = new AtomicLong();
+        private final AtomicLong operations = new AtomicLong(); // Successfully written
+        private final AtomicLong busyNanos = new AtomicLong();
+
+        private void record(int operationCount, long elapsedNanos) {
+            operations.addAndGet(operationCount);
+            busyNanos.addAndGet(elapsedNanos);
+        }
+
+        public long getChunksCommitted() { return chunksCommitted.get(); }
+        public long getChunksFailed() { return chunksFailed.get(); }
+        public long getRetries() { return retries.get(); }
+        public long getOperations() { return operations.get(); }
+
+        /** Operations per second averaged over the time spent writing. */
+        public double getThroughput() {
+            long nanos = busyNanos.get();
+            return nanos > 0 ? operations.get() * 1e9 / nanos : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d written, %d chunks committed, %d failed, %d retries (%.0f ops/s)",
+                    getOperations(), getChunksCommitted(), getChunksFailed(), getRetries(), getThroughput());
+        }
+    }
+}
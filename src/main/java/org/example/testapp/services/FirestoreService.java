@@ -1,6 +1,8 @@
 package org.example.testapp.services;
 
 import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.firestore.*;
 import com.google.firebase.FirebaseApp;
@@ -10,11 +12,26 @@ import com.google.firebase.cloud.FirestoreClient;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
 
 public class FirestoreService {
     private static Firestore firestore;
     private static boolean initialized = false;
+    public static final int DEFAULT_PAGE_SIZE = 500;
+    // Runs Firestore callbacks and bulk-write retries
+    private static final ScheduledExecutorService SCHEDULER = Executors.newScheduledThreadPool(2, r -> {
+        Thread thread = new Thread(r, "firestore-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Shared by every bulk write to the same Firestore, so its metrics cover them all
+    private static BulkWriter<Consumer<WriteBatch>> bulkWriter;
+    private static Firestore bulkWriterDb;
 
     public static synchronized void initialize() {
         if (initialized) return; // Check initialized flag instead of firestore
@@ -64,6 +81,56 @@ public class FirestoreService {
         return initialized && firestore != null;
     }
 
+    /**
+     * Adapt an ApiFuture to a CompletableFuture, completing it from the given executor.
+     */
+    public static <T> CompletableFuture<T> toCompletable(ApiFuture<T> future, Executor executor) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        ApiFutures.addCallback(future, new ApiFutureCallback<T>() {
+            @Override
+            public void onFailure(Throwable t) {
+                result.completeExceptionally(t);
+            }
+
+            @Override
+            public void onSuccess(T value) {
+                result.complete(value);
+            }
+        }, executor);
+        return result;
+    }
+
+    /**
+     * Bulk writer whose operations each add one write to a WriteBatch. Chunks of up to
+     * 500 operations are committed as separate batches, four at a time. One writer is
+     * kept per Firestore instance and handed to every caller.
+     */
+    public static synchronized BulkWriter<Consumer<WriteBatch>> bulkWriter(Firestore db) {
+        if (bulkWriter == null || bulkWriterDb != db) {
+            bulkWriter = createBulkWriter(db);
+            bulkWriterDb = db;
+        }
+        return bulkWriter;
+    }
+
+    /**
+     * Running totals of the bulk writes made through {@link #bulkWriter}, or null before
+     * the first one.
+     */
+    public static synchronized BulkWriter.Metrics getBulkWriteMetrics() {
+        return bulkWriter != null ? bulkWriter.getMetrics() : null;
+    }
+
+    private static BulkWriter<Consumer<WriteBatch>> createBulkWriter(Firestore db) {
+        return new BulkWriter<>(chunk -> {
+            WriteBatch batch = db.batch();
+            for (Consumer<WriteBatch> operation : chunk) {
+                operation.accept(batch);
+            }
+            return toCompletable(batch.commit(), SCHEDULER);
+        }, SCHEDULER);
+    }
+
     /**
      * Push all students from a classroom to Firestore
      */
@@ -75,8 +142,8 @@ public class FirestoreService {
             CollectionReference classroomRef = db.collection("classrooms").document(classroomId)
                     .collection("students");
 
-            // Batch write for better performance
-            WriteBatch batch = db.batch();
+            // Batched writes, split to stay under the per-batch operation limit
+            List<Consumer<WriteBatch>> operations = new ArrayList<>(students.size());
 
             for (org.example.testapp.entities.Student student : students) {
                 String studentId = student.getId();
@@ -90,13 +157,17 @@ public class FirestoreService {
 
 
                 DocumentReference studentDoc = classroomRef.document(studentId);
-                batch.set(studentDoc, studentData);
+                operations.add(batch -> batch.set(studentDoc, studentData));
             }
 
-            // Commit the batch
-            batch.commit().get();
-            System.out.println("Successfully pushed " + students.size() + " students to Firestore");
-            return true;
+            BulkWriter.Result result = bulkWriter(db).write(operations).get();
+            for (BulkWriter.ChunkResult chunk : result.getChunks()) {
+                if (!chunk.isSuccessful()) {
+                    System.err.println("Chunk " + chunk.getIndex() + " failed after " + chunk.getAttempts()
+                            + " attempts: " + chunk.getError().getMessage());
+                }
+            }
+            return result.isSuccessful();
 
         } catch (Exception e) {
             System.err.println("Error pushing classroom to Firestore: " + e.getMessage());
@@ -110,26 +181,38 @@ public class FirestoreService {
      */
     public static List<org.example.testapp.entities.Student> getClassroomFromFirestore(String classroomId)
             throws ExecutionException, InterruptedException {
+        return getClassroomFromFirestore(classroomId, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Get all students from a Firestore classroom, reading {@code pageSize} documents per
+     * query. The next page is requested before the current one is processed.
+     */
+    public static List<org.example.testapp.entities.Student> getClassroomFromFirestore(String classroomId, int pageSize)
+            throws ExecutionException, InterruptedException {
 
         List<org.example.testapp.entities.Student> students = new ArrayList<>();
 
         try {
             Firestore db = getFirestore();
-            CollectionReference studentsRef = db.collection("classrooms").document(classroomId)
-                    .collection("students");
-
-            ApiFuture<QuerySnapshot> future = studentsRef.get();
-            List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-
-            for (QueryDocumentSnapshot document : documents) {
-                String id = document.getString("id");
-                String name = document.getString("name");
-
-                org.example.testapp.entities.Student student = new org.example.testapp.entities.Student(id, name);
-
-
-
-                students.add(student);
+            Query query = db.collection("classrooms").document(classroomId)
+                    .collection("students")
+                    .orderBy(FieldPath.documentId());
+
+            ApiFuture<QuerySnapshot> pending = query.limit(pageSize).get();
+            while (pending != null) {
+                List<QueryDocumentSnapshot> documents = pending.get().getDocuments();
+                // Prefetch the next page while this one is processed
+                pending = documents.size() == pageSize
+                        ? query.startAfter(documents.get(documents.size() - 1)).limit(pageSize).get()
+                        : null;
+
+                for (QueryDocumentSnapshot document : documents) {
+                    String id = document.getString("id");
+                    String name = document.getString("name");
+
+                    students.add(new org.example.testapp.entities.Student(id, name));
+                }
             }
 
         } catch (Exception e) {
@@ -139,4 +222,4 @@ public class FirestoreService {
 
         return students;
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,106 @@
+package org.example.testapp.stats;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Fixed-bucket (HDR-style) histogram of confidence scores in [0, 1].
+ *
+ * Scores are bucketed at a resolution of 1/{@link #BUCKETS}, which bounds quantile
+ * error to half a bucket while keeping memory constant. Histograms are mergeable by
+ * adding bucket counts, so per-session sketches can be combined into semester-wide
+ * distributions without revisiting the underlying scores.
+ */
+public class ConfidenceHistogram {
+  public static final int BUCKETS = 1000;
+
+  private final long[] counts = new long[BUCKETS];
+  private long total;
+  private double sum;
+
+  public void add(double score) {
+    counts[bucketOf(score)]++;
+    total++;
+    sum += score;
+  }
+
+  public void merge(ConfidenceHistogram other) {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] += other.counts[i];
+    }
+    total += other.total;
+    sum += other.sum;
+  }
+
+  /**
+   * Remove a histogram previously merged into this one.
+   */
+  public void subtract(ConfidenceHistogram other) {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] -= other.counts[i];
+    }
+    total -= other.total;
+    sum -= other.sum;
+  }
+
+  public long count() {
+    return total;
+  }
+
+  public double mean() {
+    return total > 0 ? sum / total : 0.0;
+  }
+
+  /**
+   * Approximate score at quantile q (0..1), reported at the bucket midpoint.
+   */
+  public double quantile(double q) {
+    if (total == 0) {
+      return 0.0;
+    }
+    long rank = (long) Math.ceil(Math.max(0.0, Math.min(1.0, q)) * total);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= Math.max(1, rank)) {
+        return (i + 0.5) / BUCKETS;
+      }
+    }
+    return 1.0;
+  }
+
+  /**
+   * Collapse the histogram into {@code bins} equal-width bins for charting.
+   */
+  public long[] bins(int bins) {
+    long[] result = new long[bins];
+    for (int i = 0; i < BUCKETS; i++) {
+      result[i * bins / BUCKETS] += counts[i];
+    }
+    return result;
+  }
+
+  public void writeTo(DataOutput out) throws IOException {
+    out.writeLong(total);
+    out.writeDouble(sum);
+    for (long c : counts) {
+      out.writeLong(c);
+    }
+  }
+
+  public static ConfidenceHistogram readFrom(DataInput in) throws IOException {
+    ConfidenceHistogram histogram = new ConfidenceHistogram();
+    histogram.total = in.readLong();
+    histogram.sum = in.readDouble();
+    for (int i = 0; i < BUCKETS; i++) {
+      histogram.counts[i] = in.readLong();
+    }
+    return histogram;
+  }
+
+  private static int bucketOf(double score) {
+    int bucket = (int) (score * BUCKETS);
+    return Math.max(0, Math.min(BUCKETS - 1, bucket));
+  }
+}
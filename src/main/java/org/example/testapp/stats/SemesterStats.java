@@ -0,0 +1,219 @@
+package org.example.testapp.stats;
+
+import org.example.testapp.attendance.AttendanceReport;
+import org.example.testapp.attendance.AttendanceReport.AttendanceStatus;
+import org.example.testapp.entities.Position;
+import org.example.testapp.verification.AttendanceConflict;
+import org.example.testapp.verification.AttendanceConflict.ConflictType;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Mergeable attendance aggregates: counts per status, a confidence histogram,
+ * per-seat present/total counters and conflict-type frequencies.
+ *
+ * A single session is summarised with {@link #ofSession}; semester totals are the
+ * {@link #merge} of all session summaries, so adding a session never requires
+ * re-reading the ones before it.
+ */
+public class SemesterStats {
+  private static final AttendanceStatus[] STATUSES = AttendanceStatus.values();
+  private static final ConflictType[] CONFLICT_TYPES = ConflictType.values();
+
+  private long sessions;
+  private final long[] statusCounts = new long[STATUSES.length];
+  private final long[] conflictCounts = new long[CONFLICT_TYPES.length];
+  private ConfidenceHistogram confidence = new ConfidenceHistogram();
+  private int rows;
+  private int cols;
+  private long[] seatPresent = new long[0]; // Row-major rows x cols
+  private long[] seatTotal = new long[0];
+
+  /**
+   * Summarise one analysed session.
+   */
+  public static SemesterStats ofSession(List<AttendanceReport> reports, List<AttendanceConflict> conflicts) {
+    SemesterStats stats = new SemesterStats();
+    stats.sessions = 1;
+    for (AttendanceReport report : reports) {
+      stats.statusCounts[report.getStatus().ordinal()]++;
+      stats.confidence.add(report.getConfidenceScore());
+
+      Position pos = report.getLocatedStudent().getPosition();
+      if (pos != null) {
+        stats.ensureGrid(pos.row() + 1, pos.col() + 1);
+        int cell = pos.row() * stats.cols + pos.col();
+        stats.seatTotal[cell]++;
+        if (report.getStatus() == AttendanceStatus.PRESENT) {
+          stats.seatPresent[cell]++;
+        }
+      }
+    }
+    for (AttendanceConflict conflict : conflicts) {
+      stats.conflictCounts[conflict.getType().ordinal()]++;
+    }
+    return stats;
+  }
+
+  public void merge(SemesterStats other) {
+    combine(other, 1);
+  }
+
+  /**
+   * Remove a summary previously merged into this one.
+   */
+  public void subtract(SemesterStats other) {
+    combine(other, -1);
+  }
+
+  private void combine(SemesterStats other, int sign) {
+    sessions += sign * other.sessions;
+    for (int i = 0; i < statusCounts.length; i++) {
+      statusCounts[i] += sign * other.statusCounts[i];
+    }
+    for (int i = 0; i < conflictCounts.length; i++) {
+      conflictCounts[i] += sign * other.conflictCounts[i];
+    }
+    if (sign > 0) {
+      confidence.merge(other.confidence);
+    } else {
+      confidence.subtract(other.confidence);
+    }
+    ensureGrid(other.rows, other.cols);
+    for (int r = 0; r < other.rows; r++) {
+      for (int c = 0; c < other.cols; c++) {
+        seatPresent[r * cols + c] += sign * other.seatPresent[r * other.cols + c];
+        seatTotal[r * cols + c] += sign * other.seatTotal[r * other.cols + c];
+      }
+    }
+  }
+
+  private void ensureGrid(int minRows, int minCols) {
+    if (minRows <= rows && minCols <= cols) {
+      return;
+    }
+    int newRows = Math.max(rows, minRows);
+    int newCols = Math.max(cols, minCols);
+    long[] present = new long[newRows * newCols];
+    long[] total = new long[newRows * newCols];
+    for (int r = 0; r < rows; r++) {
+      System.arraycopy(seatPresent, r * cols, present, r * newCols, cols);
+      System.arraycopy(seatTotal, r * cols, total, r * newCols, cols);
+    }
+    rows = newRows;
+    cols = newCols;
+    seatPresent = present;
+    seatTotal = total;
+  }
+
+  public long getSessions() {
+    return sessions;
+  }
+
+  public long getStatusCount(AttendanceStatus status) {
+    return statusCounts[status.ordinal()];
+  }
+
+  public long getTotalReports() {
+    long total = 0;
+    for (long c : statusCounts) {
+      total += c;
+    }
+    return total;
+  }
+
+  public long getConflictCount(ConflictType type) {
+    return conflictCounts[type.ordinal()];
+  }
+
+  public ConfidenceHistogram getConfidence() {
+    return confidence;
+  }
+
+  public int getRows() {
+    return rows;
+  }
+
+  public int getCols() {
+    return cols;
+  }
+
+  /**
+   * Share of reports at this seat that were PRESENT, or NaN if the seat was never used.
+   */
+  public double getSeatRate(int row, int col) {
+    if (row >= rows || col >= cols) {
+      return Double.NaN;
+    }
+    long total = seatTotal[row * cols + col];
+    return total > 0 ? (double) seatPresent[row * cols + col] / total : Double.NaN;
+  }
+
+  public double getRowRate(int row) {
+    long present = 0;
+    long total = 0;
+    for (int c = 0; c < cols; c++) {
+      present += seatPresent[row * cols + c];
+      total += seatTotal[row * cols + c];
+    }
+    return total > 0 ? (double) present / total : Double.NaN;
+  }
+
+  public double getColRate(int col) {
+    long present = 0;
+    long total = 0;
+    for (int r = 0; r < rows; r++) {
+      present += seatPresent[r * cols + col];
+      total += seatTotal[r * cols + col];
+    }
+    return total > 0 ? (double) present / total : Double.NaN;
+  }
+
+  public void writeTo(DataOutput out) throws IOException {
+    out.writeLong(sessions);
+    out.writeInt(statusCounts.length);
+    for (long c : statusCounts) {
+      out.writeLong(c);
+    }
+    out.writeInt(conflictCounts.length);
+    for (long c : conflictCounts) {
+      out.writeLong(c);
+    }
+    confidence.writeTo(out);
+    out.writeInt(rows);
+    out.writeInt(cols);
+    for (int i = 0; i < rows * cols; i++) {
+      out.writeLong(seatPresent[i]);
+      out.writeLong(seatTotal[i]);
+    }
+  }
+
+  public static SemesterStats readFrom(DataInput in) throws IOException {
+    SemesterStats stats = new SemesterStats();
+    stats.sessions = in.readLong();
+    if (in.readInt() != STATUSES.length) {
+      throw new IOException("Statistics were written with a different set of statuses");
+    }
+    for (int i = 0; i < STATUSES.length; i++) {
+      stats.statusCounts[i] = in.readLong();
+    }
+    // Conflict types are only ever appended, so older files simply lack the newest counts
+    int conflictTypes = in.readInt();
+    if (conflictTypes > CONFLICT_TYPES.length) {
+      throw new IOException("Statistics were written with a different set of conflict types");
+    }
+    for (int i = 0; i < conflictTypes; i++) {
+      stats.conflictCounts[i] = in.readLong();
+    }
+    stats.confidence = ConfidenceHistogram.readFrom(in);
+    stats.ensureGrid(in.readInt(), in.readInt());
+    for (int i = 0; i < stats.rows * stats.cols; i++) {
+      stats.seatPresent[i] = in.readLong();
+      stats.seatTotal[i] = in.readLong();
+    }
+    return stats;
+  }
+}
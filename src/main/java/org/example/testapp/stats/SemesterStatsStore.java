@@ -0,0 +1,120 @@
+package org.example.testapp.stats;
+
+import org.example.testapp.attendance.AttendanceReport;
+import org.example.testapp.verification.AttendanceConflict;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * Persists the running semester aggregates.
+ *
+ * Only the merged totals and the summary of the most recent session are stored. The
+ * latter lets a re-analysis of the same session replace its earlier contribution
+ * instead of counting it twice.
+ *
+ * Ingesting only updates memory; {@link #save} writes the file and may run on another
+ * thread, so the UI never waits for the disk.
+ */
+public class SemesterStatsStore {
+  private static final int MAGIC = 0x57485331; // "WHS1"
+
+  private final Path file;
+  private final Object fileLock = new Object(); // Orders snapshots with the file writes
+  private SemesterStats semester = new SemesterStats();
+  private long lastSessionId = -1;
+  private SemesterStats lastSession;
+
+  private SemesterStatsStore(Path file) {
+    this.file = file;
+  }
+
+  public static SemesterStatsStore open(Path file) throws IOException {
+    SemesterStatsStore store = new SemesterStatsStore(file);
+    if (Files.exists(file)) {
+      store.load();
+    }
+    return store;
+  }
+
+  /**
+   * Fold one analysis into the semester totals, in memory; call {@link #save} to persist
+   * them. Cost depends only on the size of the session being added.
+   */
+  public synchronized void ingest(long sessionId, List<AttendanceReport> reports,
+      List<AttendanceConflict> conflicts) {
+    SemesterStats session = SemesterStats.ofSession(reports, conflicts);
+    if (lastSession != null && lastSessionId == sessionId) {
+      semester.subtract(lastSession);
+    }
+    semester.merge(session);
+    lastSessionId = sessionId;
+    lastSession = session;
+  }
+
+  public synchronized SemesterStats getSemester() {
+    return semester;
+  }
+
+  public synchronized SemesterStats getLastSession() {
+    return lastSession;
+  }
+
+  public void clear() throws IOException {
+    synchronized (fileLock) {
+      synchronized (this) {
+        semester = new SemesterStats();
+        lastSessionId = -1;
+        lastSession = null;
+      }
+      Files.deleteIfExists(file);
+    }
+  }
+
+  /**
+   * Write the current totals to the file. The totals are copied while ingesting waits;
+   * the file is written without holding up {@link #ingest}. Concurrent saves write in
+   * turn, the last one with the newest totals.
+   */
+  public void save() throws IOException {
+    synchronized (fileLock) {
+      byte[] snapshot = snapshot();
+      Files.createDirectories(file.getParent());
+      Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+      Files.write(tmp, snapshot);
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+  }
+
+  private synchronized byte[] snapshot() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(MAGIC);
+      semester.writeTo(out);
+      out.writeLong(lastSessionId);
+      out.writeBoolean(lastSession != null);
+      if (lastSession != null) {
+        lastSession.writeTo(out);
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  private void load() throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Unrecognized statistics format");
+      }
+      semester = SemesterStats.readFrom(in);
+      lastSessionId = in.readLong();
+      lastSession = in.readBoolean() ? SemesterStats.readFrom(in) : null;
+    }
+  }
+}
@@ -15,7 +15,8 @@ public class AttendanceConflict {
     CLAIMING_ABSENT_STUDENT,
     SPATIAL_IMPOSSIBILITY,
     CONTRADICTORY_CLAIMS,
-    SUSPICIOUS_PATTERN
+    SUSPICIOUS_PATTERN,
+    SEAT_COLLISION
   }
 
   public AttendanceConflict(Student student, Student involvedStudent, ConflictType type, String description) {
@@ -0,0 +1,209 @@
+package org.example.testapp.verification;
+
+import org.example.testapp.entities.Claim;
+import org.example.testapp.entities.Classroom;
+import org.example.testapp.entities.LocatedStudent;
+import org.example.testapp.entities.Position;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Predicate;
+
+/**
+ * Checks claims as they are ingested, before they reach the classroom, so analysis only
+ * sees claims that can possibly be true.
+ *
+ * Each check is constant time: the seat grid bounds, the claimer's own id, an id lookup
+ * and the (at most four) claims the student already kept. Claims about a student who
+ * has not registered are only tagged by default, since their registration may still
+ * arrive; a validator built once every registration is in can reject them instead.
+ * Counters are kept per reason and may be read from any thread.
+ */
+public class ClaimValidator {
+  private final int rows;
+  private final int cols;
+  private final Predicate<String> isKnown;
+  private final boolean rejectUnknown;
+  private final AtomicLongArray counts = new AtomicLongArray(Reason.values().length);
+  private final AtomicLong accepted = new AtomicLong();
+
+  public enum Reason {
+    /** The claimed neighbour's seat would be outside the room. */
+    OUT_OF_BOUNDS,
+    /** The student claims to sit next to themselves. */
+    SELF_CLAIM,
+    /** The claimed student has not registered. */
+    UNKNOWN_TARGET,
+    /** The student already made a claim in this direction. */
+    DUPLICATE_DIRECTION
+  }
+
+  /**
+   * @param isKnown whether a student id belongs to a registered student; must be safe
+   *                to call from the validating thread
+   * @param rejectUnknown reject claims about unknown students instead of tagging them
+   */
+  public ClaimValidator(Classroom classroom, Predicate<String> isKnown, boolean rejectUnknown) {
+    this.rows = classroom.getRows();
+    this.cols = classroom.getCols();
+    this.isKnown = isKnown;
+    this.rejectUnknown = rejectUnknown;
+  }
+
+  /**
+   * Why the claim is impossible or suspect for this student, or null if it is fine.
+   * Does not update the counters.
+   */
+  public Reason check(LocatedStudent claimer, Claim claim) {
+    for (Claim kept : claimer.getClaims()) {
+      if (kept != claim && kept.getDirection() == claim.getDirection()) {
+        return Reason.DUPLICATE_DIRECTION;
+      }
+    }
+    return checkTarget(claimer, claim);
+  }
+
+  /**
+   * Whether claims with this reason are dropped rather than kept with a tag.
+   */
+  public boolean rejects(Reason reason) {
+    return reason != Reason.UNKNOWN_TARGET || rejectUnknown;
+  }
+
+  /**
+   * Validate every claim of a freshly parsed student, removing the rejected ones from
+   * the student in place and tagging the suspect ones kept (see {@link Claim#getTag}).
+   * The first claim in each direction wins.
+   *
+   * @return the rejected and tagged claims, in claim order
+   */
+  public List<Finding> validate(LocatedStudent student) {
+    List<Finding> findings = new ArrayList<>(0);
+    int directions = 0; // Bit per direction already claimed
+    for (Iterator<Claim> it = student.getClaims().iterator(); it.hasNext(); ) {
+      Claim claim = it.next();
+      int bit = 1 << claim.getDirection().ordinal();
+      Reason reason = (directions & bit) != 0 ? Reason.DUPLICATE_DIRECTION : checkTarget(student, claim);
+      if (reason == null) {
+        directions |= bit;
+        accepted.incrementAndGet();
+        continue;
+      }
+      counts.incrementAndGet(reason.ordinal());
+      boolean rejected = rejects(reason);
+      if (rejected) {
+        it.remove();
+      } else {
+        claim.tag(reason.name());
+        directions |= bit;
+        accepted.incrementAndGet();
+      }
+      findings.add(new Finding(student, claim, reason, rejected));
+    }
+    return findings;
+  }
+
+  /**
+   * Claims found with this reason, whether rejected or only tagged.
+   */
+  public long getCount(Reason reason) {
+    return counts.get(reason.ordinal());
+  }
+
+  /**
+   * Claims found and dropped, over all reasons.
+   */
+  public long getRejectedCount() {
+    long rejected = 0;
+    for (Reason reason : Reason.values()) {
+      if (rejects(reason)) {
+        rejected += getCount(reason);
+      }
+    }
+    return rejected;
+  }
+
+  /**
+   * Claims kept, including tagged ones.
+   */
+  public long getAcceptedCount() {
+    return accepted.get();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("claims: ").append(getAcceptedCount()).append(" kept");
+    for (Reason reason : Reason.values()) {
+      long count = getCount(reason);
+      if (count > 0) {
+        sb.append(", ").append(count).append(rejects(reason) ? " rejected " : " tagged ")
+            .append(reason.name().toLowerCase());
+      }
+    }
+    return sb.toString();
+  }
+
+  private Reason checkTarget(LocatedStudent claimer, Claim claim) {
+    if (claim.isAbsentClaim()) {
+      // Declaring an empty seat is fine anywhere, including against a wall
+      return null;
+    }
+    String targetId = claim.getTarget().getId();
+    if (targetId.equals(claimer.getStudent().getId())) {
+      return Reason.SELF_CLAIM;
+    }
+    Position pos = claimer.getPosition();
+    if (pos != null && pos.row() < rows && pos.col() < cols && !insideAfterStep(pos, claim)) {
+      return Reason.OUT_OF_BOUNDS;
+    }
+    if (!isKnown.test(targetId)) {
+      return Reason.UNKNOWN_TARGET;
+    }
+    return null;
+  }
+
+  private boolean insideAfterStep(Position pos, Claim claim) {
+    return switch (claim.getDirection()) {
+      case LEFT -> pos.col() > 0;
+      case RIGHT -> pos.col() + 1 < cols;
+      case FRONT -> pos.row() > 0;
+      case BACK -> pos.row() + 1 < rows;
+    };
+  }
+
+  /**
+   * A claim the validator rejected or tagged.
+   */
+  public static class Finding {
+    private final LocatedStudent claimer;
+    private final Claim claim;
+    private final Reason reason;
+    private final boolean rejected;
+
+    Finding(LocatedStudent claimer, Claim claim, Reason reason, boolean rejected) {
+      this.claimer = claimer;
+      this.claim = claim;
+      this.reason = reason;
+      this.rejected = rejected;
+    }
+
+    public LocatedStudent getClaimer() {
+      return claimer;
+    }
+
+    public Claim getClaim() {
+      return claim;
+    }
+
+    public Reason getReason() {
+      return reason;
+    }
+
+    public boolean isRejected() {
+      return rejected;
+    }
+  }
+}
@@ -3,8 +3,9 @@ package org.example.testapp.verification;
 import org.example.testapp.entities.*;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 /**
  * Detects conflicts and inconsistencies in student attendance claims.
@@ -12,12 +13,19 @@ import java.util.Optional;
  * - Students claiming to see absent neighbors
  * - Contradictory claims between students
  * - Spatial impossibilities
+ * - Registrations for the same seat
  */
 public class ConflictDetector {
   private final Classroom classroom;
+  private final SeatCollisionTable seatCollisions; // Null when seats were not arbitrated
 
   public ConflictDetector(Classroom classroom) {
+    this(classroom, null);
+  }
+
+  public ConflictDetector(Classroom classroom, SeatCollisionTable seatCollisions) {
     this.classroom = classroom;
+    this.seatCollisions = seatCollisions;
   }
 
   /**
@@ -25,18 +33,47 @@ public class ConflictDetector {
    */
   public List<AttendanceConflict> detectAllConflicts() {
     List<AttendanceConflict> conflicts = new ArrayList<>();
+    Map<Student, LocatedStudent> placed = indexPlacements();
 
-    for (LocatedStudent student : classroom.allPlacements().values()) {
-      conflicts.addAll(detectStudentConflicts(student));
+    for (LocatedStudent student : placed.values()) {
+      conflicts.addAll(detectStudentConflicts(student, placed));
     }
+    conflicts.addAll(detectSeatCollisions());
 
     return conflicts;
   }
 
+  /**
+   * One conflict per pair of students still registered for the same seat.
+   */
+  public List<AttendanceConflict> detectSeatCollisions() {
+    List<AttendanceConflict> conflicts = new ArrayList<>();
+    if (seatCollisions == null) {
+      return conflicts;
+    }
+    for (SeatCollisionTable.SeatCollision collision : seatCollisions.getActiveCollisions()) {
+      Student holder = seatCollisions.getHolder(collision.getPosition());
+      String resolution = holder != null ? "the seat went to " + holder.getName()
+          : "the seat stays empty until one of them withdraws";
+      conflicts.add(new AttendanceConflict(
+          collision.getSecond(),
+          collision.getFirst(),
+          AttendanceConflict.ConflictType.SEAT_COLLISION,
+          collision.getSecond().getName() + " and " + collision.getFirst().getName() + " both registered for seat "
+              + collision.getPosition() + "; " + resolution));
+    }
+    return conflicts;
+  }
+
   /**
    * Detect conflicts specific to one student.
    */
   public List<AttendanceConflict> detectStudentConflicts(LocatedStudent student) {
+    return detectStudentConflicts(student, indexPlacements());
+  }
+
+  private List<AttendanceConflict> detectStudentConflicts(LocatedStudent student,
+      Map<Student, LocatedStudent> placed) {
     List<AttendanceConflict> conflicts = new ArrayList<>();
 
     for (Claim claim : student.getClaims()) {
@@ -46,7 +83,8 @@ public class ConflictDetector {
       }
 
       // Check if claimed student is actually absent
-      if (isClaimedStudentAbsent(claim.getTarget())) {
+      LocatedStudent target = placed.get(claim.getTarget());
+      if (target == null) {
         conflicts.add(new AttendanceConflict(
             student.getStudent(),
             claim.getTarget(),
@@ -55,7 +93,7 @@ public class ConflictDetector {
       }
 
       // Check for spatial impossibility (claiming someone in wrong direction)
-      if (!isClaimSpatiallyValid(student, claim)) {
+      if (!isClaimSpatiallyValid(student, claim, target)) {
         conflicts.add(new AttendanceConflict(
             student.getStudent(),
             claim.getTarget(),
@@ -69,31 +107,29 @@ public class ConflictDetector {
   }
 
   /**
-   * Check if a claimed student is actually absent.
+   * Seated students by identity, built once per scan so each claim is a single lookup.
    */
-  private boolean isClaimedStudentAbsent(Student target) {
-    return classroom.allPlacements().values().stream()
-        .noneMatch(ls -> ls.getStudent().equals(target));
+  private Map<Student, LocatedStudent> indexPlacements() {
+    Map<Student, LocatedStudent> placed = new HashMap<>();
+    for (LocatedStudent located : classroom.allPlacements().values()) {
+      placed.put(located.getStudent(), located);
+    }
+    return placed;
   }
 
   /**
    * Verify that a claim is spatially valid (student is in the right direction).
    */
-  private boolean isClaimSpatiallyValid(LocatedStudent claimer, Claim claim) {
+  private boolean isClaimSpatiallyValid(LocatedStudent claimer, Claim claim, LocatedStudent target) {
     Position claimerPos = claimer.getPosition();
     if (claimerPos == null) {
       return true; // Can't validate, assume valid
     }
 
-    Optional<LocatedStudent> targetOpt = classroom.allPlacements().values().stream()
-        .filter(ls -> ls.getStudent().equals(claim.getTarget()))
-        .findFirst();
-
-    if (targetOpt.isEmpty()) {
+    if (target == null) {
       return false; // Target not in classroom
     }
 
-    LocatedStudent target = targetOpt.get();
     Position targetPos = target.getPosition();
 
     return isInDirection(claimerPos, targetPos, claim.getDirection());
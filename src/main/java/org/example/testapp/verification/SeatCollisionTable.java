@@ -0,0 +1,366 @@
+package org.example.testapp.verification;
+
+import org.example.testapp.entities.Position;
+import org.example.testapp.entities.Student;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Decides who gets a seat when several registrations name the same one, and remembers
+ * every such collision so it can be reported as a conflict.
+ *
+ * Each seat's state is an immutable value swapped in with compare-and-set, so threads
+ * ingesting registrations for different seats never contend and threads racing for the
+ * same seat retry instead of blocking. Students who lose a seat wait on it: when the
+ * holder leaves, the policy picks a successor among them.
+ */
+public class SeatCollisionTable {
+  private final Policy policy;
+  private final ConcurrentHashMap<Position, AtomicReference<Seat>> seats = new ConcurrentHashMap<>();
+  private final Queue<SeatCollision> collisions = new ConcurrentLinkedQueue<>();
+  private final AtomicLong sequence = new AtomicLong(); // Arrival order, breaks timestamp ties
+
+  public enum Policy {
+    /** The student who claimed the seat first keeps it. */
+    FIRST_WRITE_WINS,
+    /** The registration with the latest timestamp takes the seat. */
+    LATEST_TIMESTAMP_WINS,
+    /** Nobody sits on a contested seat until only one claimant is left. */
+    QUARANTINE_BOTH;
+
+    /**
+     * Parse a policy name such as {@code latest} or {@code quarantine_both}; unknown or
+     * missing names give {@link #FIRST_WRITE_WINS}.
+     */
+    public static Policy parse(String name) {
+      if (name == null) {
+        return FIRST_WRITE_WINS;
+      }
+      String key = name.trim().toUpperCase(Locale.ROOT);
+      for (Policy policy : values()) {
+        if (policy.name().equals(key) || policy.name().startsWith(key + "_")) {
+          return policy;
+        }
+      }
+      return FIRST_WRITE_WINS;
+    }
+  }
+
+  public enum Outcome {
+    /** The claimant holds the seat. */
+    SEATED,
+    /** Someone else holds the seat; the claimant waits for it. */
+    LOST,
+    /** The seat is contested and nobody holds it. */
+    QUARANTINED
+  }
+
+  public SeatCollisionTable(Policy policy) {
+    this.policy = policy;
+  }
+
+  public Policy getPolicy() {
+    return policy;
+  }
+
+  /**
+   * Claim a seat for a student.
+   *
+   * @param timestamp when the registration was written, or 0 if unknown (then arrival
+   *                  order counts as the timestamp)
+   */
+  public Result claim(Position pos, Student student, long timestamp) {
+    Claimant claimant = new Claimant(student, timestamp, sequence.incrementAndGet());
+    AtomicReference<Seat> ref = seats.get(pos);
+    if (ref == null) {
+      AtomicReference<Seat> created = new AtomicReference<>(Seat.EMPTY);
+      ref = seats.putIfAbsent(pos, created);
+      if (ref == null) {
+        ref = created;
+      }
+    }
+    while (true) {
+      Seat current = ref.get();
+      boolean known = current.has(student); // Registering again is not a new collision
+      Result result;
+      Seat next;
+      Claimant holder = current.holder;
+      Claimant rival = holder != null ? holder : first(current.waiting);
+      if (holder != null && holder.student.equals(student)) {
+        // The holder registered again
+        next = new Seat(claimant, current.waiting);
+        result = new Result(Outcome.SEATED, null);
+      } else if (holder == null && current.waiting.isEmpty()) {
+        next = new Seat(claimant, List.of());
+        result = new Result(Outcome.SEATED, null);
+      } else if (holder == null) {
+        // Already quarantined
+        next = new Seat(null, with(without(current.waiting, student), claimant));
+        result = new Result(Outcome.QUARANTINED, null);
+      } else {
+        List<Claimant> waiting = without(current.waiting, student);
+        switch (policy) {
+          case LATEST_TIMESTAMP_WINS -> {
+            if (claimant.isNewerThan(holder)) {
+              next = new Seat(claimant, with(waiting, holder));
+              result = new Result(Outcome.SEATED, holder.student);
+            } else {
+              next = new Seat(holder, with(waiting, claimant));
+              result = new Result(Outcome.LOST, null);
+            }
+          }
+          case QUARANTINE_BOTH -> {
+            next = new Seat(null, with(with(waiting, holder), claimant));
+            result = new Result(Outcome.QUARANTINED, holder.student);
+          }
+          default -> {
+            next = new Seat(holder, with(waiting, claimant));
+            result = new Result(Outcome.LOST, null);
+          }
+        }
+      }
+      if (ref.compareAndSet(current, next)) {
+        if (rival != null && !known) {
+          collisions.add(new SeatCollision(pos, rival.student, student, result.outcome, policy));
+        }
+        return result;
+      }
+    }
+  }
+
+  /**
+   * Give up a student's claim on a seat, whether they hold it or wait for it.
+   *
+   * @return the student who now holds the seat in their place, or null if nobody does
+   */
+  public Student release(Position pos, Student student) {
+    AtomicReference<Seat> ref = seats.get(pos);
+    if (ref == null) {
+      return null;
+    }
+    while (true) {
+      Seat current = ref.get();
+      List<Claimant> waiting = without(current.waiting, student);
+      Claimant holder = current.holder;
+      if (holder != null && holder.student.equals(student)) {
+        holder = null;
+      } else if (waiting.size() == current.waiting.size()) {
+        return null; // Not a claimant of this seat
+      } else if (holder != null) {
+        // A waiting student left; the holder stays
+        if (ref.compareAndSet(current, new Seat(holder, waiting))) {
+          return null;
+        }
+        continue;
+      }
+      Claimant successor = holder == null ? successor(waiting) : null;
+      Seat next = successor != null ? new Seat(successor, without(waiting, successor.student))
+          : new Seat(null, waiting);
+      if (ref.compareAndSet(current, next)) {
+        return successor != null ? successor.student : null;
+      }
+    }
+  }
+
+  /**
+   * The current holder of a seat, or null if it is free or quarantined.
+   */
+  public Student getHolder(Position pos) {
+    AtomicReference<Seat> ref = seats.get(pos);
+    Claimant holder = ref != null ? ref.get().holder : null;
+    return holder != null ? holder.student : null;
+  }
+
+  /**
+   * Every collision seen so far, oldest first.
+   */
+  public List<SeatCollision> getCollisions() {
+    return new ArrayList<>(collisions);
+  }
+
+  /**
+   * The seats contested right now: one collision between the holder (or, on a
+   * quarantined seat, its first claimant) and each other student still claiming it.
+   */
+  public List<SeatCollision> getActiveCollisions() {
+    List<SeatCollision> active = new ArrayList<>();
+    for (var entry : seats.entrySet()) {
+      Seat seat = entry.getValue().get();
+      Claimant rival = seat.holder != null ? seat.holder : first(seat.waiting);
+      Outcome outcome = seat.holder != null ? Outcome.LOST : Outcome.QUARANTINED;
+      for (Claimant claimant : seat.waiting) {
+        if (claimant != rival) {
+          active.add(new SeatCollision(entry.getKey(), rival.student, claimant.student, outcome, policy));
+        }
+      }
+    }
+    return active;
+  }
+
+  /**
+   * Who takes a seat from the students waiting for it, or null if it stays empty or
+   * quarantined.
+   */
+  private Claimant successor(List<Claimant> waiting) {
+    if (waiting.isEmpty()) {
+      return null;
+    }
+    return switch (policy) {
+      case FIRST_WRITE_WINS -> first(waiting);
+      case LATEST_TIMESTAMP_WINS -> {
+        Claimant latest = waiting.get(0);
+        for (Claimant claimant : waiting) {
+          if (claimant.isNewerThan(latest)) {
+            latest = claimant;
+          }
+        }
+        yield latest;
+      }
+      case QUARANTINE_BOTH -> waiting.size() == 1 ? waiting.get(0) : null;
+    };
+  }
+
+  private static Claimant first(List<Claimant> claimants) {
+    Claimant first = null;
+    for (Claimant claimant : claimants) {
+      if (first == null || claimant.sequence < first.sequence) {
+        first = claimant;
+      }
+    }
+    return first;
+  }
+
+  private static List<Claimant> with(List<Claimant> claimants, Claimant added) {
+    List<Claimant> copy = new ArrayList<>(claimants.size() + 1);
+    copy.addAll(claimants);
+    copy.add(added);
+    return List.copyOf(copy);
+  }
+
+  private static List<Claimant> without(List<Claimant> claimants, Student student) {
+    for (int i = 0; i < claimants.size(); i++) {
+      if (claimants.get(i).student.equals(student)) {
+        List<Claimant> copy = new ArrayList<>(claimants);
+        copy.remove(i);
+        return List.copyOf(copy);
+      }
+    }
+    return claimants;
+  }
+
+  /**
+   * What a {@link #claim} did: the claimant's outcome and the student who lost the seat
+   * because of it, if any.
+   */
+  public static class Result {
+    private final Outcome outcome;
+    private final Student displaced;
+
+    Result(Outcome outcome, Student displaced) {
+      this.outcome = outcome;
+      this.displaced = displaced;
+    }
+
+    public Outcome getOutcome() {
+      return outcome;
+    }
+
+    public Student getDisplaced() {
+      return displaced;
+    }
+  }
+
+  /**
+   * Two registrations naming the same seat; {@code first} was there before {@code second}.
+   */
+  public static class SeatCollision {
+    private final Position position;
+    private final Student first;
+    private final Student second;
+    private final Outcome outcome;
+    private final Policy policy;
+
+    SeatCollision(Position position, Student first, Student second, Outcome outcome, Policy policy) {
+      this.position = position;
+      this.first = first;
+      this.second = second;
+      this.outcome = outcome;
+      this.policy = policy;
+    }
+
+    public Position getPosition() {
+      return position;
+    }
+
+    public Student getFirst() {
+      return first;
+    }
+
+    public Student getSecond() {
+      return second;
+    }
+
+    /** Where the second student stands: waiting for the seat or quarantined with the first. */
+    public Outcome getOutcome() {
+      return outcome;
+    }
+
+    public Policy getPolicy() {
+      return policy;
+    }
+  }
+
+  private static final class Claimant {
+    final Student student;
+    final long timestamp;
+    final long sequence;
+
+    Claimant(Student student, long timestamp, long sequence) {
+      this.student = student;
+      this.timestamp = timestamp;
+      this.sequence = sequence;
+    }
+
+    boolean isNewerThan(Claimant other) {
+      if (timestamp != 0 && other.timestamp != 0 && timestamp != other.timestamp) {
+        return timestamp > other.timestamp;
+      }
+      return sequence > other.sequence;
+    }
+  }
+
+  /**
+   * Immutable seat state: the holder, if any, and the students waiting for the seat.
+   * With no holder and a non-empty waiting list the seat is quarantined.
+   */
+  private static final class Seat {
+    static final Seat EMPTY = new Seat(null, List.of());
+
+    final Claimant holder;
+    final List<Claimant> waiting;
+
+    Seat(Claimant holder, List<Claimant> waiting) {
+      this.holder = holder;
+      this.waiting = waiting;
+    }
+
+    boolean has(Student student) {
+      if (holder != null && holder.student.equals(student)) {
+        return true;
+      }
+      for (Claimant claimant : waiting) {
+        if (claimant.student.equals(student)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,230 @@
+package org.example.testapp.registration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The cache in front of an in-memory source: writes made offline are queued and flushed
+ * on reconnect, each write is sent once, reads keep working offline, and syncs fetch
+ * only what changed unless a removal or untracked update times call for a full read.
+ */
+class CachingRegistrationSourceTest {
+  @TempDir
+  Path dir;
+
+  private ExecutorService executor;
+  private CountingSource remote;
+  private CachingRegistrationSource source;
+
+  @BeforeEach
+  void start() {
+    executor = Executors.newFixedThreadPool(2);
+    remote = new CountingSource(true);
+    source = new CachingRegistrationSource(remote, RegistrationCache.open(dir.resolve("registrations.cache")),
+        executor);
+  }
+
+  @AfterEach
+  void stop() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  @Timeout(30)
+  void writesQueueWhileOfflineAndFlushOnReconnect() throws Exception {
+    remote.setOnline(false);
+
+    source.applyWrites(List.of(RegistrationWrite.putRegistration("doc-a", registration("a")))).get();
+    await(() -> !source.isOnline());
+    assertEquals(1, source.getPendingWriteCount());
+    assertEquals(1L, source.countRegistrations().get().longValue(), "offline read sees the local write");
+
+    remote.setOnline(true);
+    source.sync().get(10, TimeUnit.SECONDS);
+
+    assertTrue(source.isOnline());
+    assertEquals(0, source.getPendingWriteCount());
+    assertEquals(1L, remote.countRegistrations().get().longValue());
+    assertEquals("a", remote.fetchPage(null, 10).get().getDocuments().get(0).getData().get("studentId"));
+  }
+
+  @Test
+  @Timeout(30)
+  void queuedWritesSurviveARestart() throws Exception {
+    remote.setOnline(false);
+    source.applyWrites(List.of(RegistrationWrite.putRegistration("doc-a", registration("a")))).get();
+    await(() -> !source.isOnline());
+
+    // A new cache on the same file still holds the unsent write
+    remote.setOnline(true);
+    CachingRegistrationSource restarted = new CachingRegistrationSource(remote,
+        RegistrationCache.open(dir.resolve("registrations.cache")), executor);
+    assertEquals(1, restarted.getPendingWriteCount());
+    restarted.sync().get(10, TimeUnit.SECONDS);
+
+    assertEquals(0, restarted.getPendingWriteCount());
+    assertEquals(1L, remote.countRegistrations().get().longValue());
+  }
+
+  @Test
+  @Timeout(30)
+  void overlappingFlushesSendEachWriteOnce() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    List<String> sent = new CopyOnWriteArrayList<>();
+    remote = new CountingSource(true) {
+      @Override
+      public CompletableFuture<Void> applyWrites(List<RegistrationWrite> writes) {
+        for (RegistrationWrite write : writes) {
+          sent.add(write.getDocumentId());
+        }
+        // The first flush stays in flight until released
+        return CompletableFuture.runAsync(() -> {
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }, executor).thenCompose(v -> super.applyWrites(writes));
+      }
+    };
+    source = new CachingRegistrationSource(remote, RegistrationCache.open(dir.resolve("overlap.cache")), executor);
+
+    source.applyWrites(List.of(RegistrationWrite.putRegistration("doc-a", registration("a")))).get();
+    await(() -> sent.size() == 1);
+    source.applyWrites(List.of(RegistrationWrite.putRegistration("doc-b", registration("b")))).get();
+    CompletableFuture<Void> synced = source.sync();
+    release.countDown();
+    synced.get(10, TimeUnit.SECONDS);
+    await(() -> source.getPendingWriteCount() == 0);
+
+    assertEquals(List.of("doc-a", "doc-b"), sent);
+    assertEquals(2L, remote.countRegistrations().get().longValue());
+  }
+
+  @Test
+  @Timeout(30)
+  void readsAreServedFromTheCacheWhileOffline() throws Exception {
+    remote.register("doc-a", registration("a"));
+    remote.register("doc-b", registration("b"));
+    source.sync().get(10, TimeUnit.SECONDS);
+
+    remote.setOnline(false);
+    source.sync().get(10, TimeUnit.SECONDS); // Never fails, only goes offline
+
+    assertFalse(source.isOnline());
+    assertEquals(2L, source.countRegistrations().get().longValue());
+    assertEquals(2, source.fetchPage(null, 10).get().getDocuments().size());
+  }
+
+  @Test
+  @Timeout(30)
+  void deltaSyncMergesOnlyChangedRegistrations() throws Exception {
+    remote.register("doc-a", registration("a"));
+    remote.register("doc-b", registration("b"));
+    source.sync().get(10, TimeUnit.SECONDS);
+    int deltas = remote.deltaReads.get();
+
+    remote.register("doc-b", Map.of("studentId", "b", "name", "Renamed"));
+    remote.register("doc-c", registration("c"));
+    source.sync().get(10, TimeUnit.SECONDS);
+
+    assertEquals(0, remote.pageReads.get(), "no full read while counts agree");
+    assertEquals(deltas + 1, remote.deltaReads.get());
+    List<RegistrationDocument> documents = source.fetchPage(null, 10).get().getDocuments();
+    assertEquals(3, documents.size());
+    assertEquals("Renamed", documents.get(1).getData().get("name"));
+  }
+
+  @Test
+  @Timeout(30)
+  void removalFallsBackToAFullRead() throws Exception {
+    remote.register("doc-a", registration("a"));
+    remote.register("doc-b", registration("b"));
+    source.sync().get(10, TimeUnit.SECONDS);
+
+    remote.unregister("doc-a");
+    source.sync().get(10, TimeUnit.SECONDS);
+
+    assertTrue(remote.pageReads.get() > 0, "removal needs a full read");
+    List<RegistrationDocument> documents = source.fetchPage(null, 10).get().getDocuments();
+    assertEquals(1, documents.size());
+    assertEquals("doc-b", documents.get(0).getId());
+  }
+
+  @Test
+  @Timeout(30)
+  void untrackedUpdateTimesAlwaysReadEverything() throws Exception {
+    remote = new CountingSource(false);
+    source = new CachingRegistrationSource(remote, RegistrationCache.open(dir.resolve("untracked.cache")), executor);
+    remote.register("doc-a", registration("a"));
+    source.sync().get(10, TimeUnit.SECONDS);
+
+    remote.register("doc-a", Map.of("studentId", "a", "name", "Renamed"));
+    source.sync().get(10, TimeUnit.SECONDS);
+
+    assertEquals(0, remote.deltaReads.get());
+    assertEquals(2, remote.pageReads.get());
+    assertEquals("Renamed", source.fetchPage(null, 10).get().getDocuments().get(0).getData().get("name"));
+  }
+
+  private static Map<String, Object> registration(String studentId) {
+    return Map.of("studentId", studentId, "name", "Student " + studentId);
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.nanoTime() < deadline, "timed out waiting");
+      Thread.sleep(10);
+    }
+  }
+
+  /**
+   * In-memory source counting full and delta reads.
+   */
+  private static class CountingSource extends InMemoryRegistrationSource {
+    final AtomicInteger pageReads = new AtomicInteger();
+    final AtomicInteger deltaReads = new AtomicInteger();
+    private final boolean tracksUpdateTimes;
+
+    CountingSource(boolean tracksUpdateTimes) {
+      this.tracksUpdateTimes = tracksUpdateTimes;
+    }
+
+    @Override
+    public CompletableFuture<RegistrationPage> fetchPage(String afterDocumentId, int pageSize) {
+      pageReads.incrementAndGet();
+      return super.fetchPage(afterDocumentId, pageSize);
+    }
+
+    @Override
+    public CompletableFuture<List<RegistrationDocument>> fetchChangedSince(long sinceMillis) {
+      deltaReads.incrementAndGet();
+      return super.fetchChangedSince(sinceMillis);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> tracksUpdateTimes() {
+      return CompletableFuture.completedFuture(tracksUpdateTimes);
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package org.example.testapp.registration;
+
+import org.example.testapp.entities.Claim;
+import org.example.testapp.entities.Classroom;
+import org.example.testapp.entities.LocatedStudent;
+import org.example.testapp.verification.ClaimValidator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Registrations parsed in parallel still arrive in order, and claims are checked on the
+ * way in: a claim about a student who has not registered is kept with a tag and
+ * reported, and the tag clears once that student registers.
+ */
+class IngestPipelineTest {
+  @Test
+  @Timeout(30)
+  void unknownTargetIsTaggedUntilItRegisters() throws Exception {
+    Map<String, LocatedStudent> registry = new LinkedHashMap<>();
+    List<LiveRegistrationIngest.Update> updates = new CopyOnWriteArrayList<>();
+    IngestPipeline pipeline = new IngestPipeline(new LiveRegistrationIngest(new Classroom(3, 3), registry), null,
+        null, null, batch -> batch.forEach(scored -> updates.add(scored.getUpdate())));
+
+    pipeline.submit(List.of(added("doc-a", "a", 0, 0, "b"))).get(10, TimeUnit.SECONDS);
+    awaitUpdates(updates, 1);
+
+    LiveRegistrationIngest.Update first = updates.get(0);
+    assertEquals(1, first.getFindings().size());
+    ClaimValidator.Finding finding = first.getFindings().get(0);
+    assertEquals(ClaimValidator.Reason.UNKNOWN_TARGET, finding.getReason());
+    assertFalse(finding.isRejected());
+    Claim claim = registry.get("a").getClaims().get(0);
+    assertTrue(claim.isTagged());
+    assertEquals("UNKNOWN_TARGET", claim.getTag());
+    assertFalse(first.hasResolvedTags());
+
+    pipeline.submit(List.of(added("doc-b", "b", 0, 1, null))).get(10, TimeUnit.SECONDS);
+    pipeline.close();
+    pipeline.getCompletion().get(10, TimeUnit.SECONDS);
+
+    assertEquals(2, updates.size());
+    assertTrue(updates.get(1).hasResolvedTags());
+    assertTrue(updates.get(1).getFindings().isEmpty());
+    assertNull(claim.getTag());
+  }
+
+  @Test
+  @Timeout(30)
+  void parallelParsingKeepsArrivalOrder() throws Exception {
+    Map<String, LocatedStudent> registry = new LinkedHashMap<>();
+    IngestPipeline pipeline = new IngestPipeline(new LiveRegistrationIngest(new Classroom(40, 25), registry), null,
+        null, null, batch -> {
+        });
+
+    List<RegistrationChange> changes = new ArrayList<>();
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      changes.add(added("doc-" + i, "s" + i, i / 25, i % 25, null));
+      expected.add("s" + i);
+    }
+    pipeline.submit(changes).get(10, TimeUnit.SECONDS);
+    pipeline.close();
+    pipeline.getCompletion().get(20, TimeUnit.SECONDS);
+
+    assertEquals(expected, new ArrayList<>(registry.keySet()));
+  }
+
+  private static RegistrationChange added(String documentId, String studentId, int row, int col, String rightOf) {
+    Map<String, Object> data = new LinkedHashMap<>();
+    data.put("studentId", studentId);
+    data.put("name", "Student " + studentId);
+    data.put("row", row);
+    data.put("col", col);
+    data.put("claims", rightOf == null ? List.of() : List.of(Map.of("direction", "RIGHT", "student", rightOf)));
+    return new RegistrationChange(RegistrationChange.Type.ADDED, documentId, data);
+  }
+
+  private static void awaitUpdates(List<?> updates, int count) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (updates.size() < count) {
+      assertTrue(System.nanoTime() < deadline, "timed out waiting for " + count + " updates");
+      Thread.sleep(10);
+    }
+  }
+}
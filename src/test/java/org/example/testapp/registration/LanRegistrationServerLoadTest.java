@@ -0,0 +1,178 @@
+package org.example.testapp.registration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A class's worth of phones registering at once. Every post must be acknowledged and
+ * reach the listener, and acknowledgements must not wait for the listener.
+ *
+ * The latency case spreads the arrivals over one second, as phones do at the start of a
+ * lesson. Released in the same instant, the posts would mostly measure the test machine
+ * queueing its own 500 clients rather than the server. It asserts only what holds on any
+ * machine: every post is acknowledged while the listener is still held up, and the 95th
+ * percentile stays well under the time the listener takes over a single batch.
+ */
+class LanRegistrationServerLoadTest {
+  private static final int STUDENTS = 500;
+  private static final Duration ARRIVAL_WINDOW = Duration.ofSeconds(1);
+  private static final long SLOW_LISTENER_MILLIS = 250;
+
+  private LanRegistrationServer server;
+  private ExecutorService threads;
+  private HttpClient client;
+
+  @BeforeEach
+  void start() throws Exception {
+    server = LanRegistrationServer.start(0);
+    threads = Executors.newVirtualThreadPerTaskExecutor();
+    client = HttpClient.newBuilder()
+        .executor(threads)
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    // Warm up connections and both the rejected and the accepted path; each test reopens
+    // registration, which clears the warm-up registrations
+    burst("warmup-", 409, Duration.ZERO);
+    server.openRegistration(Map.of("rows", 20, "cols", 25)).join();
+    burst("warmup-", 202, Duration.ZERO);
+    burst("warmup-", 202, ARRIVAL_WINDOW);
+  }
+
+  @AfterEach
+  void stop() {
+    client.close();
+    threads.shutdownNow();
+    server.close();
+  }
+
+  @Test
+  @Timeout(60)
+  void simultaneousBurstReachesTheListener() throws Exception {
+    server.openRegistration(Map.of("rows", 20, "cols", 25)).join();
+    Set<String> received = listen(0);
+
+    burst("student-", 202, Duration.ZERO);
+
+    awaitAll(received);
+    assertEquals(STUDENTS, server.countRegistrations().join().intValue());
+  }
+
+  @Test
+  @Timeout(60)
+  void acknowledgementsDoNotWaitForTheListener() throws Exception {
+    server.openRegistration(Map.of("rows", 20, "cols", 25)).join();
+    CountDownLatch held = new CountDownLatch(1);
+    Set<String> received = listen(held, SLOW_LISTENER_MILLIS);
+
+    long[] latencies = burst("student-", 202, ARRIVAL_WINDOW);
+
+    // Every post was acknowledged while the listener was still stuck on its first batch
+    assertTrue(received.size() < STUDENTS, "the listener took every registration before the last ack");
+    held.countDown();
+    Arrays.sort(latencies);
+    long p95 = TimeUnit.NANOSECONDS.toMillis(latencies[(int) Math.ceil(STUDENTS * 0.95) - 1]);
+    assertTrue(p95 < SLOW_LISTENER_MILLIS / 2, "p95 ack latency " + p95 + " ms");
+    awaitAll(received);
+  }
+
+  private Set<String> listen(long delayMillis) {
+    return listen(new CountDownLatch(0), delayMillis);
+  }
+
+  /**
+   * Follow the server, waiting for {@code held} to open on the first batch and then
+   * taking {@code delayMillis} over each batch like a busy classroom update; returns the
+   * ids received so far.
+   */
+  private Set<String> listen(CountDownLatch held, long delayMillis) {
+    Set<String> received = ConcurrentHashMap.newKeySet();
+    server.listen(changes -> {
+      for (RegistrationChange change : changes) {
+        if (change.getType() != RegistrationChange.Type.REMOVED) {
+          received.add(change.getDocumentId());
+        }
+      }
+      try {
+        held.await();
+        if (delayMillis > 0) {
+          Thread.sleep(delayMillis);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    return received;
+  }
+
+  private static void awaitAll(Set<String> received) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (received.size() < STUDENTS && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(STUDENTS, received.size(), "registrations that reached the listener");
+  }
+
+  /**
+   * Post one registration per student from its own virtual thread, the arrivals evenly
+   * spread over {@code window}; returns each post's round trip in nanoseconds.
+   */
+  private long[] burst(String idPrefix, int expectedStatus, Duration window) throws Exception {
+    URI uri = URI.create("http://localhost:" + server.getPort() + "/register");
+    long spacing = window.toNanos() / STUDENTS;
+    CountDownLatch go = new CountDownLatch(1);
+    List<Future<Long>> posts = new ArrayList<>(STUDENTS);
+    long[] released = new long[1];
+    for (int i = 0; i < STUDENTS; i++) {
+      String id = idPrefix + i;
+      String body = "{\"studentId\":\"" + id + "\",\"name\":\"Student " + i + "\",\"row\":" + (i / 25)
+          + ",\"col\":" + (i % 25) + ",\"claims\":[]}";
+      HttpRequest request = HttpRequest.newBuilder(uri)
+          .header("Content-Type", "application/json")
+          .POST(HttpRequest.BodyPublishers.ofString(body))
+          .build();
+      long offset = i * spacing;
+      posts.add(threads.submit(() -> {
+        go.await();
+        long wait = released[0] + offset - System.nanoTime();
+        if (wait > 0) {
+          Thread.sleep(Duration.ofNanos(wait));
+        }
+        long started = System.nanoTime();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        long elapsed = System.nanoTime() - started;
+        assertEquals(expectedStatus, response.statusCode(), response.body());
+        return elapsed;
+      }));
+    }
+    released[0] = System.nanoTime();
+    go.countDown();
+    long[] latencies = new long[STUDENTS];
+    for (int i = 0; i < STUDENTS; i++) {
+      latencies[i] = posts.get(i).get();
+    }
+    return latencies;
+  }
+}
@@ -0,0 +1,134 @@
+package org.example.testapp.registration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Imports from an in-memory source: every registration arrives, progress runs from
+ * unknown to complete, and a cancelled import stops without a result.
+ */
+class RegistrationImporterTest {
+  private static final int STUDENTS = 1000;
+  private static final int PAGE_SIZE = 100;
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  void start() {
+    executor = Executors.newFixedThreadPool(2);
+  }
+
+  @AfterEach
+  void stop() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  @Timeout(30)
+  void importsEveryRegistrationAndReportsProgress() throws Exception {
+    InMemoryRegistrationSource source = sourceWith(STUDENTS, 0);
+    List<Double> progress = new CopyOnWriteArrayList<>();
+
+    ImportResult result = new RegistrationImporter(source, executor, PAGE_SIZE)
+        .start(5, 5, progress::add)
+        .getResult()
+        .get(20, TimeUnit.SECONDS);
+
+    assertEquals(STUDENTS, result.getStudents().size());
+    assertEquals(0, result.getSkipped());
+    assertEquals(40, result.getClassroom().getRows());
+    assertEquals(25, result.getClassroom().getCols());
+    assertEquals("closed", source.getSession().get("status"));
+
+    assertEquals(-1.0, progress.get(0), 0.0);
+    assertEquals(1.0, progress.get(progress.size() - 1), 0.0);
+    for (double fraction : progress.subList(1, progress.size())) {
+      assertTrue(fraction > 0 && fraction <= 1, "progress " + fraction);
+    }
+  }
+
+  @Test
+  @Timeout(30)
+  void duplicateRegistrationsAreSkipped() throws Exception {
+    InMemoryRegistrationSource source = sourceWith(10, 0);
+    source.register(registration(3)); // Same student again under a new document id
+
+    ImportResult result = new RegistrationImporter(source, executor, PAGE_SIZE)
+        .start(5, 5, fraction -> {
+        })
+        .getResult()
+        .get(20, TimeUnit.SECONDS);
+
+    assertEquals(10, result.getStudents().size());
+    assertEquals(1, result.getSkipped());
+  }
+
+  @Test
+  @Timeout(30)
+  void cancelStopsTheImport() throws Exception {
+    // Slow pages, so the import is still reading when it is cancelled
+    InMemoryRegistrationSource source = sourceWith(STUDENTS, 50);
+    CountDownLatch firstPage = new CountDownLatch(1);
+    List<Double> progress = new CopyOnWriteArrayList<>();
+
+    RegistrationImporter.ImportTask task = new RegistrationImporter(source, executor, PAGE_SIZE)
+        .start(5, 5, fraction -> {
+          progress.add(fraction);
+          if (fraction > 0) {
+            firstPage.countDown();
+          }
+        });
+    assertTrue(firstPage.await(20, TimeUnit.SECONDS), "no page was ingested");
+    task.cancel();
+
+    assertTrue(task.isCancelled());
+    assertTrue(task.getResult().isCancelled());
+    assertThrows(CancellationException.class, () -> task.getResult().get());
+
+    // Pages already requested may finish, but the import never completes
+    Thread.sleep(500);
+    assertTrue(progress.get(progress.size() - 1) < 1.0, "import ran to completion after cancel");
+  }
+
+  @Test
+  @Timeout(30)
+  void failsWhenTheSourceIsOffline() {
+    InMemoryRegistrationSource source = sourceWith(10, 0);
+    source.setOnline(false);
+
+    ExecutionException error = assertThrows(ExecutionException.class,
+        () -> new RegistrationImporter(source, executor, PAGE_SIZE).start(5, 5, fraction -> {
+        }).getResult().get(20, TimeUnit.SECONDS));
+    assertTrue(error.getCause() instanceof java.io.IOException, String.valueOf(error.getCause()));
+  }
+
+  private static InMemoryRegistrationSource sourceWith(int students, long latencyMillis) {
+    InMemoryRegistrationSource source = new InMemoryRegistrationSource(latencyMillis);
+    for (int i = 0; i < students; i++) {
+      source.register(registration(i));
+    }
+    return source;
+  }
+
+  private static Map<String, Object> registration(int i) {
+    return Map.of("studentId", "student-" + i, "name", "Student " + i, "row", i / 25, "col", i % 25,
+        "claims", new ArrayList<>());
+  }
+}